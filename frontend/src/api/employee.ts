@@ -72,6 +72,15 @@ export const getEmployeeYears = (id: number): Promise<number> => {
   return request.get(`/employ/${id}/years`)
 }
 
+/**
+ * 批量获取员工工龄（年），列表页一次取完，避免逐个请求
+ * @param ids 员工ID列表
+ * @returns 员工ID -> 工龄
+ */
+export const getEmployeeYearsBatch = (ids: number[]): Promise<Record<number, number>> => {
+  return request.get('/employ/years', { params: { ids: ids.join(',') } })
+}
+
 /**
  * 获取各部门员工数量统计
  * @returns 部门统计列表
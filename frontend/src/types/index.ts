@@ -40,6 +40,7 @@ export interface Employee {
   avatar?: string 
   createdAt?: string
   updatedAt?: string
+  tenureYears?: number  // 工龄（年），后端根据入职日期计算
 }
 
 /**
@@ -0,0 +1,53 @@
+package com.example.empmgmt.benchmark;
+
+import com.example.empmgmt.domain.Employee;
+import com.example.empmgmt.domain.User;
+import com.example.empmgmt.dto.vo.EmployeeExportVO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 基准测试用的固定数据
+ */
+final class BenchmarkData {
+
+    private static final String[] DEPARTMENTS = {"研发部", "市场部", "财务部", "人事部", "运营部"};
+    private static final String[] POSITIONS = {"工程师", "经理", "专员", "主管"};
+
+    private BenchmarkData() {
+    }
+
+    static Employee employee(long id) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setName("员工" + id);
+        employee.setGender(id % 2 == 0 ? "男" : "女");
+        employee.setAge(22 + (int) (id % 30));
+        employee.setDepartment(DEPARTMENTS[(int) (id % DEPARTMENTS.length)]);
+        employee.setPosition(POSITIONS[(int) (id % POSITIONS.length)]);
+        employee.setHireDate(LocalDate.of(2015, 1, 1).plusDays(id % 3000));
+        employee.setSalary(BigDecimal.valueOf(8000 + id % 20000));
+        employee.setAvatar("/uploads/avatars/" + id + ".png");
+        employee.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+        employee.setUpdatedAt(LocalDateTime.of(2024, 6, 1, 18, 30));
+        return employee;
+    }
+
+    static EmployeeExportVO exportRow(long id) {
+        Employee e = employee(id);
+        return new EmployeeExportVO(e.getId(), e.getName(), e.getGender(), e.getAge(), e.getDepartment(),
+                e.getPosition(), e.getHireDate(), e.getSalary(), e.getAvatar(), e.getCreatedAt(), e.getUpdatedAt());
+    }
+
+    static User user(long id, String role) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setRole(role);
+        user.setDepartment("研发部");
+        user.setEmployeeId(id);
+        return user;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.empmgmt.benchmark;
+
+import com.example.empmgmt.common.util.CacheKeyUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheKeyUtil：员工 / 用户分页查询每次都要拼一次缓存 key
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    private String name = " 张三 ";
+    private String department = "研发部";
+    private int page = 3;
+
+    @Benchmark
+    public String employeeListKey() {
+        return CacheKeyUtil.buildEmployeeListKey(name, department, page, 20);
+    }
+
+    @Benchmark
+    public String employeeListKeyWithoutFilter() {
+        return CacheKeyUtil.buildEmployeeListKey(null, null, page, 20);
+    }
+
+    @Benchmark
+    public String userListKey() {
+        return CacheKeyUtil.buildUserListKey("admin", "SUPER_ADMIN", page, 20);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.empmgmt.benchmark;
+
+import com.example.empmgmt.domain.Employee;
+import com.example.empmgmt.dto.response.EmployeeResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * EmployeeResponse.from：实体转响应 DTO（含工龄计算）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeMappingBenchmark {
+
+    private Employee employee;
+    private List<Employee> page;
+
+    @Setup
+    public void setUp() {
+        employee = BenchmarkData.employee(42L);
+        page = LongStream.rangeClosed(1, 100).mapToObj(BenchmarkData::employee).toList();
+    }
+
+    @Benchmark
+    public EmployeeResponse fromSingle() {
+        return EmployeeResponse.from(employee);
+    }
+
+    // 一页 100 条
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void fromPage(Blackhole blackhole) {
+        for (Employee e : page) {
+            blackhole.consume(EmployeeResponse.from(e));
+        }
+    }
+}
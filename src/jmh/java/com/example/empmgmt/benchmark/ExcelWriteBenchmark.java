@@ -0,0 +1,62 @@
+package com.example.empmgmt.benchmark;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.example.empmgmt.dto.vo.EmployeeExportVO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * EasyExcel 写员工导出文件
+ *
+ * 同一页 1000 行重复写入直到目标行数，只测写出开销，不受造数据和内存的影响。
+ * 行数多时单次就要数秒，用 SingleShotTime 模式测整份文件的耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ExcelWriteBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private List<EmployeeExportVO> page;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        page = LongStream.rangeClosed(1, PAGE_SIZE).mapToObj(BenchmarkData::exportRow).toList();
+        file = Files.createTempFile("employee-export-", ".xlsx").toFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public long writeRows() {
+        ExcelWriter writer = EasyExcel.write(file, EmployeeExportVO.class).build();
+        try {
+            WriteSheet sheet = EasyExcel.writerSheet("员工信息").build();
+            for (int written = 0; written < rows; written += PAGE_SIZE) {
+                writer.write(written + PAGE_SIZE <= rows ? page : page.subList(0, rows - written), sheet);
+            }
+        } finally {
+            writer.finish();
+        }
+        return file.length();
+    }
+}
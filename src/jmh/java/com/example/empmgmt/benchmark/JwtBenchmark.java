@@ -0,0 +1,51 @@
+package com.example.empmgmt.benchmark;
+
+import com.example.empmgmt.common.util.JwtUtil;
+import com.example.empmgmt.domain.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil：每个请求都会在 JwtAuthFilter 里解析一次 Token，登录 / 刷新时签发
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "benchmark-secret-key-at-least-256-bits-long!!");
+        ReflectionTestUtils.setField(jwtUtil, "accessTtlMs", 1_800_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshTtlMs", 2_592_000_000L);
+        jwtUtil.init();
+        user = BenchmarkData.user(1L, "MANAGER");
+        token = jwtUtil.generateAccessToken(user, "benchmark-device");
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtil.generateAccessToken(user, "benchmark-device");
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public Long parseUserId() {
+        return jwtUtil.parseUserId(token);
+    }
+}
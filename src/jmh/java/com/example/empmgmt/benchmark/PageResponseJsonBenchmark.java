@@ -0,0 +1,55 @@
+package com.example.empmgmt.benchmark;
+
+import com.example.empmgmt.dto.response.EmployeeResponse;
+import com.example.empmgmt.dto.response.PageResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * PageResponse 的 JSON 序列化 / 反序列化：接口响应和 Redis 分页缓存都走这条路径
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageResponseJsonBenchmark {
+
+    private static final TypeReference<PageResponse<EmployeeResponse>> PAGE_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"10", "100"})
+    public int size;
+
+    // 与 Spring Boot 默认 ObjectMapper 配置一致（含 JavaTimeModule）
+    private ObjectMapper objectMapper;
+    private PageResponse<EmployeeResponse> page;
+    private String json;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<EmployeeResponse> records = LongStream.rangeClosed(1, size)
+                .mapToObj(id -> EmployeeResponse.from(BenchmarkData.employee(id)))
+                .toList();
+        page = new PageResponse<>(records, 10_000, 1, size);
+        json = objectMapper.writeValueAsString(page);
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return objectMapper.writeValueAsString(page);
+    }
+
+    @Benchmark
+    public PageResponse<EmployeeResponse> deserialize() throws Exception {
+        return objectMapper.readValue(json, PAGE_TYPE);
+    }
+}
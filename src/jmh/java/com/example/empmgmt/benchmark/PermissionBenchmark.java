@@ -0,0 +1,70 @@
+package com.example.empmgmt.benchmark;
+
+import com.example.empmgmt.domain.User;
+import com.example.empmgmt.repository.EmployeeRepository;
+import com.example.empmgmt.repository.UserRepository;
+import com.example.empmgmt.service.Impl.PermissionServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PermissionAspect 每次调用的权限判断
+ *
+ * 仓库用 JDK 动态代理直接返回内存里的用户，只测判断逻辑本身，不含数据库 / 二级缓存的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionBenchmark {
+
+    @Param({"SUPER_ADMIN", "MANAGER", "EMPLOYEE"})
+    public String role;
+
+    private PermissionServiceImpl permissionService;
+
+    @Setup
+    public void setUp() {
+        User user = BenchmarkData.user(1L, role);
+        UserRepository userRepository = repository(UserRepository.class, Optional.of(user));
+        EmployeeRepository employeeRepository =
+                repository(EmployeeRepository.class, Optional.of(BenchmarkData.employee(1L)));
+        permissionService = new PermissionServiceImpl(userRepository, employeeRepository);
+    }
+
+    @Benchmark
+    public boolean hasPermission() {
+        return permissionService.hasPermission(1L, "employee:read");
+    }
+
+    @Benchmark
+    public boolean hasRole() {
+        return permissionService.hasRole(1L, "MANAGER");
+    }
+
+    @Benchmark
+    public boolean canAccessDepartment() {
+        return permissionService.canAccessDepartment(1L, "研发部");
+    }
+
+    @Benchmark
+    public boolean canAccessEmployee() {
+        return permissionService.canAccessEmployee(1L, 1L);
+    }
+
+    // 只实现 findById 的仓库桩
+    @SuppressWarnings("unchecked")
+    private static <T> T repository(Class<T> type, Optional<?> found) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if ("findById".equals(method.getName())) {
+                return found;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.empmgmt.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.qpid.server.SystemLauncher;
+import org.apache.qpid.server.model.SystemConfig;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import redis.embedded.RedisServer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 压测用的进程内中间件：PostgreSQL、Redis、AMQP 0-9-1 broker
+ *
+ * 作为 JUnit 扩展注册在 SpringExtension 之前：beforeAll 先启动中间件、执行 Flyway 迁移并造数，
+ * Spring 上下文启动时（搜索索引、部门统计等）就能加载到完整数据；afterAll 在上下文关闭之后再停掉中间件
+ */
+@Slf4j
+public class EmbeddedInfrastructure implements BeforeAllCallback, AfterAllCallback {
+
+    private static EmbeddedPostgres postgres;
+    private static RedisServer redis;
+    private static SystemLauncher broker;
+    private static int redisPort;
+    private static int amqpPort;
+    private static LoadTestSeeder.SeedData seedData;
+
+    @Override
+    public void beforeAll(ExtensionContext context) throws Exception {
+        long start = System.currentTimeMillis();
+        postgres = EmbeddedPostgres.builder().start();
+
+        redisPort = freePort();
+        redis = new RedisServer(redisPort);
+        redis.start();
+
+        amqpPort = freePort();
+        broker = startBroker(amqpPort);
+
+        DataSource dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        seedData = new LoadTestSeeder(dataSource).seed(LoadTestConfig.load());
+
+        log.info("压测环境就绪：postgres={}, redis={}, amqp={}，耗时 {} ms",
+                postgres.getPort(), redisPort, amqpPort, System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) throws Exception {
+        if (broker != null) {
+            broker.shutdown();
+        }
+        if (redis != null) {
+            redis.stop();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    /**
+     * 把中间件地址写入 Spring 配置
+     */
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.data.redis.host", () -> "127.0.0.1");
+        registry.add("spring.data.redis.port", () -> redisPort);
+        registry.add("spring.rabbitmq.host", () -> "127.0.0.1");
+        registry.add("spring.rabbitmq.port", () -> amqpPort);
+        registry.add("spring.rabbitmq.virtual-host", () -> "default");
+    }
+
+    static LoadTestSeeder.SeedData seedData() {
+        return Objects.requireNonNull(seedData, "压测环境未启动");
+    }
+
+    private static SystemLauncher startBroker(int port) throws Exception {
+        Path work = Files.createTempDirectory("qpid-loadtest");
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(SystemConfig.TYPE, "Memory");
+        attributes.put(SystemConfig.INITIAL_CONFIGURATION_LOCATION,
+                Objects.requireNonNull(EmbeddedInfrastructure.class.getResource("/loadtest/qpid-config.json")).toExternalForm());
+        attributes.put(SystemConfig.STARTUP_LOGGED_TO_SYSTEM_OUT, false);
+        attributes.put(SystemConfig.CONTEXT, Map.of(
+                "qpid.amqp_port", String.valueOf(port),
+                "qpid.work_dir", work.toString(),
+                // Qpid 不认识 RabbitMQ 的 x-dead-letter-* 参数，忽略即可（压测不涉及死信）
+                "queue.behaviourOnUnknownDeclareArgument", "IGNORE"));
+        SystemLauncher launcher = new SystemLauncher();
+        launcher.startup(attributes);
+        return launcher;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
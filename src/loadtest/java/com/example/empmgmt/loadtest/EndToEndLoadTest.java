@@ -0,0 +1,109 @@
+package com.example.empmgmt.loadtest;
+
+import com.example.empmgmt.dto.request.OperationStatsQueryRequest;
+import com.example.empmgmt.dto.response.OperationStatsResponse;
+import com.example.empmgmt.dto.response.QueryBudgetViolationResponse;
+import com.example.empmgmt.service.OperationStatsService;
+import com.example.empmgmt.service.QueryStatsService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 端到端压测：真实启动应用（随机端口），通过 HTTP 驱动登录、刷新、列表、详情、修改、异步导出的混合负载
+ *
+ * 运行：mvn -Ploadtest test [-Dloadtest.employees=100000 -Dloadtest.virtual-users=32 -Dloadtest.duration-seconds=60]
+ */
+@Slf4j
+@ExtendWith(EmbeddedInfrastructure.class)   // 必须在 SpringExtension 之前注册：先起中间件，上下文关闭后再停
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee-import.dir=target/loadtest/imports",
+        "logging.level.com.example.empmgmt=WARN",
+        // 压测客户端充当网关，按 X-Forwarded-For 模拟多个客户端 IP
+        "server.tomcat.remoteip.internal-proxies=127\\\\.0\\\\.0\\\\.1",
+        // Server-Timing 默认关闭，压测要校验分层耗时
+        "request-trace.server-timing=true"
+})
+@AutoConfigureObservability(tracing = false)   // 测试默认不导出指标，这里要抓 /actuator/prometheus
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class EndToEndLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private QueryStatsService queryStatsService;
+
+    @Autowired
+    private OperationStatsService operationStatsService;
+
+    @DynamicPropertySource
+    static void infrastructure(DynamicPropertyRegistry registry) {
+        EmbeddedInfrastructure.registerProperties(registry);
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        LoadReport report = new LoadGenerator(config, "http://127.0.0.1:" + port,
+                EmbeddedInfrastructure.seedData()).run();
+
+        Path dir = report.write(Path.of("target", "loadtest"));
+        log.warn("压测结果（详细分布见 {}）:\n{}", dir.toAbsolutePath(), report.summary());
+
+        assertTrue(get(port, "/api/employ").headers().firstValue("Server-Timing").isPresent(), "响应缺少 Server-Timing 头");
+        assertNotEquals(200, get(port, "/actuator/prometheus").statusCode(), "业务端口不应暴露 Prometheus 端点");
+
+        // 顺手保存一份服务端指标，和客户端看到的延迟对照
+        HttpResponse<String> scrape = get(managementPort, "/actuator/prometheus");
+        assertEquals(200, scrape.statusCode(), "管理端口抓取 Prometheus 失败");
+        String metrics = scrape.body();
+        Files.writeString(dir.resolve("prometheus.txt"), metrics);
+        assertTrue(metrics.contains("cache_gets_total"), "Prometheus 端点缺少缓存指标");
+
+        double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+        assertTrue(report.total() > 0, "没有完成任何请求");
+        assertTrue(report.errors() <= report.total() * maxErrorRate,
+                "错误率超过 " + maxErrorRate + "：" + report.errors() + " / " + report.total());
+
+        // 每个接口的 SQL 条数预算见 application.yml 的 query-inspector.budgets
+        List<QueryBudgetViolationResponse> violations = queryStatsService.budgetViolations();
+        assertTrue(violations.isEmpty(), "SQL 条数超出预算：" + violations);
+
+        // 服务端按分钟汇总的耗时分位数（不等整点，先手动汇总一次）
+        operationStatsService.flush();
+        OperationStatsQueryRequest statsRequest = new OperationStatsQueryRequest();
+        statsRequest.setMethod("EmployeeController.getById");
+        List<OperationStatsResponse> stats = operationStatsService.query(statsRequest);
+        log.warn("服务端耗时统计: {}", stats);
+        assertTrue(stats.stream().anyMatch(s -> s.count() > 0), "没有查到接口耗时统计");
+    }
+
+    private static HttpResponse<String> get(int port, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path)).GET().build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.empmgmt.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个接口的统计：成功请求的延迟直方图（微秒）和各类结果计数
+ */
+class EndpointStats {
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    enum Outcome { OK, REJECTED, ERROR }
+
+    private final Histogram latency = new ConcurrentHistogram(1, HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    void record(Outcome outcome, long latencyMicros) {
+        switch (outcome) {
+            case OK -> {
+                ok.increment();
+                latency.recordValue(Math.max(1, Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS)));
+            }
+            case REJECTED -> rejected.increment();
+            case ERROR -> errors.increment();
+        }
+    }
+
+    Histogram latency() {
+        return latency;
+    }
+
+    long ok() {
+        return ok.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long total() {
+        return ok() + rejected() + errors();
+    }
+}
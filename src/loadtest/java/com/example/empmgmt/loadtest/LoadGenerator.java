@@ -0,0 +1,245 @@
+package com.example.empmgmt.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 压测负载生成器
+ *
+ * 每个虚拟用户一个线程，先登录，然后按权重随机发请求直到结束。
+ * 限速模式（ratePerUser > 0）下按固定节奏发请求，延迟从“计划发送时间”算起，
+ * 服务端变慢导致的排队时间也计入延迟，避免协调遗漏（coordinated omission）低估尾延迟；
+ * 不限速时是闭环压测，测的是最大吞吐。
+ */
+@Slf4j
+class LoadGenerator {
+
+    private static final String[] DEPARTMENTS = {"研发部", "市场部", "财务部", "人事部", "运营部", "销售部"};
+    private static final String[] POSITIONS = {"工程师", "经理", "专员", "主管"};
+    private static final int MAX_LOGGED_ERRORS = 20;
+
+    private final LoadTestConfig config;
+    private final String baseUrl;
+    private final LoadTestSeeder.SeedData seed;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] weighted;
+    private final AtomicInteger loggedErrors = new AtomicInteger();
+
+    LoadGenerator(LoadTestConfig config, String baseUrl, LoadTestSeeder.SeedData seed) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.seed = seed;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+        // 按权重展开成数组，随机取下标即可
+        this.weighted = config.mix().entrySet().stream()
+                .flatMap(e -> Stream.generate(e::getKey).limit(Math.max(0, e.getValue())))
+                .toArray(Operation[]::new);
+        if (weighted.length == 0) {
+            throw new IllegalArgumentException("loadtest.mix 至少要有一个权重大于 0 的请求类型");
+        }
+    }
+
+    LoadReport run() throws InterruptedException {
+        long warmupEnd = System.nanoTime() + config.warmup().toNanos();
+        long end = warmupEnd + config.duration().toNanos();
+
+        log.info("开始压测：{} 个虚拟用户，预热 {} s，压测 {} s，请求权重 {}",
+                config.virtualUsers(), config.warmup().toSeconds(), config.duration().toSeconds(), config.mix());
+        ExecutorService pool = Executors.newFixedThreadPool(config.virtualUsers());
+        for (int i = 0; i < config.virtualUsers(); i++) {
+            VirtualUser user = new VirtualUser(seed.usernames().get(i % seed.usernames().size()));
+            pool.submit(() -> user.run(warmupEnd, end));
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(config.warmup().plus(config.duration()).toSeconds() + 60, TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+        }
+        return new LoadReport(config, stats);
+    }
+
+    /**
+     * 虚拟用户：持有自己的 AT / RT，模拟一个客户端
+     */
+    private class VirtualUser {
+
+        private final String username;
+        private final String ip = randomIp();
+        private String accessToken;
+        private String refreshToken;
+
+        VirtualUser(String username) {
+            this.username = username;
+        }
+
+        void run(long warmupEnd, long end) {
+            try {
+                if (execute(Operation.LOGIN) != EndpointStats.Outcome.OK) {
+                    log.warn("虚拟用户 {} 登录失败，退出", username);
+                    return;
+                }
+                long interval = config.ratePerUser() > 0 ? (long) (1_000_000_000L / config.ratePerUser()) : 0;
+                long intended = System.nanoTime();
+                while (intended < end && !Thread.currentThread().isInterrupted()) {
+                    if (interval > 0) {
+                        long wait = intended - System.nanoTime();
+                        if (wait > 0) {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                    } else {
+                        intended = System.nanoTime();
+                    }
+                    Operation operation = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+                    EndpointStats.Outcome outcome = execute(operation);
+                    long latencyMicros = (System.nanoTime() - intended) / 1000;
+                    if (intended >= warmupEnd) {
+                        stats.get(operation).record(outcome, latencyMicros);
+                    }
+                    intended += interval;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("虚拟用户 {} 异常退出", username, e);
+            }
+        }
+
+        private EndpointStats.Outcome execute(Operation operation) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            HttpRequest.Builder request;
+            switch (operation) {
+                case LOGIN -> request = post("/api/auth/login",
+                        Map.of("username", username, "password", LoadTestSeeder.PASSWORD))
+                        // 每次登录模拟一个新客户端，避免全部挤在同一个 IP 的登录限流上
+                        .setHeader("X-Forwarded-For", randomIp());
+                case REFRESH -> {
+                    if (refreshToken == null) {
+                        return execute(Operation.LOGIN);
+                    }
+                    request = HttpRequest.newBuilder(uri("/api/auth/refresh"))
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .header("Cookie", "rt=" + refreshToken);
+                }
+                case LIST -> {
+                    String query = "?page=" + (1 + random.nextInt(50)) + "&size=10";
+                    if (random.nextInt(10) < 3) {
+                        query += "&department=" + encode(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+                    }
+                    request = authorized(HttpRequest.newBuilder(uri("/api/employ" + query)).GET());
+                }
+                case GET_BY_ID -> request = authorized(HttpRequest.newBuilder(uri("/api/employ/" + randomEmployeeId())).GET());
+                case UPDATE -> request = authorized(put("/api/employ/" + randomEmployeeId(), Map.of(
+                        "salary", 6000 + random.nextInt(40000),
+                        "position", POSITIONS[random.nextInt(POSITIONS.length)])));
+                case EXPORT_ASYNC -> request = authorized(HttpRequest.newBuilder(uri("/api/employ/export/async?department="
+                        + encode(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)])))
+                        .POST(HttpRequest.BodyPublishers.noBody()));
+                default -> throw new IllegalStateException("未知请求类型: " + operation);
+            }
+            if (operation != Operation.LOGIN) {
+                request.setHeader("X-Forwarded-For", ip);
+            }
+
+            try {
+                HttpResponse<String> response = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 429) {
+                    return EndpointStats.Outcome.REJECTED;
+                }
+                JsonNode body = response.statusCode() / 100 == 2 ? objectMapper.readTree(response.body()) : null;
+                if (body == null || body.path("code").asInt() != 200) {
+                    logError(operation, response.statusCode() + " " + response.body());
+                    return EndpointStats.Outcome.ERROR;
+                }
+                if (operation == Operation.LOGIN || operation == Operation.REFRESH) {
+                    accessToken = body.path("data").path("token").asText();
+                    response.headers().allValues("Set-Cookie").stream()
+                            .filter(cookie -> cookie.startsWith("rt="))
+                            .findFirst()
+                            .ifPresent(cookie -> refreshToken = cookie.substring(3, cookie.indexOf(';')));
+                }
+                return EndpointStats.Outcome.OK;
+            } catch (IOException e) {
+                logError(operation, e.toString());
+                return EndpointStats.Outcome.ERROR;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return EndpointStats.Outcome.ERROR;
+            }
+        }
+
+        private HttpRequest.Builder authorized(HttpRequest.Builder builder) {
+            return builder.header("Authorization", "Bearer " + accessToken);
+        }
+
+        private long randomEmployeeId() {
+            long[] ids = seed.employeeIds();
+            return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        }
+    }
+
+    private HttpRequest.Builder post(String path, Object body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(body)));
+    }
+
+    private HttpRequest.Builder put(String path, Object body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(toJson(body)));
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 只打印前几条错误，避免刷屏
+    private void logError(Operation operation, String detail) {
+        if (loggedErrors.incrementAndGet() <= MAX_LOGGED_ERRORS) {
+            log.warn("{} 请求失败: {}", operation.endpoint(), detail.length() > 300 ? detail.substring(0, 300) : detail);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String randomIp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + (1 + random.nextInt(254));
+    }
+}
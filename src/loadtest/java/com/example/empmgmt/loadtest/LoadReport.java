@@ -0,0 +1,87 @@
+package com.example.empmgmt.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * 压测报告：每个接口的吞吐和延迟分位数，外加每个接口的完整 HdrHistogram 分布（.hgrm）
+ */
+class LoadReport {
+
+    private static final DateTimeFormatter DIR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final LoadTestConfig config;
+    private final Map<Operation, EndpointStats> stats;
+
+    LoadReport(LoadTestConfig config, Map<Operation, EndpointStats> stats) {
+        this.config = config;
+        this.stats = stats;
+    }
+
+    long total() {
+        return stats.values().stream().mapToLong(EndpointStats::total).sum();
+    }
+
+    long errors() {
+        return stats.values().stream().mapToLong(EndpointStats::errors).sum();
+    }
+
+    /**
+     * 汇总表，延迟单位毫秒
+     */
+    String summary() {
+        double seconds = config.duration().toMillis() / 1000.0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("虚拟用户 %d，压测 %d s，每用户限速 %s%n", config.virtualUsers(),
+                config.duration().toSeconds(), config.ratePerUser() > 0 ? config.ratePerUser() + " req/s" : "不限（闭环）"));
+        sb.append(String.format("%-32s %9s %9s %7s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "total", "ok", "429", "error", "ok/s", "p50", "p90", "p99", "p99.9", "max"));
+        long total = 0;
+        long ok = 0;
+        for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats s = entry.getValue();
+            if (s.total() == 0) {
+                continue;
+            }
+            Histogram h = s.latency();
+            sb.append(String.format("%-32s %9d %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().endpoint(), s.total(), s.ok(), s.rejected(), s.errors(), s.ok() / seconds,
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)),
+                    ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue())));
+            total += s.total();
+            ok += s.ok();
+        }
+        sb.append(String.format("%-32s %9d %9d %7s %7d %9.1f%n", "TOTAL", total, ok, "", errors(), ok / seconds));
+        return sb.toString();
+    }
+
+    /**
+     * 写到 target/loadtest/<时间>/：summary.txt 和每个接口的 .hgrm（可用 HdrHistogram Plotter 画图对比）
+     */
+    Path write(Path baseDir) throws IOException {
+        Path dir = baseDir.resolve(LocalDateTime.now().format(DIR_FORMATTER));
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("summary.txt"), summary());
+        for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+            if (entry.getValue().ok() == 0) {
+                continue;
+            }
+            try (PrintStream out = new PrintStream(dir.resolve(entry.getKey().name() + ".hgrm").toFile(), "UTF-8")) {
+                // 直方图以微秒记录，输出按毫秒缩放
+                entry.getValue().latency().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        return dir;
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.empmgmt.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 压测参数，全部从系统属性读取（mvn -Ploadtest test -Dloadtest.xxx=...）
+ *
+ * @param employees     预置员工数
+ * @param users         预置登录账号数，虚拟用户轮流使用
+ * @param virtualUsers  并发虚拟用户数
+ * @param duration      正式压测时长
+ * @param warmup        预热时长，预热期间的请求不计入统计
+ * @param ratePerUser   每个虚拟用户每秒请求数；0 表示不限速（闭环压测）
+ * @param mix           各类请求的权重
+ */
+record LoadTestConfig(int employees, int users, int virtualUsers, Duration duration, Duration warmup,
+                      double ratePerUser, Map<Operation, Integer> mix) {
+
+    private static final String DEFAULT_MIX = "LOGIN:5,REFRESH:5,LIST:35,GET_BY_ID:35,UPDATE:15,EXPORT_ASYNC:5";
+
+    static LoadTestConfig load() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : System.getProperty("loadtest.mix", DEFAULT_MIX).split(",")) {
+            String[] pair = entry.trim().split(":");
+            mix.put(Operation.valueOf(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.employees", 100_000),
+                Integer.getInteger("loadtest.users", 50),
+                Integer.getInteger("loadtest.virtual-users", 32),
+                Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 60L)),
+                Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10L)),
+                Double.parseDouble(System.getProperty("loadtest.rate-per-user", "0")),
+                mix);
+    }
+}
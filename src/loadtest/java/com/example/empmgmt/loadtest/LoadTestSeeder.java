@@ -0,0 +1,67 @@
+package com.example.empmgmt.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测造数：员工用 generate_series 一条 SQL 生成，登录账号共用一个密码（只做一次 BCrypt）
+ */
+@Slf4j
+class LoadTestSeeder {
+
+    static final String PASSWORD = "loadtest123";
+
+    private static final String SEED_EMPLOYEES = """
+            INSERT INTO employee (name, gender, age, department, position, hire_date, salary,
+                                  created_at, updated_at, deleted)
+            SELECT '员工' || g,
+                   CASE WHEN g % 2 = 0 THEN '男' ELSE '女' END,
+                   22 + g % 35,
+                   (ARRAY['研发部', '市场部', '财务部', '人事部', '运营部', '销售部'])[1 + g % 6],
+                   (ARRAY['工程师', '经理', '专员', '主管'])[1 + g % 4],
+                   DATE '2010-01-01' + (g % 5000),
+                   6000 + (g * 37) % 40000,
+                   now(), now(), false
+            FROM generate_series(1, ?) AS g
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    LoadTestSeeder(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    SeedData seed(LoadTestConfig config) {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update(SEED_EMPLOYEES, config.employees());
+
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        List<String> usernames = new ArrayList<>(config.users());
+        List<Object[]> rows = new ArrayList<>(config.users());
+        for (int i = 1; i <= config.users(); i++) {
+            String username = "loadtest" + i;
+            usernames.add(username);
+            rows.add(new Object[]{username, hash, username + "@example.com"});
+        }
+        // 超级管理员：各接口的权限检查都会走到，但不会因部门限制被拒
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO user_account (username, password, email, role, department, enabled, created_at, updated_at)
+                VALUES (?, ?, ?, 'SUPER_ADMIN', '研发部', true, now(), now())
+                """, rows);
+
+        long[] employeeIds = jdbcTemplate.queryForList("SELECT id FROM employee WHERE deleted = false", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        jdbcTemplate.execute("ANALYZE");
+        log.info("压测造数完成：员工 {} 人，账号 {} 个，耗时 {} ms",
+                employeeIds.length, usernames.size(), System.currentTimeMillis() - start);
+        return new SeedData(usernames, employeeIds);
+    }
+
+    record SeedData(List<String> usernames, long[] employeeIds) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.empmgmt.loadtest;
+
+/**
+ * 压测中的请求类型，一种类型对应一个接口
+ */
+enum Operation {
+
+    LOGIN("POST /api/auth/login"),
+    REFRESH("POST /api/auth/refresh"),
+    LIST("GET /api/employ"),
+    GET_BY_ID("GET /api/employ/{id}"),
+    UPDATE("PUT /api/employ/{id}"),
+    EXPORT_ASYNC("POST /api/employ/export/async");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+}
@@ -2,7 +2,9 @@ package com.example.empmgmt.common.Exception;
 
 import com.example.empmgmt.dto.response.Result;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -23,6 +25,19 @@ public class GlobalExceptionHandler {
         // 业务异常直接返回用户提示，不打印堆栈
         return Result.error(e.getCode(), e.getMessage());
     }
+
+    /**
+     * 处理限流异常
+     */
+    @ExceptionHandler(RateLimitException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public Result<Void> handleRateLimit(RateLimitException e, HttpServletResponse response) {
+        // 告诉客户端多久后可以重试（秒，向上取整）
+        if (e.getRetryAfterMs() > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((e.getRetryAfterMs() + 999) / 1000));
+        }
+        return Result.error(e.getCode(), e.getMessage());
+    }
     @ExceptionHandler(Exception.class)
     public Result<Void> handleException(Exception e) {
         log.error("系统异常", e);
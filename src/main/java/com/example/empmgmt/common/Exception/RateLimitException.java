@@ -0,0 +1,25 @@
+package com.example.empmgmt.common.Exception;
+
+/**
+ * 限流异常
+ */
+public class RateLimitException extends BusinessException {
+
+    /**
+     * 建议客户端等待的毫秒数，小于等于 0 表示未知
+     */
+    private final long retryAfterMs;
+
+    public RateLimitException(String message) {
+        this(message, 0);
+    }
+
+    public RateLimitException(String message, long retryAfterMs) {
+        super(429, message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -44,4 +44,15 @@ public @interface OperationLog {
      */
     boolean saveResult() default false;
 
+    /**
+     * 采样率（0 ~ 1），只对 QUERY 类操作生效；写操作和执行失败的调用总是记录。
+     * 运行时可通过 /api/logs/policies 覆盖
+     */
+    double sampleRate() default 1.0;
+
+    /**
+     * 没被采样的调用是否聚合成计数：同一用户、同样参数的重复调用合并成一条，定期写库
+     */
+    boolean aggregate() default false;
+
 }
@@ -0,0 +1,74 @@
+package com.example.empmgmt.common.annotation;
+
+import com.example.empmgmt.common.enums.RateLimitDimension;
+import com.example.empmgmt.common.enums.RateLimitStrategy;
+
+import java.lang.annotation.*;
+
+/**
+ * 限流注解，可以在同一个方法上叠加多个（按声明顺序依次检查）
+ * 使用示例：
+ * <pre>
+ * &#64;RateLimited(key = "login", dimension = RateLimitDimension.IP, capacity = 5, rate = 0.1)
+ * &#64;RateLimited(key = "export", strategy = RateLimitStrategy.CONCURRENCY, dimension = RateLimitDimension.GLOBAL, capacity = 4)
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Repeatable(RateLimitedGroup.class)
+public @interface RateLimited {
+
+    /**
+     * 业务 key，最终 Redis key 为 rate:{key}:{strategy}:{dimension}:{id}
+     */
+    String key();
+
+    /**
+     * 限流策略
+     */
+    RateLimitStrategy strategy() default RateLimitStrategy.TOKEN_BUCKET;
+
+    /**
+     * 限流维度
+     */
+    RateLimitDimension dimension() default RateLimitDimension.IP;
+
+    /**
+     * 令牌桶：桶容量（允许的瞬间突发量）
+     * 滑动窗口：窗口内允许的最大请求数
+     * 并发：同时执行的最大数量
+     */
+    int capacity();
+
+    /**
+     * 令牌桶每秒填充速率（可以是小数），仅 TOKEN_BUCKET 使用且必须大于 0，启动时校验
+     */
+    double rate() default 0;
+
+    /**
+     * 滑动窗口长度（毫秒），仅 SLIDING_WINDOW_* 使用
+     */
+    long windowMs() default 1000;
+
+    /**
+     * 并发许可的租约时长（毫秒），仅 CONCURRENCY 使用
+     * 正常情况方法结束即释放；节点宕机没来得及释放时，租约到期自动回收，应大于方法最长执行时间
+     */
+    long leaseMs() default 300_000;
+
+    /**
+     * 每次请求消耗的令牌数，重操作可以设大一些（CONCURRENCY 固定占 1 个许可）
+     */
+    int permits() default 1;
+
+    /**
+     * 每次从 Redis 预领的令牌数，0 表示按容量自动计算，1 表示不走本地桶，仅 TOKEN_BUCKET 使用
+     */
+    int leaseSize() default 0;
+
+    /**
+     * 被限流时的提示信息
+     */
+    String message() default "请求过于频繁，请稍后再试";
+}
@@ -0,0 +1,14 @@
+package com.example.empmgmt.common.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * @RateLimited 的容器注解，一个方法上写多个 @RateLimited 时由编译器自动生成，无需手写
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimitedGroup {
+
+    RateLimited[] value();
+}
@@ -3,6 +3,8 @@ package com.example.empmgmt.common.aspect;
 import com.example.empmgmt.domain.OperationLog;
 import com.example.empmgmt.repository.OperationLogRepository;
 import com.example.empmgmt.common.util.SecurityUtil;
+import com.example.empmgmt.service.OperationLogPolicyService;
+import com.example.empmgmt.service.OperationStatsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
@@ -19,7 +21,8 @@ import java.time.LocalDateTime;
 
 /**
  * 操作日志切面
- * 拦截所有带有 @OperationLog 注解的方法，自动记录操作日志
+ * 拦截所有带有 @OperationLog 注解的方法，自动记录操作日志；
+ * 是否写库由 OperationLogPolicyService 决定（QUERY 类操作可以采样、聚合）
  */
 @Aspect
 @Component
@@ -28,11 +31,17 @@ public class OperationLogAspect {
 
     private final OperationLogRepository operationLogRepository;
     private final ObjectMapper objectMapper;
+    private final OperationLogPolicyService policyService;
+    private final OperationStatsService statsService;
 
     public OperationLogAspect(OperationLogRepository operationLogRepository,
-                              ObjectMapper objectMapper) {
+                              ObjectMapper objectMapper,
+                              OperationLogPolicyService policyService,
+                              OperationStatsService statsService) {
         this.operationLogRepository = operationLogRepository;
         this.objectMapper = objectMapper;
+        this.policyService = policyService;
+        this.statsService = statsService;
     }
 
     /**
@@ -109,8 +118,13 @@ public class OperationLogAspect {
             operationLog.setExecutionTime(endTime - startTime);
             operationLog.setCreatedAt(LocalDateTime.now());
             
-            // 7. 异步保存日志（避免影响业务性能）
-            saveLogAsync(operationLog);
+            // 7. 耗时计入分钟统计（每次调用都记，不受下面的采样影响）
+            statsService.record(method, operationLog);
+
+            // 8. 按策略保存：写操作、失败调用总是写库，QUERY 类可能被采样掉或并入聚合计数
+            if (policyService.decide(method, operationLog) == OperationLogPolicyService.Decision.PERSIST) {
+                saveLogAsync(operationLog);
+            }
         }
 
         return result;
@@ -3,13 +3,17 @@ package com.example.empmgmt.common.aspect;
 import com.example.empmgmt.common.Exception.PermissionDeniedException;
 import com.example.empmgmt.common.annotation.RequiresPermission;
 import com.example.empmgmt.common.annotation.RequiresRole;
+import com.example.empmgmt.common.trace.RequestTrace;
 import com.example.empmgmt.common.util.SecurityUtil;
 import com.example.empmgmt.service.PermissionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
@@ -18,18 +22,24 @@ import java.lang.reflect.Method;
 /**
  * 权限切面
  * 用于处理权限检查逻辑
+ * 顺序排在限流切面之前：没有权限的请求直接拒绝，不消耗限流配额
  */
 
 @Aspect
 @Slf4j
 @Component
+@Order(PermissionAspect.ORDER)
 public class PermissionAspect {
 
+    public static final int ORDER = 100;
+
 
     private final PermissionService permissionService;
+    private final MeterRegistry meterRegistry;
 
-    public PermissionAspect(PermissionService permissionService) {
+    public PermissionAspect(PermissionService permissionService, MeterRegistry meterRegistry) {
         this.permissionService = permissionService;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -37,6 +47,38 @@ public class PermissionAspect {
      */
     @Before("@annotation(com.example.empmgmt.common.annotation.RequiresPermission)")
     public void checkPermission(JoinPoint joinPoint){
+        timed("permission", () -> doCheckPermission(joinPoint));
+    }
+
+    /**
+     * 检查角色注解
+     */
+    @Before("@annotation(com.example.empmgmt.common.annotation.RequiresRole)")
+    public void checkRole(JoinPoint joinPoint) {
+        timed("role", () -> doCheckRole(joinPoint));
+    }
+
+    /**
+     * 记录一次权限校验的耗时，按校验类型和结果（granted / denied）打标签
+     */
+    private void timed(String type, Runnable check) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        RequestTrace.enter(RequestTrace.Span.PERMISSION);
+        String result = "denied";
+        try {
+            check.run();
+            result = "granted";
+        } finally {
+            RequestTrace.exit(RequestTrace.Span.PERMISSION);
+            sample.stop(Timer.builder("permission.check")
+                    .description("权限校验耗时")
+                    .tag("type", type)
+                    .tag("result", result)
+                    .register(meterRegistry));
+        }
+    }
+
+    private void doCheckPermission(JoinPoint joinPoint) {
         Long userId = SecurityUtil.getCurrentUserId();
         // 添加调试日志
         log.debug("当前用户ID: {}", userId);
@@ -69,11 +111,7 @@ public class PermissionAspect {
         }
     }
 
-    /**
-     * 检查角色注解
-     */
-    @Before("@annotation(com.example.empmgmt.common.annotation.RequiresRole)")
-    public void checkRole(JoinPoint joinPoint) {
+    private void doCheckRole(JoinPoint joinPoint) {
         Long userId = SecurityUtil.getCurrentUserId();
 
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
@@ -0,0 +1,139 @@
+package com.example.empmgmt.common.aspect;
+
+import com.example.empmgmt.common.Exception.RateLimitException;
+import com.example.empmgmt.common.annotation.RateLimited;
+import com.example.empmgmt.common.util.IpUtil;
+import com.example.empmgmt.common.util.SecurityUtil;
+import com.example.empmgmt.service.Impl.HybridRateLimiter;
+import com.example.empmgmt.service.Impl.RateLimitService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+
+/**
+ * 限流切面
+ * 拦截所有带有 @RateLimited 注解的方法，按声明顺序逐个检查，任意一个不通过就直接拒绝；
+ * 并发许可（CONCURRENCY）在方法执行完后释放，中途被拒绝时已拿到的许可也会释放
+ * 在权限切面之后执行；注解参数在启动时由 RateLimitedValidator 校验
+ */
+@Aspect
+@Slf4j
+@Component
+@Order(PermissionAspect.ORDER + 10)
+public class RateLimitAspect {
+
+    private final HybridRateLimiter hybridRateLimiter;
+    private final RateLimitService rateLimitService;
+
+    public RateLimitAspect(HybridRateLimiter hybridRateLimiter, RateLimitService rateLimitService) {
+        this.hybridRateLimiter = hybridRateLimiter;
+        this.rateLimitService = rateLimitService;
+    }
+
+    @Around("@annotation(com.example.empmgmt.common.annotation.RateLimited)"
+            + " || @annotation(com.example.empmgmt.common.annotation.RateLimitedGroup)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        RateLimited[] annotations = signature.getMethod().getAnnotationsByType(RateLimited.class);
+
+        Deque<HeldPermit> held = new ArrayDeque<>();
+        try {
+            for (RateLimited annotation : annotations) {
+                String keyPrefix = "rate:" + annotation.key() + ":" + annotation.strategy().getKeySegment()
+                        + ":" + annotation.dimension().name().toLowerCase() + ":";
+                String id = resolveId(annotation);
+                String permitId = null;
+
+                RateLimitService.Decision decision;
+                switch (annotation.strategy()) {
+                    case SLIDING_WINDOW_LOG:
+                        decision = rateLimitService.trySlidingWindowLog(
+                                keyPrefix, id, annotation.capacity(), annotation.windowMs(), annotation.permits());
+                        break;
+                    case SLIDING_WINDOW_COUNTER:
+                        decision = rateLimitService.trySlidingWindowCounter(
+                                keyPrefix, id, annotation.capacity(), annotation.windowMs(), annotation.permits());
+                        break;
+                    case CONCURRENCY:
+                        permitId = UUID.randomUUID().toString();
+                        decision = rateLimitService.acquireSemaphore(
+                                keyPrefix, id, annotation.capacity(), annotation.leaseMs(), permitId);
+                        break;
+                    case TOKEN_BUCKET:
+                    default:
+                        decision = hybridRateLimiter.tryAcquire(keyPrefix, id, annotation.capacity(),
+                                annotation.rate(), annotation.permits(), annotation.leaseSize());
+                        break;
+                }
+
+                if (!decision.allowed()) {
+                    log.warn("触发限流: key={}, strategy={}, id={}, retryAfterMs={}",
+                            annotation.key(), annotation.strategy(), id, decision.retryAfterMs());
+                    throw new RateLimitException(annotation.message(), decision.retryAfterMs());
+                }
+                if (permitId != null) {
+                    held.push(new HeldPermit(keyPrefix, id, permitId));
+                }
+            }
+            return joinPoint.proceed();
+        } finally {
+            releaseAll(held);
+        }
+    }
+
+    private void releaseAll(Deque<HeldPermit> held) {
+        while (!held.isEmpty()) {
+            HeldPermit permit = held.pop();
+            try {
+                rateLimitService.releaseSemaphore(permit.keyPrefix(), permit.id(), permit.permitId());
+            } catch (Exception e) {
+                // 释放失败不影响业务结果，租约到期后 Redis 会自动回收
+                log.error("释放并发许可失败: key={}{}", permit.keyPrefix(), permit.id(), e);
+            }
+        }
+    }
+
+    /**
+     * 根据限流维度取标识：IP / 用户ID / 全局
+     */
+    private String resolveId(RateLimited annotation) {
+        switch (annotation.dimension()) {
+            case USER:
+                Long userId = SecurityUtil.getCurrentUserId();
+                if (userId != null) {
+                    return String.valueOf(userId);
+                }
+                // 未登录时退化为按 IP 限流
+                return resolveIp();
+            case GLOBAL:
+                return "all";
+            case IP:
+            default:
+                return resolveIp();
+        }
+    }
+
+    private String resolveIp() {
+        ServletRequestAttributes attributes =
+                (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return "unknown";
+        }
+        HttpServletRequest request = attributes.getRequest();
+        return IpUtil.getClientIp(request);
+    }
+
+    private record HeldPermit(String keyPrefix, String id, String permitId) {
+    }
+}
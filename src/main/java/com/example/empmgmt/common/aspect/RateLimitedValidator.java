@@ -0,0 +1,76 @@
+package com.example.empmgmt.common.aspect;
+
+import com.example.empmgmt.common.annotation.RateLimited;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * 启动时校验 @RateLimited 的参数
+ *
+ * 参数写错（例如令牌桶忘了写 rate，默认 0）在运行时才会表现为脚本里除以 0 或永远放行 / 拒绝，
+ * 这里在 Bean 创建时逐个检查，不合法直接让启动失败。
+ */
+@Component
+public class RateLimitedValidator implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        Class<?> type = ClassUtils.getUserClass(bean);
+        ReflectionUtils.doWithMethods(type, method -> {
+            for (RateLimited annotation : method.getAnnotationsByType(RateLimited.class)) {
+                String error = validate(annotation);
+                if (error != null) {
+                    throw new BeanInitializationException("@RateLimited(key = \"" + annotation.key() + "\") 配置错误: "
+                            + error + "，位置 " + type.getName() + "." + method.getName());
+                }
+            }
+        }, RateLimitedValidator::annotated);
+        return bean;
+    }
+
+    private static boolean annotated(Method method) {
+        return method.getAnnotationsByType(RateLimited.class).length > 0;
+    }
+
+    /**
+     * @return 错误描述，合法时返回 null
+     */
+    static String validate(RateLimited annotation) {
+        if (annotation.capacity() <= 0) {
+            return "capacity 必须大于 0";
+        }
+        if (annotation.permits() <= 0) {
+            return "permits 必须大于 0";
+        }
+        switch (annotation.strategy()) {
+            case TOKEN_BUCKET:
+                if (!(annotation.rate() > 0) || Double.isInfinite(annotation.rate())) {
+                    return "令牌桶的 rate 必须大于 0";
+                }
+                if (annotation.permits() > annotation.capacity()) {
+                    return "令牌桶的 permits 不能超过 capacity，否则永远拿不到";
+                }
+                if (annotation.leaseSize() < 0) {
+                    return "leaseSize 不能小于 0";
+                }
+                break;
+            case SLIDING_WINDOW_LOG:
+            case SLIDING_WINDOW_COUNTER:
+                if (annotation.windowMs() <= 0) {
+                    return "滑动窗口的 windowMs 必须大于 0";
+                }
+                break;
+            case CONCURRENCY:
+                if (annotation.leaseMs() <= 0) {
+                    return "并发许可的 leaseMs 必须大于 0";
+                }
+                break;
+        }
+        return null;
+    }
+}
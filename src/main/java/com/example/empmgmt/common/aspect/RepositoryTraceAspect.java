@@ -0,0 +1,49 @@
+package com.example.empmgmt.common.aspect;
+
+import com.example.empmgmt.common.trace.RequestTrace;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 仓库调用计时切面
+ * 所有 Spring Data 仓库方法都计入当前请求的 db span（包含 Hibernate 映射和 JDBC 执行时间），
+ * 同时记下方法名（如 EmployeeRepository.findById），SQL 统计按它归类
+ */
+@Aspect
+@Component
+public class RepositoryTraceAspect {
+
+    // 方法名拼接结果缓存起来，热路径上不拼字符串
+    private final Map<String, String> labels = new ConcurrentHashMap<>();
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTrace.enterRepository(label(joinPoint));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTrace.exitRepository();
+        }
+    }
+
+    private String label(ProceedingJoinPoint joinPoint) {
+        Object target = joinPoint.getThis();
+        String method = joinPoint.getSignature().getName();
+        String key = target.getClass().getName() + '#' + method;
+        String label = labels.get(key);
+        if (label == null) {
+            // 仓库实现是 JDK 代理，类名没有意义，取它实现的仓库接口名
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(target);
+            String owner = interfaces.length > 0 ? interfaces[0].getSimpleName() : target.getClass().getSimpleName();
+            label = owner + '.' + method;
+            labels.put(key, label);
+        }
+        return label;
+    }
+}
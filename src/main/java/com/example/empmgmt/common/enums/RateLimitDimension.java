@@ -0,0 +1,22 @@
+package com.example.empmgmt.common.enums;
+
+import lombok.Getter;
+
+/**
+ * 限流维度枚举
+ * 决定限流 key 中的标识取自哪里
+ */
+@Getter
+public enum RateLimitDimension {
+
+    IP("按客户端IP"),
+    USER("按当前登录用户"),
+    GLOBAL("全局共享");
+
+    private final String description;
+
+    RateLimitDimension(String description) {
+        this.description = description;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.example.empmgmt.common.enums;
+
+import lombok.Getter;
+
+/**
+ * 限流策略枚举
+ */
+@Getter
+public enum RateLimitStrategy {
+
+    TOKEN_BUCKET("tb", "令牌桶：capacity = 桶容量，rate = 每秒补充数，允许突发"),
+    SLIDING_WINDOW_LOG("swl", "滑动窗口日志：windowMs 内最多 capacity 次，精确但每次请求占一条记录"),
+    SLIDING_WINDOW_COUNTER("swc", "滑动窗口计数：用前后两个固定窗口加权估算，内存固定"),
+    CONCURRENCY("sem", "分布式信号量：同时最多 capacity 个在执行，方法结束后释放");
+
+    /**
+     * Redis key 中的策略段，不同策略的数据结构不同，不能共用同一个 key
+     */
+    private final String keySegment;
+    private final String description;
+
+    RateLimitStrategy(String keySegment, String description) {
+        this.keySegment = keySegment;
+        this.description = description;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.example.empmgmt.common.enums;
+
+import lombok.Getter;
+
+/**
+ * 薪资分析维度枚举
+ */
+@Getter
+public enum SalaryDimension {
+
+    ALL("全公司"),
+    DEPARTMENT("按部门"),
+    POSITION("按职位"),
+    TENURE_BAND("按工龄段");
+
+    private final String description;
+
+    SalaryDimension(String description) {
+        this.description = description;
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.example.empmgmt.common.enums;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * 工龄段枚举
+ */
+@Getter
+public enum TenureBand {
+
+    LESS_THAN_1("1年以下", 0, 1),
+    ONE_TO_3("1-3年", 1, 3),
+    THREE_TO_5("3-5年", 3, 5),
+    FIVE_TO_10("5-10年", 5, 10),
+    TEN_PLUS("10年以上", 10, Integer.MAX_VALUE);
+
+    private final String label;
+    // 区间 [minYears, maxYears)
+    private final int minYears;
+    private final int maxYears;
+
+    TenureBand(String label, int minYears, int maxYears) {
+        this.label = label;
+        this.minYears = minYears;
+        this.maxYears = maxYears;
+    }
+
+    /**
+     * 根据整年工龄取工龄段
+     */
+    public static TenureBand ofYears(int years) {
+        for (TenureBand band : values()) {
+            if (years < band.maxYears) {
+                return band;
+            }
+        }
+        return TEN_PLUS;
+    }
+
+    /**
+     * 根据入职日期取工龄段，入职日期为空时按 1 年以下处理
+     */
+    public static TenureBand of(LocalDate hireDate, LocalDate today) {
+        if (hireDate == null || hireDate.isAfter(today)) {
+            return LESS_THAN_1;
+        }
+        return ofYears(Period.between(hireDate, today).getYears());
+    }
+}
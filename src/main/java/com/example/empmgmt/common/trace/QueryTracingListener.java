@@ -0,0 +1,52 @@
+package com.example.empmgmt.common.trace;
+
+import com.example.empmgmt.service.QueryStatsService;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+/**
+ * JDBC 层的 SQL 监听：每条语句计入当前请求的 sql span、记录形状，并交给 QueryStatsService 做全局统计
+ *
+ * 挂在 DataSource 代理上，Hibernate、JdbcTemplate 发出的语句都会经过这里。
+ * 批量执行（addBatch + executeBatch）算一次执行，形状按批里的每条语句各记一次。
+ */
+public class QueryTracingListener implements QueryExecutionListener {
+
+    private static final String STARTED_AT = "trace.startedAt";
+
+    // DataSource 比业务 Bean 先创建，统计服务用到时再取
+    private final ObjectProvider<QueryStatsService> queryStatsService;
+
+    public QueryTracingListener(ObjectProvider<QueryStatsService> queryStatsService) {
+        this.queryStatsService = queryStatsService;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+        RequestTrace.enter(RequestTrace.Span.SQL);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestTrace.exit(RequestTrace.Span.SQL);
+        Long startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        long elapsedNanos = startedAt != null ? System.nanoTime() - startedAt : 0;
+        // Statement 批量里可能混着不同语句，耗时平均分摊
+        long perStatementNanos = queryInfoList.isEmpty() ? elapsedNanos : elapsedNanos / queryInfoList.size();
+
+        QueryStatsService stats = queryStatsService.getIfAvailable();
+        String repositoryMethod = RequestTrace.currentRepositoryMethod();
+        for (QueryInfo queryInfo : queryInfoList) {
+            String fingerprint = SqlFingerprint.of(queryInfo.getQuery());
+            RequestTrace.recordStatement(fingerprint);
+            if (stats != null) {
+                stats.recordStatement(fingerprint, repositoryMethod, perStatementNanos);
+            }
+        }
+    }
+}
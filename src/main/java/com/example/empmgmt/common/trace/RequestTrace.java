@@ -0,0 +1,227 @@
+package com.example.empmgmt.common.trace;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 单个请求的分层耗时记录（进程内轻量追踪）
+ *
+ * 每个线程复用同一个实例（ThreadLocal 池化），请求开始时清零，记录过程只写数组，不产生对象。
+ * 同类 span 可以嵌套（例如仓库方法里再调仓库方法），只有最外层计时，避免重复累加；
+ * 不同类的 span 是包含关系而不是互斥的：auth 里包含黑名单查询的 redis 耗时，perm 里包含权限查询的 db 耗时，
+ * db（仓库方法，含 Hibernate 映射）里包含 sql（JDBC 执行）。
+ * 不在请求线程上（MQ 消费者、定时任务）时 active = false，所有记录调用直接返回。
+ */
+public final class RequestTrace {
+
+    public enum Span {
+        AUTH("auth", "JWT auth"),
+        PERMISSION("perm", "permission check"),
+        REDIS("redis", "redis commands"),
+        DB("db", "repository calls"),
+        SQL("sql", "jdbc statements"),
+        WRITE("write", "response write");
+
+        private final String metricName;
+        // 会放进响应头，只能用 ASCII
+        private final String description;
+
+        Span(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+    }
+
+    private static final Span[] SPANS = Span.values();
+    private static final ThreadLocal<RequestTrace> CURRENT = ThreadLocal.withInitial(RequestTrace::new);
+
+    private final long[] totalNanos = new long[SPANS.length];
+    private final long[] openedAt = new long[SPANS.length];
+    private final int[] depth = new int[SPANS.length];
+    private final int[] calls = new int[SPANS.length];
+    private final StringBuilder buffer = new StringBuilder(256);
+    // 本次请求里每种 SQL 形状执行的次数，用来发现 N+1
+    private final Map<String, Integer> statementShapes = new HashMap<>();
+    private long startNanos;
+    private boolean active;
+
+    // 当前所在的仓库方法（最外层），请求线程以外也记录，用于把 SQL 归到仓库方法上
+    private String repositoryMethod;
+    private int repositoryDepth;
+
+    private RequestTrace() {
+    }
+
+    /**
+     * 开始记录当前线程上的请求
+     */
+    public static RequestTrace begin() {
+        RequestTrace trace = CURRENT.get();
+        trace.reset();
+        trace.active = true;
+        trace.startNanos = System.nanoTime();
+        return trace;
+    }
+
+    /**
+     * 结束记录，之后当前线程上的调用不再计入
+     */
+    public static void end() {
+        CURRENT.get().active = false;
+    }
+
+    public static void enter(Span span) {
+        RequestTrace trace = CURRENT.get();
+        if (!trace.active) {
+            return;
+        }
+        int i = span.ordinal();
+        if (trace.depth[i]++ == 0) {
+            trace.openedAt[i] = System.nanoTime();
+            trace.calls[i]++;
+        }
+    }
+
+    public static void exit(Span span) {
+        RequestTrace trace = CURRENT.get();
+        int i = span.ordinal();
+        if (!trace.active || trace.depth[i] == 0) {
+            return;
+        }
+        if (--trace.depth[i] == 0) {
+            trace.totalNanos[i] += System.nanoTime() - trace.openedAt[i];
+        }
+    }
+
+    /**
+     * 进入仓库方法：计入 db span，并记下最外层的方法名
+     */
+    public static void enterRepository(String method) {
+        RequestTrace trace = CURRENT.get();
+        if (trace.repositoryDepth++ == 0) {
+            trace.repositoryMethod = method;
+        }
+        enter(Span.DB);
+    }
+
+    public static void exitRepository() {
+        RequestTrace trace = CURRENT.get();
+        exit(Span.DB);
+        if (trace.repositoryDepth > 0 && --trace.repositoryDepth == 0) {
+            trace.repositoryMethod = null;
+        }
+    }
+
+    /**
+     * 当前线程所在的仓库方法，不在仓库方法里（JdbcTemplate、EntityManager 直接调用）时为 null
+     */
+    public static String currentRepositoryMethod() {
+        return CURRENT.get().repositoryMethod;
+    }
+
+    /**
+     * 记录一条执行过的 SQL 的形状（指纹）
+     */
+    public static void recordStatement(String fingerprint) {
+        RequestTrace trace = CURRENT.get();
+        if (trace.active) {
+            trace.statementShapes.merge(fingerprint, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 本次请求执行的 SQL 条数
+     */
+    public int statementCount() {
+        return calls[Span.SQL.ordinal()];
+    }
+
+    /**
+     * 本次请求里各 SQL 形状的执行次数（只读，请求结束后会被清空复用）
+     */
+    public Map<String, Integer> statementShapes() {
+        return statementShapes;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 生成 Server-Timing 头，例如：auth;dur=1.20;desc="JWT auth", redis;dur=0.80;desc="redis commands x3", total;dur=9.10
+     * 还没结束的 span（比如正在写响应）按当前时刻计算
+     */
+    public String serverTiming() {
+        long now = System.nanoTime();
+        StringBuilder sb = buffer;
+        sb.setLength(0);
+        for (Span span : SPANS) {
+            int i = span.ordinal();
+            if (calls[i] == 0) {
+                continue;
+            }
+            sb.append(span.metricName).append(";dur=");
+            appendMillis(sb, spanNanos(i, now));
+            sb.append(";desc=\"").append(span.description);
+            appendCount(sb, i);
+            sb.append("\", ");
+        }
+        sb.append("total;dur=");
+        appendMillis(sb, now - startNanos);
+        return sb.toString();
+    }
+
+    /**
+     * 慢请求日志用的单行摘要，例如：auth=1.20ms redis=0.80ms x3 db=5.10ms x2 sql=3.40ms x4 total=9.10ms
+     */
+    public String summary() {
+        long now = System.nanoTime();
+        StringBuilder sb = buffer;
+        sb.setLength(0);
+        for (Span span : SPANS) {
+            int i = span.ordinal();
+            if (calls[i] == 0) {
+                continue;
+            }
+            sb.append(span.metricName).append('=');
+            appendMillis(sb, spanNanos(i, now));
+            sb.append("ms");
+            appendCount(sb, i);
+            sb.append(' ');
+        }
+        sb.append("total=");
+        appendMillis(sb, now - startNanos);
+        return sb.append("ms").toString();
+    }
+
+    private long spanNanos(int i, long now) {
+        return depth[i] > 0 ? totalNanos[i] + now - openedAt[i] : totalNanos[i];
+    }
+
+    private void appendCount(StringBuilder sb, int i) {
+        if (i == Span.REDIS.ordinal() || i == Span.DB.ordinal() || i == Span.SQL.ordinal()) {
+            sb.append(" x").append(calls[i]);
+        }
+    }
+
+    // 保留两位小数，避免 String.format 的开销
+    private static void appendMillis(StringBuilder sb, long nanos) {
+        long hundredths = nanos / 10_000;
+        sb.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+
+    private void reset() {
+        for (int i = 0; i < SPANS.length; i++) {
+            totalNanos[i] = 0;
+            openedAt[i] = 0;
+            depth[i] = 0;
+            calls[i] = 0;
+        }
+        statementShapes.clear();
+    }
+}
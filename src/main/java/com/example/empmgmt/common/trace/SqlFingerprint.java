@@ -0,0 +1,50 @@
+package com.example.empmgmt.common.trace;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 指纹：把字面量、IN 列表长度、空白差异抹掉，只保留语句形状
+ *
+ * Hibernate 生成的 SQL 基本都是带 ? 的固定文本，所以按原文缓存指纹，热路径上只是一次 map 查找。
+ */
+public final class SqlFingerprint {
+
+    private static final int CACHE_LIMIT = 4096;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern VALUES_LIST = Pattern.compile("(?i)\\bvalues\\s*(\\([^()]*\\))(?:\\s*,\\s*\\([^()]*\\))+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String cached = CACHE.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String fingerprint = normalize(sql);
+        // 拼接了字面量的 SQL 每条都不一样，缓存满了就不再缓存，避免内存无限增长
+        if (CACHE.size() < CACHE_LIMIT) {
+            CACHE.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    static String normalize(String sql) {
+        String s = STRING_LITERAL.matcher(sql).replaceAll("?");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        s = IN_LIST.matcher(s).replaceAll("in (...)");
+        s = VALUES_LIST.matcher(s).replaceAll("values $1, ...");
+        return WHITESPACE.matcher(s).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.empmgmt.common.trace;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+
+/**
+ * 给 RedisTemplate 用的连接工厂包装，把每条 Redis 命令计入当前请求的 redis span
+ *
+ * Lettuce 的同步调用在请求线程上阻塞等待结果，所以直接在调用线程上计时即可；
+ * xxxCommands() 返回的子接口（stringCommands()、scriptingCommands() 等）也会被包一层，
+ * RedisTemplate 的 opsForValue() 之类最终都走这些子接口。
+ */
+public class TracingRedisConnectionFactory implements RedisConnectionFactory {
+
+    // 连接管理类的方法不算命令
+    private static final Set<String> UNTRACED = Set.of(
+            "close", "isClosed", "getNativeConnection", "isQueueing", "isPipelined",
+            "openPipeline", "getSentinelConnection", "toString", "hashCode", "equals");
+
+    private final RedisConnectionFactory delegate;
+
+    public TracingRedisConnectionFactory(RedisConnectionFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        return wrap(delegate.getConnection());
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        return wrap(delegate.getClusterConnection());
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return delegate.getConvertPipelineAndTxResults();
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        return delegate.getSentinelConnection();
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return delegate.translateExceptionIfPossible(ex);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(T target) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfaces(target);
+        return (T) Proxy.newProxyInstance(target.getClass().getClassLoader(),
+                interfaces, new TracingHandler(target));
+    }
+
+    private record TracingHandler(Object target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (UNTRACED.contains(name)) {
+                return call(method, args);
+            }
+            if (name.endsWith("Commands") && method.getParameterCount() == 0 && method.getReturnType().isInterface()) {
+                Object commands = call(method, args);
+                return commands == null ? null : wrap(commands);
+            }
+            RequestTrace.enter(RequestTrace.Span.REDIS);
+            try {
+                return call(method, args);
+            } finally {
+                RequestTrace.exit(RequestTrace.Span.REDIS);
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
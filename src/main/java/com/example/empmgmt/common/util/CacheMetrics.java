@@ -0,0 +1,47 @@
+package com.example.empmgmt.common.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.function.Supplier;
+
+/**
+ * 手写 Redis 缓存的命中 / 未命中 / 回源耗时指标
+ *
+ * 指标名沿用 Micrometer 的缓存约定（cache.gets{result=hit|miss}），
+ * 现成的缓存监控面板可以直接套用；回源查库耗时记在 cache.load 上。
+ */
+public final class CacheMetrics {
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer load;
+
+    public CacheMetrics(MeterRegistry registry, String cacheName) {
+        this.hits = Counter.builder("cache.gets")
+                .tag("cache", cacheName).tag("result", "hit")
+                .description("缓存命中次数")
+                .register(registry);
+        this.misses = Counter.builder("cache.gets")
+                .tag("cache", cacheName).tag("result", "miss")
+                .description("缓存未命中次数")
+                .register(registry);
+        this.load = Timer.builder("cache.load")
+                .tag("cache", cacheName)
+                .description("未命中后回源查询耗时")
+                .register(registry);
+    }
+
+    public void hit() {
+        hits.increment();
+    }
+
+    /**
+     * 记一次未命中，并统计回源耗时
+     */
+    public <T> T load(Supplier<T> loader) {
+        misses.increment();
+        return load.record(loader);
+    }
+}
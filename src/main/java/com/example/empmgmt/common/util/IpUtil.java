@@ -0,0 +1,21 @@
+package com.example.empmgmt.common.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 客户端 IP 解析工具
+ */
+public class IpUtil {
+
+    /**
+     * 获取客户端IP地址
+     *
+     * 不直接读 X-Forwarded-For / X-Real-IP：客户端可以随意伪造，按 IP 限流时每次换一个头就能拿到新桶。
+     * 经过代理时由 Tomcat RemoteIpValve（server.forward-headers-strategy=native）处理，
+     * 只有对端地址在 server.tomcat.remoteip.internal-proxies 里时才按 X-Forwarded-For 改写 remoteAddr
+     */
+    public static String getClientIp(HttpServletRequest request) {
+        String ip = request.getRemoteAddr();
+        return ip != null ? ip : "0.0.0.0";
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.empmgmt.common.util;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+/**
+ * 汉字转拼音工具
+ * 多音字只取第一个读音；非汉字字符转成小写后原样保留
+ */
+public class PinyinUtil {
+
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    /**
+     * 全拼，例如 张三 -> zhangsan
+     */
+    public static String toPinyin(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            String syllable = syllableOf(c);
+            sb.append(syllable != null ? syllable : Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 首字母，例如 张三 -> zs
+     */
+    public static String toInitials(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            String syllable = syllableOf(c);
+            sb.append(syllable != null ? syllable.charAt(0) : Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 是否是汉字（CJK 统一表意文字）
+     */
+    public static boolean isHan(char c) {
+        return Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+
+    private static String syllableOf(char c) {
+        if (!isHan(c)) {
+            return null;
+        }
+        try {
+            String[] readings = PinyinHelper.toHanyuPinyinStringArray(c, FORMAT);
+            return readings == null || readings.length == 0 ? null : readings[0];
+        } catch (BadHanyuPinyinOutputFormatCombination e) {
+            // 格式组合是固定的，不会走到这里
+            return null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.empmgmt.common.util;
+
+import com.example.empmgmt.common.enums.TenureBand;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * 工龄计算工具
+ * 在 Java 里根据入职日期计算工龄，替代逐个员工调用 fn_emp_years() 的做法
+ *
+ * “今天”按天缓存：同一天内只比较一次毫秒时间戳，跨过零点才重新取日期，
+ * 列表里批量计算工龄时不会每行都做一次时区换算
+ */
+public class TenureUtil {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final BigDecimal DAYS_PER_YEAR = new BigDecimal("365.25");
+
+    private static volatile CachedDay cachedDay;
+
+    /**
+     * 当前日期（按天缓存）
+     */
+    public static LocalDate today() {
+        long now = System.currentTimeMillis();
+        CachedDay day = cachedDay;
+        if (day == null || now >= day.expiresAt()) {
+            LocalDate date = LocalDate.now(ZONE);
+            long nextMidnight = date.plusDays(1).atStartOfDay(ZONE).toInstant().toEpochMilli();
+            day = new CachedDay(date, nextMidnight);
+            cachedDay = day;
+        }
+        return day.date();
+    }
+
+    /**
+     * 工龄（年，保留两位小数），入职日期为空或在未来时返回 0
+     */
+    public static BigDecimal years(LocalDate hireDate) {
+        return years(hireDate, today());
+    }
+
+    public static BigDecimal years(LocalDate hireDate, LocalDate today) {
+        if (hireDate == null || hireDate.isAfter(today)) {
+            return BigDecimal.ZERO;
+        }
+        long days = today.toEpochDay() - hireDate.toEpochDay();
+        return BigDecimal.valueOf(days).divide(DAYS_PER_YEAR, 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 工龄段
+     */
+    public static TenureBand band(LocalDate hireDate) {
+        return TenureBand.of(hireDate, today());
+    }
+
+    private record CachedDay(LocalDate date, long expiresAt) {
+    }
+}
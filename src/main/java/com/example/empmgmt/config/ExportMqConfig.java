@@ -3,10 +3,13 @@ package com.example.empmgmt.config;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -21,6 +24,11 @@ public class ExportMqConfig {
     public static final String DLQ_QUEUE = "export.dlq.queue";       // 死信队列
     public static final String DLQ_ROUTING_KEY = "export.dlq.routing"; // 死信路由键
 
+    // 延迟重试：失败的消息按重试次数投到不同延迟的队列，过期后经 DLX 回到 export.queue
+    public static final String RETRY_EXCHANGE = "export.retry.exchange";
+    public static final String ATTEMPT_HEADER = "x-export-attempt";     // 已失败次数，首次投递没有这个头
+    public static final String ERROR_HEADER = "x-export-last-error";    // 最近一次失败原因
+
 
     // 定义 Exchange, Queue, and Binding
 
@@ -77,4 +85,34 @@ public class ExportMqConfig {
                 .with(DLQ_ROUTING_KEY);
     }
 
+    // --- 延迟重试交换机和各级延迟队列 ---
+    @Bean
+    public DirectExchange retryExchange() {
+        return new DirectExchange(RETRY_EXCHANGE);
+    }
+
+    /**
+     * 每个延迟级别一个队列，队列名带上延迟（改配置时声明新队列，不会和已有队列的参数冲突）。
+     * 消息自己带抖动后的 expiration，队列 TTL 是上限；过期后死信回到导出交换机重新消费
+     */
+    @Bean
+    public Declarables exportRetryQueues(@Value("${export-retry.delays-ms:2000,8000,32000}") long[] delaysMs,
+                                         @Value("${export-retry.jitter:0.2}") double jitter) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (long delayMs : delaysMs) {
+            Queue queue = QueueBuilder.durable(retryQueueName(delayMs))
+                    .ttl((int) Math.ceil(delayMs * (1 + jitter)))
+                    .deadLetterExchange(EXPORT_EXCHANGE)
+                    .deadLetterRoutingKey(EXPORT_ROUTING_KEY)
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(retryExchange()).with(queue.getName()));
+        }
+        return new Declarables(declarables);
+    }
+
+    public static String retryQueueName(long delayMs) {
+        return "export.retry." + delayMs + "ms";
+    }
+
 }
@@ -2,8 +2,11 @@ package com.example.empmgmt.config;
 
 import com.example.empmgmt.security.UserAuthentication;
 import com.example.empmgmt.common.util.JwtUtil;
+import com.example.empmgmt.common.trace.RequestTrace;
 import com.example.empmgmt.service.Impl.AuthTokenService;
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,10 +26,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final AuthTokenService authTokenService;
+    private final MeterRegistry meterRegistry;
+    private final Timer blacklistTimer;
 
-    public JwtAuthFilter(JwtUtil jwtUtil, AuthTokenService authTokenService){
+    public JwtAuthFilter(JwtUtil jwtUtil, AuthTokenService authTokenService, MeterRegistry meterRegistry){
         this.jwtUtil = jwtUtil;
         this.authTokenService = authTokenService;
+        this.meterRegistry = meterRegistry;
+        this.blacklistTimer = Timer.builder("auth.blacklist.lookup")
+                .description("Token 黑名单查询耗时（Redis）")
+                .register(meterRegistry);
     }
 
 
@@ -44,53 +53,82 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")){
             String token = authHeader.substring(7); //提取token了,去掉 Bearer
 
-            try{
-                // 3. 解析Token，提取用户信息
-                Claims claims = jwtUtil.getClaimsFromToken(token);
-                String jti = claims.get("jti", String.class);
-
-                // 4、 检查是否在黑名单中（登出后的Token）
-                if (authTokenService.isBlacklisted(jti)) {
-                    log.warn("Token已被加入黑名单");
-                    // 不设置认证信息，后续会被Spring Security拒绝
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-
-                String username = jwtUtil.parseUsername(token);
-                Long userId = jwtUtil.parseUserId(token);
-                String role = jwtUtil.getRoleFromToken(token);
-                String department = jwtUtil.getDepartmentFromToken(token);
-                // 解析员工ID（可能为空）
-                Long employeeId = claims.get("employeeId", Long.class);
-
-                //4、验证Token是否有效
-                //"Token 里有人且 Spring 还没认证过，才继续走 JWT 认证流程，避免重复干活。
-                if(username != null && SecurityContextHolder.getContext().getAuthentication() == null){
-                    //5、创建认证对象（包含完整用户信息）
-                    UserAuthentication authentication = new UserAuthentication(
-                            username,
-                            null,
-                            List.of(),
-                            userId,
-                            role,         // 传入角色
-                            department,   // 传入部门
-                            employeeId    // 传入员工ID
-                    );
-
-                    //6. 设置认证详情
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                    //7. 将认证信息存入 SecurityContext（Spring Security 的上下文）
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    log.debug("用户 {} (ID: {}, 角色: {}) 认证成功", username, userId, role);
-                }
-            }catch (Exception e){
-                // Token 无效或过期，继续执行（不设置认证信息）
-                log.error("JWT Token 验证失败: {}", e.getMessage());
+            RequestTrace.enter(RequestTrace.Span.AUTH);
+            try {
+                authenticate(request, token);
+            } finally {
+                RequestTrace.exit(RequestTrace.Span.AUTH);
             }
         }
         // 8. 继续执行过滤器链
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * 校验 Token 并写入 SecurityContext；Token 无效或已登出时什么都不做，后续由 Spring Security 拒绝
+     */
+    private void authenticate(HttpServletRequest request, String token) {
+        try{
+            // 3. 解析Token（验签只做一次，后面的字段都从同一份 Claims 里取）
+            Claims claims = verify(token);
+            String jti = claims.get("jti", String.class);
+
+            // 4、 检查是否在黑名单中（登出后的Token）
+            if (Boolean.TRUE.equals(blacklistTimer.record(() -> authTokenService.isBlacklisted(jti)))) {
+                log.warn("Token已被加入黑名单");
+                // 不设置认证信息，后续会被Spring Security拒绝
+                return;
+            }
+
+            String username = claims.getSubject();
+            Long userId = claims.get("userId", Long.class);
+            String role = claims.get("role", String.class);
+            String department = claims.get("department", String.class);
+            // 解析员工ID（可能为空）
+            Long employeeId = claims.get("employeeId", Long.class);
+
+            //4、验证Token是否有效
+            //"Token 里有人且 Spring 还没认证过，才继续走 JWT 认证流程，避免重复干活。
+            if(username != null && SecurityContextHolder.getContext().getAuthentication() == null){
+                //5、创建认证对象（包含完整用户信息）
+                UserAuthentication authentication = new UserAuthentication(
+                        username,
+                        null,
+                        List.of(),
+                        userId,
+                        role,         // 传入角色
+                        department,   // 传入部门
+                        employeeId    // 传入员工ID
+                );
+
+                //6. 设置认证详情
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                //7. 将认证信息存入 SecurityContext（Spring Security 的上下文）
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                log.debug("用户 {} (ID: {}, 角色: {}) 认证成功", username, userId, role);
+            }
+        }catch (Exception e){
+            // Token 无效或过期，继续执行（不设置认证信息）
+            log.error("JWT Token 验证失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 验签并解析 Claims，按结果（valid / invalid）记录耗时
+     */
+    private Claims verify(String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "invalid";
+        try {
+            Claims claims = jwtUtil.getClaimsFromToken(token);
+            result = "valid";
+            return claims;
+        } finally {
+            sample.stop(Timer.builder("auth.jwt.verify")
+                    .description("JWT 验签解析耗时")
+                    .tag("result", result)
+                    .register(meterRegistry));
+        }
+    }
 }
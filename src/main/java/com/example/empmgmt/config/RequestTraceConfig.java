@@ -0,0 +1,66 @@
+package com.example.empmgmt.config;
+
+import com.example.empmgmt.common.trace.QueryTracingListener;
+import com.example.empmgmt.common.trace.TracingRedisConnectionFactory;
+import com.example.empmgmt.service.QueryStatsService;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * 请求分层耗时追踪的接入点：给 RedisTemplate 换上计时的连接工厂，给 DataSource 套上 SQL 监听代理
+ */
+@Configuration
+public class RequestTraceConfig {
+
+    private static final String ENABLED = "request-trace.enabled";
+
+    /**
+     * 静态方法声明，避免 BeanPostProcessor 提前初始化配置类
+     */
+    @Bean
+    public static BeanPostProcessor redisTemplateTracingPostProcessor(Environment environment) {
+        boolean enabled = environment.getProperty(ENABLED, Boolean.class, true);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof RedisTemplate<?, ?> template) {
+                    RedisConnectionFactory factory = template.getConnectionFactory();
+                    if (factory != null && !(factory instanceof TracingRedisConnectionFactory)) {
+                        template.setConnectionFactory(new TracingRedisConnectionFactory(factory));
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * 在 JDBC 层统计 SQL：按请求计数、按形状找 N+1、按仓库方法归类耗时
+     */
+    @Bean
+    public static BeanPostProcessor dataSourceTracingPostProcessor(Environment environment,
+                                                                   ObjectProvider<QueryStatsService> queryStatsService) {
+        boolean enabled = environment.getProperty(ENABLED, Boolean.class, true);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryTracingListener(queryStatsService))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.empmgmt.config;
+
+import com.example.empmgmt.common.trace.RequestTrace;
+import com.example.empmgmt.service.QueryStatsService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求分层耗时追踪
+ *
+ * 放在最外层（早于 Spring Security），整个请求期间各层往 RequestTrace 里记 span。
+ * 响应头必须在提交前写入，所以 Server-Timing 在开始写响应体的那一刻生成：
+ * 此时业务处理已经结束，write span 刚开始，完整的写出耗时只出现在慢请求日志里。
+ * Server-Timing 会暴露内部耗时和 SQL / Redis 次数，默认关闭，只在内网或压测环境打开。
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestTraceFilter extends OncePerRequestFilter {
+
+    private final QueryStatsService queryStatsService;
+
+    @Value("${request-trace.enabled:true}")
+    private boolean enabled;
+
+    @Value("${request-trace.server-timing:false}")
+    private boolean serverTiming;
+
+    @Value("${request-trace.slow-threshold-ms:500}")
+    private long slowThresholdMs;
+
+    @Value("${request-trace.slow-log-sample-rate:1.0}")
+    private double slowLogSampleRate;
+
+    public RequestTraceFilter(QueryStatsService queryStatsService) {
+        this.queryStatsService = queryStatsService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestTrace trace = RequestTrace.begin();
+        TracingResponse tracingResponse = new TracingResponse(response, trace, serverTiming);
+        try {
+            filterChain.doFilter(request, tracingResponse);
+        } finally {
+            tracingResponse.beforeCommit();
+            RequestTrace.exit(RequestTrace.Span.WRITE);
+            logIfSlow(request, response, trace);
+            recordQueries(request, trace);
+            RequestTrace.end();
+        }
+    }
+
+    /**
+     * 按接口模板（GET /api/employ/{id}）汇总本次请求的 SQL，没匹配到处理器的请求（404、静态资源）不计
+     */
+    private void recordQueries(HttpServletRequest request, RequestTrace trace) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return;
+        }
+        queryStatsService.onRequestComplete(request.getMethod() + " " + pattern, trace);
+    }
+
+    private void logIfSlow(HttpServletRequest request, HttpServletResponse response, RequestTrace trace) {
+        if (trace.elapsedNanos() < TimeUnit.MILLISECONDS.toNanos(slowThresholdMs)) {
+            return;
+        }
+        if (slowLogSampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= slowLogSampleRate) {
+            return;
+        }
+        log.warn("慢请求 {} {} status={} {}", request.getMethod(), request.getRequestURI(),
+                response.getStatus(), trace.summary());
+    }
+
+    /**
+     * 第一次拿输出流 / 提交响应前写入 Server-Timing，并开始计 write span
+     */
+    private static final class TracingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTrace trace;
+        private final boolean serverTiming;
+        private boolean started;
+
+        TracingResponse(HttpServletResponse response, RequestTrace trace, boolean serverTiming) {
+            super(response);
+            this.trace = trace;
+            this.serverTiming = serverTiming;
+        }
+
+        void beforeCommit() {
+            if (started) {
+                return;
+            }
+            started = true;
+            if (serverTiming && !isCommitted()) {
+                setHeader("Server-Timing", trace.serverTiming());
+            }
+            RequestTrace.enter(RequestTrace.Span.WRITE);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            beforeCommit();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            beforeCommit();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeCommit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            beforeCommit();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            beforeCommit();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.empmgmt.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 二级缓存跨节点失效
+ *
+ * 二级缓存是每个节点进程内的 Ehcache，本节点写入会同步更新自己的缓存，但其他节点不知道。
+ * 这里在 flush 时按 Session 收集缓存实体的「实体名 + ID」，事务提交后每个事务只通过 Redis 发布一条消息，
+ * 其他节点收到后清掉列出的实体缓存，再清一次全部查询缓存（查询缓存依赖的表时间戳也只在本地更新）。
+ * 批量写入（每个事务几百行）因此只产生一条通知，而不是每行一条；ID 太多时直接清整个实体区域。
+ * 事务回滚不发布。发布失败只记日志，其他节点最多读到 TTL 内的旧数据。
+ */
+@Slf4j
+@Component
+public class SecondLevelCacheSync implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, MessageListener {
+
+    public static final String CHANNEL = "l2cache:evict";
+
+    // 单个实体超过这么多 ID 时不逐个列出，接收方清掉整个实体区域
+    static final int MAX_IDS_PER_ENTITY = 1000;
+    static final String ALL_IDS = "*";
+
+    // 节点标识，忽略自己发出的消息
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 各 Session 当前事务里写过的缓存实体，事务结束时取出
+    private final Map<SharedSessionContractImplementor, Map<String, Set<Object>>> pending = new ConcurrentHashMap<>();
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public SecondLevelCacheSync(EntityManagerFactory entityManagerFactory,
+                                StringRedisTemplate stringRedisTemplate,
+                                RedisMessageListenerContainer listenerContainer) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        collect(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        collect(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        collect(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    // 提交后的通知由 collect 注册的事务结束回调统一发送，不需要逐行的提交后回调
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * 记下本事务写过的实体；每个 Session 的事务第一次写缓存实体时注册一个事务结束回调
+     */
+    private void collect(EventSource session, EntityPersister persister, Object id) {
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        Map<String, Set<Object>> batch = pending.computeIfAbsent(session, s -> {
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) this::afterCompletion);
+            return new LinkedHashMap<>();
+        });
+        batch.computeIfAbsent(persister.getEntityName(), k -> new LinkedHashSet<>()).add(id);
+    }
+
+    private void afterCompletion(boolean success, SharedSessionContractImplementor session) {
+        Map<String, Set<Object>> batch = pending.remove(session);
+        if (success && batch != null && !batch.isEmpty()) {
+            publish(batch);
+        }
+    }
+
+    private void publish(Map<String, Set<Object>> batch) {
+        String payload = encode(nodeId, batch);
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, payload);
+        } catch (Exception e) {
+            log.warn("二级缓存失效通知发送失败: entities={}", batch.keySet(), e);
+        }
+    }
+
+    /**
+     * 格式：节点ID|实体名=ID,ID,...;实体名=*
+     */
+    static String encode(String nodeId, Map<String, Set<Object>> batch) {
+        StringBuilder payload = new StringBuilder(nodeId).append('|');
+        boolean first = true;
+        for (Map.Entry<String, Set<Object>> entry : batch.entrySet()) {
+            if (!first) {
+                payload.append(';');
+            }
+            first = false;
+            payload.append(entry.getKey()).append('=');
+            if (entry.getValue().size() > MAX_IDS_PER_ENTITY) {
+                payload.append(ALL_IDS);
+            } else {
+                boolean firstId = true;
+                for (Object id : entry.getValue()) {
+                    if (!firstId) {
+                        payload.append(',');
+                    }
+                    firstId = false;
+                    payload.append(id);
+                }
+            }
+        }
+        return payload.toString();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 2);
+        if (parts.length != 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            Cache cache = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache();
+            for (String entity : parts[1].split(";")) {
+                String[] entry = entity.split("=", 2);
+                if (entry.length != 2) {
+                    continue;
+                }
+                if (ALL_IDS.equals(entry[1])) {
+                    cache.evictEntityData(entry[0]);
+                    continue;
+                }
+                for (String id : entry[1].split(",")) {
+                    cache.evictEntityData(entry[0], Long.valueOf(id));
+                }
+            }
+            // 不管列出多少实体，查询缓存只清一次
+            cache.evictQueryRegions();
+            log.debug("收到二级缓存失效通知: {}", parts[1]);
+        } catch (Exception e) {
+            log.warn("处理二级缓存失效通知失败: {}", body, e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.empmgmt.config;
 
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -47,6 +48,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         // 允许访问上传的静态资源（图片等）
                         .requestMatchers("/uploads/**").permitAll()
+                        // 健康检查和 Prometheus 抓取不带 Token：Actuator 单独监听 management.server.port（默认只绑本机），
+                        // 端口不同时 EndpointRequest 只匹配管理端口上的请求，业务端口不暴露这两个端点
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                         // 其他所有请求都需要认证
                         .anyRequest().authenticated()
                 )
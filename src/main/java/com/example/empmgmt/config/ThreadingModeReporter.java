@@ -0,0 +1,31 @@
+package com.example.empmgmt.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动时打印当前线程模型，避免在 Java 17 上以为开了虚拟线程实际上没生效
+ */
+@Slf4j
+@Component
+public class ThreadingModeReporter {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualEnabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        int javaVersion = Runtime.version().feature();
+        if (!virtualEnabled) {
+            log.info("线程模型: 平台线程池 (Java {})", javaVersion);
+        } else if (javaVersion >= 21) {
+            log.info("线程模型: 虚拟线程 (Java {})，排查 pinning 可加 -Djdk.tracePinnedThreads=short", javaVersion);
+        } else {
+            log.warn("已配置 spring.threads.virtual.enabled=true，但当前是 Java {}，虚拟线程需要 Java 21，已退回平台线程池",
+                    javaVersion);
+        }
+    }
+}
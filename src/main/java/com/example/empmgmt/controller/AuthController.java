@@ -1,6 +1,9 @@
 package com.example.empmgmt.controller;
 
 import com.example.empmgmt.common.Exception.PermissionDeniedException;
+import com.example.empmgmt.common.annotation.RateLimited;
+import com.example.empmgmt.common.enums.RateLimitDimension;
+import com.example.empmgmt.common.util.IpUtil;
 import com.example.empmgmt.common.util.JwtUtil;
 import com.example.empmgmt.domain.User;
 import com.example.empmgmt.dto.request.LoginRequest;
@@ -59,6 +62,8 @@ public class AuthController {
 
     // 登录 ： 签发AT + RT ，RT 写cookie（可以改为返回Header）
     @PostMapping("/login")
+    @RateLimited(key = "login", dimension = RateLimitDimension.IP, capacity = 10, rate = 0.2,
+            message = "登录尝试过于频繁，请稍后再试")
     public Result<AuthResponse> login(@Valid @RequestBody LoginRequest request, HttpServletResponse resp, HttpServletRequest req) {
         User user = userService.loginAndGetUser(request); // 假设返回 User，包含角色等
         String device = resolveDevice(req);
@@ -219,34 +224,10 @@ public class AuthController {
         }
 
         // 获取IP地址
-        String ip = getClientIpAddress(request);
+        String ip = IpUtil.getClientIp(request);
 
         // 组合生成设备指纹（使用User-Agent + IP的哈希值）
         String deviceFingerprint = userAgent + "|" + ip;
         return String.valueOf(deviceFingerprint.hashCode());
     }
-
-    /**
-     * 获取客户端真实IP地址
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("X-Real-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        // 处理多个IP的情况，取第一个
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
-        }
-        return ip != null ? ip : "0.0.0.0";
-    }
 }
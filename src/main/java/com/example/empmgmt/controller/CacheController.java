@@ -0,0 +1,40 @@
+package com.example.empmgmt.controller;
+
+import com.example.empmgmt.common.annotation.RequiresRole;
+import com.example.empmgmt.dto.response.CacheStatsResponse;
+import com.example.empmgmt.dto.response.Result;
+import com.example.empmgmt.service.CacheAdminService;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 二级缓存管理接口
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final CacheAdminService cacheAdminService;
+
+    public CacheController(CacheAdminService cacheAdminService) {
+        this.cacheAdminService = cacheAdminService;
+    }
+
+    /**
+     * 二级缓存命中统计
+     */
+    @GetMapping("/l2/stats")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<CacheStatsResponse> getStats() {
+        return Result.success(cacheAdminService.getStats());
+    }
+
+    /**
+     * 清空本节点二级缓存
+     */
+    @PostMapping("/l2/evict")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<Void> evictAll() {
+        cacheAdminService.evictAll();
+        return Result.success("二级缓存已清空", null);
+    }
+}
@@ -2,17 +2,27 @@ package com.example.empmgmt.controller;
 
 
 import com.example.empmgmt.common.annotation.OperationLog;
+import com.example.empmgmt.common.annotation.RateLimited;
 import com.example.empmgmt.common.annotation.RequiresPermission;
 import com.example.empmgmt.common.annotation.RequiresRole;
 import com.example.empmgmt.common.enums.OperationType;
+import com.example.empmgmt.common.enums.RateLimitDimension;
+import com.example.empmgmt.common.enums.RateLimitStrategy;
 import com.example.empmgmt.common.util.SecurityUtil;
+import com.example.empmgmt.dto.request.EmployeeBatchCreateRequest;
 import com.example.empmgmt.dto.request.EmployeeCreateRequest;
 import com.example.empmgmt.dto.request.EmployeeUpdateRequest;
+import com.example.empmgmt.dto.response.DeptStatsDetailResponse;
 import com.example.empmgmt.dto.response.DeptStatsResponse;
+import com.example.empmgmt.dto.response.EmployeeBatchCreateResponse;
 import com.example.empmgmt.dto.response.EmployeeResponse;
+import com.example.empmgmt.dto.response.EmployeeSearchResponse;
 import com.example.empmgmt.dto.response.PageResponse;
+import com.example.empmgmt.dto.response.TenureBandStatsResponse;
 import com.example.empmgmt.dto.response.Result;
+import com.example.empmgmt.dto.response.SearchIndexCheckResponse;
 import com.example.empmgmt.mq.dto.EmployeeExportParams;
+import com.example.empmgmt.service.EmployeeSearchService;
 import com.example.empmgmt.service.EmployeeService;
 import com.example.empmgmt.service.ExportService;
 import com.example.empmgmt.service.ExportTaskService;
@@ -20,10 +30,12 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/employ")
@@ -32,11 +44,14 @@ public class EmployeeController {
     private final ExportService exportService;
     private final EmployeeService employeeService;
     private final ExportTaskService exportTaskService;
+    private final EmployeeSearchService employeeSearchService;
 
     public EmployeeController(EmployeeService employeeService,
                               ExportService exportService,
-                              ExportTaskService exportTaskService) {
+                              ExportTaskService exportTaskService,
+                              EmployeeSearchService employeeSearchService) {
         this.exportTaskService = exportTaskService;
+        this.employeeSearchService = employeeSearchService;
         this.exportService = exportService;
         this.employeeService = employeeService;
     }
@@ -59,6 +74,24 @@ public class EmployeeController {
         return Result.success(response);
     }
 
+    /**
+     * 批量创建员工（导入）-- 仅超级管理员；按批提交，返回每批结果
+     */
+    @PostMapping("/batch")
+    @RequiresRole("SUPER_ADMIN")
+    @OperationLog(
+            module = "员工管理",
+            type = OperationType.IMPORT,
+            description = "批量创建员工",
+            saveParams = false,
+            saveResult = true
+    )
+    public Result<EmployeeBatchCreateResponse> batchCreate(
+            @Valid @RequestBody EmployeeBatchCreateRequest request
+    ){
+        return Result.success(employeeService.batchCreate(request.employees()));
+    }
+
     /**
      * 根据 id 去查找员工 -- 读取权限+所有者检查
      */
@@ -67,7 +100,9 @@ public class EmployeeController {
     @OperationLog(
             module = "员工管理",
             type = OperationType.QUERY,
-            description = "根据ID查询员工"
+            description = "根据ID查询员工",
+            sampleRate = 0.1,
+            aggregate = true
     )
     public Result<EmployeeResponse> getById(@PathVariable Long id){
         EmployeeResponse employeeServiceById = employeeService.findById(id);
@@ -89,6 +124,39 @@ public class EmployeeController {
         return Result.success(pageResult);
     }
 
+    /**
+     * 搜索员工：姓名支持汉字片段、拼音全拼 / 首字母和模糊匹配，可按部门、职位筛选，结果按相关度排序
+     */
+    @GetMapping("/search")
+    @RequiresPermission("employee:read")
+    public Result<EmployeeSearchResponse> searchEmployees(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String position,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size)
+    {
+        return Result.success(employeeSearchService.search(q, department, position, page, size));
+    }
+
+    /**
+     * 重建搜索索引
+     */
+    @PostMapping("/search/rebuild")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<Integer> rebuildSearchIndex() {
+        return Result.success("索引重建完成", employeeSearchService.rebuild());
+    }
+
+    /**
+     * 校验搜索索引与数据库是否一致，repair=true 时顺便修复
+     */
+    @GetMapping("/search/consistency")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<SearchIndexCheckResponse> checkSearchIndex(@RequestParam(defaultValue = "false") boolean repair) {
+        return Result.success(employeeSearchService.checkConsistency(repair));
+    }
+
     /**
      * 更新员工 -- 更新权限 + 所有检查
      */
@@ -122,6 +190,15 @@ public class EmployeeController {
         return Result.success(null);
     }
 
+    /**
+     * 各部门统计详情（人数、薪资合计/平均/最值、职位分布），从内存读取；含薪资，和薪资分析接口一样只对管理角色开放
+     */
+    @GetMapping("/stats/dept")
+    @RequiresRole({"SUPER_ADMIN", "MANAGER"})
+    public Result<List<DeptStatsDetailResponse>> getDeptStats(){
+        return Result.success(employeeService.getDeptStats());
+    }
+
     /**
      * 统计各部门平均人数
      */
@@ -142,6 +219,24 @@ public class EmployeeController {
     }
 
 
+    /**
+     * 按工龄段统计人数和平均薪资；含薪资，和 /stats/dept 一样只对管理角色开放
+     */
+    @GetMapping("/stats/tenure")
+    @RequiresRole({"SUPER_ADMIN", "MANAGER"})
+    public Result<List<TenureBandStatsResponse>> getTenureBandStats(){
+        return Result.success(employeeService.getTenureBandStats());
+    }
+
+    /**
+     * 批量查询员工工龄，例如 /years?ids=1,2,3（列表页一次取完，不用逐个调用 /{id}/years）
+     */
+    @GetMapping("/years")
+    @RequiresPermission("employee:read")
+    public Result<Map<Long, BigDecimal>> getEmpYearsBatch(@RequestParam List<Long> ids){
+        return Result.success(employeeService.getEmpYearsBatch(ids));
+    }
+
     /**
      * 统计员工在职时间
      */
@@ -157,6 +252,11 @@ public class EmployeeController {
      */
 
     @GetMapping("/export")
+    @RateLimited(key = "employee-export", dimension = RateLimitDimension.USER, capacity = 3, rate = 0.05)
+    @RateLimited(key = "employee-export", strategy = RateLimitStrategy.CONCURRENCY, dimension = RateLimitDimension.USER,
+            capacity = 1, message = "您已有一个导出正在进行，请等待完成后再试")
+    @RateLimited(key = "employee-export", strategy = RateLimitStrategy.CONCURRENCY, dimension = RateLimitDimension.GLOBAL,
+            capacity = 4, message = "当前导出人数较多，请稍后再试或使用异步导出")
     @RequiresRole({"SUPER_ADMIN", "MANAGER"})
     public void exportEmployees(
             @RequestParam(required = false) String department,
@@ -171,6 +271,7 @@ public class EmployeeController {
      * 异步创建员工信息导出任务
      */
     @PostMapping("/export/async")
+    @RateLimited(key = "employee-export-async", dimension = RateLimitDimension.USER, capacity = 5, rate = 0.1)
     @RequiresRole({"SUPER_ADMIN", "MANAGER"})
     public Result<Long> createExportTask(
             @RequestParam(required = false) String department,
@@ -185,4 +286,23 @@ public class EmployeeController {
         Long taskId = exportTaskService.createEmployeeExportTask(params, userId);
         return Result.success("导出任务已提交", taskId);
     }
+
+    /**
+     * 从 Excel / CSV 文件异步导入员工 -- 仅超级管理员；进度和错误报告通过导出任务接口查询、下载
+     */
+    @PostMapping("/import")
+    @RateLimited(key = "employee-import", dimension = RateLimitDimension.USER, capacity = 5, rate = 0.1)
+    @RequiresRole("SUPER_ADMIN")
+    @OperationLog(
+            module = "员工管理",
+            type = OperationType.IMPORT,
+            description = "提交员工导入任务",
+            saveParams = false,
+            saveResult = true
+    )
+    public Result<Long> createImportTask(@RequestParam("file") MultipartFile file) {
+        Long userId = SecurityUtil.getCurrentUserId();
+        Long taskId = exportTaskService.createEmployeeImportTask(file, userId);
+        return Result.success("导入任务已提交", taskId);
+    }
 }
@@ -54,6 +54,9 @@ public class ExportTaskController {
         if (!"SUCCESS".equals(task.getStatus())) {
             throw new BusinessException("任务未完成，无法下载");
         }
+        if (task.getFilePath() == null) {
+            throw new BusinessException("该任务没有可下载的文件");
+        }
         File file = new File(task.getFilePath());
         if (!file.exists()) {
             throw new BusinessException("文件不存在，请重新导出");
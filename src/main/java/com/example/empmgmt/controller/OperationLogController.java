@@ -1,52 +1,125 @@
 package com.example.empmgmt.controller;
 
 
+import com.example.empmgmt.common.annotation.RequiresRole;
 import com.example.empmgmt.domain.OperationLog;
+import com.example.empmgmt.dto.request.OperationLogPolicyRequest;
+import com.example.empmgmt.dto.request.OperationLogQueryRequest;
+import com.example.empmgmt.dto.request.OperationStatsQueryRequest;
+import com.example.empmgmt.dto.response.CursorPageResponse;
+import com.example.empmgmt.dto.response.OperationLogArchiveResponse;
+import com.example.empmgmt.dto.response.OperationLogPolicyResponse;
+import com.example.empmgmt.dto.response.OperationStatsResponse;
 import com.example.empmgmt.dto.response.PageResponse;
 import com.example.empmgmt.dto.response.Result;
-import com.example.empmgmt.repository.OperationLogRepository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import com.example.empmgmt.service.OperationLogPartitionService;
+import com.example.empmgmt.service.OperationLogPolicyService;
+import com.example.empmgmt.service.OperationLogQueryService;
+import com.example.empmgmt.service.OperationStatsService;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/logs")
 public class OperationLogController {
 
-    private final OperationLogRepository logRepository;
+    private final OperationLogQueryService queryService;
+    private final OperationLogPartitionService partitionService;
+    private final OperationLogPolicyService policyService;
+    private final OperationStatsService statsService;
 
-    public OperationLogController(OperationLogRepository logRepository) {
-        this.logRepository = logRepository;
+    public OperationLogController(OperationLogQueryService queryService,
+                                  OperationLogPartitionService partitionService,
+                                  OperationLogPolicyService policyService,
+                                  OperationStatsService statsService) {
+        this.queryService = queryService;
+        this.partitionService = partitionService;
+        this.policyService = policyService;
+        this.statsService = statsService;
     }
 
+    /**
+     * 分页查询操作日志（页码分页），条件可任意组合，startDate / endDate 都是闭区间的日期（yyyy-MM-dd）
+     */
     @GetMapping
-    public Result<PageResponse<OperationLog>> list(
-            @RequestParam(required = false)String module,
-            @RequestParam(required = false)String operationType,
-            @RequestParam(defaultValue = "1")int page,
-            @RequestParam(defaultValue = "10")int size
-    ){
-        PageRequest pageable = PageRequest.of(
-                page - 1,
-                size,
-                Sort.by(Sort.Direction.DESC, "createdAt")
-        );
-
-        Page<OperationLog> logPage;
-        // pageRequest实现了pageable接口(父类AbstractPageRequest)
-        if (module != null && !module.isBlank()) {
-            logPage = logRepository.findByModule(module, pageable);
-        } else if (operationType != null && !operationType.isBlank()) {
-            logPage = logRepository.findByOperationType(operationType, pageable);
-        } else {
-            logPage = logRepository.findAll(pageable);
-        }
-
-        return Result.success(PageResponse.of(logPage));
+    public Result<PageResponse<OperationLog>> list(OperationLogQueryRequest request,
+                                                   @RequestParam(defaultValue = "1") int page) {
+        return Result.success(queryService.page(request, page));
+    }
+
+    /**
+     * 游标分页查询操作日志：第一页不带 cursor，之后带上一页返回的 nextCursor；
+     * 默认不统计总数，withTotal=true 时额外返回 total
+     */
+    @GetMapping("/cursor")
+    public Result<CursorPageResponse<OperationLog>> scroll(OperationLogQueryRequest request) {
+        return Result.success(queryService.scroll(request));
+    }
+
+    /**
+     * 各接口耗时分位数（p50 / p95 / p99）和吞吐，按分钟汇总表计算，不扫描原始日志；
+     * 默认最近 1 小时，带 intervalMinutes 时额外返回时间序列
+     */
+    @GetMapping("/stats")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<List<OperationStatsResponse>> stats(OperationStatsQueryRequest request) {
+        return Result.success(statsService.query(request));
+    }
+
+    /**
+     * 立即归档超过保留期的分区（平时由定时任务每天执行）
+     */
+    @PostMapping("/archive")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<List<OperationLogArchiveResponse>> archive() {
+        partitionService.ensurePartitions();
+        return Result.success(partitionService.archiveExpiredPartitions());
+    }
+
+    /**
+     * QUERY 类日志点当前生效的采样 / 聚合策略
+     */
+    @GetMapping("/policies")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<List<OperationLogPolicyResponse>> policies() {
+        return Result.success(policyService.listPolicies());
+    }
+
+    /**
+     * 运行时修改某个日志点的策略，key 形如 EmployeeController.getById，所有节点同步生效
+     */
+    @PutMapping("/policies/{key}")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<OperationLogPolicyResponse> updatePolicy(@PathVariable String key,
+                                                           @RequestBody OperationLogPolicyRequest request) {
+        return Result.success(policyService.updatePolicy(key, request));
+    }
+
+    /**
+     * 去掉运行时修改，回到 yml / 注解上的配置
+     */
+    @DeleteMapping("/policies/{key}")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<OperationLogPolicyResponse> resetPolicy(@PathVariable String key) {
+        return Result.success(policyService.resetPolicy(key));
+    }
+
+    /**
+     * 立即把聚合计数写成日志（平时定时写入）
+     */
+    @PostMapping("/policies/flush")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<Integer> flushAggregates() {
+        return Result.success(policyService.flushAggregates());
     }
 
 }
@@ -0,0 +1,63 @@
+package com.example.empmgmt.controller;
+
+import com.example.empmgmt.common.annotation.RequiresRole;
+import com.example.empmgmt.dto.response.NPlusOneSuspectResponse;
+import com.example.empmgmt.dto.response.QueryBudgetViolationResponse;
+import com.example.empmgmt.dto.response.Result;
+import com.example.empmgmt.dto.response.SlowQueryResponse;
+import com.example.empmgmt.service.QueryStatsService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * SQL 诊断接口：慢查询排行、疑似 N+1、超出 SQL 预算的请求
+ */
+@RestController
+@RequestMapping("/api/diagnostics/queries")
+public class QueryDiagnosticsController {
+
+    private final QueryStatsService queryStatsService;
+
+    public QueryDiagnosticsController(QueryStatsService queryStatsService) {
+        this.queryStatsService = queryStatsService;
+    }
+
+    /**
+     * 慢查询 Top N，sortBy 可选 p99 / p50 / mean / total / count
+     */
+    @GetMapping("/slow")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<List<SlowQueryResponse>> topSlowQueries(@RequestParam(defaultValue = "20") int limit,
+                                                          @RequestParam(defaultValue = "p99") String sortBy) {
+        return Result.success(queryStatsService.topSlowQueries(limit, sortBy));
+    }
+
+    /**
+     * 疑似 N+1 的接口和语句
+     */
+    @GetMapping("/n-plus-one")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<List<NPlusOneSuspectResponse>> nPlusOneSuspects() {
+        return Result.success(queryStatsService.nPlusOneSuspects());
+    }
+
+    /**
+     * 最近超出 SQL 预算的请求
+     */
+    @GetMapping("/budget-violations")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<List<QueryBudgetViolationResponse>> budgetViolations() {
+        return Result.success(queryStatsService.budgetViolations());
+    }
+
+    /**
+     * 清空本节点的统计
+     */
+    @PostMapping("/reset")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<Void> reset() {
+        queryStatsService.reset();
+        return Result.success("SQL 统计已清空", null);
+    }
+}
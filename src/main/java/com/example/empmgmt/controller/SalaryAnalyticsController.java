@@ -0,0 +1,70 @@
+package com.example.empmgmt.controller;
+
+import com.example.empmgmt.common.annotation.RequiresRole;
+import com.example.empmgmt.common.enums.SalaryDimension;
+import com.example.empmgmt.dto.response.Result;
+import com.example.empmgmt.dto.response.SalaryHistogramResponse;
+import com.example.empmgmt.dto.response.SalaryPercentileResponse;
+import com.example.empmgmt.service.SalaryAnalyticsService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 薪资分布分析接口
+ * dimension 取值：ALL / DEPARTMENT / POSITION / TENURE_BAND
+ */
+@RestController
+@RequestMapping("/api/analytics/salary")
+public class SalaryAnalyticsController {
+
+    private final SalaryAnalyticsService salaryAnalyticsService;
+
+    public SalaryAnalyticsController(SalaryAnalyticsService salaryAnalyticsService) {
+        this.salaryAnalyticsService = salaryAnalyticsService;
+    }
+
+    /**
+     * 查询薪资分位数，例如 ?dimension=DEPARTMENT&key=研发部&q=0.5,0.9
+     */
+    @GetMapping("/percentiles")
+    @RequiresRole({"SUPER_ADMIN", "MANAGER"})
+    public Result<SalaryPercentileResponse> getPercentiles(
+            @RequestParam(defaultValue = "ALL") SalaryDimension dimension,
+            @RequestParam(required = false) String key,
+            @RequestParam(defaultValue = "0.5,0.9") List<Double> q) {
+        return Result.success(salaryAnalyticsService.getPercentiles(dimension, key, q));
+    }
+
+    /**
+     * 某个维度下所有取值的分位数概览
+     */
+    @GetMapping("/summary")
+    @RequiresRole({"SUPER_ADMIN", "MANAGER"})
+    public Result<List<SalaryPercentileResponse>> getSummary(
+            @RequestParam(defaultValue = "DEPARTMENT") SalaryDimension dimension) {
+        return Result.success(salaryAnalyticsService.getSummary(dimension));
+    }
+
+    /**
+     * 查询薪资直方图
+     */
+    @GetMapping("/histogram")
+    @RequiresRole({"SUPER_ADMIN", "MANAGER"})
+    public Result<SalaryHistogramResponse> getHistogram(
+            @RequestParam(defaultValue = "ALL") SalaryDimension dimension,
+            @RequestParam(required = false) String key,
+            @RequestParam(defaultValue = "10") int bins) {
+        return Result.success(salaryAnalyticsService.getHistogram(dimension, key, bins));
+    }
+
+    /**
+     * 手动从数据库全量重建
+     */
+    @PostMapping("/rebuild")
+    @RequiresRole("SUPER_ADMIN")
+    public Result<Void> rebuild() {
+        salaryAnalyticsService.rebuild();
+        return Result.success(null);
+    }
+}
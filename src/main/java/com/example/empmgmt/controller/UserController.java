@@ -1,8 +1,11 @@
 package com.example.empmgmt.controller;
 
 import com.example.empmgmt.common.annotation.OperationLog;
+import com.example.empmgmt.common.annotation.RateLimited;
 import com.example.empmgmt.common.annotation.RequiresRole;
 import com.example.empmgmt.common.enums.OperationType;
+import com.example.empmgmt.common.enums.RateLimitDimension;
+import com.example.empmgmt.common.enums.RateLimitStrategy;
 import com.example.empmgmt.common.util.SecurityUtil;
 import com.example.empmgmt.domain.User;
 import com.example.empmgmt.dto.request.AssignRoleRequest;
@@ -260,6 +263,11 @@ public class UserController {
      * 权限：仅SUPER_ADMIN
      */
     @GetMapping("/export")
+    @RateLimited(key = "user-export", dimension = RateLimitDimension.USER, capacity = 3, rate = 0.05)
+    @RateLimited(key = "user-export", strategy = RateLimitStrategy.CONCURRENCY, dimension = RateLimitDimension.USER,
+            capacity = 1, message = "您已有一个导出正在进行，请等待完成后再试")
+    @RateLimited(key = "user-export", strategy = RateLimitStrategy.CONCURRENCY, dimension = RateLimitDimension.GLOBAL,
+            capacity = 4, message = "当前导出人数较多，请稍后再试或使用异步导出")
     @RequiresRole("SUPER_ADMIN")
     public void exportUsers(
             @RequestParam(required = false) String role,
@@ -274,6 +282,7 @@ public class UserController {
      * 异步创建员工信息导出任务
      */
     @PostMapping("/export/async")
+    @RateLimited(key = "user-export-async", dimension = RateLimitDimension.USER, capacity = 5, rate = 0.1)
     @RequiresRole({"SUPER_ADMIN"})
     public Result<Long> createExportTask(
             @RequestParam(required = false) String role,
@@ -0,0 +1,43 @@
+package com.example.empmgmt.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 导出任务发件箱：一条待投递到 RabbitMQ 的任务消息
+ */
+@Data
+@Entity
+@Table(name = "export_outbox")
+public class ExportOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;         // ExportTaskMessage 的 JSON
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;          // PENDING / SENT
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
@@ -55,7 +55,8 @@ public class OperationLog {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
-    @Column(name = "created_at")
+    // 分区键（按月分区），不能为空
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
 
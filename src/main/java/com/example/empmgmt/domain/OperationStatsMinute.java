@@ -0,0 +1,44 @@
+package com.example.empmgmt.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 操作耗时分钟汇总：每个节点每分钟、每个 (模块, 日志点, 状态) 一行，
+ * histogram 是压缩后的 HdrHistogram，查询时按时间范围合并后再算分位数
+ */
+@Data
+@Entity
+@Table(name = "operation_stats_minute")
+public class OperationStatsMinute {
+
+    @Id
+    // 每分钟批量插入一批，pooled 序列让 JDBC batch 生效
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "operation_stats_minute_seq")
+    @SequenceGenerator(name = "operation_stats_minute_seq", sequenceName = "operation_stats_minute_id_seq",
+            allocationSize = 50)
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "module", nullable = false, length = 50)
+    private String module;
+
+    @Column(name = "method", nullable = false, length = 200)
+    private String method;          // 类名.方法名，与 /api/logs/policies 的 key 相同
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;          // SUCCESS / FAILURE
+
+    @Column(name = "call_count", nullable = false)
+    private Long callCount;
+
+    @Column(name = "max_time", nullable = false)
+    private Long maxTime;           // 毫秒
+
+    @Column(name = "histogram", nullable = false, length = 65536)
+    private byte[] histogram;
+}
@@ -3,12 +3,16 @@ package com.example.empmgmt.domain;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Data
 @Entity
 @Table(name = "permission")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "permission")
 public class Permission {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
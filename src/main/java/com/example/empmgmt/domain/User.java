@@ -2,15 +2,21 @@ package com.example.empmgmt.domain;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Data
 @Entity
 @Table(name = "user_account")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // 序列 + pooled 优化器：一次取 50 个ID，批量插入时不用逐条回查主键，JDBC batch 才能生效
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_account_seq")
+    @SequenceGenerator(name = "user_account_seq", sequenceName = "user_account_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
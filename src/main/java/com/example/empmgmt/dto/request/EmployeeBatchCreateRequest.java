@@ -0,0 +1,14 @@
+package com.example.empmgmt.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// 批量创建员工请求
+public record EmployeeBatchCreateRequest(
+        @NotEmpty(message = "员工列表不能为空")
+        @Size(max = 10000, message = "单次最多导入 10000 条")
+        List<@Valid EmployeeCreateRequest> employees
+) { }
@@ -0,0 +1,14 @@
+package com.example.empmgmt.dto.request;
+
+import lombok.Data;
+
+/**
+ * 运行时修改日志策略，不填的字段沿用 yml / 注解上的配置
+ */
+@Data
+public class OperationLogPolicyRequest {
+
+    private Double sampleRate;      // 0 ~ 1，1 表示每次都记录
+
+    private Boolean aggregate;      // 没被采样的调用是否聚合成计数
+}
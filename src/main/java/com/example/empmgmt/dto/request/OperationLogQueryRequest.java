@@ -0,0 +1,35 @@
+package com.example.empmgmt.dto.request;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * 操作日志查询条件（GET 参数绑定），各条件可以任意组合
+ */
+@Data
+public class OperationLogQueryRequest {
+
+    private Long userId;
+
+    private String module;
+
+    private String operationType;
+
+    private String status;              // SUCCESS / FAILURE
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;        // 含当天，不填时查最近 operation-log.query.default-days 天
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;          // 含当天，不填时到今天
+
+    private Long minExecutionTime;      // 只看耗时不少于该值（毫秒）的调用
+
+    private String cursor;              // 游标分页：上一页返回的 nextCursor，第一页不填
+
+    private Integer size = 20;
+
+    private boolean withTotal;          // 游标分页默认不统计总数，需要时再开
+}
@@ -0,0 +1,27 @@
+package com.example.empmgmt.dto.request;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * 操作耗时统计查询条件（GET 参数绑定）
+ */
+@Data
+public class OperationStatsQueryRequest {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime start;        // 不填时为 end 之前 1 小时
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime end;          // 不含，不填时到现在
+
+    private String module;
+
+    private String method;              // 类名.方法名，如 EmployeeController.getById
+
+    private String status;              // SUCCESS / FAILURE
+
+    private Integer intervalMinutes;    // 填了才返回时间序列，每个点覆盖这么多分钟
+}
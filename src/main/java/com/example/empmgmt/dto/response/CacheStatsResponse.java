@@ -0,0 +1,19 @@
+package com.example.empmgmt.dto.response;
+
+import java.util.List;
+
+//二级缓存统计响应
+public record CacheStatsResponse(
+        Long hitCount,
+        Long missCount,
+        Long putCount,
+        Double hitRatio,          // 命中率，没有访问时为 null
+        Long queryCacheHitCount,
+        Long queryCacheMissCount,
+        List<Region> regions
+) {
+
+    // 单个缓存区域的统计，elementCount 为当前内存中的条数（取不到时为 -1）
+    public record Region(String name, Long hitCount, Long missCount, Long putCount, Long elementCount) {
+    }
+}
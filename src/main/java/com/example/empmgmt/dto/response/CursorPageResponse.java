@@ -0,0 +1,12 @@
+package com.example.empmgmt.dto.response;
+
+import java.util.List;
+
+//游标分页响应：nextCursor 为 null 表示没有下一页；total 只在请求统计总数时返回
+public record CursorPageResponse<T>(
+        List<T> records,
+        String nextCursor,
+        boolean hasMore,
+        Long total
+) {
+}
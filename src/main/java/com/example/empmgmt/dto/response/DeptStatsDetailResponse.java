@@ -0,0 +1,16 @@
+package com.example.empmgmt.dto.response;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+//部门统计详情响应（人数、薪资汇总、职位分布）
+public record DeptStatsDetailResponse(
+        String department,
+        Long empCount,
+        BigDecimal salarySum,
+        BigDecimal avgSalary,
+        BigDecimal minSalary,
+        BigDecimal maxSalary,
+        Map<String, Long> positionCounts
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.empmgmt.dto.response;
+
+import java.util.List;
+
+//批量创建员工结果：按批提交，某一批失败不影响其他批
+public record EmployeeBatchCreateResponse(
+        Integer total,
+        Integer created,
+        Integer failed,
+        Integer batches,
+        Long elapsedMs,
+        List<String> errors   // 失败批次的说明
+) {
+}
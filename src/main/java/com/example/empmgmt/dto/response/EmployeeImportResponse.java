@@ -0,0 +1,11 @@
+package com.example.empmgmt.dto.response;
+
+//员工文件导入结果：校验失败和写入失败的行都记在错误报告里
+public record EmployeeImportResponse(
+        Integer total,
+        Integer created,
+        Integer failed,
+        Long elapsedMs,
+        String reportPath   // 错误报告文件，没有失败行时为 null
+) {
+}
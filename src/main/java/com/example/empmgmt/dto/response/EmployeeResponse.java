@@ -1,5 +1,6 @@
 package com.example.empmgmt.dto.response;
 
+import com.example.empmgmt.common.util.TenureUtil;
 import com.example.empmgmt.domain.Employee;
 
 import java.math.BigDecimal;
@@ -18,9 +19,18 @@ public record EmployeeResponse(
         BigDecimal salary,
         String avatar,
         LocalDateTime createdAt,
-        LocalDateTime updatedAt
+        LocalDateTime updatedAt,
+        BigDecimal tenureYears   // 工龄（年），根据入职日期计算
 ) {
 
+    // JPQL 投影查询用：工龄由入职日期现算
+    public EmployeeResponse(Long id, String name, String gender, Integer age, String department, String position,
+                            LocalDate hireDate, BigDecimal salary, String avatar,
+                            LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, gender, age, department, position, hireDate, salary, avatar,
+                createdAt, updatedAt, TenureUtil.years(hireDate));
+    }
+
     // 从实体转换为响应 DTO
     public static EmployeeResponse from(Employee employee) {
         return new EmployeeResponse(
@@ -34,7 +44,8 @@ public record EmployeeResponse(
                 employee.getSalary(),
                 employee.getAvatar(),
                 employee.getCreatedAt(),
-                employee.getUpdatedAt()
+                employee.getUpdatedAt(),
+                TenureUtil.years(employee.getHireDate())
         );
     }
 }
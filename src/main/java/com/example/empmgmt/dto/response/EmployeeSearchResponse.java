@@ -0,0 +1,15 @@
+package com.example.empmgmt.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+//员工搜索响应：按相关度排序的分页结果 + 部门 / 职位分面计数
+public record EmployeeSearchResponse(
+        List<EmployeeResponse> records,
+        long total,
+        int page,
+        int size,
+        Map<String, Long> departmentFacets,
+        Map<String, Long> positionFacets
+) {
+}
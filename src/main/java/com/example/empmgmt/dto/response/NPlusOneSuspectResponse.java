@@ -0,0 +1,14 @@
+package com.example.empmgmt.dto.response;
+
+import java.time.LocalDateTime;
+
+//疑似 N+1：同一个接口的一次请求里，同一形状的 SQL 执行次数达到阈值
+public record NPlusOneSuspectResponse(
+        String endpoint,
+        String fingerprint,
+        String repository,
+        Long occurrences,       // 触发次数（请求数）
+        Integer maxRepeats,     // 单次请求里最多执行了多少次
+        LocalDateTime lastSeenAt
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.empmgmt.dto.response;
+
+//操作日志分区归档结果（一个分区一条）
+public record OperationLogArchiveResponse(
+        String partition,   // 分区表名，如 operation_log_p202601
+        String month,       // 分区对应的月份，如 2026-01
+        long rows,
+        String file,        // 归档文件绝对路径（gzip 压缩的 JSONL，一行一条日志）
+        long bytes
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.empmgmt.dto.response;
+
+//一个读操作日志点当前生效的策略
+public record OperationLogPolicyResponse(
+        String key,         // 类名.方法名，如 EmployeeController.getById
+        String module,
+        String description,
+        double sampleRate,
+        boolean aggregate,
+        String source       // annotation / config / runtime：生效配置来自哪一层
+) {
+}
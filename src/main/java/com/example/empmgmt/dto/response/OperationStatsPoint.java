@@ -0,0 +1,15 @@
+package com.example.empmgmt.dto.response;
+
+import java.time.LocalDateTime;
+
+//耗时统计时间序列上的一个点，覆盖 [start, start + intervalMinutes)
+public record OperationStatsPoint(
+        LocalDateTime start,
+        long count,
+        double perMinute,
+        long p50,
+        long p95,
+        long p99,
+        long max
+) {
+}
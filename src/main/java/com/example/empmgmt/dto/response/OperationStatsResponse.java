@@ -0,0 +1,18 @@
+package com.example.empmgmt.dto.response;
+
+import java.util.List;
+
+//一个 (模块, 日志点, 状态) 在查询范围内的耗时统计，耗时单位毫秒
+public record OperationStatsResponse(
+        String module,
+        String method,
+        String status,
+        long count,
+        double perMinute,   // 吞吐：平均每分钟调用次数
+        long p50,
+        long p95,
+        long p99,
+        long max,
+        List<OperationStatsPoint> series    // 请求里没有 intervalMinutes 时为空
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.empmgmt.dto.response;
+
+import java.time.LocalDateTime;
+
+//接口 SQL 条数超出预算的记录
+public record QueryBudgetViolationResponse(
+        String endpoint,
+        Integer budget,
+        Integer statements,
+        LocalDateTime occurredAt
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.empmgmt.dto.response;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+//薪资直方图响应
+public record SalaryHistogramResponse(
+        String dimension,
+        String key,
+        Long count,
+        List<Bucket> buckets
+) {
+
+    // 区间 [lower, upper) 内的人数
+    public record Bucket(BigDecimal lower, BigDecimal upper, Long count) {
+    }
+}
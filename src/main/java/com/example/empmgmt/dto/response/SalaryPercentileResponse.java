@@ -0,0 +1,15 @@
+package com.example.empmgmt.dto.response;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+//薪资分位数响应（percentiles 的 key 形如 p50、p90）
+public record SalaryPercentileResponse(
+        String dimension,
+        String key,
+        Long count,
+        BigDecimal min,
+        BigDecimal max,
+        Map<String, BigDecimal> percentiles
+) {
+}
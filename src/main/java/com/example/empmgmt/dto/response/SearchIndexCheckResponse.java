@@ -0,0 +1,12 @@
+package com.example.empmgmt.dto.response;
+
+//搜索索引一致性校验结果
+public record SearchIndexCheckResponse(
+        long dbCount,       // 数据库中未删除的员工数
+        long indexCount,    // 索引中的员工数
+        long missing,       // 数据库有、索引没有
+        long stale,         // 两边都有但姓名 / 部门 / 职位不一致
+        long extra,         // 索引有、数据库没有（或已删除）
+        boolean repaired    // 是否已修复
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.empmgmt.dto.response;
+
+//慢 SQL 统计（按语句形状聚合），耗时单位毫秒，分位数相对误差约 2.5%
+public record SlowQueryResponse(
+        String fingerprint,
+        String repository,      // 最近一次执行所在的仓库方法，不在仓库方法里时为 null
+        Long count,
+        Double totalMs,
+        Double meanMs,
+        Double p50Ms,
+        Double p99Ms,
+        Double maxMs
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.empmgmt.dto.response;
+
+import java.math.BigDecimal;
+
+//工龄段统计响应
+public record TenureBandStatsResponse(
+        String band,
+        String label,
+        Long empCount,
+        BigDecimal avgSalary
+) {
+}
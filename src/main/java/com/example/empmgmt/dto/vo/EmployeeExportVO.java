@@ -5,7 +5,9 @@ import com.alibaba.excel.annotation.format.DateTimeFormat;
 import com.alibaba.excel.annotation.write.style.ColumnWidth;
 import com.alibaba.excel.annotation.write.style.ContentRowHeight;
 import com.alibaba.excel.annotation.write.style.HeadRowHeight;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,6 +18,8 @@ import java.time.LocalDateTime;
  * 使用EasyExcel注解定义导出格式
  */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor  // 字段顺序即仓库投影查询的构造参数顺序
 @HeadRowHeight(25)  // 表头行高
 @ContentRowHeight(20)  // 内容行高
 public class EmployeeExportVO {
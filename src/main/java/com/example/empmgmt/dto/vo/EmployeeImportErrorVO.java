@@ -0,0 +1,62 @@
+package com.example.empmgmt.dto.vo;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.annotation.write.style.ColumnWidth;
+import com.alibaba.excel.annotation.write.style.ContentRowHeight;
+import com.alibaba.excel.annotation.write.style.HeadRowHeight;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 员工导入错误报告VO
+ * 保留原始数据，修改后可以去掉前后两列重新导入
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@HeadRowHeight(25)
+@ContentRowHeight(20)
+public class EmployeeImportErrorVO {
+
+    @ExcelProperty(value = "行号", index = 0)
+    @ColumnWidth(10)
+    private Integer rowNumber;
+
+    @ExcelProperty(value = "姓名", index = 1)
+    @ColumnWidth(15)
+    private String name;
+
+    @ExcelProperty(value = "性别", index = 2)
+    @ColumnWidth(10)
+    private String gender;
+
+    @ExcelProperty(value = "年龄", index = 3)
+    @ColumnWidth(10)
+    private String age;
+
+    @ExcelProperty(value = "部门", index = 4)
+    @ColumnWidth(20)
+    private String department;
+
+    @ExcelProperty(value = "职位", index = 5)
+    @ColumnWidth(20)
+    private String position;
+
+    @ExcelProperty(value = "入职日期", index = 6)
+    @ColumnWidth(15)
+    private String hireDate;
+
+    @ExcelProperty(value = "薪资", index = 7)
+    @ColumnWidth(15)
+    private String salary;
+
+    @ExcelProperty(value = "头像URL", index = 8)
+    @ColumnWidth(40)
+    private String avatar;
+
+    @ExcelProperty(value = "错误原因", index = 9)
+    @ColumnWidth(50)
+    private String reason;
+
+}
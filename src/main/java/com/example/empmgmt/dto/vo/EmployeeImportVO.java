@@ -0,0 +1,42 @@
+package com.example.empmgmt.dto.vo;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 员工导入VO
+ * 按表头名称匹配列，导出文件去掉 ID / 时间列即可直接导入；
+ * 字段都按字符串读取，格式问题在校验阶段按行报告，不会中断整个文件的解析
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeImportVO {
+
+    @ExcelProperty("姓名")
+    private String name;
+
+    @ExcelProperty("性别")
+    private String gender;
+
+    @ExcelProperty("年龄")
+    private String age;
+
+    @ExcelProperty("部门")
+    private String department;
+
+    @ExcelProperty("职位")
+    private String position;
+
+    @ExcelProperty("入职日期")
+    private String hireDate;
+
+    @ExcelProperty("薪资")
+    private String salary;
+
+    @ExcelProperty("头像URL")
+    private String avatar;
+
+}
@@ -5,7 +5,9 @@ import com.alibaba.excel.annotation.format.DateTimeFormat;
 import com.alibaba.excel.annotation.write.style.ColumnWidth;
 import com.alibaba.excel.annotation.write.style.ContentRowHeight;
 import com.alibaba.excel.annotation.write.style.HeadRowHeight;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
@@ -13,6 +15,8 @@ import java.time.LocalDateTime;
  * 用户导出VO
  */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor  // 字段顺序即仓库投影查询的构造参数顺序
 @HeadRowHeight(25)
 @ContentRowHeight(20)
 public class UserExportVO {
@@ -0,0 +1,46 @@
+package com.example.empmgmt.event;
+
+import com.example.empmgmt.dto.response.EmployeeResponse;
+
+/**
+ * 员工数据变更事件（进程内 Spring 事件）
+ * 由 EmployeeServiceImpl 在增删改、恢复时发布，携带变更前后的快照，
+ * 监听方可以按差量更新自己维护的统计/索引，而不用回查数据库
+ *
+ * @param type   变更类型
+ * @param before 变更前快照，新增 / 恢复时为 null
+ * @param after  变更后快照，删除时为 null
+ */
+public record EmployeeChangedEvent(
+        ChangeType type,
+        EmployeeResponse before,
+        EmployeeResponse after
+) {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED, RESTORED
+    }
+
+    public static EmployeeChangedEvent created(EmployeeResponse after) {
+        return new EmployeeChangedEvent(ChangeType.CREATED, null, after);
+    }
+
+    public static EmployeeChangedEvent updated(EmployeeResponse before, EmployeeResponse after) {
+        return new EmployeeChangedEvent(ChangeType.UPDATED, before, after);
+    }
+
+    public static EmployeeChangedEvent deleted(EmployeeResponse before) {
+        return new EmployeeChangedEvent(ChangeType.DELETED, before, null);
+    }
+
+    public static EmployeeChangedEvent restored(EmployeeResponse after) {
+        return new EmployeeChangedEvent(ChangeType.RESTORED, null, after);
+    }
+
+    /**
+     * 员工ID
+     */
+    public Long employeeId() {
+        return after != null ? after.id() : before.id();
+    }
+}
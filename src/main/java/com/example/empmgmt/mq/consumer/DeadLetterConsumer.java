@@ -4,6 +4,8 @@ import com.example.empmgmt.config.ExportMqConfig;
 import com.example.empmgmt.domain.ExportTask;
 import com.example.empmgmt.mq.dto.ExportTaskMessage;
 import com.example.empmgmt.repository.ExportTaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -18,6 +20,7 @@ import org.springframework.stereotype.Component;
 public class DeadLetterConsumer {
 
     private final ExportTaskRepository exportTaskRepository;
+    private final MeterRegistry meterRegistry;
 
     /**
      *  监听死信队列
@@ -27,6 +30,11 @@ public class DeadLetterConsumer {
     @RabbitListener(queues = ExportMqConfig.DLQ_QUEUE)
     public void handleDeadLetter(ExportTaskMessage message) {
         log.error("【报警】收到死信队列消息: {}", message);
+        Counter.builder("export.dead.letters")
+                .description("重试耗尽进入死信队列的任务数")
+                .tag("type", message.getTaskType() != null ? message.getTaskType() : "UNKNOWN")
+                .register(meterRegistry)
+                .increment();
 
         try{
         // 将数据库任务状态强制标记为FAILED
@@ -2,26 +2,33 @@ package com.example.empmgmt.mq.consumer;
 
 import com.alibaba.excel.EasyExcel;
 import com.example.empmgmt.config.ExportMqConfig;
-import com.example.empmgmt.domain.Employee;
 import com.example.empmgmt.domain.ExportTask;
-import com.example.empmgmt.domain.User;
 import com.example.empmgmt.dto.vo.EmployeeExportVO;
 import com.example.empmgmt.dto.vo.UserExportVO;
+import com.example.empmgmt.dto.response.EmployeeImportResponse;
 import com.example.empmgmt.mq.dto.EmployeeExportParams;
+import com.example.empmgmt.mq.dto.EmployeeImportParams;
 import com.example.empmgmt.mq.dto.ExportTaskMessage;
 import com.example.empmgmt.mq.dto.UserExportParams;
 import com.example.empmgmt.repository.EmployeeRepository;
 import com.example.empmgmt.repository.ExportTaskRepository;
 import com.example.empmgmt.repository.UserRepository;
+import com.example.empmgmt.service.EmployeeImportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -41,6 +48,9 @@ public class ExportConsumer {
     private final EmployeeRepository employeeRepository;
     private final ObjectMapper objectMapper;
     private final StringRedisTemplate stringRedisTemplate;
+    private final EmployeeImportService employeeImportService;
+    private final MeterRegistry meterRegistry;
+    private final ExportRetryPublisher retryPublisher;
 
 
     private static final DateTimeFormatter FILE_NAME_FORMATTER =
@@ -48,9 +58,21 @@ public class ExportConsumer {
 
 
     /**
-     *  处理导出任务消息
+     *  监听导出队列；失败的消息交给重试队列延迟再投递，监听线程不等待，后面的任务不受影响
      */
     @RabbitListener(queues = ExportMqConfig.EXPORT_QUEUE)
+    public void onExportMessage(ExportTaskMessage message,
+                                @Header(name = ExportMqConfig.ATTEMPT_HEADER, required = false) Integer attempt) {
+        try {
+            handleExportTask(message);
+        } catch (Exception e) {
+            retryPublisher.retryOrDeadLetter(message, attempt != null ? attempt : 0, e);
+        }
+    }
+
+    /**
+     *  处理导出任务消息
+     */
     public void handleExportTask(ExportTaskMessage message){
         log.info("收到导出任务消息: {}", message);
 
@@ -68,12 +90,15 @@ public class ExportConsumer {
         }
 
         boolean taskSuccess = false; // 任务是否成功完成的标记;
+        String taskType = message.getTaskType() != null ? message.getTaskType() : "UNKNOWN";
+        Timer.Sample sample = null;
+        ExportTask exportTask = null;
 
         try{
 
 
             // 1. 查询任务
-            ExportTask exportTask = exportTaskRepository.findById(message.getTaskId()).orElseThrow(() ->
+            exportTask = exportTaskRepository.findById(message.getTaskId()).orElseThrow(() ->
                     new RuntimeException("任务不存在") // 这种错误重试也没用，但在简单设计中也抛出去进死信吧
             );
 
@@ -89,6 +114,8 @@ public class ExportConsumer {
             exportTask.setStatus("PROCESSING");
             exportTask.setUpdatedAt(LocalDateTime.now());
             exportTaskRepository.save(exportTask);
+            recordQueueWait(exportTask);
+            sample = Timer.start(meterRegistry);
 
             if ("EMPLOYEE_EXPORT".equals(exportTask.getTaskType())) {
                 EmployeeExportParams params = objectMapper.readValue(
@@ -106,6 +133,14 @@ public class ExportConsumer {
                 // 执行用户导出
                 doUserExport(exportTask, params);
                 taskSuccess = true;
+            } else if ("EMPLOYEE_IMPORT".equals(exportTask.getTaskType())) {
+                EmployeeImportParams params = objectMapper.readValue(
+                        exportTask.getParams(),
+                        EmployeeImportParams.class
+                );
+                // 执行员工导入
+                doEmployeeImport(exportTask, params);
+                taskSuccess = true;
             } else {
                 // 不支持的类型，这种不需要重试，直接在数据库标记失败即可，不需要抛异常
                 log.warn("暂不支持的导出类型: {}", exportTask.getTaskType());
@@ -119,15 +154,37 @@ public class ExportConsumer {
         }catch (Exception e) {
             // 异常处理
             log.error("处理任务异常，准备抛出以触发重试: taskId={}", message.getTaskId(), e);
+            Counter.builder("export.failures")
+                    .description("任务消费失败次数（未耗尽重试次数的延迟后再次投递，耗尽后进入死信队列）")
+                    .tag("type", taskType)
+                    .register(meterRegistry)
+                    .increment();
 
             // 重要：Redis 锁不仅是防重，如果任务失败了要重试，得把锁删掉，
             // 否则重试的时候（第二次进来）会因为上面有锁而直接返回，导致重试失效！
             stringRedisTemplate.delete(lockKey);
+            // 同理，任务状态退回 PENDING，否则重试进来会因为状态是 PROCESSING 被跳过
+            if (exportTask != null && "PROCESSING".equals(exportTask.getStatus())) {
+                try {
+                    exportTask.setStatus("PENDING");
+                    exportTask.setUpdatedAt(LocalDateTime.now());
+                    exportTaskRepository.save(exportTask);
+                } catch (Exception resetError) {
+                    log.warn("任务状态退回 PENDING 失败: taskId={}", message.getTaskId(), resetError);
+                }
+            }
 
-            // 抛出异常 -> 触发 Spring RabbitMQ 的重试机制 (application.yml配置的3次)
-            // 重试3次还挂 -> 扔进死信队列
+            // 抛出异常 -> 由 onExportMessage 按已失败次数发到对应的延迟重试队列 (application.yml 的 export-retry)
+            // 重试用完还挂 -> 扔进死信队列
             throw new RuntimeException("导出失败，触发重试", e);
         }finally {
+            if (sample != null) {
+                sample.stop(Timer.builder("export.duration")
+                        .description("任务从开始处理到结束的耗时")
+                        .tag("type", taskType)
+                        .tag("result", taskSuccess ? "success" : "failure")
+                        .register(meterRegistry));
+            }
             // 如果成功了，锁可以留着让它自然过期（作为一段时间内的防重墙），
             // 也可以删掉。对于“只做一次”的任务，通常留着自然过期更安全。
             // 但如果想要任务完成后立刻允许下一次（虽然id不一样），可以 delete。
@@ -147,18 +204,15 @@ public class ExportConsumer {
      * 执行员工导出
      */
     private void doEmployeeExport(ExportTask task, EmployeeExportParams params) {
-        // 1. 查询数据
-        List<Employee> employees;
+        long start = System.nanoTime();
+        // 1. 查询数据：投影查询直接得到导出 VO
+        List<EmployeeExportVO> voList;
         if (params.getDepartment() != null && !params.getDepartment().isBlank()) {
-            employees = employeeRepository.findByDepartmentAndDeletedFalse(params.getDepartment());
+            voList = employeeRepository.findExportRowsByDepartment(params.getDepartment());
         } else {
-            employees = employeeRepository.findAllByDeletedFalse();
+            voList = employeeRepository.findExportRows();
         }
 
-        List<EmployeeExportVO> voList = employees.stream()
-                .map(this::toEmployeeExportVO)
-                .toList();
-
         // 2. 生成文件（简单起见，写到本地磁盘）
         String fileName = "员工信息_" + LocalDateTime.now().format(FILE_NAME_FORMATTER) + ".xlsx";
         String dir = "D:/exports"; // 可以放到配置里
@@ -173,6 +227,7 @@ public class ExportConsumer {
         EasyExcel.write(file, EmployeeExportVO.class)
                 .sheet("员工信息")
                 .doWrite(voList);
+        recordOutput(task.getTaskType(), voList.size(), System.nanoTime() - start, file);
 
         // 3. 更新任务状态为 SUCCESS
         task.setStatus("SUCCESS");
@@ -183,29 +238,55 @@ public class ExportConsumer {
         log.info("员工导出完成，taskId={}, file={}", task.getId(), file.getAbsolutePath());
     }
 
+    /**
+     * 执行员工导入
+     *
+     * 导入按批提交，已提交的批次无法回滚，出错时直接标记失败而不抛异常重试，避免重复写入
+     */
+    private void doEmployeeImport(ExportTask task, EmployeeImportParams params) {
+        File source = new File(params.getFilePath());
+        try {
+            EmployeeImportResponse result = employeeImportService.importFile(source, params.getOriginalFilename());
+            recordOutput(task.getTaskType(), result.total(), Duration.ofMillis(result.elapsedMs()).toNanos(), null);
+
+            // 有失败行时，错误报告作为任务文件供下载
+            task.setStatus("SUCCESS");
+            task.setFilePath(result.reportPath());
+            if (result.failed() > 0) {
+                task.setErrorMsg("共 " + result.total() + " 行，成功 " + result.created()
+                        + " 行，失败 " + result.failed() + " 行，详见错误报告");
+            }
+            log.info("员工导入完成，taskId={}, result={}", task.getId(), result);
+        } catch (Exception e) {
+            log.error("员工导入失败，taskId={}", task.getId(), e);
+            task.setStatus("FAILED");
+            task.setErrorMsg("导入失败: " + e.getMessage());
+        } finally {
+            source.delete();
+        }
+        task.setUpdatedAt(LocalDateTime.now());
+        exportTaskRepository.save(task);
+    }
+
     /**
      * 执行用户导出
      */
     private void doUserExport(ExportTask task, UserExportParams params) {
-        // 1、查询数据
-        List<User> users;
+        long start = System.nanoTime();
+        // 1、查询数据：投影查询直接得到导出 VO
+        List<UserExportVO> voList;
         if (params.getRole() != null && !params.getRole().isEmpty()) {
             if (params.getDepartment() != null && !params.getDepartment().isEmpty()) {
-                users = userRepository.findByRoleAndDepartment(params.getRole(), params.getDepartment());
+                voList = userRepository.findExportRowsByRoleAndDepartment(params.getRole(), params.getDepartment());
             } else {
-                users = userRepository.findByRole(params.getRole());
+                voList = userRepository.findExportRowsByRole(params.getRole());
             }
         } else {
             // 无过滤条件，查询所有用户
-            users = userRepository.findAll();
+            voList = userRepository.findExportRows();
         }
 
-        // 2、转换为VO
-        List<UserExportVO> voList = users.stream()
-                .map(this::convertToUserVO)
-                .toList();
-
-        // 3. 生成文件（简单起见，写到本地磁盘）
+        // 2. 生成文件（简单起见，写到本地磁盘）
         String fileName = "用户信息_" + LocalDateTime.now().format(FILE_NAME_FORMATTER) + ".xlsx";
         String dir = "D:/exports"; // 可以放到配置
         File dirFile = new File(dir);
@@ -217,7 +298,8 @@ public class ExportConsumer {
         EasyExcel.write(file, UserExportVO.class)
                 .sheet("用户信息")
                 .doWrite(voList);
-        // 4. 更新任务状态为 SUCCESS
+        recordOutput(task.getTaskType(), voList.size(), System.nanoTime() - start, file);
+        // 3. 更新任务状态为 SUCCESS
         task.setStatus("SUCCESS");
         task.setFilePath(file.getAbsolutePath());
         task.setUpdatedAt(LocalDateTime.now());
@@ -225,40 +307,46 @@ public class ExportConsumer {
         log.info("用户导出完成，taskId={}, file={}", task.getId(), file.getAbsolutePath());
     }
 
-
     /**
-     * 转换 Employee 到 EmployeeExportVO
+     * 排队时长：任务创建到消费者开始处理
      */
-    private EmployeeExportVO toEmployeeExportVO(Employee employee) {
-        EmployeeExportVO vo = new EmployeeExportVO();
-        vo.setId(employee.getId());
-        vo.setName(employee.getName());
-        vo.setGender(employee.getGender());
-        vo.setAge(employee.getAge());
-        vo.setDepartment(employee.getDepartment());
-        vo.setPosition(employee.getPosition());
-        vo.setHireDate(employee.getHireDate());
-        vo.setSalary(employee.getSalary());
-        vo.setAvatar(employee.getAvatar());
-        vo.setCreatedAt(employee.getCreatedAt());
-        vo.setUpdatedAt(employee.getUpdatedAt());
-        return vo;
+    private void recordQueueWait(ExportTask task) {
+        if (task.getCreatedAt() == null) {
+            return;
+        }
+        Duration wait = Duration.between(task.getCreatedAt(), LocalDateTime.now());
+        Timer.builder("export.queue.wait")
+                .description("任务从创建到开始处理的排队时长")
+                .tag("type", task.getTaskType())
+                .register(meterRegistry)
+                .record(wait.isNegative() ? Duration.ZERO : wait);
     }
 
     /**
-     * User转换为UserExportVO
+     * 记录处理行数、吞吐（行/秒）和生成的文件大小
      */
-    private UserExportVO convertToUserVO(User user) {
-        UserExportVO vo = new UserExportVO();
-        vo.setId(user.getId());
-        vo.setUsername(user.getUsername());
-        vo.setEmail(user.getEmail());
-        vo.setRole(user.getRole());
-        vo.setDepartment(user.getDepartment());
-        vo.setEmployeeId(user.getEmployeeId());
-        vo.setEnabledStatus(user.getEnabled() != null && user.getEnabled() ? "启用" : "禁用");
-        vo.setCreatedAt(user.getCreatedAt());
-        vo.setUpdatedAt(user.getUpdatedAt());
-        return vo;
+    private void recordOutput(String taskType, long rows, long elapsedNanos, File file) {
+        DistributionSummary.builder("export.rows")
+                .description("每个任务处理的行数")
+                .baseUnit("rows")
+                .tag("type", taskType)
+                .register(meterRegistry)
+                .record(rows);
+        if (elapsedNanos > 0) {
+            DistributionSummary.builder("export.throughput")
+                    .description("每个任务的处理速度")
+                    .baseUnit("rows.per.second")
+                    .tag("type", taskType)
+                    .register(meterRegistry)
+                    .record(rows * 1e9 / elapsedNanos);
+        }
+        if (file != null && file.isFile()) {
+            DistributionSummary.builder("export.file.size")
+                    .description("生成的文件大小")
+                    .baseUnit("bytes")
+                    .tag("type", taskType)
+                    .register(meterRegistry)
+                    .record(file.length());
+        }
     }
 }
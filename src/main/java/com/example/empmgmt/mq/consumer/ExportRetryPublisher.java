@@ -0,0 +1,126 @@
+package com.example.empmgmt.mq.consumer;
+
+import com.example.empmgmt.config.ExportMqConfig;
+import com.example.empmgmt.mq.dto.ExportTaskMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导出任务失败后的延迟重试
+ *
+ * 消费失败时不在监听线程里等待，而是按已失败次数把消息发到对应延迟级别的重试队列，
+ * 带上抖动后的 expiration；到期后经 DLX 回到 export.queue 重新消费。
+ * 所有级别都用完后直接发到死信队列，由 DeadLetterConsumer 标记任务失败。
+ * 重新发布要等 publisher confirm，确认失败时抛出异常，消息被拒绝后经 export.queue 的 DLX 进死信队列，不会丢。
+ */
+@Slf4j
+@Component
+public class ExportRetryPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Value("${export-retry.delays-ms:2000,8000,32000}")
+    private long[] delaysMs;
+
+    @Value("${export-retry.jitter:0.2}")
+    private double jitter;
+
+    @Value("${export-retry.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    public ExportRetryPublisher(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param attempt 这次消费之前已经失败的次数，首次投递为 0
+     */
+    public void retryOrDeadLetter(ExportTaskMessage message, int attempt, Exception cause) {
+        int failures = attempt + 1;
+        String error = errorOf(cause);
+        if (attempt < delaysMs.length) {
+            long tier = delaysMs[attempt];
+            long delay = jittered(tier);
+            publish(ExportMqConfig.RETRY_EXCHANGE, ExportMqConfig.retryQueueName(tier), message, failures, error,
+                    delay);
+            count(String.valueOf(failures));
+            log.warn("导出任务第 {} 次失败，{}ms 后重试: taskId={}", failures, delay, message.getTaskId());
+        } else {
+            publish(ExportMqConfig.DLX_EXCHANGE, ExportMqConfig.DLQ_ROUTING_KEY, message, failures, error, null);
+            count("exhausted");
+            log.error("导出任务失败 {} 次，重试已用完，转入死信队列: taskId={}", failures, message.getTaskId());
+        }
+    }
+
+    private void publish(String exchange, String routingKey, ExportTaskMessage message, int failures,
+                         String error, Long expirationMs) {
+        CorrelationData correlation = new CorrelationData(message.getTaskId() + ":" + failures);
+        rabbitTemplate.convertAndSend(exchange, routingKey, message, m -> {
+            MessageProperties properties = m.getMessageProperties();
+            properties.setHeader(ExportMqConfig.ATTEMPT_HEADER, failures);
+            properties.setHeader(ExportMqConfig.ERROR_HEADER, error);
+            if (expirationMs != null) {
+                properties.setExpiration(String.valueOf(expirationMs));
+            }
+            return m;
+        }, correlation);
+
+        String failure;
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture().get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+            failure = !confirm.isAck() ? "nack: " + confirm.getReason()
+                    : correlation.getReturned() != null ? "returned: " + correlation.getReturned().getReplyText()
+                    : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "interrupted";
+        } catch (Exception e) {
+            failure = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        if (failure != null) {
+            count("publish_failed");
+            throw new AmqpRejectAndDontRequeueException("重试消息发布失败，转入死信队列: " + failure);
+        }
+    }
+
+    /**
+     * 在 [tier × (1 - jitter), tier × (1 + jitter)] 内随机，避免同一批失败的任务同时回来
+     */
+    long jittered(long tier) {
+        if (jitter <= 0) {
+            return tier;
+        }
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return Math.max(1, Math.round(tier * factor));
+    }
+
+    private void count(String outcome) {
+        counters.computeIfAbsent(outcome, o -> Counter.builder("export.retries")
+                .description("导出任务失败后的去向：重试次数 / 重试用完 / 重新发布失败")
+                .tag("outcome", o)
+                .register(meterRegistry)).increment();
+    }
+
+    private static String errorOf(Exception cause) {
+        Throwable root = cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String error = root.getClass().getSimpleName() + ": " + root.getMessage();
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+}
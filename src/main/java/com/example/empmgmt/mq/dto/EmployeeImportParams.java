@@ -0,0 +1,14 @@
+package com.example.empmgmt.mq.dto;
+
+import lombok.Data;
+
+/**
+ *  员工导入任务参数对象
+ */
+@Data
+public class EmployeeImportParams {
+
+    private String filePath;          // 服务端保存的上传文件
+    private String originalFilename;  // 用户上传时的文件名
+
+}
@@ -8,6 +8,6 @@ import lombok.Data;
 @Data
 public class ExportTaskMessage {
     private Long taskId;        // 任务ID（数据库主键）
-    private String taskType;    // EMPLOYEE_EXPORT / USER_EXPORT
+    private String taskType;    // EMPLOYEE_EXPORT / USER_EXPORT / EMPLOYEE_IMPORT
     private String paramsJson;  // 与表里的 params 一致
 }
@@ -1,13 +1,20 @@
 package com.example.empmgmt.repository;
 
 import com.example.empmgmt.domain.Employee;
+import com.example.empmgmt.dto.response.EmployeeResponse;
+import com.example.empmgmt.dto.vo.EmployeeExportVO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,7 +25,10 @@ public interface EmployeeRepository extends JpaRepository<Employee,Long>
         , JpaSpecificationExecutor<Employee> {
 
     // 根据名字模糊匹配+忽略大小写查询（过滤已删除）
-    List<Employee> findByNameContainingIgnoreCaseAndDeletedFalse(String name);
+    // 用 lower(name) 而不是派生查询默认的 upper(name)，对应 idx_employee_name_trgm 的表达式
+    @Query("SELECT e FROM Employee e WHERE e.deleted = false " +
+            "AND lower(e.name) LIKE lower(concat('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}")
+    List<Employee> findByNameContainingIgnoreCaseAndDeletedFalse(@Param("name") String name);
 
     // 根据部门查询（过滤已删除）
     List<Employee> findByDepartmentAndDeletedFalse(String department);
@@ -27,12 +37,18 @@ public interface EmployeeRepository extends JpaRepository<Employee,Long>
     Page<Employee> findAllByDeletedFalse(Pageable pageable);
 
     // 按姓名搜索 + 分页
-    Page<Employee> findByNameContainingIgnoreCaseAndDeletedFalse(String name, Pageable pageable);
+    @Query("SELECT e FROM Employee e WHERE e.deleted = false " +
+            "AND lower(e.name) LIKE lower(concat('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}")
+    Page<Employee> findByNameContainingIgnoreCaseAndDeletedFalse(@Param("name") String name, Pageable pageable);
 
     // 按部门搜索 + 分页
     Page<Employee> findByDepartmentAndDeletedFalse(String department, Pageable pageable);
 
-    // 查询未删除的记录
+    // 查询未删除的记录（详情 / 更新 / 删除都会走，结果进查询缓存）
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "query.employee-by-id")
+    })
     Optional<Employee> findByIdAndDeletedFalse(Long id);
 
     // 查询所有未删除的记录
@@ -54,4 +70,99 @@ public interface EmployeeRepository extends JpaRepository<Employee,Long>
 
     //根据部门和职位查询未删除的员工
     List<Employee> findByDepartmentAndPositionAndDeletedFalse(String department, String position);
+
+    // 按 id 批量查询未删除的记录
+    List<Employee> findByIdInAndDeletedFalse(Collection<Long> ids);
+
+    /**
+     * 按入职日期统计人数和薪资（工龄段统计用，行数 = 不同入职日期数）
+     */
+    @Query("SELECT e.hireDate, COUNT(e), COUNT(e.salary), SUM(e.salary) FROM Employee e " +
+            "WHERE e.deleted = false GROUP BY e.hireDate")
+    List<Object[]> aggregateByHireDate();
+
+    // ========== 部门统计（DeptStatsStore 加载 / 对账用） ==========
+    /**
+     * 按部门汇总：部门、人数、有薪资人数、薪资合计、最低薪资、最高薪资
+     */
+    @Query("SELECT e.department, COUNT(e), COUNT(e.salary), SUM(e.salary), MIN(e.salary), MAX(e.salary) " +
+            "FROM Employee e WHERE e.deleted = false GROUP BY e.department")
+    List<Object[]> aggregateByDepartment();
+
+    /**
+     * 按部门 + 职位统计人数
+     */
+    @Query("SELECT e.department, e.position, COUNT(e) FROM Employee e " +
+            "WHERE e.deleted = false GROUP BY e.department, e.position")
+    List<Object[]> countByDepartmentAndPosition();
+
+    /**
+     * 单个部门的最低 / 最高薪资
+     */
+    @Query("SELECT MIN(e.salary), MAX(e.salary) FROM Employee e " +
+            "WHERE e.deleted = false AND e.department = :department")
+    List<Object[]> salaryRangeByDepartment(@Param("department") String department);
+
+    // ========== 只读投影：直接查出需要的列构造 DTO，不加载托管实体 ==========
+    String RESPONSE_SELECT = "SELECT new com.example.empmgmt.dto.response.EmployeeResponse(" +
+            "e.id, e.name, e.gender, e.age, e.department, e.position, e.hireDate, e.salary, " +
+            "e.avatar, e.createdAt, e.updatedAt) FROM Employee e ";
+
+    String EXPORT_SELECT = "SELECT new com.example.empmgmt.dto.vo.EmployeeExportVO(" +
+            "e.id, e.name, e.gender, e.age, e.department, e.position, e.hireDate, e.salary, " +
+            "e.avatar, e.createdAt, e.updatedAt) FROM Employee e ";
+
+    String NAME_LIKE = "lower(e.name) LIKE lower(concat('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}";
+
+    // 分页列表
+    @Query(value = RESPONSE_SELECT + "WHERE e.deleted = false",
+            countQuery = "SELECT COUNT(e) FROM Employee e WHERE e.deleted = false")
+    Page<EmployeeResponse> findResponsePage(Pageable pageable);
+
+    @Query(value = RESPONSE_SELECT + "WHERE e.deleted = false AND " + NAME_LIKE,
+            countQuery = "SELECT COUNT(e) FROM Employee e WHERE e.deleted = false AND " + NAME_LIKE)
+    Page<EmployeeResponse> findResponsePageByName(@Param("name") String name, Pageable pageable);
+
+    @Query(value = RESPONSE_SELECT + "WHERE e.deleted = false AND e.department = :department",
+            countQuery = "SELECT COUNT(e) FROM Employee e WHERE e.deleted = false AND e.department = :department")
+    Page<EmployeeResponse> findResponsePageByDepartment(@Param("department") String department, Pageable pageable);
+
+    // 不分页列表
+    @Query(RESPONSE_SELECT + "WHERE e.deleted = false ORDER BY e.id")
+    List<EmployeeResponse> findResponses();
+
+    @Query(RESPONSE_SELECT + "WHERE e.deleted = false AND " + NAME_LIKE + " ORDER BY e.id")
+    List<EmployeeResponse> findResponsesByName(@Param("name") String name);
+
+    @Query(RESPONSE_SELECT + "WHERE e.deleted = false AND e.department = :department ORDER BY e.id")
+    List<EmployeeResponse> findResponsesByDepartment(@Param("department") String department);
+
+    @Query(RESPONSE_SELECT + "WHERE e.deleted = false AND e.id IN :ids")
+    List<EmployeeResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 导出
+    @Query(EXPORT_SELECT + "WHERE e.deleted = false ORDER BY e.id")
+    List<EmployeeExportVO> findExportRows();
+
+    @Query(EXPORT_SELECT + "WHERE e.deleted = false AND e.department = :department ORDER BY e.id")
+    List<EmployeeExportVO> findExportRowsByDepartment(@Param("department") String department);
+
+    @Query(EXPORT_SELECT + "WHERE e.deleted = false AND e.department = :department AND e.position = :position ORDER BY e.id")
+    List<EmployeeExportVO> findExportRowsByDepartmentAndPosition(@Param("department") String department,
+                                                                 @Param("position") String position);
+
+    // 导出按 id 键集分页：每页一次短查询，写 Excel 期间不占用数据库连接
+    @Query(EXPORT_SELECT + "WHERE e.deleted = false AND e.id > :afterId ORDER BY e.id")
+    List<EmployeeExportVO> findExportRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(EXPORT_SELECT + "WHERE e.deleted = false AND e.department = :department AND e.id > :afterId ORDER BY e.id")
+    List<EmployeeExportVO> findExportRowsByDepartmentAfter(@Param("department") String department,
+                                                           @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(EXPORT_SELECT + "WHERE e.deleted = false AND e.department = :department AND e.position = :position " +
+            "AND e.id > :afterId ORDER BY e.id")
+    List<EmployeeExportVO> findExportRowsByDepartmentAndPositionAfter(@Param("department") String department,
+                                                                      @Param("position") String position,
+                                                                      @Param("afterId") Long afterId,
+                                                                      Pageable pageable);
 }
@@ -0,0 +1,34 @@
+package com.example.empmgmt.repository;
+
+import com.example.empmgmt.domain.ExportOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ExportOutboxRepository extends JpaRepository<ExportOutbox, Long> {
+
+    /**
+     * 锁定一批到期的待发送消息（FOR UPDATE SKIP LOCKED）：多个节点同时中继时各取各的，不会重复投递
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT o FROM ExportOutbox o WHERE o.status = 'PENDING' AND o.nextAttemptAt <= :now ORDER BY o.id")
+    List<ExportOutbox> lockPending(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * 清理已发送的旧消息
+     */
+    @Modifying
+    @Query("DELETE FROM ExportOutbox o WHERE o.status = 'SENT' AND o.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -2,24 +2,14 @@ package com.example.empmgmt.repository;
 
 
 import com.example.empmgmt.domain.OperationLog;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-
-public interface OperationLogRepository extends JpaRepository<OperationLog, Long> {
-
-    /**
-     * 根据用户ID分页查询
-     */
-    Page<OperationLog> findByUserId(Long userId, Pageable pageable);
-
-    /**
-     * 根据模块分页查询
-     */
-    Page<OperationLog> findByModule(String module, Pageable pageable);
-
-    /**
-     * 根据操作类型分页查询
-     */
-    Page<OperationLog> findByOperationType(String operationType, Pageable pageable);
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+/**
+ * operation_log 按 created_at 月分区；组合条件查询见 OperationLogQueryServiceImpl，
+ * 条件里总是带时间范围，PostgreSQL 只扫描范围内的分区
+ */
+public interface OperationLogRepository extends JpaRepository<OperationLog, Long>
+        // 继承 JpaSpecificationExecutor 以支持动态查询
+        , JpaSpecificationExecutor<OperationLog> {
 }
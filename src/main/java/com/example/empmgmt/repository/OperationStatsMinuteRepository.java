@@ -0,0 +1,38 @@
+package com.example.empmgmt.repository;
+
+import com.example.empmgmt.domain.OperationStatsMinute;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface OperationStatsMinuteRepository extends JpaRepository<OperationStatsMinute, Long> {
+
+    /**
+     * 按 (模块, 日志点, 状态, 分钟) 顺序流式读取范围内的直方图，条件为 null 时不过滤。
+     * 只查标量列，不进持久化上下文，读多少行内存都不会涨；必须在事务里消费并关闭
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s.module, s.method, s.status, s.bucketStart, s.histogram FROM OperationStatsMinute s " +
+            "WHERE s.bucketStart >= :from AND s.bucketStart < :to " +
+            "AND (:module IS NULL OR s.module = :module) " +
+            "AND (:method IS NULL OR s.method = :method) " +
+            "AND (:status IS NULL OR s.status = :status) " +
+            "ORDER BY s.module, s.method, s.status, s.bucketStart")
+    Stream<Object[]> streamInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                   @Param("module") String module, @Param("method") String method,
+                                   @Param("status") String status);
+
+    /**
+     * 清理过期的分钟汇总
+     */
+    @Modifying
+    @Query("DELETE FROM OperationStatsMinute s WHERE s.bucketStart < :before")
+    int deleteByBucketStartBefore(@Param("before") LocalDateTime before);
+}
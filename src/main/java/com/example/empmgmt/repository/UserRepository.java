@@ -1,22 +1,31 @@
 package com.example.empmgmt.repository;
 
 import com.example.empmgmt.domain.User;
+import com.example.empmgmt.dto.vo.UserExportVO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User,Long>, JpaSpecificationExecutor<User> {
 
     /**
-     * 根据用户名查询用户
+     * 根据用户名查询用户（登录、注册校验都会走，结果进查询缓存）
      */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "query.user-by-username")
+    })
     Optional<User> findByUsername(String username);
 
     /**
@@ -56,6 +65,12 @@ public interface UserRepository extends JpaRepository<User,Long>, JpaSpecificati
     @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.employee e WHERE e.deleted = false OR e IS NULL")
     List<User> findAllWithEmployee();
 
+    /**
+     * 按ID批量加载用户并立即加载员工信息（分页第二步，一条 SQL 取回整页的关联数据）
+     */
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.employee WHERE u.id IN :ids")
+    List<User> findAllByIdsWithEmployee(@Param("ids") Collection<Long> ids);
+
     // ========== 新增：根据部门查找用户（连表查询） ==========
     /**
      * 根据员工部门查找用户（JPQL连表查询）
@@ -68,5 +83,32 @@ public interface UserRepository extends JpaRepository<User,Long>, JpaSpecificati
 
     // 根据角色查找用户
     List<User> findByRole(String role);
-}
 
+    // ========== 导出投影：直接查出需要的列，不加载托管实体 ==========
+    String EXPORT_SELECT = "SELECT new com.example.empmgmt.dto.vo.UserExportVO(" +
+            "u.id, u.username, u.email, u.role, u.department, u.employeeId, " +
+            "CASE WHEN u.enabled = true THEN '启用' ELSE '禁用' END, u.createdAt, u.updatedAt) FROM User u ";
+
+    @Query(EXPORT_SELECT + "ORDER BY u.id")
+    List<UserExportVO> findExportRows();
+
+    @Query(EXPORT_SELECT + "WHERE u.role = :role ORDER BY u.id")
+    List<UserExportVO> findExportRowsByRole(@Param("role") String role);
+
+    @Query(EXPORT_SELECT + "WHERE u.role = :role AND u.department = :department ORDER BY u.id")
+    List<UserExportVO> findExportRowsByRoleAndDepartment(@Param("role") String role,
+                                                         @Param("department") String department);
+
+    // 导出按 id 键集分页：每页一次短查询，写 Excel 期间不占用数据库连接
+    @Query(EXPORT_SELECT + "WHERE u.id > :afterId ORDER BY u.id")
+    List<UserExportVO> findExportRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(EXPORT_SELECT + "WHERE u.role = :role AND u.id > :afterId ORDER BY u.id")
+    List<UserExportVO> findExportRowsByRoleAfter(@Param("role") String role, @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
+    @Query(EXPORT_SELECT + "WHERE u.role = :role AND u.department = :department AND u.id > :afterId ORDER BY u.id")
+    List<UserExportVO> findExportRowsByRoleAndDepartmentAfter(@Param("role") String role,
+                                                              @Param("department") String department,
+                                                              @Param("afterId") Long afterId, Pageable pageable);
+}
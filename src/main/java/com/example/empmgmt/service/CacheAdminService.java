@@ -0,0 +1,19 @@
+package com.example.empmgmt.service;
+
+import com.example.empmgmt.dto.response.CacheStatsResponse;
+
+/**
+ * 二级缓存管理服务接口
+ */
+public interface CacheAdminService {
+
+    /**
+     * 二级缓存及各区域的命中统计
+     */
+    CacheStatsResponse getStats();
+
+    /**
+     * 清空本节点的全部二级缓存和查询缓存
+     */
+    void evictAll();
+}
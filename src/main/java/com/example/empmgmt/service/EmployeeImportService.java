@@ -0,0 +1,17 @@
+package com.example.empmgmt.service;
+
+import com.example.empmgmt.dto.response.EmployeeImportResponse;
+
+import java.io.File;
+
+/**
+ * 员工文件导入服务接口
+ */
+public interface EmployeeImportService {
+
+    /**
+     * 导入员工文件（xlsx / xls / csv），按扩展名选择解析方式
+     */
+    EmployeeImportResponse importFile(File file, String originalFilename);
+
+}
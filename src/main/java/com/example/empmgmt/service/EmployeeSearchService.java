@@ -0,0 +1,29 @@
+package com.example.empmgmt.service;
+
+import com.example.empmgmt.dto.response.EmployeeSearchResponse;
+import com.example.empmgmt.dto.response.SearchIndexCheckResponse;
+
+/**
+ * 员工搜索服务接口（基于进程内倒排索引）
+ */
+public interface EmployeeSearchService {
+
+    /**
+     * 搜索员工：姓名（支持拼音 / 首字母 / 模糊）+ 部门、职位过滤
+     */
+    EmployeeSearchResponse search(String keyword, String department, String position, int page, int size);
+
+    /**
+     * 从数据库全量重建索引
+     *
+     * @return 索引的员工数
+     */
+    int rebuild();
+
+    /**
+     * 与数据库逐条比对
+     *
+     * @param repair 是否修复不一致的条目
+     */
+    SearchIndexCheckResponse checkConsistency(boolean repair);
+}
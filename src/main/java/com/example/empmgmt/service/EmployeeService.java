@@ -3,13 +3,17 @@ package com.example.empmgmt.service;
 import com.example.empmgmt.domain.Employee;
 import com.example.empmgmt.dto.request.EmployeeCreateRequest;
 import com.example.empmgmt.dto.request.EmployeeUpdateRequest;
+import com.example.empmgmt.dto.response.DeptStatsDetailResponse;
 import com.example.empmgmt.dto.response.DeptStatsResponse;
+import com.example.empmgmt.dto.response.EmployeeBatchCreateResponse;
 import com.example.empmgmt.dto.response.EmployeeResponse;
 import com.example.empmgmt.dto.response.PageResponse;
+import com.example.empmgmt.dto.response.TenureBandStatsResponse;
 import com.example.empmgmt.repository.EmployeeRepository;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 public interface EmployeeService {
 
@@ -19,6 +23,21 @@ public interface EmployeeService {
      */
     EmployeeResponse create(EmployeeCreateRequest request);
 
+    /**
+     * 批量创建员工：按批分别提交事务，返回成功 / 失败统计
+     */
+    EmployeeBatchCreateResponse batchCreate(List<EmployeeCreateRequest> requests);
+
+    /**
+     * 在一个事务内写入一批员工，不清理列表缓存（由调用方写完后统一调用 evictListCache）
+     */
+    int insertBatch(List<EmployeeCreateRequest> requests);
+
+    /**
+     * 清理员工列表缓存
+     */
+    void evictListCache();
+
     /**
      * 更新员工
      */
@@ -59,8 +78,23 @@ public interface EmployeeService {
      */
     List<DeptStatsResponse> getDeptAvgSalary();
 
+    /**
+     * 各部门统计详情（人数、薪资合计/平均/最值、职位分布）
+     */
+    List<DeptStatsDetailResponse> getDeptStats();
+
     /**
      * 计算员工工龄（年）
      */
     BigDecimal getEmpYears(Long id);
+
+    /**
+     * 批量计算员工工龄（年），key 为员工ID，不存在的ID不返回
+     */
+    Map<Long, BigDecimal> getEmpYearsBatch(List<Long> ids);
+
+    /**
+     * 按工龄段统计人数和平均薪资
+     */
+    List<TenureBandStatsResponse> getTenureBandStats();
 }
@@ -5,6 +5,8 @@ import com.example.empmgmt.domain.ExportTask;
 import com.example.empmgmt.mq.dto.EmployeeExportParams;
 import com.example.empmgmt.mq.dto.UserExportParams;
 
+import org.springframework.web.multipart.MultipartFile;
+
 import java.util.List;
 
 /**
@@ -17,6 +19,9 @@ public interface ExportTaskService {
 
     Long createUserExportTask(UserExportParams params, Long userId);
 
+    // 保存上传文件并创建员工导入任务
+    Long createEmployeeImportTask(MultipartFile file, Long userId);
+
     // 发消息
     ExportTask getTask(Long taskId);
 
@@ -0,0 +1,57 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.dto.response.CacheStatsResponse;
+import com.example.empmgmt.service.CacheAdminService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+@Slf4j
+@Service
+public class CacheAdminServiceImpl implements CacheAdminService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheAdminServiceImpl(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public CacheStatsResponse getStats() {
+        Statistics statistics = sessionFactory().getStatistics();
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+
+        List<CacheStatsResponse.Region> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(name -> {
+                    CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+                    return region == null ? null : new CacheStatsResponse.Region(name,
+                            region.getHitCount(), region.getMissCount(), region.getPutCount(),
+                            region.getElementCountInMemory());
+                })
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new CacheStatsResponse(hits, misses, statistics.getSecondLevelCachePutCount(),
+                hits + misses == 0 ? null : (double) hits / (hits + misses),
+                statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(), regions);
+    }
+
+    @Override
+    public void evictAll() {
+        sessionFactory().getCache().evictAllRegions();
+        log.info("已清空本节点二级缓存");
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
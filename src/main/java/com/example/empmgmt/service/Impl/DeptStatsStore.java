@@ -0,0 +1,315 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.dto.response.DeptStatsDetailResponse;
+import com.example.empmgmt.dto.response.EmployeeResponse;
+import com.example.empmgmt.event.EmployeeChangedEvent;
+import com.example.empmgmt.repository.EmployeeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 部门统计内存物化视图
+ *
+ * 启动时用一次 GROUP BY 把各部门的人数、薪资合计/最小/最大、职位分布加载到内存，
+ * 之后根据 EmployeeChangedEvent 在事务提交后按差量更新，读统计只需遍历部门，不再访问数据库。
+ * 每个部门的聚合值是不可变对象，更新用 ConcurrentHashMap.compute 原子替换，读写都不加锁。
+ *
+ * 最小/最大值无法靠差量维护：删掉的恰好是最值时只标记为过期，下次读取时单独查一次该部门。
+ * 定时对账会整体重算，修正多节点部署时漏掉的事件。加载和对账串行执行；加载期间有变更的部门
+ * 保留按事件维护的值（数据库结果可能已包含也可能未包含这次变更），留到下次对账再核对，不会丢失或重复计入。
+ */
+@Slf4j
+@Service
+public class DeptStatsStore {
+
+    private static final String NO_POSITION = "未设置";
+
+    private final EmployeeRepository employeeRepository;
+
+    private final ConcurrentHashMap<String, DeptAggregate> aggregates = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // 首次加载和对账互斥
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    // 正在从数据库加载时记录收到变更的部门，没有加载时为 null
+    private volatile Set<String> changedDuringLoad;
+
+    public DeptStatsStore(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // 启动时数据库不可用不影响启动，第一次读取时再加载
+            log.warn("部门统计初始化失败，将在首次读取时重试", e);
+        }
+    }
+
+    /**
+     * 定期与数据库对账：重算后逐个部门修正，并记录有偏差的部门数
+     */
+    @Scheduled(initialDelayString = "${dept-stats.reconcile-interval-ms:300000}",
+            fixedDelayString = "${dept-stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!ready) {
+            return;
+        }
+        reloadLock.lock();
+        try {
+            Set<String> changed = ConcurrentHashMap.newKeySet();
+            changedDuringLoad = changed;
+            try {
+                Map<String, DeptAggregate> fresh = load();
+                Set<String> departments = new HashSet<>(aggregates.keySet());
+                departments.addAll(fresh.keySet());
+                AtomicInteger drift = new AtomicInteger();
+                for (String department : departments) {
+                    DeptAggregate target = fresh.get(department);
+                    // 和事件的差量更新一样在 compute 里替换，同一部门不会交错
+                    aggregates.compute(department, (k, old) -> {
+                        if (changed.contains(k)) {
+                            return old;
+                        }
+                        if (old == null ? target != null : target == null || !old.sameCounts(target)) {
+                            drift.incrementAndGet();
+                        }
+                        return target;
+                    });
+                }
+                if (drift.get() > 0) {
+                    log.warn("部门统计对账发现 {} 个部门与数据库不一致，已按数据库修正", drift.get());
+                }
+                if (!changed.isEmpty()) {
+                    log.debug("部门统计对账期间 {} 个部门有变更，留到下次对账核对", changed.size());
+                }
+            } finally {
+                changedDuringLoad = null;
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * 员工变更提交后按差量更新：先减去旧快照，再加上新快照
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        // 先登记再更新：对账替换某个部门时要么看到登记而保留，要么先替换、这次差量再加到新值上
+        Set<String> changed = changedDuringLoad;
+        if (changed != null) {
+            markChanged(changed, event.before());
+            markChanged(changed, event.after());
+        }
+        if (!ready) {
+            return;
+        }
+        if (event.before() != null) {
+            remove(event.before());
+        }
+        if (event.after() != null) {
+            add(event.after());
+        }
+    }
+
+    /**
+     * 所有部门的统计，按部门名排序
+     */
+    public List<DeptStatsDetailResponse> snapshot() {
+        if (!ready) {
+            rebuild();
+        }
+        List<DeptStatsDetailResponse> result = new ArrayList<>(aggregates.size());
+        for (Map.Entry<String, DeptAggregate> entry : aggregates.entrySet()) {
+            DeptAggregate aggregate = entry.getValue();
+            if (aggregate.extremesStale()) {
+                aggregate = refreshExtremes(entry.getKey(), aggregate);
+            }
+            result.add(aggregate.toResponse(entry.getKey()));
+        }
+        result.sort(Comparator.comparing(DeptStatsDetailResponse::department));
+        return result;
+    }
+
+    private void rebuild() {
+        boolean changedWhileLoading;
+        reloadLock.lock();
+        try {
+            if (ready) {
+                return;
+            }
+            Set<String> changed = ConcurrentHashMap.newKeySet();
+            changedDuringLoad = changed;
+            try {
+                aggregates.putAll(load());
+                ready = true;
+            } finally {
+                changedDuringLoad = null;
+            }
+            changedWhileLoading = !changed.isEmpty();
+            log.info("部门统计加载完成，共 {} 个部门", aggregates.size());
+        } finally {
+            reloadLock.unlock();
+        }
+        // 加载完成前的变更没有应用（还没有基准值），马上对账一次补上
+        if (changedWhileLoading) {
+            reconcile();
+        }
+    }
+
+    private static void markChanged(Set<String> changed, EmployeeResponse employee) {
+        if (employee != null && employee.department() != null) {
+            changed.add(employee.department());
+        }
+    }
+
+    private ConcurrentHashMap<String, DeptAggregate> load() {
+        Map<String, Map<String, Long>> positions = new HashMap<>();
+        for (Object[] row : employeeRepository.countByDepartmentAndPosition()) {
+            if (row[0] == null) {
+                continue;
+            }
+            String position = row[1] == null ? NO_POSITION : (String) row[1];
+            positions.computeIfAbsent((String) row[0], k -> new HashMap<>())
+                    .merge(position, ((Number) row[2]).longValue(), Long::sum);
+        }
+
+        ConcurrentHashMap<String, DeptAggregate> result = new ConcurrentHashMap<>();
+        for (Object[] row : employeeRepository.aggregateByDepartment()) {
+            String department = (String) row[0];
+            if (department == null) {
+                continue;
+            }
+            result.put(department, new DeptAggregate(
+                    ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(),
+                    row[3] == null ? BigDecimal.ZERO : (BigDecimal) row[3],
+                    (BigDecimal) row[4],
+                    (BigDecimal) row[5],
+                    false,
+                    Map.copyOf(positions.getOrDefault(department, Map.of()))
+            ));
+        }
+        return result;
+    }
+
+    private void add(EmployeeResponse employee) {
+        if (employee.department() == null) {
+            return;
+        }
+        aggregates.compute(employee.department(), (k, old) ->
+                (old == null ? DeptAggregate.EMPTY : old).plus(employee.salary(), positionOf(employee)));
+    }
+
+    private void remove(EmployeeResponse employee) {
+        if (employee.department() == null) {
+            return;
+        }
+        aggregates.computeIfPresent(employee.department(), (k, old) ->
+                old.minus(employee.salary(), positionOf(employee)));
+    }
+
+    private DeptAggregate refreshExtremes(String department, DeptAggregate stale) {
+        List<Object[]> rows = employeeRepository.salaryRangeByDepartment(department);
+        Object[] range = rows.isEmpty() ? new Object[2] : rows.get(0);
+        DeptAggregate refreshed = stale.withExtremes((BigDecimal) range[0], (BigDecimal) range[1]);
+        // 只有在这期间没有别的变更时才写回，否则下次读取再刷新
+        aggregates.replace(department, stale, refreshed);
+        return refreshed;
+    }
+
+    private static String positionOf(EmployeeResponse employee) {
+        return employee.position() == null ? NO_POSITION : employee.position();
+    }
+
+    /**
+     * 单个部门的聚合值（不可变）
+     *
+     * @param salaryCount   有薪资的人数，用于计算平均值（与 SQL 的 AVG 一样忽略空值）
+     * @param extremesStale 最小/最大值是否因删除了最值而失效
+     */
+    record DeptAggregate(
+            long count,
+            long salaryCount,
+            BigDecimal salarySum,
+            BigDecimal minSalary,
+            BigDecimal maxSalary,
+            boolean extremesStale,
+            Map<String, Long> positionCounts
+    ) {
+
+        static final DeptAggregate EMPTY = new DeptAggregate(0, 0, BigDecimal.ZERO, null, null, false, Map.of());
+
+        DeptAggregate plus(BigDecimal salary, String position) {
+            Map<String, Long> positions = new HashMap<>(positionCounts);
+            positions.merge(position, 1L, Long::sum);
+            if (salary == null) {
+                return new DeptAggregate(count + 1, salaryCount, salarySum, minSalary, maxSalary,
+                        extremesStale, Map.copyOf(positions));
+            }
+            return new DeptAggregate(count + 1, salaryCount + 1, salarySum.add(salary),
+                    minSalary == null || salary.compareTo(minSalary) < 0 ? salary : minSalary,
+                    maxSalary == null || salary.compareTo(maxSalary) > 0 ? salary : maxSalary,
+                    extremesStale, Map.copyOf(positions));
+        }
+
+        /**
+         * @return 部门已无员工时返回 null，ConcurrentHashMap 会移除该部门
+         */
+        DeptAggregate minus(BigDecimal salary, String position) {
+            if (count <= 1) {
+                return null;
+            }
+            Map<String, Long> positions = new HashMap<>(positionCounts);
+            positions.computeIfPresent(position, (k, v) -> v > 1 ? v - 1 : null);
+            if (salary == null) {
+                return new DeptAggregate(count - 1, salaryCount, salarySum, minSalary, maxSalary,
+                        extremesStale, Map.copyOf(positions));
+            }
+            if (salaryCount <= 1) {
+                return new DeptAggregate(count - 1, 0, BigDecimal.ZERO, null, null, false, Map.copyOf(positions));
+            }
+            boolean removedExtreme = (minSalary != null && salary.compareTo(minSalary) == 0)
+                    || (maxSalary != null && salary.compareTo(maxSalary) == 0);
+            return new DeptAggregate(count - 1, salaryCount - 1, salarySum.subtract(salary),
+                    minSalary, maxSalary, extremesStale || removedExtreme, Map.copyOf(positions));
+        }
+
+        DeptAggregate withExtremes(BigDecimal min, BigDecimal max) {
+            return new DeptAggregate(count, salaryCount, salarySum, min, max, false, positionCounts);
+        }
+
+        /**
+         * 对账用：比较人数、薪资合计和职位分布（BigDecimal 按数值比较，忽略 scale）
+         */
+        boolean sameCounts(DeptAggregate other) {
+            return count == other.count
+                    && salaryCount == other.salaryCount
+                    && salarySum.compareTo(other.salarySum) == 0
+                    && positionCounts.equals(other.positionCounts);
+        }
+
+        DeptStatsDetailResponse toResponse(String department) {
+            BigDecimal avg = salaryCount == 0
+                    ? null
+                    : salarySum.divide(BigDecimal.valueOf(salaryCount), 2, RoundingMode.HALF_UP);
+            return new DeptStatsDetailResponse(department, count, salarySum, avg, minSalary, maxSalary,
+                    new TreeMap<>(positionCounts));
+        }
+    }
+}
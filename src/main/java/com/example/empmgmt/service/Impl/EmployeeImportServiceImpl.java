@@ -0,0 +1,380 @@
+package com.example.empmgmt.service.Impl;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.read.listener.ReadListener;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.example.empmgmt.common.Exception.BusinessException;
+import com.example.empmgmt.dto.request.EmployeeCreateRequest;
+import com.example.empmgmt.dto.response.EmployeeImportResponse;
+import com.example.empmgmt.dto.vo.EmployeeImportErrorVO;
+import com.example.empmgmt.dto.vo.EmployeeImportVO;
+import com.example.empmgmt.service.EmployeeImportService;
+import com.example.empmgmt.service.EmployeeService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * 员工文件导入
+ *
+ * xlsx / xls 用 EasyExcel 的 ReadListener 逐行回调，csv 用 BufferedReader 逐行读取，
+ * 每攒够 readBatchSize 行就并行校验一次，合格的行按 employee-batch.chunk-size 分批写入，
+ * 读过的行随即丢弃，内存占用与文件大小无关。
+ * 校验失败和写入失败的行连同原始数据写进错误报告，列表缓存在整个文件导入完成后只清理一次。
+ */
+@Slf4j
+@Service
+public class EmployeeImportServiceImpl implements EmployeeImportService {
+
+    // 严格解析，2 月 30 日这类日期直接报错而不是被调整成月末
+    private static final List<DateTimeFormatter> DATE_FORMATS = Stream.of("uuuu-M-d", "uuuu/M/d", "uuuu.M.d", "uuuuMMdd")
+            .map(pattern -> DateTimeFormatter.ofPattern(pattern).withResolverStyle(ResolverStyle.STRICT))
+            .toList();
+
+    // Excel 日期序列号的起点
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+
+    private static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final EmployeeService employeeService;
+    private final Validator validator;
+
+    @Value("${employee-import.dir:D:/imports}")
+    private String importDir;
+
+    @Value("${employee-import.read-batch-size:2000}")
+    private int readBatchSize;
+
+    @Value("${employee-import.validate-parallelism:4}")
+    private int parallelism;
+
+    @Value("${employee-batch.chunk-size:500}")
+    private int chunkSize;
+
+    public EmployeeImportServiceImpl(EmployeeService employeeService, Validator validator) {
+        this.employeeService = employeeService;
+        this.validator = validator;
+    }
+
+    @Override
+    public EmployeeImportResponse importFile(File file, String originalFilename) {
+        String name = (originalFilename == null ? file.getName() : originalFilename).toLowerCase();
+        boolean csv = name.endsWith(".csv");
+        if (!csv && !name.endsWith(".xlsx") && !name.endsWith(".xls")) {
+            throw new BusinessException("只支持导入 xlsx、xls、csv 文件");
+        }
+
+        long start = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        ImportJob job = new ImportJob(pool);
+        try {
+            if (csv) {
+                readCsv(file, job);
+            } else {
+                EasyExcel.read(file, EmployeeImportVO.class, new ReadListener<EmployeeImportVO>() {
+                    @Override
+                    public void invoke(EmployeeImportVO data, AnalysisContext context) {
+                        // rowIndex 从 0 开始且包含表头，+1 即 Excel 里看到的行号
+                        job.add(context.readRowHolder().getRowIndex() + 1, data);
+                    }
+
+                    @Override
+                    public void doAfterAllAnalysed(AnalysisContext context) {
+                    }
+                }).sheet().doRead();
+            }
+            job.flush();
+        } finally {
+            pool.shutdown();
+            job.closeReport();
+        }
+
+        // 整个文件只清理一次列表缓存
+        if (job.created > 0) {
+            employeeService.evictListCache();
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("员工文件导入完成：{}，共 {} 行，成功 {} 行，失败 {} 行，耗时 {} ms",
+                originalFilename, job.total, job.created, job.failed, elapsed);
+        return new EmployeeImportResponse(job.total, job.created, job.failed, elapsed,
+                job.reportFile == null ? null : job.reportFile.getAbsolutePath());
+    }
+
+    /**
+     * 逐行读取 csv：第一行是表头，按表头名称对应字段（不支持字段内换行）
+     */
+    private void readCsv(File file, ImportJob job) {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null) {
+                return;
+            }
+            // 去掉 Excel 另存为 csv 时带的 BOM
+            if (line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            Map<String, Integer> header = new HashMap<>();
+            List<String> headNames = parseCsvLine(line);
+            for (int i = 0; i < headNames.size(); i++) {
+                header.put(headNames.get(i).trim(), i);
+            }
+
+            int lineNo = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> cells = parseCsvLine(line);
+                job.add(lineNo, new EmployeeImportVO(
+                        cell(cells, header, "姓名"), cell(cells, header, "性别"),
+                        cell(cells, header, "年龄"), cell(cells, header, "部门"),
+                        cell(cells, header, "职位"), cell(cells, header, "入职日期"),
+                        cell(cells, header, "薪资"), cell(cells, header, "头像URL")));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取导入文件失败", e);
+        }
+    }
+
+    private static String cell(List<String> cells, Map<String, Integer> header, String column) {
+        Integer index = header.get(column);
+        return index == null || index >= cells.size() ? null : cells.get(index);
+    }
+
+    // 按 RFC 4180 拆分一行：逗号分隔，双引号包裹的字段里 "" 表示一个引号
+    static List<String> parseCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+
+    /**
+     * 把一行原始数据转换成创建请求并按 EmployeeCreateRequest 的约束校验
+     */
+    private Outcome check(Row row) {
+        EmployeeImportVO data = row.data();
+        List<String> errors = new ArrayList<>();
+        Set<String> badFormat = new HashSet<>();
+
+        Integer age = null;
+        String ageText = trim(data.getAge());
+        if (ageText != null) {
+            try {
+                age = new BigDecimal(ageText).intValueExact();
+            } catch (ArithmeticException | NumberFormatException e) {
+                errors.add("年龄格式不正确");
+                badFormat.add("age");
+            }
+        }
+
+        LocalDate hireDate = null;
+        String dateText = trim(data.getHireDate());
+        if (dateText != null) {
+            hireDate = parseDate(dateText);
+            if (hireDate == null) {
+                errors.add("入职日期格式不正确");
+                badFormat.add("hireDate");
+            }
+        }
+
+        BigDecimal salary = null;
+        String salaryText = trim(data.getSalary());
+        if (salaryText != null) {
+            try {
+                salary = new BigDecimal(salaryText.replace(",", ""));
+            } catch (NumberFormatException e) {
+                errors.add("薪资格式不正确");
+                badFormat.add("salary");
+            }
+        }
+
+        EmployeeCreateRequest request = new EmployeeCreateRequest(trim(data.getName()), trim(data.getGender()),
+                age, trim(data.getDepartment()), trim(data.getPosition()), hireDate, salary, trim(data.getAvatar()));
+
+        // 格式错误的字段已经报过，不再重复报“不能为空”
+        validator.validate(request).stream()
+                .filter(v -> !badFormat.contains(v.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .forEach(errors::add);
+
+        return errors.isEmpty() ? new Outcome(row, request, null) : new Outcome(row, null, String.join("；", errors));
+    }
+
+    private static LocalDate parseDate(String text) {
+        // 日期单元格按字符串读取时可能得到序列号，也可能带时间部分
+        if (text.matches("\\d{5}(\\.\\d+)?")) {
+            return EXCEL_EPOCH.plusDays((long) Double.parseDouble(text));
+        }
+        String date = text.split("[ T]")[0];
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(date, format);
+            } catch (DateTimeParseException ignored) {
+                // 尝试下一种格式
+            }
+        }
+        return null;
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * 一次导入的状态：读取缓冲、计数和错误报告，只在读取线程里使用
+     */
+    private class ImportJob {
+
+        private final ExecutorService pool;
+        private final List<Row> buffer = new ArrayList<>();
+        private int total;
+        private int created;
+        private int failed;
+        private File reportFile;
+        private ExcelWriter reportWriter;
+        private WriteSheet reportSheet;
+
+        ImportJob(ExecutorService pool) {
+            this.pool = pool;
+        }
+
+        void add(int rowNumber, EmployeeImportVO data) {
+            buffer.add(new Row(rowNumber, data));
+            total++;
+            if (buffer.size() >= Math.max(1, readBatchSize)) {
+                flush();
+            }
+        }
+
+        /**
+         * 并行校验缓冲区里的行，合格的分批写入，失败的写进错误报告
+         */
+        void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            List<Row> rows = new ArrayList<>(buffer);
+            buffer.clear();
+
+            int slice = (rows.size() + Math.max(1, parallelism) - 1) / Math.max(1, parallelism);
+            List<CompletableFuture<List<Outcome>>> futures = new ArrayList<>();
+            for (int from = 0; from < rows.size(); from += slice) {
+                List<Row> part = rows.subList(from, Math.min(from + slice, rows.size()));
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> part.stream().map(EmployeeImportServiceImpl.this::check).toList(), pool));
+            }
+
+            List<Outcome> valid = new ArrayList<>();
+            List<Outcome> invalid = new ArrayList<>();
+            for (CompletableFuture<List<Outcome>> future : futures) {
+                for (Outcome outcome : future.join()) {
+                    (outcome.error() == null ? valid : invalid).add(outcome);
+                }
+            }
+
+            int size = Math.max(1, chunkSize);
+            for (int from = 0; from < valid.size(); from += size) {
+                List<Outcome> chunk = valid.subList(from, Math.min(from + size, valid.size()));
+                try {
+                    created += employeeService.insertBatch(chunk.stream().map(Outcome::request).toList());
+                } catch (Exception e) {
+                    String reason = "写入失败: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                    log.warn("员工导入第 {} ~ {} 行所在批次写入失败", chunk.get(0).row().rowNumber(),
+                            chunk.get(chunk.size() - 1).row().rowNumber(), e);
+                    chunk.forEach(outcome -> invalid.add(new Outcome(outcome.row(), null, reason)));
+                }
+            }
+
+            if (!invalid.isEmpty()) {
+                invalid.sort(Comparator.comparingInt(outcome -> outcome.row().rowNumber()));
+                writeReport(invalid);
+                failed += invalid.size();
+            }
+        }
+
+        // 错误报告按需创建，边导入边追加写入
+        private void writeReport(List<Outcome> outcomes) {
+            if (reportWriter == null) {
+                File dir = new File(importDir);
+                if (!dir.exists()) {
+                    dir.mkdirs();
+                }
+                reportFile = new File(dir, "employee_import_errors_" + LocalDateTime.now().format(FILE_NAME_FORMATTER)
+                        + "_" + UUID.randomUUID().toString().substring(0, 8) + ".xlsx");
+                reportWriter = EasyExcel.write(reportFile, EmployeeImportErrorVO.class).build();
+                reportSheet = EasyExcel.writerSheet("错误明细").build();
+            }
+            List<EmployeeImportErrorVO> rows = outcomes.stream().map(outcome -> {
+                EmployeeImportVO data = outcome.row().data();
+                return new EmployeeImportErrorVO(outcome.row().rowNumber(), data.getName(), data.getGender(),
+                        data.getAge(), data.getDepartment(), data.getPosition(), data.getHireDate(),
+                        data.getSalary(), data.getAvatar(), outcome.error());
+            }).toList();
+            reportWriter.write(rows, reportSheet);
+        }
+
+        void closeReport() {
+            if (reportWriter != null) {
+                reportWriter.finish();
+            }
+        }
+    }
+
+    private record Row(int rowNumber, EmployeeImportVO data) {
+    }
+
+    // 校验结果：request 和 error 二选一
+    private record Outcome(Row row, EmployeeCreateRequest request, String error) {
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.util.PinyinUtil;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 员工搜索倒排索引（进程内）
+ *
+ * 姓名切成一元 / 二元字组（n-gram），再加上全拼前缀和首字母前缀，
+ * 每个 token 对应一个员工ID集合；部门、职位各自再建一份分面索引。
+ * 查询时先用 token 求交集拿到候选集，再逐个校验打分，只对候选集排序，
+ * 不需要像 LIKE '%x%' 那样扫描全部数据。
+ *
+ * 同一个员工的增删改通过 docs.compute 串行化，不同员工之间互不阻塞；
+ * 共用的 token 集合增删都在对应 key 的 compute 里做，避免加到刚被移出 map 的空集合里。
+ */
+public class EmployeeSearchIndex {
+
+    // token 前缀：n = 姓名字组，p = 全拼前缀，i = 首字母前缀
+    private static final String NAME = "n:";
+    private static final String PINYIN = "p:";
+    private static final String INITIALS = "i:";
+    // 全拼前缀最长索引到多少个字母，更长的查询用这个长度的前缀召回后再校验
+    private static final int MAX_PINYIN_PREFIX = 12;
+
+    private static final String NO_VALUE = "未设置";
+
+    // 分数高的在前，同分时名字短的（更接近查询词）在前
+    private static final Comparator<Hit> BY_SCORE = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparingInt((Hit h) -> h.doc().normalizedName().length())
+            .thenComparingLong(h -> h.doc().id());
+    private static final Comparator<Hit> BY_ID = Comparator.comparingLong(h -> h.doc().id());
+
+    private final ConcurrentHashMap<Long, Doc> docs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Long>> departments = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Long>> positions = new ConcurrentHashMap<>();
+
+    /**
+     * 新增或覆盖一个员工
+     */
+    public void put(Long id, String name, String department, String position) {
+        Doc doc = Doc.of(id, name, department, position);
+        docs.compute(id, (k, old) -> {
+            if (old != null) {
+                unindex(old);
+            }
+            index(doc);
+            return doc;
+        });
+    }
+
+    /**
+     * 移除一个员工
+     */
+    public void remove(Long id) {
+        docs.computeIfPresent(id, (k, old) -> {
+            unindex(old);
+            return null;
+        });
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    /**
+     * 取索引里的员工快照（一致性校验用）
+     */
+    public Doc get(Long id) {
+        return docs.get(id);
+    }
+
+    public Set<Long> ids() {
+        return docs.keySet();
+    }
+
+    /**
+     * 员工的每个 token、部门、职位是否都还在倒排索引里（一致性校验用）
+     */
+    public boolean fullyIndexed(Doc doc) {
+        for (String token : tokensOf(doc)) {
+            if (!contains(postings, token, doc.id())) {
+                return false;
+            }
+        }
+        return contains(departments, doc.department(), doc.id())
+                && contains(positions, doc.position(), doc.id());
+    }
+
+    private static boolean contains(Map<String, Set<Long>> map, String key, Long id) {
+        Set<Long> ids = map.get(key);
+        return ids != null && ids.contains(id);
+    }
+
+    /**
+     * 搜索
+     *
+     * @param query      关键字：汉字按字组匹配，字母按拼音全拼 / 首字母前缀匹配；为空时只按分面过滤
+     * @param department 部门过滤，可为空
+     * @param position   职位过滤，可为空
+     * @param offset     跳过前多少条
+     * @param limit      返回多少条
+     */
+    public SearchResult search(String query, String department, String position, int offset, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return browse(department, position, offset, limit);
+        }
+
+        // 分面统计基于关键字命中的结果，方便前端展示“还可以按哪些部门 / 职位筛选”
+        Map<String, Long> departmentFacets = new HashMap<>();
+        Map<String, Long> positionFacets = new HashMap<>();
+        List<Hit> filtered = new ArrayList<>();
+        for (Hit hit : match(q)) {
+            Doc doc = hit.doc();
+            departmentFacets.merge(doc.department(), 1L, Long::sum);
+            positionFacets.merge(doc.position(), 1L, Long::sum);
+            if (accept(doc, department, position)) {
+                filtered.add(hit);
+            }
+        }
+        return new SearchResult(filtered.size(), topK(filtered, offset, limit, BY_SCORE),
+                departmentFacets, positionFacets);
+    }
+
+    /**
+     * 没有关键字时只按分面过滤：直接从分面索引取候选集，分面计数就是各集合的大小
+     */
+    private SearchResult browse(String department, String position, int offset, int limit) {
+        Collection<Long> base;
+        if (department != null && !department.isBlank()) {
+            base = departments.getOrDefault(department, Set.of());
+        } else if (position != null && !position.isBlank()) {
+            base = positions.getOrDefault(position, Set.of());
+        } else {
+            base = docs.keySet();
+        }
+        List<Hit> hits = new ArrayList<>();
+        for (Long id : base) {
+            Doc doc = docs.get(id);
+            if (doc != null && accept(doc, department, position)) {
+                hits.add(new Hit(doc, 0));
+            }
+        }
+        return new SearchResult(hits.size(), topK(hits, offset, limit, BY_ID), sizes(departments), sizes(positions));
+    }
+
+    private static boolean accept(Doc doc, String department, String position) {
+        return (department == null || department.isBlank() || department.equals(doc.department()))
+                && (position == null || position.isBlank() || position.equals(doc.position()));
+    }
+
+    private static Map<String, Long> sizes(Map<String, Set<Long>> facets) {
+        Map<String, Long> result = new HashMap<>();
+        facets.forEach((key, ids) -> result.put(key, (long) ids.size()));
+        return result;
+    }
+
+    private List<Hit> match(String q) {
+        Set<Long> candidates = new HashSet<>();
+
+        // 1. 姓名字组：所有字组都要命中（求交集，从最小的集合开始）
+        List<String> grams = grams(q);
+        Set<Long> nameCandidates = intersect(grams);
+        if (nameCandidates != null) {
+            candidates.addAll(nameCandidates);
+        }
+
+        // 2. 拼音：纯字母查询按全拼 / 首字母前缀召回
+        if (isAlpha(q)) {
+            addAll(candidates, postings.get(PINYIN + truncate(q)));
+            addAll(candidates, postings.get(INITIALS + q));
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (Long id : candidates) {
+            Doc doc = docs.get(id);
+            if (doc == null) {
+                continue;
+            }
+            int score = score(doc, q);
+            if (score > 0) {
+                hits.add(new Hit(doc, score));
+            }
+        }
+
+        // 3. 没有精确命中时做模糊匹配：至少一半字组命中即可（容忍错别字 / 多打一个字）
+        if (hits.isEmpty() && grams.size() > 1) {
+            hits = fuzzy(grams);
+        }
+        return hits;
+    }
+
+    private List<Hit> fuzzy(List<String> grams) {
+        Map<Long, Integer> matched = new HashMap<>();
+        for (String gram : grams) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                for (Long id : ids) {
+                    matched.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+        int required = (grams.size() + 1) / 2;
+        List<Hit> hits = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : matched.entrySet()) {
+            Doc doc = docs.get(entry.getKey());
+            if (doc != null && entry.getValue() >= required) {
+                hits.add(new Hit(doc, 20 * entry.getValue() / grams.size()));
+            }
+        }
+        return hits;
+    }
+
+    // 打分：完全相同 > 前缀 > 包含 > 拼音相同 > 拼音前缀 > 首字母
+    private static int score(Doc doc, String q) {
+        String name = doc.normalizedName();
+        if (name.equals(q)) {
+            return 100;
+        }
+        if (name.startsWith(q)) {
+            return 80;
+        }
+        if (name.contains(q)) {
+            return 60;
+        }
+        if (doc.pinyin().equals(q)) {
+            return 50;
+        }
+        if (doc.pinyin().startsWith(q)) {
+            return 40;
+        }
+        if (doc.initials().equals(q)) {
+            return 35;
+        }
+        if (doc.initials().startsWith(q)) {
+            return 30;
+        }
+        return 0;
+    }
+
+    // 用大小为 offset + limit 的堆取前 K 个，不对全部命中排序
+    private static List<Hit> topK(List<Hit> hits, int offset, int limit, Comparator<Hit> order) {
+        int k = offset + limit;
+        if (k <= 0 || offset >= hits.size()) {
+            return List.of();
+        }
+        PriorityQueue<Hit> heap = new PriorityQueue<>(k + 1, order.reversed());
+        for (Hit hit : hits) {
+            heap.offer(hit);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        List<Hit> sorted = new ArrayList<>(heap);
+        sorted.sort(order);
+        return sorted.subList(Math.min(offset, sorted.size()), sorted.size());
+    }
+
+    private Set<Long> intersect(List<String> tokens) {
+        List<Set<Long>> sets = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Set<Long> ids = postings.get(token);
+            if (ids == null) {
+                return null;
+            }
+            sets.add(ids);
+        }
+        if (sets.isEmpty()) {
+            return null;
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(sets.get(0));
+        for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+            result.retainAll(sets.get(i));
+        }
+        return result;
+    }
+
+    private void index(Doc doc) {
+        for (String token : tokensOf(doc)) {
+            addTo(postings, token, doc.id());
+        }
+        addTo(departments, doc.department(), doc.id());
+        addTo(positions, doc.position(), doc.id());
+    }
+
+    private void unindex(Doc doc) {
+        for (String token : tokensOf(doc)) {
+            removeFrom(postings, token, doc.id());
+        }
+        removeFrom(departments, doc.department(), doc.id());
+        removeFrom(positions, doc.position(), doc.id());
+    }
+
+    // 和 removeFrom 一样在 compute 里改集合，不会和“删空后移除”交错
+    private static void addTo(ConcurrentHashMap<String, Set<Long>> map, String key, Long id) {
+        map.compute(key, (k, ids) -> {
+            Set<Long> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(id);
+            return result;
+        });
+    }
+
+    private static void removeFrom(ConcurrentHashMap<String, Set<Long>> map, String key, Long id) {
+        map.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<String> tokensOf(Doc doc) {
+        String name = doc.normalizedName();
+        Set<String> tokens = new HashSet<>(grams(name));
+        for (int i = 0; i < name.length(); i++) {
+            tokens.add(NAME + name.charAt(i));
+        }
+        String pinyin = doc.pinyin();
+        for (int len = 1; len <= Math.min(pinyin.length(), MAX_PINYIN_PREFIX); len++) {
+            tokens.add(PINYIN + pinyin.substring(0, len));
+        }
+        String initials = doc.initials();
+        for (int len = 1; len <= initials.length(); len++) {
+            tokens.add(INITIALS + initials.substring(0, len));
+        }
+        return tokens;
+    }
+
+    // 二元字组；单字时返回一元字组（索引时会额外加入每个字的一元字组）
+    private static List<String> grams(String text) {
+        List<String> grams = new ArrayList<>();
+        if (text.length() == 1) {
+            grams.add(NAME + text);
+            return grams;
+        }
+        for (int i = 0; i + 1 < text.length(); i++) {
+            grams.add(NAME + text.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    private static String truncate(String q) {
+        return q.length() > MAX_PINYIN_PREFIX ? q.substring(0, MAX_PINYIN_PREFIX) : q;
+    }
+
+    private static boolean isAlpha(String q) {
+        for (int i = 0; i < q.length(); i++) {
+            char c = q.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addAll(Set<Long> target, Set<Long> source) {
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 索引中的员工快照
+     */
+    public record Doc(Long id, String name, String department, String position,
+                      String normalizedName, String pinyin, String initials) {
+
+        static Doc of(Long id, String name, String department, String position) {
+            String normalized = normalize(name);
+            return new Doc(id, name,
+                    department == null ? NO_VALUE : department,
+                    position == null ? NO_VALUE : position,
+                    normalized, PinyinUtil.toPinyin(normalized), PinyinUtil.toInitials(normalized));
+        }
+
+        /**
+         * 与数据库中的值是否一致（一致性校验用）
+         */
+        public boolean sameAs(String name, String department, String position) {
+            return Objects.equals(this.name, name)
+                    && this.department.equals(department == null ? NO_VALUE : department)
+                    && this.position.equals(position == null ? NO_VALUE : position);
+        }
+    }
+
+    public record Hit(Doc doc, int score) {
+    }
+
+    public record SearchResult(long total, List<Hit> hits,
+                               Map<String, Long> departmentFacets, Map<String, Long> positionFacets) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.Exception.BusinessException;
+import com.example.empmgmt.domain.Employee;
+import com.example.empmgmt.dto.response.EmployeeResponse;
+import com.example.empmgmt.dto.response.EmployeeSearchResponse;
+import com.example.empmgmt.dto.response.SearchIndexCheckResponse;
+import com.example.empmgmt.event.EmployeeChangedEvent;
+import com.example.empmgmt.repository.EmployeeRepository;
+import com.example.empmgmt.service.EmployeeSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 员工搜索服务
+ *
+ * 索引启动时从 employee 表按 id 区间并行加载，之后靠 EmployeeChangedEvent 在事务提交后增量维护。
+ * 重建期间发生的变更会记下员工ID，新索引替换上线后再按ID回查数据库补一遍，避免丢更新。
+ * 重建串行执行：并发的重建会互相清掉对方记下的变更ID，未就绪时的搜索也只等同一次重建。
+ * 搜索只在内存里算出当前页的ID，再按主键从数据库取完整数据。
+ */
+@Slf4j
+@Service
+public class EmployeeSearchServiceImpl implements EmployeeSearchService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SCAN_SQL = "SELECT id, name, department, position FROM employee " +
+            "WHERE deleted = false AND id BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EmployeeRepository employeeRepository;
+
+    @Value("${employee-search.rebuild-parallelism:4}")
+    private int parallelism;
+
+    @Value("${employee-search.scan-chunk-size:20000}")
+    private long chunkSize;
+
+    private volatile EmployeeSearchIndex index = new EmployeeSearchIndex();
+    private volatile boolean ready;
+    // 重建期间变更过的员工ID，非 null 表示正在重建
+    private volatile Set<Long> changedDuringRebuild;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public EmployeeSearchServiceImpl(JdbcTemplate jdbcTemplate, EmployeeRepository employeeRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.employeeRepository = employeeRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("员工搜索索引初始化失败，将在首次搜索时重试", e);
+        }
+    }
+
+    /**
+     * 员工变更提交后更新索引
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        Set<Long> pending = changedDuringRebuild;
+        if (pending != null) {
+            pending.add(event.employeeId());
+        }
+        EmployeeResponse after = event.after();
+        if (after != null) {
+            index.put(after.id(), after.name(), after.department(), after.position());
+        } else {
+            index.remove(event.employeeId());
+        }
+    }
+
+    @Override
+    public EmployeeSearchResponse search(String keyword, String department, String position, int page, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException("每页条数必须在 1 ~ " + MAX_PAGE_SIZE + " 之间");
+        }
+        ensureReady();
+        int pageNo = Math.max(page, 1);
+        EmployeeSearchIndex.SearchResult result =
+                index.search(keyword, department, position, (pageNo - 1) * size, size);
+
+        // 只按主键取当前页的数据，并保持相关度顺序
+        List<Long> ids = result.hits().stream().map(hit -> hit.doc().id()).toList();
+        Map<Long, EmployeeResponse> byId = ids.isEmpty() ? Map.of()
+                : employeeRepository.findResponsesByIdIn(ids).stream()
+                        .collect(Collectors.toMap(EmployeeResponse::id, Function.identity()));
+        List<EmployeeResponse> records = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            EmployeeResponse employee = byId.get(id);
+            if (employee != null) {
+                records.add(employee);
+            }
+        }
+
+        return new EmployeeSearchResponse(records, result.total(), pageNo, size,
+                new TreeMap<>(result.departmentFacets()), new TreeMap<>(result.positionFacets()));
+    }
+
+    @Override
+    public int rebuild() {
+        rebuildLock.lock();
+        try {
+            return doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void ensureReady() {
+        if (!ready) {
+            rebuildLock.lock();
+            try {
+                if (!ready) {
+                    doRebuild();
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+
+    private int doRebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> pending = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = pending;
+        try {
+            EmployeeSearchIndex fresh = new EmployeeSearchIndex();
+            scanAll(row -> fresh.put(row.id(), row.name(), row.department(), row.position()));
+            index = fresh;
+            ready = true;
+        } finally {
+            changedDuringRebuild = null;
+        }
+
+        // 补上扫描期间提交的变更
+        if (!pending.isEmpty()) {
+            reindex(pending);
+        }
+        log.info("员工搜索索引重建完成，共 {} 人，重建期间补录 {} 人，耗时 {} ms",
+                index.size(), pending.size(), System.currentTimeMillis() - start);
+        return index.size();
+    }
+
+    @Override
+    public SearchIndexCheckResponse checkConsistency(boolean repair) {
+        EmployeeSearchIndex current = index;
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        Set<Long> missing = ConcurrentHashMap.newKeySet();
+        Set<Long> stale = ConcurrentHashMap.newKeySet();
+
+        scanAll(row -> {
+            seen.add(row.id());
+            EmployeeSearchIndex.Doc doc = current.get(row.id());
+            if (doc == null) {
+                missing.add(row.id());
+            } else if (!doc.sameAs(row.name(), row.department(), row.position()) || !current.fullyIndexed(doc)) {
+                // 字段不一致，或者倒排里丢了某个 token / 分面，都重新索引
+                stale.add(row.id());
+            }
+        });
+        List<Long> extra = current.ids().stream().filter(id -> !seen.contains(id)).toList();
+
+        boolean repaired = false;
+        if (repair && (!missing.isEmpty() || !stale.isEmpty() || !extra.isEmpty())) {
+            reindex(missing);
+            reindex(stale);
+            extra.forEach(current::remove);
+            repaired = true;
+            log.warn("搜索索引修复：缺失 {}，不一致 {}，多余 {}", missing.size(), stale.size(), extra.size());
+        }
+        return new SearchIndexCheckResponse(seen.size(), current.size(),
+                missing.size(), stale.size(), extra.size(), repaired);
+    }
+
+    // 按ID回查数据库重新索引：存在且未删除的覆盖，其余移除
+    private void reindex(Collection<Long> ids) {
+        EmployeeSearchIndex current = index;
+        Set<Long> remaining = new HashSet<>(ids);
+        for (Employee employee : employeeRepository.findAllById(ids)) {
+            if (!employee.getDeleted()) {
+                current.put(employee.getId(), employee.getName(), employee.getDepartment(), employee.getPosition());
+                remaining.remove(employee.getId());
+            }
+        }
+        remaining.forEach(current::remove);
+    }
+
+    /**
+     * 按 id 区间切片并行扫描未删除的员工
+     */
+    private void scanAll(Consumer<Row> consumer) {
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM employee");
+        if (range.get("lo") == null) {
+            return;
+        }
+        long lo = ((Number) range.get("lo")).longValue();
+        long hi = ((Number) range.get("hi")).longValue();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (long from = lo; from <= hi; from += chunkSize) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(hi, from + chunkSize - 1);
+                futures.add(CompletableFuture.runAsync(() -> jdbcTemplate.query(SCAN_SQL, rs -> {
+                    consumer.accept(new Row(rs.getLong("id"), rs.getString("name"),
+                            rs.getString("department"), rs.getString("position")));
+                }, chunkFrom, chunkTo), pool));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private record Row(Long id, String name, String department, String position) {
+    }
+}
@@ -1,24 +1,36 @@
 package com.example.empmgmt.service.Impl;
 
 import com.example.empmgmt.common.Exception.BusinessException;
+import com.example.empmgmt.common.enums.TenureBand;
 import com.example.empmgmt.common.util.CacheKeyUtil;
+import com.example.empmgmt.common.util.CacheMetrics;
+import com.example.empmgmt.common.util.TenureUtil;
 import com.example.empmgmt.domain.Employee;
+import com.example.empmgmt.event.EmployeeChangedEvent;
 import com.example.empmgmt.dto.request.EmployeeCreateRequest;
 import com.example.empmgmt.dto.request.EmployeeUpdateRequest;
+import com.example.empmgmt.dto.response.DeptStatsDetailResponse;
 import com.example.empmgmt.dto.response.DeptStatsResponse;
+import com.example.empmgmt.dto.response.EmployeeBatchCreateResponse;
 import com.example.empmgmt.dto.response.EmployeeResponse;
 import com.example.empmgmt.dto.response.PageResponse;
+import com.example.empmgmt.dto.response.TenureBandStatsResponse;
 import com.example.empmgmt.repository.EmployeeRepository;
 import com.example.empmgmt.service.EmployeeService;
 
 import com.example.empmgmt.common.util.SecurityUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 
 import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -27,12 +39,21 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.core.parameters.P;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -42,16 +63,35 @@ import java.util.concurrent.ThreadLocalRandom;
 public class EmployeeServiceImpl implements EmployeeService {
 
 
+    // 批量查询工龄时一次最多传入的ID数
+    private static final int MAX_BATCH_IDS = 500;
+
+    // 批量导入时每个事务提交的行数
+    @Value("${employee-batch.chunk-size:500}")
+    private int batchChunkSize;
+
     private final EmployeeRepository employeeRepository;
     private final StringRedisTemplate stringRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeptStatsStore deptStatsStore;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheMetrics listCacheMetrics;
 
     public EmployeeServiceImpl(EmployeeRepository employeeRepository,
                                StringRedisTemplate stringRedisTemplate,
-                               ObjectMapper objectMapper) {
+                               ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher,
+                               DeptStatsStore deptStatsStore,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry) {
         this.employeeRepository = employeeRepository;
         this.stringRedisTemplate = stringRedisTemplate;
         this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.deptStatsStore = deptStatsStore;
+        this.transactionTemplate = transactionTemplate;
+        this.listCacheMetrics = new CacheMetrics(meterRegistry, "employee-list");
     }
 
     //告诉Spring 这是 JPA 的 EntityManager，不是你自己 new 的
@@ -71,21 +111,98 @@ public class EmployeeServiceImpl implements EmployeeService {
         // 并且删除效率高于更新key，删的时候只需遍历这个 Set，O(1) 定位，O(N) 批量删
         clearEmployeeListCache();
 
-        return EmployeeResponse.from(saved);
+        EmployeeResponse response = EmployeeResponse.from(saved);
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(response));
+        return response;
     }
 
 
 
+    /**
+     * 批量创建员工
+     *
+     * 每 batchChunkSize 行一个事务：persist 后统一 flush，借助序列预分配的ID和 JDBC batch
+     * 一批只需要少量网络往返；flush 后 clear 持久化上下文，内存不随总行数增长。
+     * 某一批失败只回滚该批，已提交的批次保留，失败信息在结果里返回。
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public EmployeeBatchCreateResponse batchCreate(List<EmployeeCreateRequest> requests) {
+        long start = System.currentTimeMillis();
+        int chunkSize = Math.max(1, batchChunkSize);
+        int created = 0;
+        int batches = 0;
+        List<String> errors = new ArrayList<>();
+
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, requests.size());
+            List<EmployeeCreateRequest> chunk = requests.subList(from, to);
+            batches++;
+            try {
+                Integer inserted = transactionTemplate.execute(status -> insertChunk(chunk));
+                created += inserted == null ? 0 : inserted;
+            } catch (Exception e) {
+                log.warn("批量导入员工第 {} 批（第 {} ~ {} 行）失败", batches, from + 1, to, e);
+                errors.add("第 " + batches + " 批（第 " + (from + 1) + " ~ " + to + " 行）写入失败: "
+                        + e.getMessage());
+            }
+        }
+
+        if (created > 0) {
+            clearEmployeeListCache();
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("批量导入员工完成：共 {} 行，成功 {} 行，{} 批，耗时 {} ms",
+                requests.size(), created, batches, elapsed);
+        return new EmployeeBatchCreateResponse(requests.size(), created, requests.size() - created,
+                batches, elapsed, errors);
+    }
+
+    @Override
+    public int insertBatch(List<EmployeeCreateRequest> requests) {
+        return insertChunk(requests);
+    }
+
+    @Override
+    public void evictListCache() {
+        clearEmployeeListCache();
+    }
+
+    // 在当前事务内写入一批员工
+    private int insertChunk(List<EmployeeCreateRequest> chunk) {
+        // 批量写入的数据不回填二级缓存，避免挤掉热点数据
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        List<Employee> employees = new ArrayList<>(chunk.size());
+        for (EmployeeCreateRequest request : chunk) {
+            Employee employee = new Employee();
+            copyFromRequest(request, employee);
+            entityManager.persist(employee);
+            employees.add(employee);
+        }
+        entityManager.flush();
+
+        // 事务提交后统计 / 搜索索引按事件增量更新
+        for (Employee employee : employees) {
+            eventPublisher.publishEvent(EmployeeChangedEvent.created(EmployeeResponse.from(employee)));
+        }
+        entityManager.clear();
+        return employees.size();
+    }
+
     @Override
     public EmployeeResponse update(Long id, EmployeeUpdateRequest request) {
         Employee employee = employeeRepository.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new EntityNotFoundException("员工不存在，ID:" + id));
+        EmployeeResponse before = EmployeeResponse.from(employee);
         // 将dto赋值给实体对象
         copyFromRequest(request, employee);
         Employee updated = employeeRepository.save(employee);
         // 写后删除缓存
         clearEmployeeListCache();
-        return EmployeeResponse.from(updated);
+        EmployeeResponse response = EmployeeResponse.from(updated);
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(before, response));
+        return response;
     }
 
     @Override
@@ -93,6 +210,7 @@ public class EmployeeServiceImpl implements EmployeeService {
         Employee employee = employeeRepository.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new EntityNotFoundException("员工不存在，ID: " + id));
 
+        EmployeeResponse before = EmployeeResponse.from(employee);
         //软删除
         employee.setDeleted(true);
         employee.setDeletedAt(LocalDateTime.now());
@@ -100,6 +218,7 @@ public class EmployeeServiceImpl implements EmployeeService {
         // 写后删除缓存
         clearEmployeeListCache();
         employeeRepository.save(employee);
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(before));
     }
 
     @Override
@@ -111,6 +230,7 @@ public class EmployeeServiceImpl implements EmployeeService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PageResponse<EmployeeResponse> pageQuery(String name, String department, int page, int size) {
 
         // 1. 生成缓存 key
@@ -126,6 +246,7 @@ public class EmployeeServiceImpl implements EmployeeService {
                         new TypeReference<PageResponse<EmployeeResponse>>() {}
                 );
                 // 如果缓存存在，直接返回
+                listCacheMetrics.hit();
                 return employeeResponsePageResponse;
             } catch (Exception e) {
                 // 解析失败就当没缓存，用日志记录一下，不影响主流程
@@ -135,7 +256,8 @@ public class EmployeeServiceImpl implements EmployeeService {
 
 
         // 4. 缓存不存在，执行数据库查询
-        PageResponse<EmployeeResponse> pageResult = doQueryFromDb(name, department, page, size);
+        PageResponse<EmployeeResponse> pageResult = listCacheMetrics.load(
+                () -> doQueryFromDb(name, department, page, size));
 
         // 5. 查完将数据写入缓存（加一点随机 TTL，避免雪崩）
         try {
@@ -164,66 +286,101 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Override
     @Transactional(readOnly = true)
     public List<EmployeeResponse> listAll() {
-        return employeeRepository.findAllByDeletedFalse().stream()
-                .map(EmployeeResponse::from)
-                .toList();
+        return employeeRepository.findResponses();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<EmployeeResponse> search(String name, String department) {
-        List<Employee> employees;
+        // 投影查询直接返回 DTO，不创建托管实体和脏检查快照
         if (name != null && !name.isBlank()) {
-            // containing : LIKE '%值%' , 大量数据的时候不要使用
-            employees = employeeRepository.findByNameContainingIgnoreCaseAndDeletedFalse(name);
+            // containing : LIKE '%值%'，由 trigram 索引支撑
+            return employeeRepository.findResponsesByName(name);
         } else if (department != null && !department.isBlank()) {
-            employees = employeeRepository.findByDepartmentAndDeletedFalse(department);
-        } else {
-            employees = employeeRepository.findAllByDeletedFalse();
+            return employeeRepository.findResponsesByDepartment(department);
         }
-        return employees.stream()
-                .map(EmployeeResponse::from)
-                .toList();
+        return employeeRepository.findResponses();
     }
 
     @Override
     @Transactional(readOnly = true)
-    @SuppressWarnings("unchecked")
     public List<DeptStatsResponse> getDeptEmpCount() {
-        //调用pgsql函数
-        List<Object[]> rows = entityManager.createNativeQuery("SELECT * FROM fn_dept_emp_count()").getResultList();
-        return rows.stream()
-                .map(row -> new DeptStatsResponse(
-                        (String) row[0],      // department
-                        ((Number) row[1]).longValue(),  // empCount
-                        null                   // avgSalary 为 null
-                ))
+        // 从内存统计读取，不再每次调用 fn_dept_emp_count() 全表聚合
+        return deptStatsStore.snapshot().stream()
+                .map(stats -> new DeptStatsResponse(stats.department(), stats.empCount(), null))
                 .toList();
     }
 
     @Override
     @Transactional(readOnly = true)
-    @SuppressWarnings("unchecked")
     public List<DeptStatsResponse> getDeptAvgSalary() {
-        List<Object[]> rows = entityManager.createNativeQuery("SELECT * FROM fn_dept_avg_salary()").getResultList();
-        return rows.stream().map(row -> new DeptStatsResponse(
-                (String) row[0],
-                null,
-                (BigDecimal) row[1]
-        )).toList();
+        return deptStatsStore.snapshot().stream()
+                .map(stats -> new DeptStatsResponse(stats.department(), null, stats.avgSalary()))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DeptStatsDetailResponse> getDeptStats() {
+        return deptStatsStore.snapshot();
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getEmpYears(Long id) {
-        Object result = entityManager
-                .createNativeQuery("SELECT fn_emp_years(:id)")
-                .setParameter("id", id)
-                .getSingleResult();
-
-        return result == null
-                ? BigDecimal.ZERO
-                : new BigDecimal(result.toString());
+        // 在 Java 里按入职日期计算，不再调用 fn_emp_years()；和批量接口一样不算已删除的员工
+        return employeeRepository.findByIdAndDeletedFalse(id)
+                .map(employee -> TenureUtil.years(employee.getHireDate()))
+                .orElse(BigDecimal.ZERO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getEmpYearsBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Map.of();
+        }
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new BusinessException("一次最多查询 " + MAX_BATCH_IDS + " 个员工");
+        }
+        Map<Long, BigDecimal> result = new LinkedHashMap<>();
+        for (Employee employee : employeeRepository.findByIdInAndDeletedFalse(ids)) {
+            result.put(employee.getId(), TenureUtil.years(employee.getHireDate()));
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TenureBandStatsResponse> getTenureBandStats() {
+        LocalDate today = TenureUtil.today();
+        Map<TenureBand, long[]> counts = new EnumMap<>(TenureBand.class);
+        Map<TenureBand, BigDecimal> sums = new EnumMap<>(TenureBand.class);
+        for (TenureBand band : TenureBand.values()) {
+            counts.put(band, new long[2]);   // [人数, 有薪资人数]
+            sums.put(band, BigDecimal.ZERO);
+        }
+
+        // 一条 GROUP BY 按入职日期聚合，再在内存里归到工龄段
+        for (Object[] row : employeeRepository.aggregateByHireDate()) {
+            TenureBand band = TenureBand.of((LocalDate) row[0], today);
+            long[] c = counts.get(band);
+            c[0] += ((Number) row[1]).longValue();
+            c[1] += ((Number) row[2]).longValue();
+            if (row[3] != null) {
+                sums.put(band, sums.get(band).add((BigDecimal) row[3]));
+            }
+        }
+
+        return Arrays.stream(TenureBand.values())
+                .map(band -> {
+                    long[] c = counts.get(band);
+                    BigDecimal avg = c[1] == 0
+                            ? null
+                            : sums.get(band).divide(BigDecimal.valueOf(c[1]), 2, RoundingMode.HALF_UP);
+                    return new TenureBandStatsResponse(band.name(), band.getLabel(), c[0], avg);
+                })
+                .toList();
     }
 
     // 数据库查询方法
@@ -235,21 +392,18 @@ public class EmployeeServiceImpl implements EmployeeService {
                 Sort.by(Sort.Direction.ASC, "id")   // 核心：按 id 升序
         );
 
-        Page<Employee> employeePage;
+        Page<EmployeeResponse> mappedPage;
 
-        // 2. 根据搜索条件走不同的查询
+        // 2. 根据搜索条件走不同的查询，投影查询直接得到 EmployeeResponse
         if (name != null && !name.isBlank()) {
-            employeePage = employeeRepository.findByNameContainingIgnoreCaseAndDeletedFalse(name, pageable);
+            mappedPage = employeeRepository.findResponsePageByName(name, pageable);
         } else if (department != null && !department.isBlank()) {
-            employeePage = employeeRepository.findByDepartmentAndDeletedFalse(department, pageable);
+            mappedPage = employeeRepository.findResponsePageByDepartment(department, pageable);
         } else {
-            employeePage = employeeRepository.findAllByDeletedFalse(pageable);
+            mappedPage = employeeRepository.findResponsePage(pageable);
         }
 
-        // 3. 将 Page<Employee> 转成 Page<EmployeeResponse>
-        Page<EmployeeResponse> mappedPage = employeePage.map(EmployeeResponse::from);
-
-        // 4. 用 PageResponse 包装
+        // 3. 用 PageResponse 包装
         return PageResponse.of(mappedPage);
     }
 
@@ -270,7 +424,8 @@ public class EmployeeServiceImpl implements EmployeeService {
         employee.setDeletedBy(null);
         employee.setUpdatedBy(getCurrentUserId());
 
-        employeeRepository.save(employee);
+        Employee restored = employeeRepository.save(employee);
+        eventPublisher.publishEvent(EmployeeChangedEvent.restored(EmployeeResponse.from(restored)));
     }
 
 
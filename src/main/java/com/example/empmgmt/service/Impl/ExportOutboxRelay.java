@@ -0,0 +1,262 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.config.ExportMqConfig;
+import com.example.empmgmt.domain.ExportOutbox;
+import com.example.empmgmt.mq.dto.ExportTaskMessage;
+import com.example.empmgmt.repository.ExportOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 导出任务发件箱中继
+ *
+ * 提交任务时只在同一个事务里多写一行 export_outbox，不碰 RabbitMQ；事务提交后唤醒中继，
+ * 中继在单独的线程里锁定一批待发消息，全部发出后统一等 publisher confirm：
+ * broker ack 且没有被退回的标记 SENT，nack / 退回 / 超时的按指数退避稍后重试。
+ * 另有定时轮询兜底（应用重启、唤醒丢失、broker 暂时不可用时）。
+ *
+ * 投递语义是至少一次：ack 之后、标记 SENT 的事务提交之前宕机会重发，消费者按任务状态和 Redis 锁去重。
+ */
+@Slf4j
+@Component
+public class ExportOutboxRelay {
+
+    private final ExportOutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // 所有投递都在这一个线程里做，本节点内不会并发中继
+    private final ExecutorService relayExecutor =
+            Executors.newSingleThreadExecutor(r -> new Thread(r, "export-outbox-relay"));
+    // 已经排了一次中继还没开始执行时，后续唤醒直接合并
+    private final AtomicBoolean wakeUpQueued = new AtomicBoolean();
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Value("${export-outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${export-outbox.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${export-outbox.retry-initial-ms:1000}")
+    private long retryInitialMs;
+
+    @Value("${export-outbox.retry-max-ms:60000}")
+    private long retryMaxMs;
+
+    @Value("${export-outbox.retention-days:7}")
+    private int retentionDays;
+
+    public ExportOutboxRelay(ExportOutboxRepository outboxRepository,
+                             RabbitTemplate rabbitTemplate,
+                             ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 在调用方的事务里写入一条待发消息，事务提交后唤醒中继
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(ExportTaskMessage message) throws JsonProcessingException {
+        LocalDateTime now = LocalDateTime.now();
+        ExportOutbox outbox = new ExportOutbox();
+        outbox.setTaskId(message.getTaskId());
+        outbox.setPayload(objectMapper.writeValueAsString(message));
+        outbox.setStatus("PENDING");
+        outbox.setNextAttemptAt(now);
+        outbox.setCreatedAt(now);
+        outboxRepository.save(outbox);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+    }
+
+    /**
+     * 定时轮询兜底
+     */
+    @Scheduled(fixedDelayString = "${export-outbox.poll-interval-ms:1000}")
+    public void wakeUp() {
+        if (wakeUpQueued.compareAndSet(false, true)) {
+            try {
+                relayExecutor.execute(() -> {
+                    wakeUpQueued.set(false);
+                    drain();
+                });
+            } catch (Exception e) {
+                // 停机中线程池已关闭，剩下的交给下次启动
+                wakeUpQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * 一批一批发，直到没有到期的待发消息；返回本次标记 SENT 的条数
+     */
+    public int drain() {
+        int sent = 0;
+        try {
+            while (true) {
+                int[] result = transactionTemplate.execute(status -> relayBatch());
+                sent += result[1];
+                // 没取满说明已经发完；整批失败说明 broker 有问题，等下次轮询
+                if (result[0] < batchSize || result[1] == 0) {
+                    return sent;
+                }
+            }
+        } catch (Exception e) {
+            log.error("发件箱中继失败，等待下次轮询", e);
+            return sent;
+        }
+    }
+
+    /**
+     * 锁定一批到期消息并投递，返回 {取到的条数, 确认成功的条数}
+     */
+    private int[] relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ExportOutbox> batch = outboxRepository.lockPending(now, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return new int[]{0, 0};
+        }
+
+        // 先全部发出，再统一等确认，一批只等一个往返
+        List<CorrelationData> confirms = new ArrayList<>(batch.size());
+        for (ExportOutbox outbox : batch) {
+            CorrelationData correlation = new CorrelationData(String.valueOf(outbox.getId()));
+            try {
+                ExportTaskMessage message = objectMapper.readValue(outbox.getPayload(), ExportTaskMessage.class);
+                rabbitTemplate.convertAndSend(ExportMqConfig.EXPORT_EXCHANGE, ExportMqConfig.EXPORT_ROUTING_KEY,
+                        message, correlation);
+            } catch (Exception e) {
+                correlation.getFuture().completeExceptionally(e);
+            }
+            confirms.add(correlation);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        int sent = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            ExportOutbox outbox = batch.get(i);
+            String failure = awaitConfirm(confirms.get(i), deadline);
+            if (failure == null) {
+                outbox.setStatus("SENT");
+                outbox.setSentAt(LocalDateTime.now());
+                outbox.setLastError(null);
+                sent++;
+            } else {
+                int attempts = outbox.getAttempts() + 1;
+                outbox.setAttempts(attempts);
+                outbox.setNextAttemptAt(LocalDateTime.now().plusNanos(
+                        TimeUnit.MILLISECONDS.toNanos(backoffMs(attempts))));
+                outbox.setLastError(failure.length() > 500 ? failure.substring(0, 500) : failure);
+                log.warn("导出任务消息投递失败，稍后重试: taskId={}, attempts={}, reason={}",
+                        outbox.getTaskId(), attempts, failure);
+            }
+        }
+        if (sent < batch.size()) {
+            log.warn("发件箱本批投递 {} 条，成功 {} 条", batch.size(), sent);
+        }
+        return new int[]{batch.size(), sent};
+    }
+
+    /**
+     * 等一条消息的 publisher confirm，成功返回 null，否则返回失败原因
+     */
+    private String awaitConfirm(CorrelationData correlation, long deadline) {
+        String result;
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            CorrelationData.Confirm confirm = correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                result = "nack: " + confirm.getReason();
+            } else if (correlation.getReturned() != null) {
+                // mandatory 消息没有路由到任何队列时 broker 先退回再 ack
+                result = "returned: " + correlation.getReturned().getReplyText();
+            } else {
+                result = null;
+            }
+        } catch (TimeoutException e) {
+            result = "confirm timeout";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = "interrupted";
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            result = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        }
+        String outcome = result == null ? "ack"
+                : result.startsWith("nack") ? "nack"
+                : result.startsWith("returned") ? "returned"
+                : result.equals("confirm timeout") ? "timeout" : "error";
+        counters.computeIfAbsent(outcome, o -> Counter.builder("export.outbox.published")
+                .description("发件箱投递结果（ack 之外的都会稍后重试）")
+                .tag("result", o)
+                .register(meterRegistry)).increment();
+        return result;
+    }
+
+    private long backoffMs(int attempts) {
+        long delay = retryInitialMs << Math.min(attempts - 1, 20);
+        return Math.min(delay, retryMaxMs);
+    }
+
+    /**
+     * 清理已发送超过保留期的消息
+     */
+    @Transactional
+    @Scheduled(cron = "${export-outbox.purge-cron:0 50 1 * * *}")
+    public int purgeSent() {
+        int deleted = outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("清理 {} 天前已发送的发件箱消息 {} 条", retentionDays, deleted);
+        }
+        return deleted;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relayExecutor.shutdown();
+        try {
+            relayExecutor.awaitTermination(confirmTimeoutMs + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.example.empmgmt.service.Impl;
 
 import com.alibaba.excel.EasyExcel;
-import com.example.empmgmt.domain.Employee;
-import com.example.empmgmt.domain.User;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
 import com.example.empmgmt.dto.vo.EmployeeExportVO;
 import com.example.empmgmt.dto.vo.UserExportVO;
 import com.example.empmgmt.repository.EmployeeRepository;
@@ -10,14 +10,18 @@ import com.example.empmgmt.repository.UserRepository;
 import com.example.empmgmt.service.ExportService;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 @Service
 @Slf4j
@@ -29,6 +33,10 @@ public class ExportServiceImpl implements ExportService {
     // 文件名时间格式化器
     private static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
 
+    // 同步导出每页查询的行数
+    @Value("${export-sync.page-size:2000}")
+    private int pageSize;
+
     public ExportServiceImpl(EmployeeRepository employeeRepository, UserRepository userRepository) {
         this.employeeRepository = employeeRepository;
         this.userRepository = userRepository;
@@ -36,97 +44,79 @@ public class ExportServiceImpl implements ExportService {
 
     @Override
     public void exportEmployeesToExcel(String department, String position, HttpServletResponse response) throws IOException {
-        //1、查询数据
-        List<Employee> employee;
+        //1、按条件选择分页查询：投影查询直接得到导出 VO，不加载托管实体
+        Function<Long, List<EmployeeExportVO>> nextPage;
         if(department != null && !department.isEmpty()){
             if(position != null && !position.isEmpty()){
-                employee = employeeRepository.findByDepartmentAndPositionAndDeletedFalse(department, position);
+                nextPage = afterId -> employeeRepository.findExportRowsByDepartmentAndPositionAfter(
+                        department, position, afterId, PageRequest.of(0, pageSize));
             }else{
-                employee = employeeRepository.findByDepartmentAndDeletedFalse(department);
+                nextPage = afterId -> employeeRepository.findExportRowsByDepartmentAfter(
+                        department, afterId, PageRequest.of(0, pageSize));
             }
         }else {
             // 无过滤条件，查询所有未删除的员工
-            employee = employeeRepository.findAllByDeletedFalse();
+            nextPage = afterId -> employeeRepository.findExportRowsAfter(afterId, PageRequest.of(0, pageSize));
         }
-        
-        //2、转换为VO
-        List<EmployeeExportVO> voList = employee.stream().map(this::convertToEmployeeVO).toList();
 
-        //3、设置响应头
+        //2、设置响应头
         String fileName = "员工信息_" + LocalDateTime.now().format(FILE_NAME_FORMATTER) + ".xlsx";
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setCharacterEncoding("utf-8");
-        response.setHeader("Content-Disposition",
-                "attachment; filename=\"" + fileName + "\"; filename*=UTF-8''" + URLEncoder.encode(fileName, "UTF-8"));
-        // 4. 使用EasyExcel写入
-        EasyExcel.write(response.getOutputStream(), EmployeeExportVO.class)
-                .sheet("员工信息")
-                .doWrite(voList);
+        setExcelHeaders(response, fileName);
+        //3、逐页查询、逐页写入
+        writePages(response.getOutputStream(), EmployeeExportVO.class, "员工信息", nextPage, EmployeeExportVO::getId);
     }
 
     @Override
     public void exportUsersToExcel(String role, String department, HttpServletResponse response) throws IOException {
-        //1、查询数据
-        List<User> users;
+        //1、按条件选择分页查询：投影查询直接得到导出 VO
+        Function<Long, List<UserExportVO>> nextPage;
         if(role != null && !role.isEmpty()){
             if(department != null && !department.isEmpty()){
-                users = userRepository.findByRoleAndDepartment(role, department);
+                nextPage = afterId -> userRepository.findExportRowsByRoleAndDepartmentAfter(
+                        role, department, afterId, PageRequest.of(0, pageSize));
             }else{
-                users = userRepository.findByRole(role);
+                nextPage = afterId -> userRepository.findExportRowsByRoleAfter(role, afterId, PageRequest.of(0, pageSize));
             }
         }else {
             // 无过滤条件，查询所有用户
-            users = userRepository.findAll();
+            nextPage = afterId -> userRepository.findExportRowsAfter(afterId, PageRequest.of(0, pageSize));
         }
 
-        //2、转换为VO
-        List<UserExportVO> voList = users.stream().map(this::convertToUserVO).collect(Collectors.toList());
-
-        //3、设置响应头
+        //2、设置响应头
         String fileName = "用户信息_" + LocalDateTime.now().format(FILE_NAME_FORMATTER) + ".xlsx";
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setCharacterEncoding("utf-8");
-        response.setHeader("Content-Disposition",
-                "attachment; filename=\"" + fileName + "\"; filename*=UTF-8''" + URLEncoder.encode(fileName, "UTF-8"));
-        // 4. 使用EasyExcel写入
-        EasyExcel.write(response.getOutputStream(), UserExportVO.class)
-                .sheet("用户信息")
-                .doWrite(voList);
+        setExcelHeaders(response, fileName);
+        //3、逐页查询、逐页写入
+        writePages(response.getOutputStream(), UserExportVO.class, "用户信息", nextPage, UserExportVO::getId);
     }
 
     /**
-     * Employee转换为EmployeeExportVO
+     * 按 id 键集分页，每页一次独立的短查询，查完立即写入 Excel。
+     * 写出受客户端下载速度影响，不能放在事务里，否则整个下载过程都占着一个数据库连接。
      */
-    private EmployeeExportVO convertToEmployeeVO(Employee employee) {
-        EmployeeExportVO vo = new EmployeeExportVO();
-        vo.setId(employee.getId());
-        vo.setName(employee.getName());
-        vo.setGender(employee.getGender());
-        vo.setAge(employee.getAge());
-        vo.setDepartment(employee.getDepartment());
-        vo.setPosition(employee.getPosition());
-        vo.setHireDate(employee.getHireDate());
-        vo.setSalary(employee.getSalary());
-        vo.setAvatar(employee.getAvatar());
-        vo.setCreatedAt(employee.getCreatedAt());
-        vo.setUpdatedAt(employee.getUpdatedAt());
-        return vo;
+    private <T> void writePages(OutputStream out, Class<T> head, String sheetName,
+                                Function<Long, List<T>> nextPage, ToLongFunction<T> idOf) {
+        ExcelWriter writer = EasyExcel.write(out, head).build();
+        try {
+            WriteSheet sheet = EasyExcel.writerSheet(sheetName).build();
+            long afterId = 0;
+            List<T> page;
+            do {
+                page = nextPage.apply(afterId);
+                // 第一页为空也要写一次，保证生成表头
+                writer.write(page, sheet);
+                if (!page.isEmpty()) {
+                    afterId = idOf.applyAsLong(page.get(page.size() - 1));
+                }
+            } while (page.size() >= pageSize);
+        } finally {
+            writer.finish();
+        }
     }
 
-    /**
-     * User转换为UserExportVO
-     */
-    private UserExportVO convertToUserVO(User user) {
-        UserExportVO vo = new UserExportVO();
-        vo.setId(user.getId());
-        vo.setUsername(user.getUsername());
-        vo.setEmail(user.getEmail());
-        vo.setRole(user.getRole());
-        vo.setDepartment(user.getDepartment());
-        vo.setEmployeeId(user.getEmployeeId());
-        vo.setEnabledStatus(user.getEnabled() != null && user.getEnabled() ? "启用" : "禁用");
-        vo.setCreatedAt(user.getCreatedAt());
-        vo.setUpdatedAt(user.getUpdatedAt());
-        return vo;
+    private static void setExcelHeaders(HttpServletResponse response, String fileName) throws IOException {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setCharacterEncoding("utf-8");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"" + fileName + "\"; filename*=UTF-8''" + URLEncoder.encode(fileName, "UTF-8"));
     }
 }
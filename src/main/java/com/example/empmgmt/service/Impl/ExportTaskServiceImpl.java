@@ -1,9 +1,10 @@
 package com.example.empmgmt.service.Impl;
 
-import com.example.empmgmt.config.ExportMqConfig;
+import com.example.empmgmt.common.Exception.BusinessException;
 import com.example.empmgmt.domain.Employee;
 import com.example.empmgmt.domain.ExportTask;
 import com.example.empmgmt.mq.dto.EmployeeExportParams;
+import com.example.empmgmt.mq.dto.EmployeeImportParams;
 import com.example.empmgmt.mq.dto.ExportTaskMessage;
 import com.example.empmgmt.mq.dto.UserExportParams;
 import com.example.empmgmt.repository.ExportTaskRepository;
@@ -11,12 +12,16 @@ import com.example.empmgmt.service.ExportTaskService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 
 @Slf4j
@@ -26,9 +31,14 @@ public class ExportTaskServiceImpl implements ExportTaskService {
 
 
     private final ExportTaskRepository exportTaskRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final ExportOutboxRelay outboxRelay;
     private final ObjectMapper objectMapper;
 
+    private static final List<String> IMPORT_EXTENSIONS = List.of(".xlsx", ".xls", ".csv");
+
+    @Value("${employee-import.dir:D:/imports}")
+    private String importDir;
+
 
 
     @Override
@@ -46,17 +56,12 @@ public class ExportTaskServiceImpl implements ExportTaskService {
             task.setUpdatedAt(LocalDateTime.now());
             ExportTask save = exportTaskRepository.save(task);
 
-            // 2. 发送 MQ 消息
+            // 2. 消息写入发件箱（同一个事务），提交后由中继投递到 MQ，请求不等 broker
             ExportTaskMessage message = new ExportTaskMessage();
             message.setTaskId(save.getId());
             message.setTaskType(task.getTaskType());
             message.setParamsJson(save.getParams());
-
-            // 发送到指定的交换机和路由键
-            //convertAndSend() : 异步发送消息，不阻塞
-            rabbitTemplate.convertAndSend(ExportMqConfig.EXPORT_EXCHANGE,
-                    ExportMqConfig.EXPORT_ROUTING_KEY,
-                    message);
+            outboxRelay.enqueue(message);
             log.info("提交员工导出任务成功，taskId={}", save.getId());
             return save.getId();
         } catch (Exception e) {
@@ -80,17 +85,12 @@ public class ExportTaskServiceImpl implements ExportTaskService {
             task.setUpdatedAt(LocalDateTime.now());
             ExportTask save = exportTaskRepository.save(task);
 
-            // 2. 发送 MQ 消息
+            // 2. 消息写入发件箱（同一个事务），提交后由中继投递到 MQ，请求不等 broker
             ExportTaskMessage message = new ExportTaskMessage();
             message.setTaskId(save.getId());
             message.setTaskType(task.getTaskType());
             message.setParamsJson(save.getParams());
-
-            // 发送到指定的交换机和路由键
-            //convertAndSend() : 异步发送消息，不阻塞
-            rabbitTemplate.convertAndSend(ExportMqConfig.EXPORT_EXCHANGE,
-                    ExportMqConfig.EXPORT_ROUTING_KEY,
-                    message);
+            outboxRelay.enqueue(message);
             log.info("提交用户导出任务成功，taskId={}", save.getId());
             return save.getId();
         } catch (Exception e) {
@@ -99,6 +99,61 @@ public class ExportTaskServiceImpl implements ExportTaskService {
         }
     }
 
+    @Override
+    @Transactional
+    public Long createEmployeeImportTask(MultipartFile file, Long userId) {
+        if (file.isEmpty()) {
+            throw new BusinessException("导入文件不能为空");
+        }
+        String originalFilename = file.getOriginalFilename();
+        int dot = originalFilename == null ? -1 : originalFilename.lastIndexOf('.');
+        String extension = dot < 0 ? "" : originalFilename.substring(dot).toLowerCase();
+        if (!IMPORT_EXTENSIONS.contains(extension)) {
+            throw new BusinessException("只支持导入 xlsx、xls、csv 文件");
+        }
+
+        // 1. 先把上传文件落盘，消费者按路径流式读取
+        File dir = new File(importDir);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        File dest = new File(dir, UUID.randomUUID() + extension);
+        try {
+            file.transferTo(dest);
+        } catch (IOException e) {
+            throw new BusinessException("导入文件保存失败: " + e.getMessage());
+        }
+
+        try {
+            // 2. 保存任务到数据库
+            EmployeeImportParams params = new EmployeeImportParams();
+            params.setFilePath(dest.getAbsolutePath());
+            params.setOriginalFilename(originalFilename);
+
+            ExportTask task = new ExportTask();
+            task.setTaskType("EMPLOYEE_IMPORT");
+            task.setParams(objectMapper.writeValueAsString(params));
+            task.setCreatedBy(userId);
+            task.setStatus("PENDING");
+            task.setCreatedAt(LocalDateTime.now());
+            task.setUpdatedAt(LocalDateTime.now());
+            ExportTask save = exportTaskRepository.save(task);
+
+            // 3. 消息写入发件箱，导入和导出共用一个队列
+            ExportTaskMessage message = new ExportTaskMessage();
+            message.setTaskId(save.getId());
+            message.setTaskType(task.getTaskType());
+            message.setParamsJson(save.getParams());
+            outboxRelay.enqueue(message);
+            log.info("提交员工导入任务成功，taskId={}, file={}", save.getId(), originalFilename);
+            return save.getId();
+        } catch (Exception e) {
+            dest.delete();
+            log.error("创建员工导入任务失败", e);
+            throw new RuntimeException("创建员工导入任务失败", e);
+        }
+    }
+
     @Override
     public ExportTask getTask(Long taskId) {
         return exportTaskRepository.findById(taskId)
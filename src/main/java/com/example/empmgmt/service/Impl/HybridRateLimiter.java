@@ -0,0 +1,229 @@
+package com.example.empmgmt.service.Impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地 + Redis 混合令牌桶限流
+ *
+ * 每个限流 key 在本机维护一个无锁的小桶，令牌从 Redis 的全局令牌桶里批量“预领”（lease），
+ * 本地有令牌时直接在内存里扣减，不访问 Redis；领完或租约过期才再去 Redis 领一批。
+ * 由于令牌都是先从 Redis 扣掉再发到各节点，全局限流上限不会被突破，
+ * 代价是租约过期时没用完的令牌会作废（略微偏严格）。
+ */
+@Slf4j
+@Service
+public class HybridRateLimiter {
+
+    // state 打包格式：高位 = 租约到期时间（相对 baseMillis 的毫秒数），低 23 位 = 剩余令牌数
+    private static final int TOKEN_BITS = 23;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+
+    private final RateLimitService rateLimitService;
+    private final ConcurrentHashMap<String, LocalBucket> buckets = new ConcurrentHashMap<>();
+    private final long baseMillis = System.currentTimeMillis();
+
+    // 统计指标（Micrometer 计数器本身就是 LongAdder 实现，热路径开销不变）
+    private final Counter allowed;
+    private final Counter denied;
+    private final Counter leaseRefills;
+    private final Counter redisFallbacks;
+
+    @Value("${rate-limit.local.enabled:true}")
+    private boolean localEnabled;
+
+    @Value("${rate-limit.local.lease-ttl-ms:1000}")
+    private long leaseTtlMs;
+
+    public HybridRateLimiter(RateLimitService rateLimitService, MeterRegistry meterRegistry) {
+        this.rateLimitService = rateLimitService;
+        this.allowed = counter(meterRegistry, "rate.limit.local.decisions", "result", "allowed");
+        this.denied = counter(meterRegistry, "rate.limit.local.decisions", "result", "denied");
+        this.leaseRefills = counter(meterRegistry, "rate.limit.local.events", "event", "lease-refill");
+        this.redisFallbacks = counter(meterRegistry, "rate.limit.local.events", "event", "redis-fallback");
+        Gauge.builder("rate.limit.local.buckets", buckets, Map::size)
+                .description("本机令牌桶数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 尝试获取令牌
+     *
+     * @param keyPrefix 限流 key 前缀，例如 "rate:login:ip:"
+     * @param id        标识，例如 IP 或 userId
+     * @param capacity  桶容量
+     * @param rate      每秒填充速率
+     * @param permits   本次需要的令牌数
+     * @param leaseSize 每次预领的令牌数，0 表示自动
+     * @return 限流结果，被拒绝时带上建议的重试等待时间
+     */
+    public RateLimitService.Decision tryAcquire(String keyPrefix, String id, int capacity, double rate,
+                                               int permits, int leaseSize) {
+        int batch = resolveLeaseSize(capacity, leaseSize);
+        RateLimitService.Decision decision;
+        if (!localEnabled || batch <= permits) {
+            // 一批还不够一次用，本地桶没有意义，直接走 Redis
+            decision = rateLimitService.tryAcquire(keyPrefix, id, capacity, rate, permits);
+        } else {
+            LocalBucket bucket = buckets.computeIfAbsent(keyPrefix + id, k -> new LocalBucket());
+            decision = acquireLocal(bucket, keyPrefix, id, capacity, rate, permits, batch);
+        }
+        if (decision.allowed()) {
+            allowed.increment();
+        } else {
+            denied.increment();
+        }
+        return decision;
+    }
+
+    private RateLimitService.Decision acquireLocal(LocalBucket bucket, String keyPrefix, String id,
+                                                   int capacity, double rate, int permits, int batch) {
+        long now = nowOffset();
+
+        // 1. 刚被 Redis 拒绝过，在 Redis 给出的等待时间内直接本地拒绝，避免被刷时每次都打到 Redis
+        long deniedUntil = bucket.deniedUntil;
+        if (now < deniedUntil) {
+            return RateLimitService.Decision.deny(deniedUntil - now);
+        }
+
+        // 2. 本地还有令牌，CAS 扣减
+        if (bucket.tryTake(now, permits)) {
+            return RateLimitService.Decision.allow(permits);
+        }
+
+        // 3. 本地令牌不够了，只让一个线程去 Redis 预领，其余线程直连 Redis
+        if (!bucket.leasing.compareAndSet(false, true)) {
+            redisFallbacks.increment();
+            return rateLimitService.tryAcquire(keyPrefix, id, capacity, rate, permits);
+        }
+        try {
+            // 双重检查：可能另一个线程刚刚领完一批
+            if (bucket.tryTake(now, permits)) {
+                return RateLimitService.Decision.allow(permits);
+            }
+            RateLimitService.Decision lease = rateLimitService.leaseTokens(keyPrefix, id, capacity, rate, batch);
+            leaseRefills.increment();
+            long granted = lease.granted();
+            if (granted > 0) {
+                // 新领的加到本地余额上（余额已经从 Redis 扣过，不能覆盖掉），够用就自己先用掉 permits 个
+                long total = bucket.refill(now, now + leaseTtlMs, granted, permits);
+                if (total >= permits) {
+                    return RateLimitService.Decision.allow(permits);
+                }
+                // 加起来还不够本次使用：留在本地桶给下次，按填充速率估算差的令牌多久能补上（同 token_bucket.lua）
+                long retryAfter = rate > 0 ? (long) Math.ceil((permits - total) * 1000 / rate) : leaseTtlMs;
+                return RateLimitService.Decision.deny(retryAfter);
+            }
+            long retryAfter = lease.retryAfterMs() > 0 ? lease.retryAfterMs() : leaseTtlMs;
+            bucket.deniedUntil = now + retryAfter;
+            return RateLimitService.Decision.deny(lease.retryAfterMs() < 0 ? -1 : retryAfter);
+        } finally {
+            bucket.leasing.set(false);
+        }
+    }
+
+    /**
+     * 定期清理租约已过期的本地桶，防止大量不同 IP 把内存撑大
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.local.sweep-interval-ms:60000}")
+    public void sweepExpiredBuckets() {
+        long now = nowOffset();
+        int before = buckets.size();
+        buckets.entrySet().removeIf(e -> e.getValue().isIdle(now));
+        int removed = before - buckets.size();
+        if (removed > 0) {
+            log.debug("清理过期本地令牌桶 {} 个，剩余 {} 个", removed, buckets.size());
+        }
+    }
+
+    /**
+     * 限流统计：放行数、拒绝数、预领次数、直连 Redis 次数
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("allowed", (long) allowed.count());
+        stats.put("denied", (long) denied.count());
+        stats.put("leaseRefills", (long) leaseRefills.count());
+        stats.put("redisFallbacks", (long) redisFallbacks.count());
+        stats.put("localBuckets", (long) buckets.size());
+        return stats;
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, String tagKey, String tagValue) {
+        return Counter.builder(name)
+                .tag(tagKey, tagValue)
+                .register(registry);
+    }
+
+    // 自动计算预领数量：容量的 1/4，至少 1 个
+    private int resolveLeaseSize(int capacity, int leaseSize) {
+        if (leaseSize > 0) {
+            return Math.min(leaseSize, capacity);
+        }
+        return Math.max(1, capacity / 4);
+    }
+
+    private long nowOffset() {
+        return System.currentTimeMillis() - baseMillis;
+    }
+
+    private static long pack(long deadline, long tokens) {
+        return (deadline << TOKEN_BITS) | Math.min(tokens, TOKEN_MASK);
+    }
+
+    /**
+     * 本地令牌桶：租约到期时间和剩余令牌数打包在一个 AtomicLong 里，一次 CAS 同时校验两者
+     */
+    private static final class LocalBucket {
+        private final AtomicLong state = new AtomicLong();
+        private final AtomicBoolean leasing = new AtomicBoolean();
+        private volatile long deniedUntil;
+
+        boolean tryTake(long now, int permits) {
+            while (true) {
+                long s = state.get();
+                long tokens = s & TOKEN_MASK;
+                long deadline = s >>> TOKEN_BITS;
+                if (tokens < permits || now >= deadline) {
+                    return false;
+                }
+                if (state.compareAndSet(s, s - permits)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 把新领到的令牌加到余额上并延长租约（过期的余额已作废，不再计入），够 permits 个就顺带扣掉；
+         * 返回扣减前的余额
+         */
+        long refill(long now, long deadline, long granted, int permits) {
+            while (true) {
+                long s = state.get();
+                long left = now < (s >>> TOKEN_BITS) ? s & TOKEN_MASK : 0;
+                long total = left + granted;
+                long remain = total >= permits ? total - permits : total;
+                if (state.compareAndSet(s, pack(deadline, remain))) {
+                    return total;
+                }
+            }
+        }
+
+        boolean isIdle(long now) {
+            return !leasing.get()
+                    && now >= deniedUntil
+                    && now >= (state.get() >>> TOKEN_BITS);
+        }
+    }
+}
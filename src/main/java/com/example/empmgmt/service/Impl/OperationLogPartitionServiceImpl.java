@@ -0,0 +1,356 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.dto.response.OperationLogArchiveResponse;
+import com.example.empmgmt.service.OperationLogPartitionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 操作日志分区维护
+ *
+ * operation_log 按 created_at 月分区（见 V4 迁移脚本），分区名固定为 operation_log_pYYYYMM。
+ * 每天预建之后几个月的分区；超过保留期的分区整块导出成 gzip JSONL 再 DETACH + DROP，
+ * 比逐行 DELETE 快得多，也不会留下需要 VACUUM 的死元组。
+ * V4 迁移时没搬的历史日志留在 operation_log_legacy，这里按主键分批搬进分区表，搬完删除旧表。
+ * 多实例部署时用 PostgreSQL 事务级咨询锁保证同一时刻只有一个实例在改分区。
+ */
+@Slf4j
+@Service
+public class OperationLogPartitionServiceImpl implements OperationLogPartitionService {
+
+    private static final String PARENT = "operation_log";
+    private static final String DEFAULT_PARTITION = "operation_log_default";
+    private static final String PREFIX = "operation_log_p";
+    private static final String LEGACY = "operation_log_legacy";
+    private static final String COLUMNS = "id, user_id, username, operation_type, module, description, method, " +
+            "params, result, ip_address, execution_time, status, error_message";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    // 咨询锁的 key，随便取一个不会和别处冲突的常量
+    private static final long LOCK_KEY = 0x6f705f6c6f67L;
+
+    private static final String LIST_PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'operation_log'::regclass";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${operation-log.partition.enabled:true}")
+    private boolean enabled;
+
+    @Value("${operation-log.partition.months-ahead:2}")
+    private int monthsAhead;
+
+    @Value("${operation-log.partition.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${operation-log.partition.legacy-batch-size:5000}")
+    private int legacyBatchSize;
+
+    @Value("${operation-log.partition.legacy-batches-per-run:20}")
+    private int legacyBatchesPerRun;
+
+    @Value("${operation-log.archive.dir:D:/archives/operation-log}")
+    private String archiveDir;
+
+    @Value("${operation-log.archive.fetch-size:1000}")
+    private int fetchSize;
+
+    // 不是 PostgreSQL 或表没有分区（例如测试用的 H2）时不做任何事
+    private volatile Boolean partitioned;
+
+    // 旧表搬完并删除后不再查询
+    private volatile boolean legacyDone;
+
+    public OperationLogPartitionServiceImpl(JdbcTemplate jdbcTemplate,
+                                            TransactionTemplate transactionTemplate,
+                                            ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            ensurePartitions();
+        } catch (Exception e) {
+            log.warn("操作日志分区预建失败，将在下次定时任务重试", e);
+        }
+    }
+
+    @Scheduled(cron = "${operation-log.partition.maintain-cron:0 30 1 * * *}")
+    public void maintain() {
+        ensurePartitions();
+        archiveExpiredPartitions();
+    }
+
+    @Scheduled(fixedDelayString = "${operation-log.partition.legacy-interval-ms:10000}",
+            initialDelayString = "${operation-log.partition.legacy-interval-ms:10000}")
+    public void migrateLegacy() {
+        migrateLegacyRows();
+    }
+
+    @Override
+    public List<String> ensurePartitions() {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+        TreeSet<YearMonth> wanted = new TreeSet<>();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            wanted.add(current.plusMonths(i));
+        }
+        // 分区没建好期间写进 default 分区的日志，按月份补建分区后搬过去
+        wanted.addAll(jdbcTemplate.query(
+                "SELECT DISTINCT date_trunc('month', created_at)::date FROM " + DEFAULT_PARTITION,
+                (rs, i) -> YearMonth.from(rs.getDate(1).toLocalDate())));
+        wanted.removeAll(existingPartitions());
+
+        List<String> created = new ArrayList<>();
+        for (YearMonth month : wanted) {
+            Integer moved = transactionTemplate.execute(status -> createPartition(month));
+            if (moved != null) {
+                created.add(partitionName(month));
+                log.info("已创建操作日志分区 {}，从 default 分区搬入 {} 行", partitionName(month), moved);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * 先建普通表、搬入 default 分区里属于这个月的行，再挂到父表上；
+     * 直接 CREATE TABLE ... PARTITION OF 会因为 default 分区里有这个范围的行而失败
+     *
+     * @return 搬入的行数，没拿到锁或分区已存在时返回 null
+     */
+    private Integer createPartition(YearMonth month) {
+        if (!tryLock() || existingPartitions().contains(month)) {
+            return null;
+        }
+        String name = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + PARENT + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                " WHERE created_at >= ? AND created_at < ? RETURNING *) INSERT INTO " + name + " SELECT * FROM moved",
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.atStartOfDay()));
+        // 分区边界只能是字面量；父表上的索引在挂载时自动补建
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + name +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        return moved;
+    }
+
+    @Override
+    public long migrateLegacyRows() {
+        if (!isPartitioned() || legacyDone) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < legacyBatchesPerRun; i++) {
+            Integer moved = transactionTemplate.execute(status -> migrateLegacyBatch());
+            if (moved == null || moved == 0) {
+                break;
+            }
+            total += moved;
+        }
+        if (total > 0) {
+            log.info("已从 {} 搬入 {} 行历史操作日志", LEGACY, total);
+        }
+        return total;
+    }
+
+    /**
+     * 按主键取一批旧日志，先补建这批日志所在月份的分区，再 DELETE ... RETURNING 搬进分区表；
+     * 每批一个短事务，旧表已经没有写入，只锁住这一批行
+     *
+     * @return 搬入的行数，旧表已搬空删除时返回 0，没拿到锁时返回 null
+     */
+    private Integer migrateLegacyBatch() {
+        if (!tryLock()) {
+            return null;
+        }
+        if (!legacyExists()) {
+            legacyDone = true;
+            return 0;
+        }
+        TreeSet<YearMonth> months = new TreeSet<>(jdbcTemplate.query(
+                "SELECT DISTINCT date_trunc('month', COALESCE(created_at, now()))::date FROM " +
+                        "(SELECT created_at FROM " + LEGACY + " ORDER BY id LIMIT ?) batch",
+                (rs, i) -> YearMonth.from(rs.getDate(1).toLocalDate()), legacyBatchSize));
+        months.removeAll(existingPartitions());
+        // 咨询锁可重入，同一事务里建分区不会被自己挡住
+        for (YearMonth month : months) {
+            createPartition(month);
+        }
+
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + LEGACY + " WHERE id IN " +
+                "(SELECT id FROM " + LEGACY + " ORDER BY id LIMIT ?) RETURNING *) " +
+                "INSERT INTO " + PARENT + " (" + COLUMNS + ", created_at) " +
+                "SELECT " + COLUMNS + ", COALESCE(created_at, now()) FROM moved", legacyBatchSize);
+        if (moved == 0) {
+            jdbcTemplate.execute("DROP TABLE " + LEGACY);
+            legacyDone = true;
+            log.info("{} 已搬空并删除", LEGACY);
+        }
+        return moved;
+    }
+
+    @Override
+    public List<OperationLogArchiveResponse> archiveExpiredPartitions() {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+        // 旧表没搬完时同一个月的日志可能还会陆续搬进来，归档后会被重建的分区覆盖归档文件
+        if (!legacyDone && legacyExists()) {
+            log.info("{} 还没搬完，暂不归档过期分区", LEGACY);
+            return List.of();
+        }
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        List<OperationLogArchiveResponse> archived = new ArrayList<>();
+        for (YearMonth month : existingPartitions()) {
+            if (!month.isBefore(cutoff)) {
+                break;
+            }
+            OperationLogArchiveResponse result = transactionTemplate.execute(status -> archivePartition(month));
+            if (result != null) {
+                archived.add(result);
+                log.info("已归档操作日志分区 {}：{} 行，{} 字节 -> {}",
+                        result.partition(), result.rows(), result.bytes(), result.file());
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * 导出和删除放在同一个事务里：导出失败时分区原样保留，删除失败时文件下次会被覆盖重写。
+     * 过期分区不会再有写入，导出期间不阻塞其他分区的读写；只有最后 DETACH 的一瞬间锁父表。
+     */
+    private OperationLogArchiveResponse archivePartition(YearMonth month) {
+        if (!tryLock() || !existingPartitions().contains(month)) {
+            return null;
+        }
+        String name = partitionName(month);
+        Path dir = Path.of(archiveDir);
+        Path file = dir.resolve(name + ".jsonl.gz");
+        Path tmp = dir.resolve(name + ".jsonl.gz.tmp");
+
+        long rows;
+        try {
+            Files.createDirectories(dir);
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)), 64 * 1024);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                rows = writeRows(name, generator);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("归档操作日志分区失败: " + name, e);
+        }
+
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+        return new OperationLogArchiveResponse(name, month.toString(), rows,
+                file.toAbsolutePath().toString(), file.toFile().length());
+    }
+
+    /**
+     * 游标分批读取（事务内 fetchSize 才生效），逐行写成一个 JSON 对象，整个分区不会进内存
+     */
+    private long writeRows(String partition, JsonGenerator generator) {
+        long[] rows = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT * FROM " + partition + " ORDER BY id");
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            try {
+                ResultSetMetaData meta = rs.getMetaData();
+                generator.writeStartObject();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    Object value = rs.getObject(i);
+                    generator.writeFieldName(meta.getColumnLabel(i));
+                    if (value instanceof Timestamp timestamp) {
+                        generator.writeString(timestamp.toLocalDateTime().toString());
+                    } else {
+                        generator.writeObject(value);
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                rows[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows[0];
+    }
+
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                Boolean.class, LOCK_KEY));
+    }
+
+    private boolean legacyExists() {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?::text) IS NOT NULL", Boolean.class, LEGACY);
+    }
+
+    private TreeSet<YearMonth> existingPartitions() {
+        TreeSet<YearMonth> months = new TreeSet<>();
+        for (String name : jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class)) {
+            if (name.startsWith(PREFIX) && name.length() == PREFIX.length() + 6) {
+                months.add(YearMonth.parse(name.substring(PREFIX.length()), SUFFIX));
+            }
+        }
+        return months;
+    }
+
+    private boolean isPartitioned() {
+        if (!enabled) {
+            return false;
+        }
+        if (partitioned == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) con ->
+                    con.getMetaData().getDatabaseProductName());
+            partitioned = "PostgreSQL".equals(database) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT COALESCE((SELECT relkind = 'p' FROM pg_class WHERE oid = to_regclass(?::text)), false)",
+                    Boolean.class, PARENT));
+            if (!partitioned) {
+                log.info("operation_log 不是分区表，跳过分区维护");
+            }
+        }
+        return partitioned;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.Exception.BusinessException;
+import com.example.empmgmt.common.enums.OperationType;
+import com.example.empmgmt.domain.OperationLog;
+import com.example.empmgmt.dto.request.OperationLogPolicyRequest;
+import com.example.empmgmt.dto.response.OperationLogPolicyResponse;
+import com.example.empmgmt.repository.OperationLogRepository;
+import com.example.empmgmt.service.OperationLogPolicyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Controller;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 操作日志策略
+ *
+ * 每个带 @OperationLog 的方法是一个日志点，key 为「类名.方法名」。写操作和执行失败的调用总是记录；
+ * QUERY 类操作按采样率记录，没采到的如果开了 aggregate，按 (日志点, 用户, 参数) 合并成计数，
+ * 定时写成一条「（聚合 N 次）」的日志，否则直接丢弃。
+ *
+ * 策略分三层，后面的覆盖前面的：注解 → yml 的 operation-log.policy.overrides → 运行时修改。
+ * 运行时修改存在 Redis hash 里，并通过 Redis 发布通知，各节点收到后重新加载，重启后依然生效。
+ */
+@Slf4j
+@Service
+public class OperationLogPolicyServiceImpl implements OperationLogPolicyService, MessageListener {
+
+    public static final String OVERRIDES_KEY = "oplog:policy";
+    public static final String CHANNEL = "oplog:policy:changed";
+
+    private static final String SAMPLED_TYPE = OperationType.QUERY.name();
+
+    private final OperationLogRepository operationLogRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ApplicationContext applicationContext;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, PolicyOverride> configOverrides;
+
+    // 见过的日志点（启动时扫描 Controller，之后第一次调用时补登记）
+    private final ConcurrentHashMap<String, LogPoint> points = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    // 整体替换，读的时候不加锁
+    private volatile Map<String, PolicyOverride> runtimeOverrides = Map.of();
+
+    @Value("${operation-log.policy.max-aggregate-keys:10000}")
+    private int maxAggregateKeys;
+
+    public OperationLogPolicyServiceImpl(OperationLogRepository operationLogRepository,
+                                         StringRedisTemplate stringRedisTemplate,
+                                         RedisMessageListenerContainer listenerContainer,
+                                         ApplicationContext applicationContext,
+                                         ObjectMapper objectMapper,
+                                         MeterRegistry meterRegistry,
+                                         Environment environment) {
+        this.operationLogRepository = operationLogRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.applicationContext = applicationContext;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        // key 带点号，yml 里要写成 "[EmployeeController.getById]"
+        this.configOverrides = Binder.get(environment)
+                .bind("operation-log.policy.overrides", Bindable.mapOf(String.class, PolicyOverride.class))
+                .orElse(Map.of());
+    }
+
+    @PostConstruct
+    public void register() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 启动后登记所有 Controller 上的日志点，并加载运行时覆盖
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        for (Object bean : applicationContext.getBeansWithAnnotation(Controller.class).values()) {
+            ReflectionUtils.doWithMethods(AopUtils.getTargetClass(bean), this::pointOf,
+                    m -> m.isAnnotationPresent(com.example.empmgmt.common.annotation.OperationLog.class));
+        }
+        reloadOverrides();
+        log.info("操作日志策略: 日志点 {} 个，yml 覆盖 {} 个，运行时覆盖 {} 个",
+                points.size(), configOverrides.size(), runtimeOverrides.size());
+    }
+
+    @Override
+    public Decision decide(Method method, OperationLog operationLog) {
+        LogPoint point = pointOf(method);
+        Decision decision = evaluate(point, operationLog);
+        counters.computeIfAbsent(point.key() + "|" + decision, k -> Counter.builder("operation.log.calls")
+                .description("带 @OperationLog 的调用，按处理结果分类")
+                .tag("point", point.key())
+                .tag("decision", decision.name().toLowerCase())
+                .register(meterRegistry)).increment();
+        return decision;
+    }
+
+    private Decision evaluate(LogPoint point, OperationLog operationLog) {
+        if (!point.sampled() || "FAILURE".equals(operationLog.getStatus())) {
+            return Decision.PERSIST;
+        }
+        Policy policy = effective(point);
+        if (policy.sampleRate() >= 1.0 || ThreadLocalRandom.current().nextDouble() < policy.sampleRate()) {
+            return Decision.PERSIST;
+        }
+        if (!policy.aggregate()) {
+            return Decision.DROPPED;
+        }
+        // 组合数超过上限时不再新建计数，直接写库，宁可多写也不丢
+        return aggregate(point, operationLog) ? Decision.AGGREGATED : Decision.PERSIST;
+    }
+
+    private boolean aggregate(LogPoint point, OperationLog operationLog) {
+        String key = point.key() + "\n" + operationLog.getUserId() + "\n" + operationLog.getParams();
+        if (aggregates.size() >= maxAggregateKeys && !aggregates.containsKey(key)) {
+            return false;
+        }
+        // compute 与 flush 里的 remove 互斥：被取走之后的调用会进新的计数，不会丢
+        aggregates.compute(key, (k, aggregate) -> {
+            Aggregate target = aggregate != null ? aggregate : new Aggregate(operationLog);
+            target.add(operationLog);
+            return target;
+        });
+        return true;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${operation-log.policy.flush-interval-ms:60000}")
+    public int flushAggregates() {
+        List<OperationLog> rows = new ArrayList<>();
+        for (String key : aggregates.keySet()) {
+            Aggregate aggregate = aggregates.remove(key);
+            if (aggregate != null) {
+                rows.add(aggregate.toLog(objectMapper));
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        try {
+            operationLogRepository.saveAll(rows);
+        } catch (Exception e) {
+            log.error("写入聚合操作日志失败，丢弃 {} 条", rows.size(), e);
+            return 0;
+        }
+        log.debug("写入聚合操作日志 {} 条", rows.size());
+        return rows.size();
+    }
+
+    /**
+     * 停机前把还没写库的计数写掉
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnShutdown() {
+        flushAggregates();
+    }
+
+    @Override
+    public List<OperationLogPolicyResponse> listPolicies() {
+        return points.values().stream()
+                .filter(LogPoint::sampled)
+                .sorted(Comparator.comparing(LogPoint::key))
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Override
+    public OperationLogPolicyResponse updatePolicy(String key, OperationLogPolicyRequest request) {
+        LogPoint point = requireSampledPoint(key);
+        Double sampleRate = request.getSampleRate();
+        if (sampleRate != null && (sampleRate.isNaN() || sampleRate < 0 || sampleRate > 1)) {
+            throw new BusinessException("sampleRate 必须在 0 ~ 1 之间");
+        }
+        if (sampleRate == null && request.getAggregate() == null) {
+            throw new BusinessException("sampleRate 和 aggregate 至少填一个");
+        }
+        PolicyOverride override = new PolicyOverride(sampleRate, request.getAggregate());
+
+        Map<String, PolicyOverride> updated = new HashMap<>(runtimeOverrides);
+        updated.put(key, override);
+        runtimeOverrides = Map.copyOf(updated);
+        try {
+            stringRedisTemplate.opsForHash().put(OVERRIDES_KEY, key, override.encode());
+            stringRedisTemplate.convertAndSend(CHANNEL, key);
+        } catch (Exception e) {
+            log.warn("日志策略同步到 Redis 失败，只在本节点生效: key={}", key, e);
+        }
+        log.info("日志策略已修改: key={}, sampleRate={}, aggregate={}", key, sampleRate, request.getAggregate());
+        return toResponse(point);
+    }
+
+    @Override
+    public OperationLogPolicyResponse resetPolicy(String key) {
+        LogPoint point = requireSampledPoint(key);
+        Map<String, PolicyOverride> updated = new HashMap<>(runtimeOverrides);
+        updated.remove(key);
+        runtimeOverrides = Map.copyOf(updated);
+        try {
+            stringRedisTemplate.opsForHash().delete(OVERRIDES_KEY, key);
+            stringRedisTemplate.convertAndSend(CHANNEL, key);
+        } catch (Exception e) {
+            log.warn("日志策略同步到 Redis 失败，只在本节点生效: key={}", key, e);
+        }
+        return toResponse(point);
+    }
+
+    /**
+     * 其他节点改了策略，重新加载整个 hash
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        reloadOverrides();
+    }
+
+    private void reloadOverrides() {
+        try {
+            Map<String, PolicyOverride> loaded = new HashMap<>();
+            stringRedisTemplate.opsForHash().entries(OVERRIDES_KEY).forEach((k, v) ->
+                    loaded.put(k.toString(), PolicyOverride.decode(v.toString())));
+            runtimeOverrides = Map.copyOf(loaded);
+        } catch (Exception e) {
+            log.warn("加载运行时日志策略失败，沿用当前配置", e);
+        }
+    }
+
+    private LogPoint requireSampledPoint(String key) {
+        LogPoint point = points.get(key);
+        if (point == null) {
+            throw new BusinessException("日志点不存在: " + key);
+        }
+        if (!point.sampled()) {
+            throw new BusinessException("只有 QUERY 类操作支持采样，其他操作总是记录");
+        }
+        return point;
+    }
+
+    private LogPoint pointOf(Method method) {
+        String key = ClassUtils.getUserClass(method.getDeclaringClass()).getSimpleName() + "." + method.getName();
+        LogPoint point = points.get(key);
+        return point != null ? point : points.computeIfAbsent(key, k -> LogPoint.of(k, method));
+    }
+
+    private Policy effective(LogPoint point) {
+        return point.defaults()
+                .with(configOverrides.get(point.key()))
+                .with(runtimeOverrides.get(point.key()));
+    }
+
+    private OperationLogPolicyResponse toResponse(LogPoint point) {
+        Policy policy = effective(point);
+        String source = runtimeOverrides.containsKey(point.key()) ? "runtime"
+                : configOverrides.containsKey(point.key()) ? "config" : "annotation";
+        return new OperationLogPolicyResponse(point.key(), point.module(), point.description(),
+                policy.sampleRate(), policy.aggregate(), source);
+    }
+
+    private record Policy(double sampleRate, boolean aggregate) {
+
+        Policy with(PolicyOverride override) {
+            if (override == null) {
+                return this;
+            }
+            return new Policy(override.sampleRate() != null ? override.sampleRate() : sampleRate,
+                    override.aggregate() != null ? override.aggregate() : aggregate);
+        }
+    }
+
+    /**
+     * yml / 运行时的覆盖项，null 表示沿用下一层
+     */
+    record PolicyOverride(Double sampleRate, Boolean aggregate) {
+
+        // Redis 里存成 "sampleRate|aggregate"，没填的一侧留空
+        String encode() {
+            return (sampleRate != null ? sampleRate.toString() : "") + "|" + (aggregate != null ? aggregate.toString() : "");
+        }
+
+        static PolicyOverride decode(String value) {
+            int bar = value.indexOf('|');
+            String rate = value.substring(0, bar);
+            String agg = value.substring(bar + 1);
+            return new PolicyOverride(rate.isEmpty() ? null : Double.valueOf(rate),
+                    agg.isEmpty() ? null : Boolean.valueOf(agg));
+        }
+    }
+
+    private record LogPoint(String key, String module, String description, boolean sampled, Policy defaults) {
+
+        static LogPoint of(String key, Method method) {
+            com.example.empmgmt.common.annotation.OperationLog annotation =
+                    method.getAnnotation(com.example.empmgmt.common.annotation.OperationLog.class);
+            return new LogPoint(key, annotation.module(), annotation.description(),
+                    SAMPLED_TYPE.equals(annotation.type().name()),
+                    new Policy(annotation.sampleRate(), annotation.aggregate()));
+        }
+    }
+
+    /**
+     * 一组重复调用的计数，只在 ConcurrentHashMap.compute 里修改
+     */
+    private static final class Aggregate {
+
+        private final OperationLog first;
+        private long count;
+        private long totalTime;
+        private long maxTime;
+        private LocalDateTime lastAt;
+
+        Aggregate(OperationLog first) {
+            this.first = first;
+        }
+
+        void add(OperationLog operationLog) {
+            long time = operationLog.getExecutionTime() != null ? operationLog.getExecutionTime() : 0;
+            count++;
+            totalTime += time;
+            maxTime = Math.max(maxTime, time);
+            lastAt = operationLog.getCreatedAt();
+        }
+
+        /**
+         * 写成一条日志：executionTime 取最大耗时，result 里放计数明细，createdAt 取最后一次调用时间
+         */
+        OperationLog toLog(ObjectMapper objectMapper) {
+            OperationLog row = new OperationLog();
+            row.setUserId(first.getUserId());
+            row.setUsername(first.getUsername());
+            row.setOperationType(first.getOperationType());
+            row.setModule(first.getModule());
+            row.setDescription(first.getDescription() + "（聚合 " + count + " 次）");
+            row.setMethod(first.getMethod());
+            row.setParams(first.getParams());
+            row.setIpAddress(first.getIpAddress());
+            row.setStatus("SUCCESS");
+            row.setExecutionTime(maxTime);
+            row.setCreatedAt(lastAt);
+
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("count", count);
+            detail.put("totalTime", totalTime);
+            detail.put("maxTime", maxTime);
+            detail.put("firstAt", first.getCreatedAt().toString());
+            detail.put("lastAt", lastAt.toString());
+            try {
+                row.setResult(objectMapper.writeValueAsString(detail));
+            } catch (Exception e) {
+                row.setResult(detail.toString());
+            }
+            return row;
+        }
+    }
+}
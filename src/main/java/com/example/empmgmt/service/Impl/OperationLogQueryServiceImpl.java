@@ -0,0 +1,157 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.Exception.BusinessException;
+import com.example.empmgmt.domain.OperationLog;
+import com.example.empmgmt.dto.request.OperationLogQueryRequest;
+import com.example.empmgmt.dto.response.CursorPageResponse;
+import com.example.empmgmt.dto.response.PageResponse;
+import com.example.empmgmt.repository.OperationLogRepository;
+import com.example.empmgmt.service.OperationLogQueryService;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 操作日志查询
+ *
+ * 所有查询都带 created_at 范围，PostgreSQL 只扫描范围内的月分区；
+ * 排序固定为 (created_at, id) 倒序，与 V5 建的复合索引一致，取一页只需顺着索引读 size 行。
+ * 游标分页不做 count（大表上 count 本身就是一次全范围扫描），需要总数时显式打开 withTotal。
+ */
+@Service
+public class OperationLogQueryServiceImpl implements OperationLogQueryService {
+
+    private static final Sort ORDER = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+    private static final int MAX_SIZE = 200;
+
+    private final OperationLogRepository logRepository;
+
+    // 不指定时间范围时只查最近这么多天，避免扫描所有分区
+    @Value("${operation-log.query.default-days:30}")
+    private int defaultDays;
+
+    public OperationLogQueryServiceImpl(OperationLogRepository logRepository) {
+        this.logRepository = logRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<OperationLog> page(OperationLogQueryRequest request, int page) {
+        int size = checkSize(request.getSize());
+        Page<OperationLog> logPage = logRepository.findAll(filters(request), PageRequest.of(page - 1, size, ORDER));
+        return PageResponse.of(logPage);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<OperationLog> scroll(OperationLogQueryRequest request) {
+        int size = checkSize(request.getSize());
+        Specification<OperationLog> filters = filters(request);
+        Specification<OperationLog> spec = filters;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            spec = spec.and(after(Cursor.decode(request.getCursor())));
+        }
+
+        // 多取一行判断是否还有下一页
+        List<OperationLog> rows = logRepository.findBy(spec, q -> q.sortBy(ORDER).limit(size + 1).all());
+        boolean hasMore = rows.size() > size;
+        List<OperationLog> records = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            OperationLog last = records.get(records.size() - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        Long total = request.isWithTotal() ? logRepository.count(filters) : null;
+        return new CursorPageResponse<>(records, nextCursor, hasMore, total);
+    }
+
+    /**
+     * 组合查询条件，时间范围统一换成 [from, to)
+     */
+    private Specification<OperationLog> filters(OperationLogQueryRequest request) {
+        LocalDateTime to = (request.getEndDate() != null ? request.getEndDate() : LocalDate.now())
+                .plusDays(1).atStartOfDay();
+        LocalDateTime from = request.getStartDate() != null
+                ? request.getStartDate().atStartOfDay() : to.minusDays(defaultDays);
+        if (!from.isBefore(to)) {
+            throw new BusinessException("开始日期不能晚于结束日期");
+        }
+
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), from));
+            predicates.add(cb.lessThan(root.get("createdAt"), to));
+            if (request.getUserId() != null) {
+                predicates.add(cb.equal(root.get("userId"), request.getUserId()));
+            }
+            if (request.getModule() != null && !request.getModule().isBlank()) {
+                predicates.add(cb.equal(root.get("module"), request.getModule()));
+            }
+            if (request.getOperationType() != null && !request.getOperationType().isBlank()) {
+                predicates.add(cb.equal(root.get("operationType"), request.getOperationType()));
+            }
+            if (request.getStatus() != null && !request.getStatus().isBlank()) {
+                predicates.add(cb.equal(root.get("status"), request.getStatus()));
+            }
+            if (request.getMinExecutionTime() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("executionTime"), request.getMinExecutionTime()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * 排在游标之后的行：(created_at, id) < (c, i)。
+     * 多写一个 created_at <= c，让它能作为索引扫描的边界，剩下的 OR 只用来排除同一时刻的行
+     */
+    private static Specification<OperationLog> after(Cursor cursor) {
+        return (root, query, cb) -> {
+            Path<LocalDateTime> createdAt = root.get("createdAt");
+            Path<Long> id = root.get("id");
+            return cb.and(
+                    cb.lessThanOrEqualTo(createdAt, cursor.createdAt()),
+                    cb.or(cb.lessThan(createdAt, cursor.createdAt()), cb.lessThan(id, cursor.id())));
+        };
+    }
+
+    private static int checkSize(Integer size) {
+        if (size == null || size < 1 || size > MAX_SIZE) {
+            throw new BusinessException("size 必须在 1 ~ " + MAX_SIZE + " 之间");
+        }
+        return size;
+    }
+
+    /**
+     * 游标内容是最后一行的 created_at 和 id，Base64 编码后对前端不透明
+     */
+    private record Cursor(LocalDateTime createdAt, Long id) {
+
+        String encode() {
+            String raw = createdAt + "," + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int comma = raw.indexOf(',');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, comma)), Long.parseLong(raw.substring(comma + 1)));
+            } catch (RuntimeException e) {
+                throw new BusinessException("无效的游标");
+            }
+        }
+    }
+}
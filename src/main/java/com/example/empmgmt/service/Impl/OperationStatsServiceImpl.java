@@ -0,0 +1,275 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.Exception.BusinessException;
+import com.example.empmgmt.domain.OperationLog;
+import com.example.empmgmt.domain.OperationStatsMinute;
+import com.example.empmgmt.dto.request.OperationStatsQueryRequest;
+import com.example.empmgmt.dto.response.OperationStatsPoint;
+import com.example.empmgmt.dto.response.OperationStatsResponse;
+import com.example.empmgmt.repository.OperationStatsMinuteRepository;
+import com.example.empmgmt.service.OperationStatsService;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 操作耗时统计
+ *
+ * 每个 (模块, 日志点, 状态) 一个 HdrHistogram Recorder，切面线程无锁写入；每分钟整点取出这一分钟的
+ * 间隔直方图，压缩后（通常几百字节）写入 operation_stats_minute，同一分钟多个节点各写一行。
+ * 查询按 (模块, 日志点, 状态, 分钟) 顺序流式读汇总表，边读边合并直方图，内存里只有当前这一组。
+ * 当前这一分钟还没写库，查询结果最多滞后一分钟。
+ */
+@Slf4j
+@Service
+public class OperationStatsServiceImpl implements OperationStatsService {
+
+    // 耗时单位毫秒，超过 1 小时的按 1 小时记；2 位有效数字，分位数相对误差 1% 以内
+    private static final long HIGHEST_TRACKABLE_MS = TimeUnit.HOURS.toMillis(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final int MAX_SERIES_POINTS = 1440;
+
+    private final OperationStatsMinuteRepository statsRepository;
+
+    private final ConcurrentHashMap<StatsKey, Recorder> recorders = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Method, String> methodKeys = new ConcurrentHashMap<>();
+    // 交还给 Recorder 复用的间隔直方图和本次汇总区间的开始时间，只在持有 flushLock 时访问
+    private final Map<StatsKey, Histogram> spares = new HashMap<>();
+    private LocalDateTime intervalStart = LocalDateTime.now();
+
+    // 只保护取直方图、编码这段内存操作；写库在锁外，不让等数据库的线程占着锁（也不会钉住虚拟线程）
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Value("${operation-stats.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${operation-stats.max-range-days:31}")
+    private int maxRangeDays;
+
+    public OperationStatsServiceImpl(OperationStatsMinuteRepository statsRepository) {
+        this.statsRepository = statsRepository;
+    }
+
+    @Override
+    public void record(Method method, OperationLog operationLog) {
+        String key = methodKeys.computeIfAbsent(method,
+                m -> ClassUtils.getUserClass(m.getDeclaringClass()).getSimpleName() + "." + m.getName());
+        StatsKey statsKey = new StatsKey(operationLog.getModule(), key, operationLog.getStatus());
+        long time = operationLog.getExecutionTime() != null ? operationLog.getExecutionTime() : 0;
+        recorders.computeIfAbsent(statsKey, k -> new Recorder(HIGHEST_TRACKABLE_MS, SIGNIFICANT_DIGITS))
+                .recordValue(Math.max(0, Math.min(time, HIGHEST_TRACKABLE_MS)));
+    }
+
+    /**
+     * 每分钟整点写入上一分钟的汇总
+     */
+    @Override
+    @Scheduled(cron = "${operation-stats.flush-cron:0 * * * * *}")
+    public int flush() {
+        LocalDateTime bucketStart;
+        List<OperationStatsMinute> rows = new ArrayList<>();
+        flushLock.lock();
+        try {
+            bucketStart = intervalStart.truncatedTo(ChronoUnit.MINUTES);
+            intervalStart = LocalDateTime.now();
+            for (Map.Entry<StatsKey, Recorder> entry : recorders.entrySet()) {
+                Histogram histogram = entry.getValue().getIntervalHistogram(spares.get(entry.getKey()));
+                spares.put(entry.getKey(), histogram);
+                if (histogram.getTotalCount() == 0) {
+                    continue;
+                }
+                // 直方图下次 flush 会交还给 Recorder 复用，必须在锁内编码完
+                OperationStatsMinute row = new OperationStatsMinute();
+                row.setBucketStart(bucketStart);
+                row.setModule(entry.getKey().module());
+                row.setMethod(entry.getKey().method());
+                row.setStatus(entry.getKey().status());
+                row.setCallCount(histogram.getTotalCount());
+                row.setMaxTime(histogram.getMaxValue());
+                row.setHistogram(encode(histogram));
+                rows.add(row);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        try {
+            statsRepository.saveAll(rows);
+        } catch (Exception e) {
+            log.error("写入操作耗时汇总失败，丢弃 {} 分的 {} 行", bucketStart, rows.size(), e);
+            return 0;
+        }
+        return rows.size();
+    }
+
+    /**
+     * 停机前把不满一分钟的数据也写掉
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OperationStatsResponse> query(OperationStatsQueryRequest request) {
+        LocalDateTime to = request.getEnd() != null ? request.getEnd() : LocalDateTime.now();
+        LocalDateTime from = (request.getStart() != null ? request.getStart() : to.minusHours(1))
+                .truncatedTo(ChronoUnit.MINUTES);
+        if (!from.isBefore(to)) {
+            throw new BusinessException("开始时间必须早于结束时间");
+        }
+        if (from.isBefore(to.minusDays(maxRangeDays))) {
+            throw new BusinessException("时间范围不能超过 " + maxRangeDays + " 天");
+        }
+        long rangeMinutes = Math.max(1, Duration.between(from, to).toMinutes());
+        Integer interval = request.getIntervalMinutes();
+        if (interval != null && (interval < 1 || (rangeMinutes + interval - 1) / interval > MAX_SERIES_POINTS)) {
+            throw new BusinessException("intervalMinutes 至少为 1，且时间序列不能超过 " + MAX_SERIES_POINTS + " 个点");
+        }
+
+        List<OperationStatsResponse> result = new ArrayList<>();
+        try (Stream<Object[]> rows = statsRepository.streamInRange(from, to, blankToNull(request.getModule()),
+                blankToNull(request.getMethod()), blankToNull(request.getStatus()))) {
+            Group group = null;
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                Object[] row = it.next();
+                StatsKey key = new StatsKey((String) row[0], (String) row[1], (String) row[2]);
+                Histogram histogram = decode((byte[]) row[4]);
+                if (histogram == null) {
+                    continue;
+                }
+                // 行按 (模块, 日志点, 状态) 排好序，换组时上一组就可以出结果了
+                if (group == null || !group.key.equals(key)) {
+                    if (group != null) {
+                        result.add(group.finish());
+                    }
+                    group = new Group(key, from, rangeMinutes, interval);
+                }
+                group.add((LocalDateTime) row[3], histogram);
+            }
+            if (group != null) {
+                result.add(group.finish());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${operation-stats.purge-cron:0 40 1 * * *}")
+    public int purgeExpired() {
+        int deleted = statsRepository.deleteByBucketStartBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("清理 {} 天前的操作耗时汇总 {} 行", retentionDays, deleted);
+        }
+        return deleted;
+    }
+
+    private static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+
+    private static Histogram decode(byte[] bytes) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), HIGHEST_TRACKABLE_MS);
+        } catch (Exception e) {
+            log.warn("操作耗时直方图解码失败，跳过该行", e);
+            return null;
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private record StatsKey(String module, String method, String status) {
+    }
+
+    /**
+     * 一组 (模块, 日志点, 状态) 的合并结果；时间序列的点也是边读边出，只保留当前这个点的直方图
+     */
+    private static final class Group {
+
+        private final StatsKey key;
+        private final LocalDateTime from;
+        private final long rangeMinutes;
+        private final Integer interval;
+        private final Histogram total = newHistogram();
+        private final List<OperationStatsPoint> series = new ArrayList<>();
+
+        private LocalDateTime pointStart;
+        private Histogram point;
+
+        Group(StatsKey key, LocalDateTime from, long rangeMinutes, Integer interval) {
+            this.key = key;
+            this.from = from;
+            this.rangeMinutes = rangeMinutes;
+            this.interval = interval;
+        }
+
+        void add(LocalDateTime bucketStart, Histogram histogram) {
+            total.add(histogram);
+            if (interval == null) {
+                return;
+            }
+            long index = Duration.between(from, bucketStart).toMinutes() / interval;
+            LocalDateTime start = from.plusMinutes(index * interval);
+            if (!start.equals(pointStart)) {
+                closePoint();
+                pointStart = start;
+                point = newHistogram();
+            }
+            point.add(histogram);
+        }
+
+        OperationStatsResponse finish() {
+            closePoint();
+            return new OperationStatsResponse(key.module(), key.method(), key.status(), total.getTotalCount(),
+                    (double) total.getTotalCount() / rangeMinutes,
+                    total.getValueAtPercentile(50), total.getValueAtPercentile(95), total.getValueAtPercentile(99),
+                    total.getMaxValue(), series);
+        }
+
+        private void closePoint() {
+            if (point != null) {
+                series.add(new OperationStatsPoint(pointStart, point.getTotalCount(),
+                        (double) point.getTotalCount() / interval,
+                        point.getValueAtPercentile(50), point.getValueAtPercentile(95), point.getValueAtPercentile(99),
+                        point.getMaxValue()));
+                point = null;
+            }
+        }
+
+        private static Histogram newHistogram() {
+            return new Histogram(HIGHEST_TRACKABLE_MS, SIGNIFICANT_DIGITS);
+        }
+    }
+}
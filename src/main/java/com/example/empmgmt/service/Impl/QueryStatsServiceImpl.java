@@ -0,0 +1,280 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.Exception.BusinessException;
+import com.example.empmgmt.common.trace.RequestTrace;
+import com.example.empmgmt.dto.response.NPlusOneSuspectResponse;
+import com.example.empmgmt.dto.response.QueryBudgetViolationResponse;
+import com.example.empmgmt.dto.response.SlowQueryResponse;
+import com.example.empmgmt.service.QueryStatsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 统计服务
+ *
+ * 每种 SQL 形状一份统计：次数、总耗时、最大值和一个对数分桶直方图（思路同 SalarySketch），
+ * 记录全是原子操作，查询时再算分位数。形状数量有上限，超出的归到 "(other)"，
+ * 防止拼接字面量的 SQL 把内存撑大。
+ */
+@Slf4j
+@Service
+public class QueryStatsServiceImpl implements QueryStatsService {
+
+    private static final String OTHER_SHAPE = "(other)";
+    private static final String NO_REPOSITORY = "(none)";
+    private static final int MAX_VIOLATIONS = 100;
+    private static final int MAX_SUSPECTS = 500;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Integer> budgets;
+
+    private final ConcurrentHashMap<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Suspect> suspects = new ConcurrentHashMap<>();
+    private final Deque<QueryBudgetViolationResponse> violations = new ConcurrentLinkedDeque<>();
+
+    // 标签值有限（仓库方法、接口模板），按标签缓存计量器，避免每次都走 registry 查找
+    private final ConcurrentHashMap<String, Counter> repositoryCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DistributionSummary> endpointSummaries = new ConcurrentHashMap<>();
+
+    @Value("${query-inspector.slow-query-ms:200}")
+    private long slowQueryMs;
+
+    @Value("${query-inspector.n-plus-one-threshold:5}")
+    private int nPlusOneThreshold;
+
+    @Value("${query-inspector.max-tracked-shapes:1000}")
+    private int maxTrackedShapes;
+
+    @Value("${query-inspector.default-budget:0}")
+    private int defaultBudget;
+
+    public QueryStatsServiceImpl(MeterRegistry meterRegistry, Environment environment) {
+        this.meterRegistry = meterRegistry;
+        // key 形如 "GET /api/employ/{id}"，yml 里要写成 "[GET /api/employ/{id}]"
+        this.budgets = Binder.get(environment)
+                .bind("query-inspector.budgets", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of());
+    }
+
+    @Override
+    public void recordStatement(String fingerprint, String repositoryMethod, long elapsedNanos) {
+        ShapeStats stats = shapes.get(fingerprint);
+        if (stats == null) {
+            String key = shapes.size() < maxTrackedShapes ? fingerprint : OTHER_SHAPE;
+            stats = shapes.computeIfAbsent(key, k -> new ShapeStats());
+        }
+        stats.record(elapsedNanos, repositoryMethod);
+
+        String repository = repositoryMethod != null ? repositoryMethod : NO_REPOSITORY;
+        repositoryCounters.computeIfAbsent(repository, r -> Counter.builder("db.statements")
+                .description("按仓库方法统计的 SQL 条数")
+                .tag("repository", r)
+                .register(meterRegistry)).increment();
+
+        if (elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(slowQueryMs)) {
+            log.warn("慢 SQL {} ms [{}]: {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), repository, fingerprint);
+        }
+    }
+
+    @Override
+    public void onRequestComplete(String endpoint, RequestTrace trace) {
+        int statements = trace.statementCount();
+        endpointSummaries.computeIfAbsent(endpoint, e -> DistributionSummary.builder("db.statements.per.request")
+                .description("每个请求执行的 SQL 条数")
+                .tag("endpoint", e)
+                .register(meterRegistry)).record(statements);
+        if (statements == 0) {
+            return;
+        }
+
+        for (Map.Entry<String, Integer> entry : trace.statementShapes().entrySet()) {
+            if (entry.getValue() >= nPlusOneThreshold) {
+                recordSuspect(endpoint, entry.getKey(), entry.getValue());
+            }
+        }
+
+        int budget = budgets.getOrDefault(endpoint, defaultBudget);
+        if (budget > 0 && statements > budget) {
+            log.warn("SQL 条数超出预算: {} 执行 {} 条，预算 {} 条", endpoint, statements, budget);
+            Counter.builder("db.budget.exceeded")
+                    .description("SQL 条数超出预算的请求数")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .increment();
+            violations.addFirst(new QueryBudgetViolationResponse(endpoint, budget, statements, LocalDateTime.now()));
+            while (violations.size() > MAX_VIOLATIONS) {
+                violations.pollLast();
+            }
+        }
+    }
+
+    private void recordSuspect(String endpoint, String fingerprint, int repeats) {
+        String key = endpoint + '\n' + fingerprint;
+        Suspect suspect = suspects.get(key);
+        if (suspect == null) {
+            if (suspects.size() >= MAX_SUSPECTS) {
+                return;
+            }
+            Suspect created = new Suspect(endpoint, fingerprint);
+            suspect = suspects.putIfAbsent(key, created);
+            if (suspect == null) {
+                suspect = created;
+                // 同一接口同一语句只在第一次发现时打日志，之后只计数
+                log.warn("疑似 N+1: {} 一次请求执行同一语句 {} 次: {}", endpoint, repeats, fingerprint);
+            }
+        }
+        suspect.occurrences.increment();
+        suspect.maxRepeats.accumulateAndGet(repeats, Math::max);
+        suspect.lastSeenAt = LocalDateTime.now();
+        Counter.builder("db.nplusone")
+                .description("疑似 N+1 的请求数")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public List<SlowQueryResponse> topSlowQueries(int limit, String sortBy) {
+        Comparator<SlowQueryResponse> order = switch (sortBy == null ? "p99" : sortBy) {
+            case "p99" -> Comparator.comparing(SlowQueryResponse::p99Ms);
+            case "p50" -> Comparator.comparing(SlowQueryResponse::p50Ms);
+            case "total" -> Comparator.comparing(SlowQueryResponse::totalMs);
+            case "mean" -> Comparator.comparing(SlowQueryResponse::meanMs);
+            case "count" -> Comparator.comparing(SlowQueryResponse::count);
+            default -> throw new BusinessException("不支持的排序字段: " + sortBy);
+        };
+        if (limit < 1 || limit > 100) {
+            throw new BusinessException("limit 必须在 1 ~ 100 之间");
+        }
+        List<SlowQueryResponse> result = new ArrayList<>(shapes.size());
+        shapes.forEach((fingerprint, stats) -> {
+            SlowQueryResponse response = stats.toResponse(fingerprint);
+            if (response != null) {
+                result.add(response);
+            }
+        });
+        result.sort(order.reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    @Override
+    public List<NPlusOneSuspectResponse> nPlusOneSuspects() {
+        List<NPlusOneSuspectResponse> result = new ArrayList<>(suspects.size());
+        for (Suspect suspect : suspects.values()) {
+            ShapeStats stats = shapes.get(suspect.fingerprint);
+            result.add(new NPlusOneSuspectResponse(suspect.endpoint, suspect.fingerprint,
+                    stats != null ? stats.repository : null, suspect.occurrences.sum(),
+                    suspect.maxRepeats.get(), suspect.lastSeenAt));
+        }
+        result.sort(Comparator.comparing(NPlusOneSuspectResponse::occurrences).reversed());
+        return result;
+    }
+
+    @Override
+    public List<QueryBudgetViolationResponse> budgetViolations() {
+        return new ArrayList<>(violations);
+    }
+
+    @Override
+    public void reset() {
+        shapes.clear();
+        suspects.clear();
+        violations.clear();
+    }
+
+    /**
+     * 单个 SQL 形状的统计，耗时按微秒落到相对宽度 5% 的对数桶里
+     */
+    private static final class ShapeStats {
+        private static final double GAMMA = 1.05;
+        private static final double LOG_GAMMA = Math.log(GAMMA);
+        // 覆盖 1 微秒 ~ 100 秒
+        private static final int BUCKETS = (int) Math.ceil(Math.log(1e8) / LOG_GAMMA) + 1;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private volatile String repository;
+
+        void record(long nanos, String repositoryMethod) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            double micros = nanos / 1_000.0;
+            int index = micros <= 1 ? 0 : Math.min((int) (Math.log(micros) / LOG_GAMMA), BUCKETS - 1);
+            buckets.incrementAndGet(index);
+            if (repositoryMethod != null) {
+                repository = repositoryMethod;
+            }
+        }
+
+        SlowQueryResponse toResponse(String fingerprint) {
+            long[] snapshot = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) {
+                return null;
+            }
+            long n = count.sum();
+            double totalMs = totalNanos.sum() / 1e6;
+            return new SlowQueryResponse(fingerprint, repository, n, round(totalMs), round(totalMs / n),
+                    round(quantile(snapshot, total, 0.5)), round(quantile(snapshot, total, 0.99)),
+                    round(maxNanos.get() / 1e6));
+        }
+
+        // 取桶的几何中点，单位毫秒
+        private static double quantile(long[] snapshot, long total, double q) {
+            long rank = Math.max(1, (long) Math.ceil(q * total));
+            long seen = 0;
+            for (int i = 0; i < snapshot.length; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.pow(GAMMA, i + 0.5) / 1_000.0;
+                }
+            }
+            return Math.pow(GAMMA, BUCKETS - 0.5) / 1_000.0;
+        }
+
+        private static double round(double ms) {
+            return Math.round(ms * 1000) / 1000.0;
+        }
+    }
+
+    private static final class Suspect {
+        private final String endpoint;
+        private final String fingerprint;
+        private final LongAdder occurrences = new LongAdder();
+        private final AtomicInteger maxRepeats = new AtomicInteger();
+        private volatile LocalDateTime lastSeenAt;
+
+        Suspect(String endpoint, String fingerprint) {
+            this.endpoint = endpoint;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -1,28 +1,58 @@
 package com.example.empmgmt.service.Impl;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
- * 基于 Redis + Lua 的令牌桶限流服务
+ * 基于 Redis + Lua 的限流服务
+ * 提供令牌桶、滑动窗口（日志 / 计数）和分布式信号量四种策略，
+ * 所有脚本都取 Redis 服务端时间，且都会给 key 设置过期时间，空闲 key 不会常驻内存
  */
 @Service
 public class RateLimitService {
 
     private final StringRedisTemplate redisTemplate;
-    private final DefaultRedisScript<Long> tokenBucketScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> tokenBucketScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> slidingWindowLogScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> slidingWindowCounterScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> semaphoreAcquireScript;
 
-    public RateLimitService(StringRedisTemplate redisTemplate){
+    // 每种策略一组指标：脚本耗时 + 放行 / 拒绝次数
+    private final StrategyMeters tokenBucketMeters;
+    private final StrategyMeters tokenLeaseMeters;
+    private final StrategyMeters slidingWindowLogMeters;
+    private final StrategyMeters slidingWindowCounterMeters;
+    private final StrategyMeters semaphoreMeters;
+
+    public RateLimitService(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry){
         this.redisTemplate = redisTemplate;
-        this.tokenBucketScript = new DefaultRedisScript<>();
         // 加载 Lua 脚本
-        this.tokenBucketScript.setLocation(new ClassPathResource("lua/token_bucket.lua"));
-        this.tokenBucketScript.setResultType(Long.class);
+        this.tokenBucketScript = loadScript("lua/token_bucket.lua");
+        this.slidingWindowLogScript = loadScript("lua/sliding_window_log.lua");
+        this.slidingWindowCounterScript = loadScript("lua/sliding_window_counter.lua");
+        this.semaphoreAcquireScript = loadScript("lua/semaphore_acquire.lua");
+
+        this.tokenBucketMeters = StrategyMeters.of(meterRegistry, "token-bucket");
+        this.tokenLeaseMeters = StrategyMeters.of(meterRegistry, "token-lease");
+        this.slidingWindowLogMeters = StrategyMeters.of(meterRegistry, "sliding-window-log");
+        this.slidingWindowCounterMeters = StrategyMeters.of(meterRegistry, "sliding-window-counter");
+        this.semaphoreMeters = StrategyMeters.of(meterRegistry, "semaphore");
     }
+
     /**
      * 尝试获取一个令牌
      *
@@ -33,20 +63,136 @@ public class RateLimitService {
      * @return true = 允许；false = 限流
      */
     public boolean tryAcquire(String keyPrefix, String id, int capacity, double rate) {
-        String tokensKey = keyPrefix + id + ":tokens";
-        String tsKey = keyPrefix + id + ":ts";
+        return tryAcquire(keyPrefix, id, capacity, rate, 1).allowed();
+    }
+
+    /**
+     * 尝试一次性获取 permits 个令牌（全部满足才放行）
+     *
+     * @return 限流结果，被拒绝时带上建议的重试等待时间
+     */
+    public Decision tryAcquire(String keyPrefix, String id, int capacity, double rate, int permits) {
+        return execute(tokenBucketMeters, keyPrefix + id, capacity, rate, permits, false);
+    }
+
+    /**
+     * 批量预领令牌：桶里不够时能领多少领多少
+     *
+     * @param maxTokens 本次最多领取的令牌数
+     * @return 限流结果，granted 为实际领到的令牌数
+     */
+    public Decision leaseTokens(String keyPrefix, String id, int capacity, double rate, int maxTokens) {
+        return execute(tokenLeaseMeters, keyPrefix + id, capacity, rate, maxTokens, true);
+    }
+
+    /**
+     * 滑动窗口日志限流：windowMs 内最多 limit 次，精确计数
+     */
+    public Decision trySlidingWindowLog(String keyPrefix, String id, int limit, long windowMs, int permits) {
+        return execute(slidingWindowLogScript, slidingWindowLogMeters, keyPrefix + id,
+                String.valueOf(limit),
+                String.valueOf(windowMs),
+                String.valueOf(permits),
+                UUID.randomUUID().toString());
+    }
+
+    /**
+     * 滑动窗口计数限流：用相邻两个固定窗口加权估算，内存固定
+     */
+    public Decision trySlidingWindowCounter(String keyPrefix, String id, int limit, long windowMs, int permits) {
+        return execute(slidingWindowCounterScript, slidingWindowCounterMeters, keyPrefix + id,
+                String.valueOf(limit),
+                String.valueOf(windowMs),
+                String.valueOf(permits));
+    }
+
+    /**
+     * 获取一个并发许可（分布式信号量）
+     *
+     * @param permitId 许可ID，释放时需要传回同一个值
+     * @param leaseMs  租约时长，持有者没有释放时到期自动回收
+     */
+    public Decision acquireSemaphore(String keyPrefix, String id, int limit, long leaseMs, String permitId) {
+        return execute(semaphoreAcquireScript, semaphoreMeters, keyPrefix + id,
+                String.valueOf(limit),
+                String.valueOf(leaseMs),
+                permitId);
+    }
 
-        long now = System.currentTimeMillis();
+    /**
+     * 释放并发许可
+     */
+    public void releaseSemaphore(String keyPrefix, String id, String permitId) {
+        redisTemplate.opsForZSet().remove(keyPrefix + id, permitId);
+    }
 
-        // 执行 Lua 脚本
-        Long result = redisTemplate.execute(
-                tokenBucketScript,
-                Arrays.asList(tokensKey, tsKey),
+    private Decision execute(StrategyMeters meters, String key, int capacity, double rate, int requested, boolean partial) {
+        return execute(tokenBucketScript, meters, key,
                 String.valueOf(capacity),
                 String.valueOf(rate),
-                String.valueOf(now)
-        );
-        return result != null && result == 1L;
+                String.valueOf(requested),
+                partial ? "1" : "0");
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Decision execute(DefaultRedisScript<List> script, StrategyMeters meters, String key, String... args) {
+        // 执行 Lua 脚本，返回 {granted, retry_after_ms}
+        long start = System.nanoTime();
+        List<Long> result = redisTemplate.execute(script, Collections.singletonList(key), (Object[]) args);
+        meters.latency().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        Decision decision = (result == null || result.size() < 2)
+                ? new Decision(false, 0, 0)
+                : new Decision(result.get(0) > 0, result.get(0), result.get(1));
+        (decision.allowed() ? meters.allowed() : meters.denied()).increment();
+        return decision;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static DefaultRedisScript<List> loadScript(String location) {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(List.class);
+        return script;
+    }
+
+    private record StrategyMeters(Timer latency, Counter allowed, Counter denied) {
+
+        static StrategyMeters of(MeterRegistry registry, String strategy) {
+            return new StrategyMeters(
+                    Timer.builder("rate.limit.redis")
+                            .description("限流 Lua 脚本执行耗时")
+                            .tag("strategy", strategy)
+                            .register(registry),
+                    decisionCounter(registry, strategy, "allowed"),
+                    decisionCounter(registry, strategy, "denied"));
+        }
+
+        private static Counter decisionCounter(MeterRegistry registry, String strategy, String result) {
+            return Counter.builder("rate.limit.decisions")
+                    .description("Redis 限流判定次数")
+                    .tag("strategy", strategy)
+                    .tag("result", result)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 限流结果
+     *
+     * @param allowed      是否放行
+     * @param granted      实际拿到的令牌数
+     * @param retryAfterMs 被限流时建议的等待毫秒数；-1 表示申请数超过桶容量，永远无法满足
+     */
+    public record Decision(boolean allowed, long granted, long retryAfterMs) {
+
+        public static Decision allow(long granted) {
+            return new Decision(true, granted, 0);
+        }
+
+        public static Decision deny(long retryAfterMs) {
+            return new Decision(false, 0, retryAfterMs);
+        }
     }
 
 }
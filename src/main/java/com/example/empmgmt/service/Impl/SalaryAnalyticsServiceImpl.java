@@ -0,0 +1,374 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.Exception.BusinessException;
+import com.example.empmgmt.common.enums.SalaryDimension;
+import com.example.empmgmt.common.enums.TenureBand;
+import com.example.empmgmt.common.util.TenureUtil;
+import com.example.empmgmt.dto.response.EmployeeResponse;
+import com.example.empmgmt.dto.response.SalaryHistogramResponse;
+import com.example.empmgmt.dto.response.SalaryPercentileResponse;
+import com.example.empmgmt.event.EmployeeChangedEvent;
+import com.example.empmgmt.service.SalaryAnalyticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 薪资分布分析
+ *
+ * 每个维度值（全公司 / 各部门 / 各职位 / 各工龄段）维护一个 SalarySketch，
+ * 查询只读内存草图，与员工数量无关；员工变更提交后按前后快照增量更新。
+ *
+ * 重建时按 id 区间切片，多线程并行扫描 employee 表，每个切片扫完立即合并进同一份结果，
+ * 同时存在的切片草图不超过并行度，单个切片的行数有上限，不会把整张表一次性读进内存。
+ * 工龄段会随日期变化，所以每天凌晨整体重建一次。
+ * 重建串行执行，结果逐个 key 替换进当前草图；重建期间有变更的 key 保留按事件维护的草图，
+ * 避免扫描结果覆盖掉（或重复计入）这期间提交的变更，留到下次重建再校正。
+ */
+@Slf4j
+@Service
+public class SalaryAnalyticsServiceImpl implements SalaryAnalyticsService {
+
+    private static final String ALL_KEY = "全公司";
+    private static final String NO_POSITION = "未设置";
+    private static final List<Double> SUMMARY_QUANTILES = List.of(0.25, 0.5, 0.75, 0.9);
+
+    private static final String SCAN_SQL = "SELECT department, position, salary, hire_date FROM employee " +
+            "WHERE deleted = false AND id BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${salary-analytics.rebuild-parallelism:4}")
+    private int parallelism;
+
+    @Value("${salary-analytics.scan-chunk-size:20000}")
+    private long chunkSize;
+
+    private final Map<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> sketches = emptySketches();
+    private volatile boolean ready;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // 重建期间收到变更的 维度:key，没有在重建时为 null
+    private volatile Set<String> changedDuringRebuild;
+
+    public SalaryAnalyticsServiceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("薪资分布初始化失败，将在首次查询时重试", e);
+        }
+    }
+
+    @Scheduled(cron = "${salary-analytics.rebuild-cron:0 10 0 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @Override
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void doRebuild() {
+        boolean wasReady = ready;
+        Set<String> changed = reload();
+        if (!wasReady && !changed.isEmpty()) {
+            // 首次加载完成前的变更还没有基准草图可以应用，再加载一次补上
+            reload();
+        }
+    }
+
+    /**
+     * 扫描全表后逐个 key 替换进当前草图，返回扫描期间有变更的 key
+     */
+    private Set<String> reload() {
+        long start = System.currentTimeMillis();
+        Set<String> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            Map<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> fresh = scanAll();
+            sketchOf(fresh, SalaryDimension.ALL, ALL_KEY);
+
+            AtomicInteger kept = new AtomicInteger();
+            for (SalaryDimension dimension : SalaryDimension.values()) {
+                ConcurrentHashMap<String, SalarySketch> live = sketches.get(dimension);
+                ConcurrentHashMap<String, SalarySketch> loaded = fresh.get(dimension);
+                Set<String> keys = new HashSet<>(live.keySet());
+                keys.addAll(loaded.keySet());
+                for (String key : keys) {
+                    // 和事件的增量更新一样在 compute 里替换，同一个 key 不会交错
+                    live.compute(key, (k, old) -> {
+                        if (ready && changed.contains(changeKey(dimension, k))) {
+                            kept.incrementAndGet();
+                            return old;
+                        }
+                        return loaded.get(k);
+                    });
+                }
+            }
+            ready = true;
+            log.info("薪资分布重建完成，共 {} 人，重建期间有变更保留原草图 {} 个，耗时 {} ms",
+                    sketchOf(sketches, SalaryDimension.ALL, ALL_KEY).snapshot().count(), kept.get(),
+                    System.currentTimeMillis() - start);
+        } finally {
+            changedDuringRebuild = null;
+        }
+        return changed;
+    }
+
+    /**
+     * 按 id 区间切片并行扫描，每个切片扫完就合并进结果（草图计数是原子的，可以并发合并）
+     */
+    private Map<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> scanAll() {
+        Map<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> result = emptySketches();
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM employee");
+        if (range.get("lo") == null) {
+            return result;
+        }
+        long lo = ((Number) range.get("lo")).longValue();
+        long hi = ((Number) range.get("hi")).longValue();
+        LocalDate today = TenureUtil.today();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (long from = lo; from <= hi; from += chunkSize) {
+                long to = Math.min(hi, from + chunkSize - 1);
+                long chunkFrom = from;
+                futures.add(CompletableFuture.runAsync(() -> mergeInto(result, scan(chunkFrom, to, today)), pool));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * 员工变更提交后增量更新：撤销旧快照，加入新快照
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        LocalDate today = TenureUtil.today();
+        // 先登记再更新：重建替换某个 key 时要么看到登记而保留，要么先替换、这次增量再加到新草图上
+        Set<String> changed = changedDuringRebuild;
+        if (changed != null) {
+            for (EmployeeResponse e : new EmployeeResponse[]{event.before(), event.after()}) {
+                if (e != null) {
+                    keysOf(e.department(), e.position(), e.hireDate(), today)
+                            .forEach((dimension, key) -> changed.add(changeKey(dimension, key)));
+                }
+            }
+        }
+        if (!ready) {
+            return;
+        }
+        if (event.before() != null) {
+            EmployeeResponse e = event.before();
+            for (Map.Entry<SalaryDimension, String> key : keysOf(e.department(), e.position(), e.hireDate(), today).entrySet()) {
+                sketches.get(key.getKey()).computeIfPresent(key.getValue(), (k, sketch) -> {
+                    sketch.remove(e.salary());
+                    return sketch;
+                });
+            }
+        }
+        if (event.after() != null) {
+            EmployeeResponse e = event.after();
+            for (Map.Entry<SalaryDimension, String> key : keysOf(e.department(), e.position(), e.hireDate(), today).entrySet()) {
+                sketches.get(key.getKey()).compute(key.getValue(), (k, sketch) -> {
+                    SalarySketch target = sketch != null ? sketch : new SalarySketch();
+                    target.add(e.salary());
+                    return target;
+                });
+            }
+        }
+    }
+
+    @Override
+    public SalaryPercentileResponse getPercentiles(SalaryDimension dimension, String key, List<Double> quantiles) {
+        for (Double q : quantiles) {
+            if (q == null || q <= 0 || q > 1) {
+                throw new BusinessException("分位点必须在 (0, 1] 之间: " + q);
+            }
+        }
+        String resolvedKey = resolveKey(dimension, key);
+        return toPercentileResponse(dimension, resolvedKey, requireSketch(dimension, resolvedKey).snapshot(), quantiles);
+    }
+
+    @Override
+    public List<SalaryPercentileResponse> getSummary(SalaryDimension dimension) {
+        ensureReady();
+        List<SalaryPercentileResponse> result = new ArrayList<>();
+        for (Map.Entry<String, SalarySketch> entry : sketches.get(dimension).entrySet()) {
+            SalarySketch.Snapshot snapshot = entry.getValue().snapshot();
+            if (snapshot.count() > 0) {
+                result.add(toPercentileResponse(dimension, entry.getKey(), snapshot, SUMMARY_QUANTILES));
+            }
+        }
+        result.sort(Comparator.comparing(SalaryPercentileResponse::key));
+        return result;
+    }
+
+    @Override
+    public SalaryHistogramResponse getHistogram(SalaryDimension dimension, String key, int bins) {
+        if (bins < 1 || bins > 200) {
+            throw new BusinessException("分段数必须在 1 ~ 200 之间");
+        }
+        String resolvedKey = resolveKey(dimension, key);
+        SalarySketch.Snapshot snapshot = requireSketch(dimension, resolvedKey).snapshot();
+
+        List<SalaryHistogramResponse.Bucket> buckets = new ArrayList<>();
+        if (snapshot.count() > 0) {
+            double lower = snapshot.min();
+            double upper = snapshot.max();
+            double width = (upper - lower) / bins;
+            long[] counts = snapshot.histogram(lower, upper, bins);
+            for (int i = 0; i < bins; i++) {
+                buckets.add(new SalaryHistogramResponse.Bucket(
+                        toMoney(lower + width * i), toMoney(lower + width * (i + 1)), counts[i]));
+            }
+        }
+        return new SalaryHistogramResponse(dimension.name(), resolvedKey, snapshot.count(), buckets);
+    }
+
+    private Map<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> scan(long from, long to, LocalDate today) {
+        Map<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> local = emptySketches();
+        jdbcTemplate.query(SCAN_SQL, rs -> {
+            BigDecimal salary = rs.getBigDecimal("salary");
+            Date hireDate = rs.getDate("hire_date");
+            Map<SalaryDimension, String> keys = keysOf(rs.getString("department"), rs.getString("position"),
+                    hireDate == null ? null : hireDate.toLocalDate(), today);
+            for (Map.Entry<SalaryDimension, String> key : keys.entrySet()) {
+                local.get(key.getKey()).computeIfAbsent(key.getValue(), k -> new SalarySketch()).add(salary);
+            }
+        }, from, to);
+        return local;
+    }
+
+    private static void mergeInto(Map<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> target,
+                                  Map<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> source) {
+        for (Map.Entry<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> dim : source.entrySet()) {
+            ConcurrentHashMap<String, SalarySketch> targetDim = target.get(dim.getKey());
+            dim.getValue().forEach((key, sketch) ->
+                    targetDim.computeIfAbsent(key, k -> new SalarySketch()).merge(sketch));
+        }
+    }
+
+    // 一个员工在每个维度下落在哪个 key
+    private static Map<SalaryDimension, String> keysOf(String department, String position,
+                                                       LocalDate hireDate, LocalDate today) {
+        Map<SalaryDimension, String> keys = new EnumMap<>(SalaryDimension.class);
+        keys.put(SalaryDimension.ALL, ALL_KEY);
+        if (department != null) {
+            keys.put(SalaryDimension.DEPARTMENT, department);
+        }
+        keys.put(SalaryDimension.POSITION, position == null ? NO_POSITION : position);
+        keys.put(SalaryDimension.TENURE_BAND, TenureBand.of(hireDate, today).getLabel());
+        return keys;
+    }
+
+    private SalarySketch requireSketch(SalaryDimension dimension, String key) {
+        ensureReady();
+        SalarySketch sketch = sketches.get(dimension).get(key);
+        if (sketch == null) {
+            throw new BusinessException(404, "没有找到统计数据: " + dimension.getDescription() + " " + key);
+        }
+        return sketch;
+    }
+
+    private void ensureReady() {
+        if (!ready) {
+            rebuildLock.lock();
+            try {
+                if (!ready) {
+                    doRebuild();
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+
+    private static String changeKey(SalaryDimension dimension, String key) {
+        return dimension.name() + ":" + key;
+    }
+
+    // 工龄段既可以传枚举名（THREE_TO_5）也可以传中文标签（3-5年）；全公司维度忽略 key
+    private static String resolveKey(SalaryDimension dimension, String key) {
+        if (dimension == SalaryDimension.ALL) {
+            return ALL_KEY;
+        }
+        if (key == null || key.isBlank()) {
+            throw new BusinessException("请指定" + dimension.getDescription() + "的取值");
+        }
+        if (dimension == SalaryDimension.TENURE_BAND) {
+            for (TenureBand band : TenureBand.values()) {
+                if (band.name().equalsIgnoreCase(key)) {
+                    return band.getLabel();
+                }
+            }
+        }
+        return key;
+    }
+
+    private static SalaryPercentileResponse toPercentileResponse(SalaryDimension dimension, String key,
+                                                                 SalarySketch.Snapshot snapshot,
+                                                                 List<Double> quantiles) {
+        Map<String, BigDecimal> percentiles = new LinkedHashMap<>();
+        for (Double q : quantiles) {
+            percentiles.put(percentileName(q), toMoney(snapshot.quantile(q)));
+        }
+        return new SalaryPercentileResponse(dimension.name(), key, snapshot.count(),
+                toMoney(snapshot.min()), toMoney(snapshot.max()), percentiles);
+    }
+
+    // 0.5 -> p50，0.999 -> p99.9
+    private static String percentileName(double q) {
+        return "p" + BigDecimal.valueOf(q).movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+
+    private static BigDecimal toMoney(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static SalarySketch sketchOf(Map<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> map,
+                                         SalaryDimension dimension, String key) {
+        return map.get(dimension).computeIfAbsent(key, k -> new SalarySketch());
+    }
+
+    private static Map<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> emptySketches() {
+        Map<SalaryDimension, ConcurrentHashMap<String, SalarySketch>> map = new EnumMap<>(SalaryDimension.class);
+        for (SalaryDimension dimension : SalaryDimension.values()) {
+            map.put(dimension, new ConcurrentHashMap<>());
+        }
+        return map;
+    }
+}
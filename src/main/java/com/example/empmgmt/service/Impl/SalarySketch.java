@@ -0,0 +1,141 @@
+package com.example.empmgmt.service.Impl;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 薪资分布草图（对数分桶直方图，思路同 HdrHistogram / DDSketch）
+ *
+ * 把 (1, 1e8] 按 1% 的相对宽度切成约 1850 个桶，每个桶只存计数，
+ * 分位数取桶的几何中点，相对误差不超过 0.5%，对薪资分析足够。
+ * 和 t-digest / KLL 不同，桶计数可以直接减，员工调薪、调岗、离职时能精确撤销旧值，
+ * 不需要定期整体重建来“忘掉”历史数据。
+ *
+ * 计数用 AtomicLongArray，增删都是无锁的单次原子操作；查询先拷一份快照再计算，
+ * 结果是某一时刻的近似一致视图。
+ */
+public final class SalarySketch {
+
+    private static final double GAMMA = 1.01;
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final double MAX_VALUE = 1e8;
+    private static final int BUCKETS = (int) Math.ceil(Math.log(MAX_VALUE) / LOG_GAMMA) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void add(BigDecimal salary) {
+        if (salary != null) {
+            counts.incrementAndGet(indexOf(salary.doubleValue()));
+        }
+    }
+
+    public void remove(BigDecimal salary) {
+        if (salary != null) {
+            // 不会减成负数：重建和增量事件交错时可能先收到删除
+            counts.getAndUpdate(indexOf(salary.doubleValue()), c -> c > 0 ? c - 1 : 0);
+        }
+    }
+
+    /**
+     * 合并另一个草图（并行重建时汇总各分片结果）
+     */
+    public void merge(SalarySketch other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total);
+    }
+
+    private static int indexOf(double value) {
+        if (value <= 1) {
+            return 0;
+        }
+        return Math.min((int) (Math.log(value) / LOG_GAMMA), BUCKETS - 1);
+    }
+
+    // 桶 i 覆盖 [GAMMA^i, GAMMA^(i+1))，取几何中点作为代表值
+    private static double valueOf(int index) {
+        return Math.pow(GAMMA, index + 0.5);
+    }
+
+    /**
+     * 某一时刻的计数快照，所有查询都基于快照计算
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long total;
+
+        private Snapshot(long[] counts, long total) {
+            this.counts = counts;
+            this.total = total;
+        }
+
+        public long count() {
+            return total;
+        }
+
+        /**
+         * 分位数，q 取值 [0, 1]；没有数据时返回 NaN
+         */
+        public double quantile(double q) {
+            if (total == 0) {
+                return Double.NaN;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return valueOf(i);
+                }
+            }
+            return max();
+        }
+
+        public double min() {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    return valueOf(i);
+                }
+            }
+            return Double.NaN;
+        }
+
+        public double max() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return valueOf(i);
+                }
+            }
+            return Double.NaN;
+        }
+
+        /**
+         * 把 [lower, upper] 等分成 bins 段，返回每段的人数
+         */
+        public long[] histogram(double lower, double upper, int bins) {
+            long[] result = new long[bins];
+            double width = (upper - lower) / bins;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                int bin = width <= 0 ? 0 : (int) ((valueOf(i) - lower) / width);
+                result[Math.max(0, Math.min(bin, bins - 1))] += counts[i];
+            }
+            return result;
+        }
+    }
+}
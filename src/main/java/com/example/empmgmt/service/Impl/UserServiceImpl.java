@@ -2,6 +2,7 @@ package com.example.empmgmt.service.Impl;
 
 import com.example.empmgmt.common.Exception.BusinessException;
 import com.example.empmgmt.common.util.CacheKeyUtil;
+import com.example.empmgmt.common.util.CacheMetrics;
 import com.example.empmgmt.common.util.SecurityUtil;
 import com.example.empmgmt.domain.Employee;
 import com.example.empmgmt.domain.User;
@@ -21,6 +22,7 @@ import com.example.empmgmt.common.util.JwtUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.criteria.Predicate;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -37,8 +39,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -53,6 +58,7 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final StringRedisTemplate stringRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final CacheMetrics listCacheMetrics;
 
     // 默认密码
     private static final String DEFAULT_PASSWORD = "123456";
@@ -62,10 +68,12 @@ public class UserServiceImpl implements UserService {
                            PasswordEncoder passwordEncoder,
                            EmployeeRepository employeeRepository,
                            StringRedisTemplate stringRedisTemplate,
-                           ObjectMapper objectMapper
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry
                            ) {
         this.stringRedisTemplate = stringRedisTemplate;
         this.objectMapper = objectMapper;
+        this.listCacheMetrics = new CacheMetrics(meterRegistry, "user-list");
         this.userRepository = userRepository;
         this.jwtUtil = jwtUtil;
         this.passwordEncoder = passwordEncoder;
@@ -166,6 +174,7 @@ public class UserServiceImpl implements UserService {
                         new TypeReference<PageResponse<UserResponse>>() {}
                 );
                 //缓存存在，直接返回
+                listCacheMetrics.hit();
                 return cached;
             } catch (Exception e) {
                 // 解析失败就当没缓存，用日志记录一下，不影响主流程
@@ -173,7 +182,8 @@ public class UserServiceImpl implements UserService {
             }
         }
         //4、缓存不存在，执行数据库查询
-        PageResponse<UserResponse> queryDb = doQueryDb(username, role, enabled, page, size);
+        PageResponse<UserResponse> queryDb = listCacheMetrics.load(
+                () -> doQueryDb(username, role, enabled, page, size));
 
         // 5. 写入缓存（加一点随机 TTL，避免雪崩）
         try {
@@ -391,20 +401,16 @@ public class UserServiceImpl implements UserService {
                 .map(User::getId)
                 .collect(Collectors.toList());
 
-        // 使用自定义查询方法批量加载employee信息
-        // 需要在UserRepository中添加：
-        // @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.employee e WHERE u.id IN :ids")
-        // List<User> findAllByIdsWithEmployee(@Param("ids") List<Long> ids);
-
-        // 或者使用循环加载（性能较差，但简单）
-        List<UserWithEmployeeDTO> records = userPage.getContent().stream()
-                .map(user -> {
-                    // 触发懒加载（在事务内）
-                    if (user.getEmployee() != null) {
-                        user.getEmployee().getName(); // 触发加载
-                    }
-                    return UserWithEmployeeDTO.fromEntity(user);
-                })
+        // 再按ID一次性 JOIN FETCH 整页用户的员工信息，查询条数与页大小无关
+        Map<Long, User> loaded = userIds.isEmpty() ? Map.of()
+                : userRepository.findAllByIdsWithEmployee(userIds).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        // 按分页顺序组装
+        List<UserWithEmployeeDTO> records = userIds.stream()
+                .map(loaded::get)
+                .filter(Objects::nonNull)
+                .map(UserWithEmployeeDTO::fromEntity)
                 .collect(Collectors.toList());
 
         return new PageResponse<>(
@@ -485,12 +491,12 @@ public class UserServiceImpl implements UserService {
         List<User> users = userRepository.findByEmployeeId(employeeId);
 
         if (!users.isEmpty()) {
-            // 禁用所有关联的用户账号
+            // 禁用所有关联的用户账号，一次 saveAll，提交时按 JDBC batch 发出 UPDATE
             users.forEach(user -> {
                 user.setEnabled(false);
-                userRepository.save(user);
                 log.info("员工 {} 离职，已禁用用户账号: {}", employeeId, user.getUsername());
             });
+            userRepository.saveAll(users);
         } else {
             log.info("员工 {} 离职，没有关联的用户账号", employeeId);
         }
@@ -0,0 +1,30 @@
+package com.example.empmgmt.service;
+
+import com.example.empmgmt.dto.response.OperationLogArchiveResponse;
+
+import java.util.List;
+
+/**
+ * 操作日志分区维护服务接口
+ */
+public interface OperationLogPartitionService {
+
+    /**
+     * 预建当月及之后若干个月的分区，并把落在 default 分区里的日志搬到对应月份的分区
+     *
+     * @return 新建的分区表名
+     */
+    List<String> ensurePartitions();
+
+    /**
+     * 把 V4 迁移时留在 operation_log_legacy 里的历史日志分批搬进分区表，搬空后删除旧表
+     *
+     * @return 本次搬入的行数
+     */
+    long migrateLegacyRows();
+
+    /**
+     * 把超过保留期的分区导出为 gzip JSONL 文件后删除
+     */
+    List<OperationLogArchiveResponse> archiveExpiredPartitions();
+}
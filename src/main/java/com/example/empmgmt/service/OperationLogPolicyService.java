@@ -0,0 +1,47 @@
+package com.example.empmgmt.service;
+
+import com.example.empmgmt.domain.OperationLog;
+import com.example.empmgmt.dto.request.OperationLogPolicyRequest;
+import com.example.empmgmt.dto.response.OperationLogPolicyResponse;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * 操作日志策略：写操作总是记录，QUERY 类操作按采样率记录，没采到的可以聚合成计数
+ */
+public interface OperationLogPolicyService {
+
+    enum Decision {
+        PERSIST,        // 调用方直接写库
+        AGGREGATED,     // 已并入聚合计数，定期写库
+        DROPPED         // 未被采样，丢弃
+    }
+
+    /**
+     * 判断一条已经执行完的操作日志怎么处理
+     *
+     * @param method 带 @OperationLog 注解的方法
+     */
+    Decision decide(Method method, OperationLog operationLog);
+
+    /**
+     * 所有 QUERY 类日志点当前生效的策略
+     */
+    List<OperationLogPolicyResponse> listPolicies();
+
+    /**
+     * 运行时覆盖某个日志点的策略，所有节点同步生效
+     */
+    OperationLogPolicyResponse updatePolicy(String key, OperationLogPolicyRequest request);
+
+    /**
+     * 去掉运行时覆盖，回到 yml / 注解上的配置
+     */
+    OperationLogPolicyResponse resetPolicy(String key);
+
+    /**
+     * 把聚合计数写成日志，返回写入条数
+     */
+    int flushAggregates();
+}
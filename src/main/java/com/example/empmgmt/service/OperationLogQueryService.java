@@ -0,0 +1,22 @@
+package com.example.empmgmt.service;
+
+import com.example.empmgmt.domain.OperationLog;
+import com.example.empmgmt.dto.request.OperationLogQueryRequest;
+import com.example.empmgmt.dto.response.CursorPageResponse;
+import com.example.empmgmt.dto.response.PageResponse;
+
+/**
+ * 操作日志查询服务接口
+ */
+public interface OperationLogQueryService {
+
+    /**
+     * 按页码分页（OFFSET），适合只翻前几页的列表；条件里的 cursor / withTotal 不生效
+     */
+    PageResponse<OperationLog> page(OperationLogQueryRequest request, int page);
+
+    /**
+     * 按 (created_at, id) 倒序的游标分页，翻到多深都只读一页的数据
+     */
+    CursorPageResponse<OperationLog> scroll(OperationLogQueryRequest request);
+}
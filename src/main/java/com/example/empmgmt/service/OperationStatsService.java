@@ -0,0 +1,37 @@
+package com.example.empmgmt.service;
+
+import com.example.empmgmt.domain.OperationLog;
+import com.example.empmgmt.dto.request.OperationStatsQueryRequest;
+import com.example.empmgmt.dto.response.OperationStatsResponse;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * 操作耗时统计：内存里按 (模块, 日志点, 状态) 记录直方图，每分钟汇总写入 operation_stats_minute，
+ * 查询只读汇总表，不扫描 operation_log
+ */
+public interface OperationStatsService {
+
+    /**
+     * 记录一次调用耗时（所有调用都记，不受日志采样影响）
+     *
+     * @param method 带 @OperationLog 注解的方法
+     */
+    void record(Method method, OperationLog operationLog);
+
+    /**
+     * 把上次汇总以来的直方图写入汇总表，返回写入行数
+     */
+    int flush();
+
+    /**
+     * 按时间范围合并分钟直方图，返回 p50 / p95 / p99 / 吞吐
+     */
+    List<OperationStatsResponse> query(OperationStatsQueryRequest request);
+
+    /**
+     * 删除超过保留期的分钟汇总，返回删除行数
+     */
+    int purgeExpired();
+}
@@ -0,0 +1,45 @@
+package com.example.empmgmt.service;
+
+import com.example.empmgmt.common.trace.RequestTrace;
+import com.example.empmgmt.dto.response.NPlusOneSuspectResponse;
+import com.example.empmgmt.dto.response.QueryBudgetViolationResponse;
+import com.example.empmgmt.dto.response.SlowQueryResponse;
+
+import java.util.List;
+
+/**
+ * SQL 统计服务：慢查询排行、N+1 检测、接口 SQL 条数预算
+ */
+public interface QueryStatsService {
+
+    /**
+     * 记录一条执行完的 SQL（由 JDBC 代理回调，任意线程）
+     */
+    void recordStatement(String fingerprint, String repositoryMethod, long elapsedNanos);
+
+    /**
+     * 请求结束时检查 N+1 和 SQL 条数预算
+     *
+     * @param endpoint 形如 "GET /api/employ/{id}"
+     */
+    void onRequestComplete(String endpoint, RequestTrace trace);
+
+    /**
+     * 慢 SQL 排行
+     *
+     * @param sortBy p99 / p50 / total / mean / count
+     */
+    List<SlowQueryResponse> topSlowQueries(int limit, String sortBy);
+
+    List<NPlusOneSuspectResponse> nPlusOneSuspects();
+
+    /**
+     * 最近的预算超限记录（新的在前）
+     */
+    List<QueryBudgetViolationResponse> budgetViolations();
+
+    /**
+     * 清空所有统计
+     */
+    void reset();
+}
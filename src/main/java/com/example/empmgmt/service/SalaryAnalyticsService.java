@@ -0,0 +1,35 @@
+package com.example.empmgmt.service;
+
+import com.example.empmgmt.common.enums.SalaryDimension;
+import com.example.empmgmt.dto.response.SalaryHistogramResponse;
+import com.example.empmgmt.dto.response.SalaryPercentileResponse;
+
+import java.util.List;
+
+/**
+ * 薪资分布分析服务接口
+ */
+public interface SalaryAnalyticsService {
+
+    /**
+     * 查询某个维度值（如某个部门）的薪资分位数
+     *
+     * @param quantiles 分位点，取值 (0, 1]，例如 0.5、0.9
+     */
+    SalaryPercentileResponse getPercentiles(SalaryDimension dimension, String key, List<Double> quantiles);
+
+    /**
+     * 某个维度下所有取值的分位数概览（p25 / p50 / p75 / p90）
+     */
+    List<SalaryPercentileResponse> getSummary(SalaryDimension dimension);
+
+    /**
+     * 查询薪资直方图，在 [最低, 最高] 之间等分 bins 段
+     */
+    SalaryHistogramResponse getHistogram(SalaryDimension dimension, String key, int bins);
+
+    /**
+     * 从数据库全量重建
+     */
+    void rebuild();
+}
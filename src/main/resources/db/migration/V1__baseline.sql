@@ -0,0 +1,73 @@
+-- 基线：与实体映射一致的表结构
+-- 已有数据库通过 spring.flyway.baseline-on-migrate 直接标记为版本 1，不会执行本脚本
+
+CREATE TABLE IF NOT EXISTS employee (
+    id          BIGSERIAL PRIMARY KEY,
+    name        VARCHAR(255),
+    gender      VARCHAR(255),
+    age         INTEGER,
+    department  VARCHAR(255),
+    position    VARCHAR(255),
+    hire_date   DATE,
+    salary      NUMERIC(12, 2),
+    avatar      VARCHAR(500),
+    created_at  TIMESTAMP,
+    updated_at  TIMESTAMP,
+    deleted     BOOLEAN NOT NULL DEFAULT FALSE,
+    deleted_at  TIMESTAMP,
+    deleted_by  BIGINT,
+    created_by  BIGINT,
+    updated_by  BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS user_account (
+    id           BIGSERIAL PRIMARY KEY,
+    username     VARCHAR(255) NOT NULL UNIQUE,
+    password     VARCHAR(255) NOT NULL,
+    email        VARCHAR(255),
+    role         VARCHAR(50) DEFAULT 'EMPLOYEE',
+    department   VARCHAR(100),
+    employee_id  BIGINT CONSTRAINT fk_user_employee REFERENCES employee (id),
+    enabled      BOOLEAN DEFAULT TRUE,
+    created_at   TIMESTAMP,
+    updated_at   TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS permission (
+    id           BIGSERIAL PRIMARY KEY,
+    code         VARCHAR(100) NOT NULL UNIQUE,
+    name         VARCHAR(100) NOT NULL,
+    resource     VARCHAR(100) NOT NULL,
+    action       VARCHAR(50)  NOT NULL,
+    description  VARCHAR(500),
+    created_at   TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS operation_log (
+    id              BIGSERIAL PRIMARY KEY,
+    user_id         BIGINT      NOT NULL,
+    username        VARCHAR(50) NOT NULL,
+    operation_type  VARCHAR(20) NOT NULL,
+    module          VARCHAR(50) NOT NULL,
+    description     VARCHAR(500),
+    method          VARCHAR(200),
+    params          TEXT,
+    result          TEXT,
+    ip_address      VARCHAR(50),
+    execution_time  BIGINT,
+    status          VARCHAR(20) DEFAULT 'SUCCESS',
+    error_message   TEXT,
+    created_at      TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS export_task (
+    id          BIGSERIAL PRIMARY KEY,
+    task_type   VARCHAR(50) NOT NULL,
+    params      JSONB       NOT NULL,
+    status      VARCHAR(20) NOT NULL,
+    file_path   VARCHAR(255),
+    error_msg   VARCHAR(255),
+    created_by  BIGINT,
+    created_at  TIMESTAMP   NOT NULL,
+    updated_at  TIMESTAMP   NOT NULL
+);
@@ -0,0 +1,38 @@
+-- 员工 / 用户查询索引
+-- 员工表的查询都带 deleted = false，统一建部分索引，已删除的行不占索引空间
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- 姓名 / 用户名子串搜索：LIKE '%xx%' 走 trigram GIN（关键字至少 3 个字符时有效）
+CREATE INDEX IF NOT EXISTS idx_employee_name_trgm
+    ON employee USING gin (lower(name) gin_trgm_ops) WHERE deleted = false;
+
+CREATE INDEX IF NOT EXISTS idx_user_username_trgm
+    ON user_account USING gin (username gin_trgm_ops);
+
+-- 未删除员工按 id 分页
+CREATE INDEX IF NOT EXISTS idx_employee_active_id
+    ON employee (id) WHERE deleted = false;
+
+-- 按部门查询 / 分页，附带 id 保证按 id 排序时不用再排序
+CREATE INDEX IF NOT EXISTS idx_employee_active_dept
+    ON employee (department, id) WHERE deleted = false;
+
+-- 按部门 + 职位查询
+CREATE INDEX IF NOT EXISTS idx_employee_active_dept_position
+    ON employee (department, position) WHERE deleted = false;
+
+-- 用户按角色 / 部门统计和查询
+CREATE INDEX IF NOT EXISTS idx_user_role_department
+    ON user_account (role, department);
+
+CREATE INDEX IF NOT EXISTS idx_user_department
+    ON user_account (department);
+
+-- 用户分页按创建时间倒序
+CREATE INDEX IF NOT EXISTS idx_user_created_at
+    ON user_account (created_at DESC);
+
+-- 外键列：按员工查账号、删除员工时检查引用
+CREATE INDEX IF NOT EXISTS idx_user_employee_id
+    ON user_account (employee_id);
@@ -0,0 +1,18 @@
+-- employee / user_account 主键改由 Hibernate pooled 序列分配（allocationSize = 50）
+-- 序列步长必须与 allocationSize 一致；列默认值保留，手工 INSERT 仍可用（只是会跳号）
+-- 旧库可能是 SERIAL 也可能是 IDENTITY 列，两种写法分别处理
+
+DO $$
+DECLARE
+    t TEXT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['employee', 'user_account'] LOOP
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = t
+                     AND column_name = 'id' AND is_identity = 'YES') THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET INCREMENT BY 50', t);
+        ELSE
+            EXECUTE format('ALTER SEQUENCE %s INCREMENT BY 50', pg_get_serial_sequence(t, 'id'));
+        END IF;
+    END LOOP;
+END $$;
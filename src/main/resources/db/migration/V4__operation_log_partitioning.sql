@@ -0,0 +1,78 @@
+-- operation_log 改为按 created_at 月分区（声明式 RANGE 分区）
+-- 这里只建当月和下月的分区；之后的分区由应用每天预建（OperationLogPartitionServiceImpl），
+-- 过期分区由应用归档成 gzip JSONL 后整块 DROP，不再逐行 DELETE
+-- default 分区兜底：应用长时间没跑导致分区没建时，日志写到这里而不是报错，预建分区时会再搬走
+--
+-- 整个脚本在一个事务里，提交前 OperationLogAspect 同步写日志会一直等着，所以这里只搬当月的日志（只读表尾），
+-- 更早的日志留在 operation_log_legacy，由应用分批搬进分区表（每批一个短事务），搬完后删除旧表。
+-- 当月日志很多时迁移期间写日志仍会阻塞，建议在低峰期发布。
+
+ALTER TABLE operation_log RENAME TO operation_log_legacy;
+
+-- 分区表不支持 IDENTITY / SERIAL 的自动关联，id 用独立序列
+CREATE SEQUENCE operation_log_id_seq_v2;
+
+CREATE TABLE operation_log (
+    id              BIGINT      NOT NULL DEFAULT nextval('operation_log_id_seq_v2'),
+    user_id         BIGINT      NOT NULL,
+    username        VARCHAR(50) NOT NULL,
+    operation_type  VARCHAR(20) NOT NULL,
+    module          VARCHAR(50) NOT NULL,
+    description     VARCHAR(500),
+    method          VARCHAR(200),
+    params          TEXT,
+    result          TEXT,
+    ip_address      VARCHAR(50),
+    execution_time  BIGINT,
+    status          VARCHAR(20) DEFAULT 'SUCCESS',
+    error_message   TEXT,
+    created_at      TIMESTAMP   NOT NULL DEFAULT now(),
+    -- 分区表的主键必须包含分区键
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE operation_log_id_seq_v2 OWNED BY operation_log.id;
+
+CREATE TABLE operation_log_default PARTITION OF operation_log DEFAULT;
+
+DO $$
+DECLARE
+    m DATE;
+BEGIN
+    FOREACH m IN ARRAY ARRAY[date_trunc('month', now())::date, (date_trunc('month', now()) + INTERVAL '1 month')::date]
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF operation_log FOR VALUES FROM (%L) TO (%L)',
+                       'operation_log_p' || to_char(m, 'YYYYMM'), m, (m + INTERVAL '1 month')::date);
+    END LOOP;
+END $$;
+
+SELECT setval('operation_log_id_seq_v2', COALESCE((SELECT MAX(id) FROM operation_log_legacy), 0) + 1, false);
+
+-- 日志按时间顺序写入，id 和 created_at 同向增长：沿主键倒序找到当月之前的最后一行，之后的按主键范围搬走。
+-- 个别乱序的旧行会落进 default 分区，由应用预建分区时搬走；旧数据没有 created_at 的按迁移时间算
+WITH boundary AS (
+    SELECT COALESCE((SELECT id FROM operation_log_legacy WHERE created_at < date_trunc('month', now())
+                     ORDER BY id DESC LIMIT 1), 0) AS id
+), moved AS (
+    DELETE FROM operation_log_legacy WHERE id > (SELECT id FROM boundary) RETURNING *
+)
+INSERT INTO operation_log (id, user_id, username, operation_type, module, description, method, params, result,
+                           ip_address, execution_time, status, error_message, created_at)
+SELECT id, user_id, username, operation_type, module, description, method, params, result,
+       ip_address, execution_time, status, error_message, COALESCE(created_at, now())
+FROM moved;
+
+-- 没有更早的日志（例如新库）时直接删除旧表
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM operation_log_legacy) THEN
+        DROP TABLE operation_log_legacy;
+    END IF;
+END $$;
+
+-- 在父表上建索引，现有分区和以后建 / 挂载的分区都会自动带上
+-- 列表默认按时间倒序分页：各分区索引有序扫描后合并，不用全表排序
+CREATE INDEX idx_operation_log_created_at ON operation_log (created_at DESC);
+CREATE INDEX idx_operation_log_module ON operation_log (module, created_at DESC);
+CREATE INDEX idx_operation_log_type ON operation_log (operation_type, created_at DESC);
+CREATE INDEX idx_operation_log_user ON operation_log (user_id, created_at DESC);
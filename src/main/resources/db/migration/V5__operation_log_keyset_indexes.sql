@@ -0,0 +1,20 @@
+-- 操作日志组合查询 + 游标分页的索引
+-- 排序固定为 (created_at DESC, id DESC)，每个等值条件一个「条件列 + 排序列」的复合索引：
+-- 按条件定位后顺着索引读一页就能停，游标条件 created_at <= ? 也能作为索引扫描的边界
+-- 在分区表父表上建索引，各月分区自动建立对应索引
+
+DROP INDEX IF EXISTS idx_operation_log_created_at;
+DROP INDEX IF EXISTS idx_operation_log_module;
+DROP INDEX IF EXISTS idx_operation_log_type;
+DROP INDEX IF EXISTS idx_operation_log_user;
+
+-- 只有时间范围（以及耗时下限等非等值条件）时
+CREATE INDEX idx_operation_log_created_id ON operation_log (created_at DESC, id DESC);
+
+CREATE INDEX idx_operation_log_user_created_id ON operation_log (user_id, created_at DESC, id DESC);
+CREATE INDEX idx_operation_log_module_created_id ON operation_log (module, created_at DESC, id DESC);
+CREATE INDEX idx_operation_log_type_created_id ON operation_log (operation_type, created_at DESC, id DESC);
+
+-- 失败记录占比很小，审计时又经常单独看，用部分索引；查 SUCCESS 时走时间索引过滤即可
+CREATE INDEX idx_operation_log_failure_created_id ON operation_log (created_at DESC, id DESC)
+    WHERE status = 'FAILURE';
@@ -0,0 +1,20 @@
+-- 操作耗时分钟汇总：统计接口只读这张表，不扫描 operation_log 原始记录
+-- 每行一个压缩直方图（几百字节），同一分钟多个节点各写一行，查询时合并
+
+CREATE SEQUENCE operation_stats_minute_id_seq INCREMENT BY 50;
+
+CREATE TABLE operation_stats_minute (
+    id           BIGINT       PRIMARY KEY DEFAULT nextval('operation_stats_minute_id_seq'),
+    bucket_start TIMESTAMP    NOT NULL,
+    module       VARCHAR(50)  NOT NULL,
+    method       VARCHAR(200) NOT NULL,
+    status       VARCHAR(20)  NOT NULL,
+    call_count   BIGINT       NOT NULL,
+    max_time     BIGINT       NOT NULL,
+    histogram    BYTEA        NOT NULL
+);
+
+ALTER SEQUENCE operation_stats_minute_id_seq OWNED BY operation_stats_minute.id;
+
+-- 统计查询总是带时间范围，模块 / 日志点过滤在范围内做
+CREATE INDEX idx_operation_stats_minute_bucket ON operation_stats_minute (bucket_start);
@@ -0,0 +1,19 @@
+-- 导出 / 导入任务的事务性发件箱：任务和待发消息在同一个事务里写入，由 ExportOutboxRelay 批量投递到 RabbitMQ
+-- 投递成功（broker 确认）后标记 SENT，失败的按退避时间重试，保证至少投递一次
+
+CREATE TABLE export_outbox (
+    id              BIGSERIAL    PRIMARY KEY,
+    task_id         BIGINT       NOT NULL,
+    payload         TEXT         NOT NULL,             -- ExportTaskMessage 的 JSON
+    status          VARCHAR(20)  NOT NULL,             -- PENDING / SENT
+    attempts        INT          NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP    NOT NULL,
+    last_error      VARCHAR(500),
+    created_at      TIMESTAMP    NOT NULL,
+    sent_at         TIMESTAMP
+);
+
+-- 中继只扫描待发送的行，已发送的行不进索引
+CREATE INDEX idx_export_outbox_pending ON export_outbox (next_attempt_at, id) WHERE status = 'PENDING';
+-- 清理已发送的旧行
+CREATE INDEX idx_export_outbox_sent_at ON export_outbox (sent_at) WHERE status = 'SENT';
@@ -0,0 +1,38 @@
+-- 分布式信号量（带租约）获取 Lua 脚本
+-- 用一个 ZSET 保存当前持有的许可：score = 租约到期时间（毫秒），member = 许可ID
+-- 获取前先清理已到期的租约，保证持有者宕机后许可最终会被回收
+-- 释放许可由调用方直接 ZREM，不需要脚本
+--
+-- KEYS[1] = ZSET key，例如 rate:employee-export:sem:global:all
+-- ARGV[1] = 最大并发数 limit
+-- ARGV[2] = 租约时长 lease_ms
+-- ARGV[3] = 许可ID
+--
+-- 返回 {granted, retry_after_ms}，含义与 token_bucket.lua 相同
+-- 并发被占满时 retry_after 取最早一个租约的剩余时间，只是上限，通常持有者会更早释放
+
+if redis.replicate_commands then
+  pcall(redis.replicate_commands)
+end
+
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local lease = tonumber(ARGV[2])
+local permit_id = ARGV[3]
+
+local time = redis.call("TIME")
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+-- 回收过期租约
+redis.call("ZREMRANGEBYSCORE", key, "-inf", now)
+
+if redis.call("ZCARD", key) < limit then
+  redis.call("ZADD", key, now + lease, permit_id)
+  -- key 的过期时间跟随最晚的租约，保证空闲时不残留
+  local latest = redis.call("ZRANGE", key, -1, -1, "WITHSCORES")
+  redis.call("PEXPIREAT", key, tonumber(latest[2]))
+  return {1, 0}
+end
+
+local earliest = redis.call("ZRANGE", key, 0, 0, "WITHSCORES")
+return {0, math.max(1, tonumber(earliest[2]) - now)}
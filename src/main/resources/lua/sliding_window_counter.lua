@@ -0,0 +1,64 @@
+-- 滑动窗口计数限流 Lua 脚本
+-- 只保存“当前固定窗口”和“上一个固定窗口”两个计数，按当前窗口已过去的比例对上一个窗口加权：
+--   估算值 = prev * (1 - elapsed / window) + cur
+-- 内存固定为一个 Hash，精度略低于日志法，适合 limit 很大的场景
+--
+-- KEYS[1] = Hash key：win = 当前窗口序号，cur = 当前窗口计数，prev = 上一窗口计数
+-- ARGV[1] = 窗口内最大请求数 limit
+-- ARGV[2] = 窗口长度 window_ms
+-- ARGV[3] = 本次申请的数量 permits
+--
+-- 返回 {granted, retry_after_ms}，含义与 token_bucket.lua 相同
+
+if redis.replicate_commands then
+  pcall(redis.replicate_commands)
+end
+
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local permits = tonumber(ARGV[3])
+
+if permits > limit then
+  return {0, -1}
+end
+
+local time = redis.call("TIME")
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local win = math.floor(now / window)
+local elapsed = now - win * window
+
+local state = redis.call("HMGET", key, "win", "cur", "prev")
+local stored_win = tonumber(state[1])
+local cur = tonumber(state[2]) or 0
+local prev = tonumber(state[3]) or 0
+
+-- 窗口滚动
+if stored_win == nil or stored_win < win - 1 then
+  prev = 0
+  cur = 0
+elseif stored_win == win - 1 then
+  prev = cur
+  cur = 0
+end
+
+local weight = 1 - elapsed / window
+local estimated = prev * weight + cur
+
+if estimated + permits <= limit then
+  cur = cur + permits
+  redis.call("HSET", key, "win", win, "cur", cur, "prev", prev)
+  -- 下一个窗口还要用到本窗口的计数，所以保留两个窗口
+  redis.call("PEXPIRE", key, window * 2)
+  return {permits, 0}
+end
+
+-- 被限流：估算上一窗口的权重衰减到足够小需要多久，当前窗口本身已满则要等到下一个窗口
+local retry_after
+local room = limit - cur - permits
+if room >= 0 and prev > 0 then
+  retry_after = math.ceil(window * (1 - room / prev) - elapsed)
+else
+  retry_after = window - elapsed
+end
+return {0, math.max(1, retry_after)}
@@ -0,0 +1,48 @@
+-- 滑动窗口日志限流 Lua 脚本
+-- 用一个 ZSET 记录窗口内每次请求：score = 请求时间（毫秒），member = 唯一请求ID
+-- 每次先删掉窗口之外的旧记录，剩余记录数就是窗口内的请求数，结果精确，内存与 limit 成正比
+--
+-- KEYS[1] = ZSET key，例如 rate:employee-export:swl:user:1
+-- ARGV[1] = 窗口内最大请求数 limit
+-- ARGV[2] = 窗口长度 window_ms
+-- ARGV[3] = 本次申请的数量 permits
+-- ARGV[4] = 本次请求的唯一ID（由调用方生成，避免同一毫秒的 member 互相覆盖）
+--
+-- 返回 {granted, retry_after_ms}，含义与 token_bucket.lua 相同
+
+if redis.replicate_commands then
+  pcall(redis.replicate_commands)
+end
+
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local permits = tonumber(ARGV[3])
+local request_id = ARGV[4]
+
+if permits > limit then
+  return {0, -1}
+end
+
+local time = redis.call("TIME")
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+-- 清理窗口外的记录
+redis.call("ZREMRANGEBYSCORE", key, "-inf", now - window)
+
+local count = redis.call("ZCARD", key)
+if count + permits <= limit then
+  for i = 1, permits do
+    redis.call("ZADD", key, now, request_id .. ":" .. i)
+  end
+  redis.call("PEXPIRE", key, window)
+  return {permits, 0}
+end
+
+-- 被限流：要等到最早的若干条记录滑出窗口
+local oldest = redis.call("ZRANGE", key, count + permits - limit - 1, count + permits - limit - 1, "WITHSCORES")
+local retry_after = window
+if oldest[2] then
+  retry_after = math.max(1, tonumber(oldest[2]) + window - now)
+end
+return {0, retry_after}
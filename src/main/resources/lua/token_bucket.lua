@@ -1,42 +1,73 @@
--- 令牌桶限流 Lua 脚本
--- KEYS[1] = 令牌数 key，例如 rate:login:ip:127.0.0.1:tokens
--- KEYS[2] = 上次刷新时间 key，例如 rate:login:ip:127.0.0.1:ts
+-- 令牌桶限流 Lua 脚本（单 key Hash 版）
+-- 一个桶只占一个 Hash key：tokens = 剩余令牌数，ts = 上次刷新时间（毫秒）
+-- 时间取 Redis 服务端的 TIME，避免多个应用节点时钟不一致导致补充令牌计算错误
+-- key 设置 PEXPIRE = 桶从当前状态补满所需时间，过期后自然等价于“桶已满”，空闲 key 不会常驻内存
+--
+-- KEYS[1] = 桶 key，例如 rate:login:ip:127.0.0.1
 -- ARGV[1] = 容量 capacity
 -- ARGV[2] = 每秒填充速率 rate
--- ARGV[3] = 当前时间戳（毫秒）
+-- ARGV[3] = 本次申请的令牌数 requested
+-- ARGV[4] = 模式：0 = 全部满足才放行；1 = 能领多少领多少（本地桶批量预领用）
+--
+-- 返回 {granted, retry_after_ms}
+--   granted        实际领到的令牌数，0 表示被限流
+--   retry_after_ms 被限流时，再等多久才可能拿到令牌；-1 表示申请数超过容量，永远无法满足
 
-local tokens_key = KEYS[1]
-local ts_key = KEYS[2]
+-- Redis 5 以下需要显式开启命令复制，才能在调用 TIME 之后写数据
+if redis.replicate_commands then
+  pcall(redis.replicate_commands)
+end
+
+local key = KEYS[1]
 
 local capacity = tonumber(ARGV[1])
 local rate = tonumber(ARGV[2])
-local now = tonumber(ARGV[3])
+local requested = tonumber(ARGV[3])
+local partial = tonumber(ARGV[4])
+
+-- 服务端时间（毫秒）
+local time = redis.call("TIME")
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
 
 -- 当前 token 数与上次刷新时间
-local tokens = tonumber(redis.call("GET", tokens_key))
-if tokens == nil then
-  tokens = capacity  -- 第一次访问，视为桶已满
+local state = redis.call("HMGET", key, "tokens", "ts")
+local tokens = tonumber(state[1])
+local last_ts = tonumber(state[2])
+if tokens == nil or last_ts == nil then
+  tokens = capacity  -- 第一次访问（或 key 已过期），视为桶已满
+  last_ts = now
 end
 
-local last_ts = tonumber(redis.call("GET", ts_key))
-if last_ts == nil then
-  last_ts = now      -- 第一次访问，初始化时间
+-- 计算经过的时间，补充令牌
+local delta = math.max(0, now - last_ts)
+tokens = math.min(capacity, tokens + (delta / 1000.0) * rate)
+
+-- 扣减令牌
+local granted = 0
+if partial == 1 then
+  granted = math.max(0, math.min(requested, math.floor(tokens)))
+elseif tokens >= requested then
+  granted = requested
 end
+tokens = tokens - granted
 
--- 计算经过的时间（秒），补充令牌
-local delta = math.max(0, now - last_ts)
-local refill = (delta / 1000.0) * rate
-tokens = math.min(capacity, tokens + refill)
-
--- 判断是否还有令牌
-local allowed = 0
-if tokens >= 1 then
-  tokens = tokens - 1
-  allowed = 1
+-- 被限流时计算需要等待的时间
+local retry_after = 0
+if granted == 0 then
+  local need = requested
+  if partial == 1 then
+    need = 1
+  end
+  if need > capacity then
+    retry_after = -1
+  else
+    retry_after = math.ceil((need - tokens) * 1000 / rate)
+  end
 end
 
--- 写回 Redis
-redis.call("SET", tokens_key, tokens)
-redis.call("SET", ts_key, now)
+-- 写回 Redis，并按“补满所需时间”设置过期
+redis.call("HSET", key, "tokens", tokens, "ts", now)
+local ttl = math.ceil((capacity - tokens) * 1000 / rate)
+redis.call("PEXPIRE", key, math.max(ttl, 1000))
 
-return allowed
\ No newline at end of file
+return {granted, retry_after}
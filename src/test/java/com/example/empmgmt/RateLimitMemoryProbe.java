@@ -0,0 +1,72 @@
+package com.example.empmgmt;
+
+import com.example.empmgmt.service.Impl.RateLimitService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 限流 Redis 内存压测
+ * 用大量不同 IP 打令牌桶脚本，观察 Redis 内存和 key 数量是否随桶过期回落
+ *
+ * 运行前需要本地启动 Redis，参数：[IP 数量，默认 2000000] [线程数，默认 16]
+ */
+public class RateLimitMemoryProbe {
+
+    public static void main(String[] args) throws Exception {
+        int ipCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", 6379));
+        factory.afterPropertiesSet();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(factory);
+        redisTemplate.afterPropertiesSet();
+        RateLimitService rateLimitService = new RateLimitService(redisTemplate, new SimpleMeterRegistry());
+
+        // 与登录接口相同的配置：容量 10，每秒补 0.2 个，50 秒补满
+        int capacity = 10;
+        double rate = 0.2;
+
+        printMemory(redisTemplate, "压测前");
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger next = new AtomicInteger();
+        long start = System.currentTimeMillis();
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < ipCount) {
+                    String ip = "10." + ((i >>> 16) & 0xFF) + "." + ((i >>> 8) & 0xFF) + "." + (i & 0xFF) + "-" + (i >>> 24);
+                    rateLimitService.tryAcquire("rate:probe:ip:", ip, capacity, rate);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        System.out.println("写入 " + ipCount + " 个桶，耗时 " + (System.currentTimeMillis() - start) + " ms");
+
+        printMemory(redisTemplate, "压测后");
+
+        // 每个桶只消耗了 1 个令牌，5 秒后补满、key 过期
+        long waitMs = (long) Math.ceil(1000 / rate) + 2000;
+        System.out.println("等待 " + waitMs + " ms，让桶自然过期...");
+        Thread.sleep(waitMs);
+
+        printMemory(redisTemplate, "过期后");
+        factory.destroy();
+    }
+
+    private static void printMemory(StringRedisTemplate redisTemplate, String stage) {
+        Properties memory = redisTemplate.execute(connection -> connection.serverCommands().info("memory"), true);
+        Long dbSize = redisTemplate.execute(connection -> connection.serverCommands().dbSize(), true);
+        System.out.println("[" + stage + "] used_memory_human=" + memory.getProperty("used_memory_human")
+                + ", dbsize=" + dbSize);
+    }
+}
@@ -2,19 +2,23 @@ package com.example.empmgmt;
 
 import com.example.empmgmt.domain.ExportTask;
 import com.example.empmgmt.mq.consumer.ExportConsumer;
+import com.example.empmgmt.mq.consumer.ExportRetryPublisher;
 import com.example.empmgmt.mq.dto.EmployeeExportParams;
 import com.example.empmgmt.mq.dto.ExportTaskMessage;
 import com.example.empmgmt.repository.EmployeeRepository;
 import com.example.empmgmt.repository.ExportTaskRepository;
 import com.example.empmgmt.repository.UserRepository;
+import com.example.empmgmt.service.EmployeeImportService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
@@ -43,6 +47,12 @@ public class RedisQueue {
     private StringRedisTemplate stringRedisTemplate;
     @Mock
     private ValueOperations<String, String> valueOperations; // Redis操作句柄
+    @Mock
+    private EmployeeImportService employeeImportService;
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(); // 导出指标
+    @Mock
+    private ExportRetryPublisher retryPublisher;
 
     @BeforeEach
     void setUp() {
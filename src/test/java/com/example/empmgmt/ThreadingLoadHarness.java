@@ -0,0 +1,152 @@
+package com.example.empmgmt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 平台线程 / 虚拟线程模式压测
+ * 分别用默认配置和 virtual profile 启动应用，各跑一次本程序，对比吞吐和 p99
+ *
+ * 参数：[baseUrl，默认 http://localhost:8080] [并发连接数，默认 2000] [每个场景持续秒数，默认 60]
+ *       [用户名，默认 admin] [密码，默认 admin123]
+ *
+ * 注意：
+ * - 登录接口按 IP 限流，本程序给每个请求带不同的 X-Forwarded-For 模拟不同客户端，测的是登录本身的开销；
+ *   应用只信任可信代理的 X-Forwarded-For，压测时要把本机加入可信代理启动：TRUSTED_PROXIES='127\.0\.0\.1'
+ * - application.yml 默认开着 show-sql 和 SQL trace 日志，压测前建议关掉，否则瓶颈在日志
+ */
+public class ThreadingLoadHarness {
+
+    // 延迟直方图：1ms 一格，最多记录 60s
+    private static final int MAX_LATENCY_MS = 60_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        String username = args.length > 3 ? args[3] : "admin";
+        String password = args.length > 4 ? args[4] : "admin123";
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        String loginBody = MAPPER.writeValueAsString(MAPPER.createObjectNode()
+                .put("username", username)
+                .put("password", password));
+
+        // 先登录一次拿到 Access Token，用于员工列表接口
+        HttpResponse<String> loginResp = client.send(loginRequest(baseUrl, loginBody, "10.0.0.1"),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode data = MAPPER.readTree(loginResp.body()).path("data");
+        if (!data.hasNonNull("token")) {
+            System.err.println("登录失败: " + loginResp.body());
+            return;
+        }
+        String token = data.get("token").asText();
+
+        AtomicInteger ipSeq = new AtomicInteger();
+        HttpRequest listRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/api/employ?page=1&size=10"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        run("GET /api/employ", client, connections, seconds, () -> listRequest);
+        run("POST /api/auth/login", client, connections, seconds, () -> {
+            int n = ipSeq.incrementAndGet();
+            return loginRequest(baseUrl, loginBody, "10." + ((n >>> 16) & 0xFF) + "." + ((n >>> 8) & 0xFF) + "." + (n & 0xFF));
+        });
+    }
+
+    private static HttpRequest loginRequest(String baseUrl, String body, String ip) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", ip)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * 闭环压测：connections 个“虚拟用户”，每个收到响应后立刻发下一个请求，直到时间结束
+     */
+    private static void run(String name, HttpClient client, int connections, int seconds,
+                            RequestFactory factory) throws InterruptedException {
+        AtomicLongArray histogram = new AtomicLongArray(MAX_LATENCY_MS + 1);
+        LongAdder ok = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(connections);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            loop(client, factory, deadline, histogram, ok, failed, done);
+        }
+        done.await();
+        double elapsedSec = (System.nanoTime() - start) / 1e9;
+
+        long total = ok.sum() + failed.sum();
+        System.out.printf("%-22s 请求 %d，失败 %d，吞吐 %.1f req/s，p50 %d ms，p99 %d ms，max %d ms%n",
+                name, total, failed.sum(), total / elapsedSec,
+                percentile(histogram, total, 0.50), percentile(histogram, total, 0.99),
+                percentile(histogram, total, 1.0));
+    }
+
+    private static void loop(HttpClient client, RequestFactory factory, long deadline, AtomicLongArray histogram,
+                             LongAdder ok, LongAdder failed, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        long begin = System.nanoTime();
+        client.sendAsync(factory.create(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((resp, ex) -> {
+                    long ms = Math.min(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin), MAX_LATENCY_MS);
+                    histogram.incrementAndGet((int) ms);
+                    if (ex == null && resp.statusCode() == 200) {
+                        ok.increment();
+                    } else {
+                        failed.increment();
+                    }
+                    loop(client, factory, deadline, histogram, ok, failed, done);
+                });
+    }
+
+    private static long percentile(AtomicLongArray histogram, long total, double p) {
+        long target = (long) Math.ceil(total * p);
+        long seen = 0;
+        long last = 0;
+        for (int ms = 0; ms < histogram.length(); ms++) {
+            long count = histogram.get(ms);
+            if (count == 0) {
+                continue;
+            }
+            seen += count;
+            last = ms;
+            if (seen >= target) {
+                return ms;
+            }
+        }
+        return last;
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        HttpRequest create();
+    }
+}
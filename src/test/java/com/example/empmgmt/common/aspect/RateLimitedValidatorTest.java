@@ -0,0 +1,60 @@
+package com.example.empmgmt.common.aspect;
+
+import com.example.empmgmt.common.annotation.RateLimited;
+import com.example.empmgmt.common.enums.RateLimitDimension;
+import com.example.empmgmt.common.enums.RateLimitStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.core.annotation.OrderUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitedValidatorTest {
+
+    private final RateLimitedValidator validator = new RateLimitedValidator();
+
+    static class Valid {
+        @RateLimited(key = "a", capacity = 5, rate = 0.1)
+        @RateLimited(key = "a", strategy = RateLimitStrategy.CONCURRENCY, dimension = RateLimitDimension.GLOBAL, capacity = 2)
+        public void export() {
+        }
+    }
+
+    static class MissingRate {
+        @RateLimited(key = "b", capacity = 5)
+        public void export() {
+        }
+    }
+
+    static class ZeroWindow {
+        @RateLimited(key = "c", strategy = RateLimitStrategy.SLIDING_WINDOW_LOG, capacity = 5, windowMs = 0)
+        public void export() {
+        }
+    }
+
+    @Test
+    @DisplayName("参数合法的注解正常通过")
+    void acceptsValid() {
+        Valid bean = new Valid();
+        assertSame(bean, validator.postProcessBeforeInitialization(bean, "valid"));
+    }
+
+    @Test
+    @DisplayName("令牌桶没有设置 rate、滑动窗口长度为 0 时启动失败")
+    void rejectsInvalid() {
+        BeanInitializationException e = assertThrows(BeanInitializationException.class,
+                () -> validator.postProcessBeforeInitialization(new MissingRate(), "missingRate"));
+        assertTrue(e.getMessage().contains("rate"), e.getMessage());
+        assertTrue(e.getMessage().contains("MissingRate.export"), e.getMessage());
+
+        assertThrows(BeanInitializationException.class,
+                () -> validator.postProcessBeforeInitialization(new ZeroWindow(), "zeroWindow"));
+    }
+
+    @Test
+    @DisplayName("权限切面先于限流切面执行")
+    void permissionRunsBeforeRateLimit() {
+        assertTrue(OrderUtils.getOrder(PermissionAspect.class, 0) < OrderUtils.getOrder(RateLimitAspect.class, 0));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.empmgmt.common.trace;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTraceTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTrace.end();
+    }
+
+    @Test
+    @DisplayName("同类 span 嵌套只计最外层，Server-Timing 带上调用次数和 SQL 条数")
+    void nestedSpansCountOnce() {
+        RequestTrace trace = RequestTrace.begin();
+        RequestTrace.enterRepository("EmployeeRepository.findAll");
+        RequestTrace.enterRepository("EmployeeRepository.findById");
+        assertEquals("EmployeeRepository.findAll", RequestTrace.currentRepositoryMethod());
+        statement("select e from employee e where e.id = ?");
+        statement("select e from employee e where e.id = ?");
+        RequestTrace.exitRepository();
+        RequestTrace.exitRepository();
+        assertNull(RequestTrace.currentRepositoryMethod());
+        RequestTrace.enter(RequestTrace.Span.REDIS);
+        RequestTrace.exit(RequestTrace.Span.REDIS);
+
+        String header = trace.serverTiming();
+        assertTrue(header.matches("redis;dur=\\d+\\.\\d{2};desc=\"redis commands x1\", "
+                + "db;dur=\\d+\\.\\d{2};desc=\"repository calls x1\", "
+                + "sql;dur=\\d+\\.\\d{2};desc=\"jdbc statements x2\", total;dur=\\d+\\.\\d{2}"), header);
+        assertEquals(2, trace.statementCount());
+        assertEquals(Map.of("select e from employee e where e.id = ?", 2), trace.statementShapes());
+    }
+
+    @Test
+    @DisplayName("请求结束后的调用不计入，下一个请求从零开始")
+    void inactiveOutsideRequest() {
+        RequestTrace.begin();
+        RequestTrace.enter(RequestTrace.Span.AUTH);
+        RequestTrace.exit(RequestTrace.Span.AUTH);
+        RequestTrace.end();
+
+        RequestTrace.enter(RequestTrace.Span.REDIS);
+        RequestTrace.exit(RequestTrace.Span.REDIS);
+        statement("select 1");
+
+        RequestTrace trace = RequestTrace.begin();
+        assertTrue(trace.serverTiming().startsWith("total;dur="), trace.serverTiming());
+        assertTrue(trace.summary().startsWith("total="), trace.summary());
+        assertTrue(trace.statementShapes().isEmpty());
+    }
+
+    private static void statement(String fingerprint) {
+        RequestTrace.enter(RequestTrace.Span.SQL);
+        RequestTrace.exit(RequestTrace.Span.SQL);
+        RequestTrace.recordStatement(fingerprint);
+    }
+}
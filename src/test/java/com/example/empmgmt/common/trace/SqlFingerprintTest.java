@@ -0,0 +1,23 @@
+package com.example.empmgmt.common.trace;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlFingerprintTest {
+
+    @Test
+    @DisplayName("字面量、IN 列表长度、多行 VALUES 和空白不同的 SQL 指纹相同")
+    void normalizesShape() {
+        assertEquals(SqlFingerprint.normalize("select * from employee where id = 12 and name = 'O''Brien'"),
+                SqlFingerprint.normalize("select *  from employee\n where id = 7 and name = 'x'"));
+        assertEquals("select * from employee where id in (...)",
+                SqlFingerprint.normalize("select * from employee where id in (?, ?, ?)"));
+        assertEquals("insert into t (a, b) values (?, ?), ...",
+                SqlFingerprint.normalize("insert into t (a, b) values (1, 'a'), (2, 'b'), (3, 'c')"));
+        // 标识符里的数字不动
+        assertEquals("select e1_0.id from employee e1_0 limit ?",
+                SqlFingerprint.normalize("select e1_0.id from employee e1_0 limit 10"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.empmgmt.mq.consumer;
+
+import com.example.empmgmt.config.ExportMqConfig;
+import com.example.empmgmt.mq.dto.ExportTaskMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 失败消息按失败次数进对应的延迟队列，用完后进死信队列
+ */
+class ExportRetryPublisherTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ExportRetryPublisher retryPublisher;
+
+    @BeforeEach
+    void setUp() {
+        retryPublisher = new ExportRetryPublisher(rabbitTemplate, meterRegistry);
+        ReflectionTestUtils.setField(retryPublisher, "delaysMs", new long[]{2000, 8000});
+        ReflectionTestUtils.setField(retryPublisher, "jitter", 0.2);
+        ReflectionTestUtils.setField(retryPublisher, "confirmTimeoutMs", 100L);
+    }
+
+    @Test
+    @DisplayName("第 N 次失败发到第 N 级延迟队列，带失败次数和抖动后的过期时间；用完后进死信队列")
+    void routesByAttempt() {
+        confirmWith(true);
+        ExportTaskMessage message = message();
+
+        retryPublisher.retryOrDeadLetter(message, 0, new RuntimeException("wrapped", new IllegalStateException("db down")));
+        MessageProperties first = published(ExportMqConfig.RETRY_EXCHANGE, ExportMqConfig.retryQueueName(2000));
+        assertEquals(1, (Integer) first.getHeader(ExportMqConfig.ATTEMPT_HEADER));
+        assertEquals("IllegalStateException: db down", first.getHeader(ExportMqConfig.ERROR_HEADER));
+        long expiration = Long.parseLong(first.getExpiration());
+        assertTrue(expiration >= 1600 && expiration <= 2400, "expiration=" + expiration);
+
+        retryPublisher.retryOrDeadLetter(message, 1, new RuntimeException("again"));
+        MessageProperties second = published(ExportMqConfig.RETRY_EXCHANGE, ExportMqConfig.retryQueueName(8000));
+        assertEquals(2, (Integer) second.getHeader(ExportMqConfig.ATTEMPT_HEADER));
+
+        retryPublisher.retryOrDeadLetter(message, 2, new RuntimeException("still"));
+        MessageProperties last = published(ExportMqConfig.DLX_EXCHANGE, ExportMqConfig.DLQ_ROUTING_KEY);
+        assertEquals(3, (Integer) last.getHeader(ExportMqConfig.ATTEMPT_HEADER));
+        assertNull(last.getExpiration());
+
+        assertEquals(1.0, meterRegistry.get("export.retries").tag("outcome", "exhausted").counter().count());
+    }
+
+    @Test
+    @DisplayName("重新发布没有被确认时抛出拒绝异常，原消息经 DLX 进死信队列")
+    void rejectsWhenRepublishNotConfirmed() {
+        confirmWith(false);
+        assertThrows(AmqpRejectAndDontRequeueException.class,
+                () -> retryPublisher.retryOrDeadLetter(message(), 0, new RuntimeException("boom")));
+        assertEquals(1.0, meterRegistry.get("export.retries").tag("outcome", "publish_failed").counter().count());
+    }
+
+    private void confirmWith(boolean ack) {
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(4);
+            correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class),
+                any(MessagePostProcessor.class), any(CorrelationData.class));
+    }
+
+    /**
+     * 取最近一次发布，用它的 MessagePostProcessor 处理一条空消息，拿到实际的消息属性
+     */
+    private MessageProperties published(String exchange, String routingKey) {
+        ArgumentCaptor<MessagePostProcessor> processor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(rabbitTemplate, atLeastOnce()).convertAndSend(eq(exchange), eq(routingKey), any(Object.class),
+                processor.capture(), any(CorrelationData.class));
+        Message processed = processor.getValue().postProcessMessage(new Message(new byte[0], new MessageProperties()));
+        return processed.getMessageProperties();
+    }
+
+    private static ExportTaskMessage message() {
+        ExportTaskMessage message = new ExportTaskMessage();
+        message.setTaskId(7L);
+        message.setTaskType("EMPLOYEE_EXPORT");
+        message.setParamsJson("{}");
+        return message;
+    }
+}
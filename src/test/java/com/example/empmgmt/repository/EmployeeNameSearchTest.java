@@ -0,0 +1,65 @@
+package com.example.empmgmt.repository;
+
+import com.example.empmgmt.domain.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 姓名子串搜索（lower(name) LIKE，对应 idx_employee_name_trgm）：大小写不敏感、通配符转义、过滤已删除
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class EmployeeNameSearchTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @BeforeEach
+    void setUp() {
+        save("Alice", false);
+        save("MALICE", false);
+        save("100%_done", false);
+        save("100xydone", false);
+        save("alice-deleted", true);
+    }
+
+    @Test
+    @DisplayName("大小写不敏感，已删除的不返回")
+    void matchesIgnoringCase() {
+        assertEquals(List.of("Alice", "MALICE"), names(employeeRepository.findByNameContainingIgnoreCaseAndDeletedFalse("ALI")));
+
+        Page<Employee> page = employeeRepository.findByNameContainingIgnoreCaseAndDeletedFalse("alice", PageRequest.of(0, 1));
+        assertEquals(2, page.getTotalElements());
+        assertEquals(1, page.getContent().size());
+    }
+
+    @Test
+    @DisplayName("输入里的 % 和 _ 按字面匹配")
+    void escapesWildcards() {
+        assertEquals(List.of("100%_done"), names(employeeRepository.findByNameContainingIgnoreCaseAndDeletedFalse("%_")));
+        assertEquals(List.of("100%_done"), names(employeeRepository.findByNameContainingIgnoreCaseAndDeletedFalse("0%")));
+    }
+
+    private void save(String name, boolean deleted) {
+        Employee employee = new Employee();
+        employee.setName(name);
+        employee.setDeleted(deleted);
+        employeeRepository.save(employee);
+    }
+
+    private static List<String> names(List<Employee> employees) {
+        return employees.stream().map(Employee::getName).sorted().toList();
+    }
+}
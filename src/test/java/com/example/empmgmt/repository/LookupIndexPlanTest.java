@@ -0,0 +1,130 @@
+package com.example.empmgmt.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 查询计划回归测试：确认 V2 建的索引确实被员工 / 用户查询用上
+ *
+ * 需要一个可以建库的 PostgreSQL（本地默认不执行）：
+ *   EMPMGMT_PLAN_TEST_URL=jdbc:postgresql://localhost:5432/postgres
+ *   EMPMGMT_PLAN_TEST_USER / EMPMGMT_PLAN_TEST_PASSWORD（默认 postgres / 123456）
+ * 测试会新建一个临时库，执行迁移、灌数据、ANALYZE 后检查 EXPLAIN，结束时删除临时库。
+ * SQL 与 Hibernate 为对应仓库方法生成的语句保持同样的谓词形式。
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "EMPMGMT_PLAN_TEST_URL", matches = ".+")
+class LookupIndexPlanTest {
+
+    private static final int EMPLOYEES = 100_000;
+    private static final int USERS = 100_000;
+
+    private final String adminUrl = System.getenv("EMPMGMT_PLAN_TEST_URL");
+    private final String user = envOrDefault("EMPMGMT_PLAN_TEST_USER", "postgres");
+    private final String password = envOrDefault("EMPMGMT_PLAN_TEST_PASSWORD", "123456");
+    private final String database = "empmgmt_plan_" + System.currentTimeMillis();
+
+    private Connection connection;
+
+    @BeforeAll
+    void setUp() throws SQLException {
+        try (Connection admin = DriverManager.getConnection(adminUrl, user, password);
+             Statement st = admin.createStatement()) {
+            st.execute("CREATE DATABASE " + database);
+        }
+        String url = adminUrl.substring(0, adminUrl.lastIndexOf('/') + 1) + database;
+        Flyway.configure().dataSource(url, user, password).locations("classpath:db/migration").load().migrate();
+
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement st = connection.createStatement()) {
+            st.execute("INSERT INTO employee (name, department, position, salary, deleted, created_at) " +
+                    "SELECT 'emp' || lpad(g::text, 6, '0'), 'dept-' || (g % 50), 'pos-' || (g % 7), 10000, " +
+                    "g % 10 = 0, now() FROM generate_series(1, " + EMPLOYEES + ") g");
+            st.execute("INSERT INTO user_account (username, password, role, department, enabled, created_at) " +
+                    "SELECT 'user' || lpad(g::text, 6, '0'), 'x', " +
+                    "CASE WHEN g % 1000 = 0 THEN 'SUPER_ADMIN' ELSE 'EMPLOYEE' END, 'dept-' || (g % 50), " +
+                    "true, now() - g * interval '1 minute' FROM generate_series(1, " + USERS + ") g");
+            // VACUUM 设置可见性映射，和自动清理过的线上表一样可以走只读索引扫描
+            st.execute("VACUUM ANALYZE employee");
+            st.execute("ANALYZE user_account");
+        }
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+        try (Connection admin = DriverManager.getConnection(adminUrl, user, password);
+             Statement st = admin.createStatement()) {
+            st.execute("DROP DATABASE IF EXISTS " + database);
+        }
+    }
+
+    @Test
+    @DisplayName("姓名子串搜索走 trigram 索引")
+    void employeeNameUsesTrigramIndex() throws SQLException {
+        assertUsesIndex("SELECT * FROM employee e WHERE e.deleted = false " +
+                "AND lower(e.name) LIKE lower('%' || '012345' || '%') ESCAPE '\\'", "idx_employee_name_trgm");
+    }
+
+    @Test
+    @DisplayName("按部门分页的计数查询只读 (department, id) 部分索引")
+    void employeeDepartmentUsesPartialIndex() throws SQLException {
+        // 每次按部门分页 Spring Data 都会发这条 count；取整行的数据页查询在这份数据上
+        // 第一页沿 idx_employee_active_id 过滤、深页按 idx_employee_active_dept_position 取再排序，都比按 (department, id) 回表便宜
+        assertUsesIndex("SELECT count(e.id) FROM employee e WHERE e.department = 'dept-7' AND e.deleted = false",
+                "idx_employee_active_dept");
+    }
+
+    @Test
+    @DisplayName("部门 + 职位查询走部分索引")
+    void employeeDepartmentPositionUsesPartialIndex() throws SQLException {
+        assertUsesIndex("SELECT * FROM employee e WHERE e.department = 'dept-7' AND e.position = 'pos-3' " +
+                "AND e.deleted = false", "idx_employee_active_dept_position");
+    }
+
+    @Test
+    @DisplayName("用户名子串搜索走 trigram 索引")
+    void usernameUsesTrigramIndex() throws SQLException {
+        assertUsesIndex("SELECT * FROM user_account u WHERE u.username LIKE '%012345%'", "idx_user_username_trgm");
+    }
+
+    @Test
+    @DisplayName("按角色统计走索引")
+    void roleCountUsesIndex() throws SQLException {
+        assertUsesIndex("SELECT count(u.id) FROM user_account u WHERE u.role = 'SUPER_ADMIN'", "idx_user_role_department");
+    }
+
+    private void assertUsesIndex(String sql, String indexName) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        // 按完整索引名匹配（idx_employee_active_dept 是 idx_employee_active_dept_position 的前缀）
+        Pattern usesIndex = Pattern.compile("\\b(?:using|on) " + Pattern.quote(indexName) + "(?!\\w)");
+        assertTrue(usesIndex.matcher(plan).find(), "期望使用 " + indexName + "，实际计划：\n" + plan);
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
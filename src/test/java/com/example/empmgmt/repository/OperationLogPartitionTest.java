@@ -0,0 +1,220 @@
+package com.example.empmgmt.repository;
+
+import com.example.empmgmt.dto.response.OperationLogArchiveResponse;
+import com.example.empmgmt.service.Impl.OperationLogPartitionServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 操作日志分区：迁移（当月同步搬、历史分批搬）、按时间范围的分区裁剪、游标分页走索引、分区补建和归档
+ *
+ * 和 LookupIndexPlanTest 一样需要一个可以建库的 PostgreSQL（本地默认不执行）：
+ *   EMPMGMT_PLAN_TEST_URL=jdbc:postgresql://localhost:5432/postgres
+ *   EMPMGMT_PLAN_TEST_USER / EMPMGMT_PLAN_TEST_PASSWORD（默认 postgres / 123456）
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "EMPMGMT_PLAN_TEST_URL", matches = ".+")
+class OperationLogPartitionTest {
+
+    private static final String INSERT_SQL = "INSERT INTO operation_log (user_id, username, operation_type, module, " +
+            "description, params, created_at) SELECT g %% 20, 'user' || g, 'QUERY', '员工管理', '查询员工', '[1]', " +
+            "%s - g * interval '1 minute' FROM generate_series(1, %d) g";
+
+    private final String adminUrl = System.getenv("EMPMGMT_PLAN_TEST_URL");
+    private final String user = envOrDefault("EMPMGMT_PLAN_TEST_USER", "postgres");
+    private final String password = envOrDefault("EMPMGMT_PLAN_TEST_PASSWORD", "123456");
+    private final String database = "empmgmt_oplog_" + System.currentTimeMillis();
+
+    @TempDir
+    static Path archiveDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private OperationLogPartitionServiceImpl partitionService;
+
+    @BeforeAll
+    void setUp() throws SQLException {
+        try (Connection admin = DriverManager.getConnection(adminUrl, user, password);
+             Statement st = admin.createStatement()) {
+            st.execute("CREATE DATABASE " + database);
+        }
+        String url = adminUrl.substring(0, adminUrl.lastIndexOf('/') + 1) + database;
+        Flyway.configure().dataSource(url, user, password).locations("classpath:db/migration").load().migrate();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, user, password);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        partitionService = new OperationLogPartitionServiceImpl(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), new ObjectMapper());
+        ReflectionTestUtils.setField(partitionService, "enabled", true);
+        ReflectionTestUtils.setField(partitionService, "monthsAhead", 2);
+        ReflectionTestUtils.setField(partitionService, "retentionMonths", 6);
+        ReflectionTestUtils.setField(partitionService, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(partitionService, "fetchSize", 100);
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        try (Connection admin = DriverManager.getConnection(adminUrl, user, password);
+             Statement st = admin.createStatement()) {
+            st.execute("DROP DATABASE IF EXISTS " + database);
+        }
+    }
+
+    @Test
+    @DisplayName("按时间范围查询只扫描范围内的分区")
+    void rangeQueryPrunesPartitions() {
+        partitionService.ensurePartitions();
+        YearMonth current = YearMonth.now();
+        jdbcTemplate.execute(String.format(INSERT_SQL, "now()", 2000));
+        jdbcTemplate.execute("ANALYZE operation_log");
+
+        // 与 OperationLogRepository.findInRange 同样的谓词形式
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT * FROM operation_log " +
+                "WHERE created_at >= '" + current.atDay(1) + "' AND created_at < '" + current.plusMonths(1).atDay(1) +
+                "' ORDER BY created_at DESC LIMIT 10", String.class));
+        assertTrue(plan.contains("operation_log_p" + partitionSuffix(current)), plan);
+        assertFalse(plan.contains("operation_log_p" + partitionSuffix(current.plusMonths(1))), plan);
+        assertFalse(plan.contains("operation_log_default"), plan);
+    }
+
+    @Test
+    @DisplayName("游标翻页顺着 (created_at, id) 索引读，不做排序")
+    void keysetPageUsesIndex() {
+        partitionService.ensurePartitions();
+        YearMonth current = YearMonth.now();
+        jdbcTemplate.execute(String.format(INSERT_SQL, "now()", 20000));
+        jdbcTemplate.execute("ANALYZE operation_log");
+        long[] last = jdbcTemplate.queryForObject("SELECT extract(epoch FROM created_at), id FROM operation_log " +
+                "ORDER BY created_at DESC, id DESC OFFSET 5000 LIMIT 1", (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        String cursorTime = "to_timestamp(" + last[0] + ")::timestamp";
+
+        // 与 OperationLogQueryServiceImpl.scroll 同样的谓词形式：按用户过滤 + 游标条件
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT * FROM operation_log " +
+                "WHERE created_at >= '" + current.minusMonths(1).atDay(1) + "' AND created_at < '" +
+                current.plusMonths(1).atDay(1) + "' AND user_id = 3 AND created_at <= " + cursorTime +
+                " AND (created_at < " + cursorTime + " OR id < " + last[1] + ") " +
+                "ORDER BY created_at DESC, id DESC LIMIT 21", String.class));
+        assertTrue(plan.contains("user_id_created_at_id_idx"), plan);
+        // 各分区索引有序扫描后 Merge Append 合并，计划里不应出现 Sort 节点
+        assertFalse(plan.lines().map(String::strip).anyMatch(line -> line.matches("(->\\s+)?Sort\\s+\\(.*")), plan);
+    }
+
+    @Test
+    @DisplayName("default 分区里的旧日志补建分区后搬走，过期分区归档成 gzip JSONL 后删除")
+    void backfillsAndArchivesExpiredPartition() throws Exception {
+        YearMonth expired = YearMonth.now().minusMonths(12);
+        String partition = "operation_log_p" + partitionSuffix(expired);
+        jdbcTemplate.execute(String.format(INSERT_SQL, "'" + expired.atDay(15) + "'::timestamp", 500));
+        assertEquals(500, count("operation_log_default"));
+
+        assertTrue(partitionService.ensurePartitions().contains(partition));
+        assertEquals(0, count("operation_log_default"));
+        assertEquals(500, count(partition));
+
+        List<OperationLogArchiveResponse> archived = partitionService.archiveExpiredPartitions();
+        assertEquals(1, archived.size());
+        assertEquals(500, archived.get(0).rows());
+        assertNull(jdbcTemplate.queryForObject("SELECT to_regclass(?::text)::text", String.class, partition));
+
+        Path file = Path.of(archived.get(0).file());
+        assertEquals(archiveDir.resolve(partition + ".jsonl.gz"), file);
+        ObjectMapper mapper = new ObjectMapper();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().toList();
+            assertEquals(500, lines.size());
+            JsonNode first = mapper.readTree(lines.get(0));
+            assertEquals("员工管理", first.get("module").asText());
+            assertTrue(first.get("created_at").asText().startsWith(expired.toString()));
+        }
+    }
+
+    @Test
+    @DisplayName("V4 迁移只搬当月日志，历史日志留在旧表里分批搬入，搬空后删除旧表")
+    void migratesLegacyRowsInBatches() throws SQLException {
+        String legacyDatabase = database + "_legacy";
+        try (Connection admin = DriverManager.getConnection(adminUrl, user, password);
+             Statement st = admin.createStatement()) {
+            st.execute("CREATE DATABASE " + legacyDatabase);
+        }
+        try {
+            String url = adminUrl.substring(0, adminUrl.lastIndexOf('/') + 1) + legacyDatabase;
+            Flyway.configure().dataSource(url, user, password).locations("classpath:db/migration")
+                    .target("3").load().migrate();
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(url, user, password);
+            JdbcTemplate legacyJdbc = new JdbcTemplate(dataSource);
+            YearMonth old = YearMonth.now().minusMonths(12);
+            legacyJdbc.execute(String.format(INSERT_SQL, "'" + old.atEndOfMonth() + "'::timestamp", 300));
+            legacyJdbc.execute(String.format(INSERT_SQL, "date_trunc('month', now()) + interval '1 day'", 200)
+                    .replace(" - g *", " + g *"));
+            Flyway.configure().dataSource(url, user, password).locations("classpath:db/migration").load().migrate();
+
+            assertEquals(200, legacyJdbc.queryForObject("SELECT count(*) FROM operation_log", Long.class));
+            assertEquals(300, legacyJdbc.queryForObject("SELECT count(*) FROM operation_log_legacy", Long.class));
+            assertNull(legacyJdbc.queryForObject("SELECT to_regclass('operation_log_p" + partitionSuffix(old) + "')::text",
+                    String.class));
+
+            OperationLogPartitionServiceImpl service = new OperationLogPartitionServiceImpl(legacyJdbc,
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)), new ObjectMapper());
+            ReflectionTestUtils.setField(service, "enabled", true);
+            ReflectionTestUtils.setField(service, "retentionMonths", 6);
+            ReflectionTestUtils.setField(service, "archiveDir", archiveDir.toString());
+            ReflectionTestUtils.setField(service, "legacyBatchSize", 100);
+            ReflectionTestUtils.setField(service, "legacyBatchesPerRun", 2);
+
+            assertEquals(200, service.migrateLegacyRows());
+            assertTrue(service.archiveExpiredPartitions().isEmpty(), "旧表没搬完时不归档");
+            assertEquals(100, service.migrateLegacyRows());
+            assertNull(legacyJdbc.queryForObject("SELECT to_regclass('operation_log_legacy')::text", String.class));
+            assertEquals(300, legacyJdbc.queryForObject(
+                    "SELECT count(*) FROM operation_log_p" + partitionSuffix(old), Long.class));
+            assertEquals(500, legacyJdbc.queryForObject("SELECT count(DISTINCT id) FROM operation_log", Long.class));
+            assertEquals(0, service.migrateLegacyRows());
+        } finally {
+            try (Connection admin = DriverManager.getConnection(adminUrl, user, password);
+                 Statement st = admin.createStatement()) {
+                st.execute("DROP DATABASE IF EXISTS " + legacyDatabase + " WITH (FORCE)");
+            }
+        }
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+    }
+
+    private static String partitionSuffix(YearMonth month) {
+        return String.format("%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.empmgmt.repository;
+
+import com.example.empmgmt.config.SecondLevelCacheSync;
+import com.example.empmgmt.domain.Employee;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 二级缓存跨节点失效：每个事务只发一条通知，接收方按列出的 ID 清实体缓存、查询缓存只清一次
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import(SecondLevelCacheSync.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheSyncTest {
+
+    @MockBean
+    private StringRedisTemplate stringRedisTemplate;
+
+    @MockBean
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private SecondLevelCacheSync cacheSync;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("一个事务写多行只发布一条通知，列出全部 ID；回滚的事务不发布")
+    void publishesOncePerTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> ids = tx.execute(status -> {
+            List<Long> saved = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                saved.add(employeeRepository.saveAndFlush(employee("批量" + i)).getId());
+            }
+            return saved;
+        });
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate, times(1)).convertAndSend(eq(SecondLevelCacheSync.CHANNEL), payload.capture());
+        String entities = payload.getValue().split("\\|", 2)[1];
+        assertEquals(Employee.class.getName() + "=" + ids.get(0) + "," + ids.get(1) + "," + ids.get(2), entities);
+
+        clearInvocations(stringRedisTemplate);
+        tx.executeWithoutResult(status -> {
+            employeeRepository.saveAndFlush(employee("回滚"));
+            status.setRollbackOnly();
+        });
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("收到其他节点的通知后清掉列出的实体缓存，星号清整个实体区域")
+    void evictsListedIds() {
+        Long first = employeeRepository.save(employee("甲")).getId();
+        Long second = employeeRepository.save(employee("乙")).getId();
+        employeeRepository.findById(first).orElseThrow();
+        employeeRepository.findById(second).orElseThrow();
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertTrue(cache.containsEntity(Employee.class, first));
+        assertTrue(cache.containsEntity(Employee.class, second));
+
+        receive("other-node|" + Employee.class.getName() + "=" + first);
+        assertFalse(cache.containsEntity(Employee.class, first));
+        assertTrue(cache.containsEntity(Employee.class, second));
+
+        receive("other-node|" + Employee.class.getName() + "=*");
+        assertFalse(cache.containsEntity(Employee.class, second));
+    }
+
+    private void receive(String payload) {
+        cacheSync.onMessage(new DefaultMessage(SecondLevelCacheSync.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                payload.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private static Employee employee(String name) {
+        Employee employee = new Employee();
+        employee.setName(name);
+        employee.setDeleted(false);
+        return employee;
+    }
+}
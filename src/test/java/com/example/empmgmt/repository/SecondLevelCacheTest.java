@@ -0,0 +1,83 @@
+package com.example.empmgmt.repository;
+
+import com.example.empmgmt.domain.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 二级缓存 / 查询缓存命中（使用 ehcache.xml 中的区域配置）
+ *
+ * 不包在测试事务里：同一事务内写过的表，查询缓存不会生效，每次仓库调用各自一个会话才贴近真实请求
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("cache-user");
+        user.setPassword("x");
+        userId = userRepository.save(user).getId();
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("按ID查询：第二次从实体缓存读取，不再发 SQL")
+    void findByIdHitsEntityCache() {
+        userRepository.findById(userId).orElseThrow();
+        long statements = statistics.getPrepareStatementCount();
+
+        userRepository.findById(userId).orElseThrow();
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getCacheRegionStatistics("user").getHitCount());
+    }
+
+    @Test
+    @DisplayName("按用户名查询：第二次命中查询缓存，更新后失效")
+    void findByUsernameHitsQueryCache() {
+        userRepository.findByUsername("cache-user").orElseThrow();
+        userRepository.findByUsername("cache-user").orElseThrow();
+        assertEquals(1, statistics.getCacheRegionStatistics("query.user-by-username").getHitCount());
+
+        User user = userRepository.findById(userId).orElseThrow();
+        user.setEmail("a@b.c");
+        userRepository.save(user);
+
+        assertEquals("a@b.c", userRepository.findByUsername("cache-user").orElseThrow().getEmail());
+    }
+}
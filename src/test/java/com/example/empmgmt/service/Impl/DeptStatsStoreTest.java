@@ -0,0 +1,106 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.dto.response.DeptStatsDetailResponse;
+import com.example.empmgmt.dto.response.EmployeeResponse;
+import com.example.empmgmt.event.EmployeeChangedEvent;
+import com.example.empmgmt.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeptStatsStoreTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private DeptStatsStore store;
+
+    @BeforeEach
+    void setUp() {
+        // 研发部：2 人，薪资 10000 / 20000
+        when(employeeRepository.aggregateByDepartment()).thenReturn(List.<Object[]>of(
+                new Object[]{"研发部", 2L, 2L, new BigDecimal("30000"), new BigDecimal("10000"), new BigDecimal("20000")}
+        ));
+        when(employeeRepository.countByDepartmentAndPosition()).thenReturn(List.<Object[]>of(
+                new Object[]{"研发部", "工程师", 2L}
+        ));
+        store = new DeptStatsStore(employeeRepository);
+        store.init();
+    }
+
+    @Test
+    @DisplayName("新增 / 调部门按差量更新，未涉及最值时不回查数据库")
+    void appliesDeltas() {
+        store.onEmployeeChanged(EmployeeChangedEvent.created(employee(3L, "研发部", "经理", "15000")));
+        store.onEmployeeChanged(EmployeeChangedEvent.updated(
+                employee(3L, "研发部", "经理", "15000"), employee(3L, "市场部", "经理", "15000")));
+
+        List<DeptStatsDetailResponse> stats = store.snapshot();
+        assertEquals(2, stats.size());
+
+        DeptStatsDetailResponse market = stats.stream().filter(s -> s.department().equals("市场部")).findFirst().orElseThrow();
+        assertEquals(1L, market.empCount());
+        assertEquals(0, new BigDecimal("15000").compareTo(market.avgSalary()));
+
+        DeptStatsDetailResponse rd = stats.stream().filter(s -> s.department().equals("研发部")).findFirst().orElseThrow();
+        assertEquals(2L, rd.empCount());
+        assertEquals(0, new BigDecimal("15000.00").compareTo(rd.avgSalary()));
+        assertNull(rd.positionCounts().get("经理"));
+
+        verify(employeeRepository, times(1)).aggregateByDepartment();
+        verify(employeeRepository, never()).salaryRangeByDepartment(anyString());
+    }
+
+    @Test
+    @DisplayName("删除最高薪资员工后，读取时重新查询该部门最值")
+    void refreshesExtremesAfterRemovingMax() {
+        when(employeeRepository.salaryRangeByDepartment("研发部")).thenReturn(List.<Object[]>of(
+                new Object[]{new BigDecimal("10000"), new BigDecimal("10000")}
+        ));
+
+        store.onEmployeeChanged(EmployeeChangedEvent.deleted(employee(2L, "研发部", "工程师", "20000")));
+
+        DeptStatsDetailResponse rd = store.snapshot().get(0);
+        assertEquals(1L, rd.empCount());
+        assertEquals(0, new BigDecimal("10000").compareTo(rd.maxSalary()));
+        verify(employeeRepository, times(1)).salaryRangeByDepartment("研发部");
+    }
+
+    @Test
+    @DisplayName("对账加载期间提交的变更不会被数据库结果覆盖，其他部门按数据库修正")
+    void reconcileKeepsChangesDuringLoad() {
+        // 数据库快照：研发部其他节点新增了 1 人；市场部的新员工在快照之后才提交
+        when(employeeRepository.aggregateByDepartment()).thenAnswer(invocation -> {
+            store.onEmployeeChanged(EmployeeChangedEvent.created(employee(9L, "市场部", "经理", "15000")));
+            return List.<Object[]>of(
+                    new Object[]{"研发部", 3L, 3L, new BigDecimal("45000"), new BigDecimal("10000"), new BigDecimal("20000")}
+            );
+        });
+        when(employeeRepository.countByDepartmentAndPosition()).thenReturn(List.<Object[]>of(
+                new Object[]{"研发部", "工程师", 3L}
+        ));
+
+        store.reconcile();
+
+        List<DeptStatsDetailResponse> stats = store.snapshot();
+        assertEquals(2, stats.size());
+        assertEquals(1L, stats.stream().filter(s -> s.department().equals("市场部")).findFirst().orElseThrow().empCount());
+        assertEquals(3L, stats.stream().filter(s -> s.department().equals("研发部")).findFirst().orElseThrow().empCount());
+    }
+
+    private static EmployeeResponse employee(Long id, String department, String position, String salary) {
+        return new EmployeeResponse(id, "张三", "男", 30, department, position,
+                LocalDate.of(2020, 1, 1), new BigDecimal(salary), null, null, null, null);
+    }
+}
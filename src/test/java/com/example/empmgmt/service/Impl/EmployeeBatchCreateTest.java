@@ -0,0 +1,84 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.dto.request.EmployeeCreateRequest;
+import com.example.empmgmt.dto.response.EmployeeBatchCreateResponse;
+import com.example.empmgmt.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量导入：序列预分配 + JDBC batch 后，SQL 条数远小于行数
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "employee-batch.chunk-size=200"
+})
+@Import({EmployeeServiceImpl.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmployeeBatchCreateTest {
+
+    @Autowired
+    private EmployeeServiceImpl employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean(answer = Answers.RETURNS_DEEP_STUBS)
+    private StringRedisTemplate stringRedisTemplate;
+    @MockBean
+    private ObjectMapper objectMapper;
+    @MockBean
+    private DeptStatsStore deptStatsStore;
+
+    @AfterEach
+    void tearDown() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("1000 行分 5 批提交，语句按批发送")
+    void insertsInJdbcBatches() {
+        List<EmployeeCreateRequest> requests = IntStream.range(0, 1000)
+                .mapToObj(i -> new EmployeeCreateRequest("员工" + i, "男", 30, "研发部", "工程师",
+                        LocalDate.of(2020, 1, 1), new BigDecimal("10000"), null))
+                .toList();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        EmployeeBatchCreateResponse response = employeeService.batchCreate(requests);
+
+        assertEquals(1000, response.created());
+        assertEquals(5, response.batches());
+        assertTrue(response.errors().isEmpty());
+        assertEquals(1000, employeeRepository.count());
+        // 逐条插入至少 1000 条语句；pooled 序列每 50 个ID取一次，插入每 50 行一批
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements < 100, "实际执行了 " + statements + " 条 SQL");
+    }
+}
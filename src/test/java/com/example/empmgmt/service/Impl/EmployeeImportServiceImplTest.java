@@ -0,0 +1,137 @@
+package com.example.empmgmt.service.Impl;
+
+import com.alibaba.excel.EasyExcel;
+import com.example.empmgmt.dto.request.EmployeeCreateRequest;
+import com.example.empmgmt.dto.response.EmployeeImportResponse;
+import com.example.empmgmt.dto.vo.EmployeeImportErrorVO;
+import com.example.empmgmt.dto.vo.EmployeeImportVO;
+import com.example.empmgmt.service.EmployeeService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class EmployeeImportServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ValidatorFactory validatorFactory;
+    private EmployeeService employeeService;
+    private EmployeeImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        employeeService = mock(EmployeeService.class);
+        when(employeeService.insertBatch(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        importService = new EmployeeImportServiceImpl(employeeService, validatorFactory.getValidator());
+        ReflectionTestUtils.setField(importService, "importDir", tempDir.toString());
+        ReflectionTestUtils.setField(importService, "readBatchSize", 3);
+        ReflectionTestUtils.setField(importService, "parallelism", 2);
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    @DisplayName("csv 流式导入：合格行分批写入，错误行进报告，缓存只清一次")
+    void importsCsv() throws Exception {
+        Path csv = tempDir.resolve("employees.csv");
+        Files.writeString(csv, "﻿姓名,性别,年龄,部门,职位,入职日期,薪资\n"
+                + "张三,男,30,研发部,工程师,2020-01-01,15000\n"
+                + ",女,28,研发部,工程师,2021/3/5,12000\n"
+                + "李四,男,abc,市场部,专员,2022-07-01,9000\n"
+                + "\"王,五\",男,35,市场部,经理,20190101,\"20,000\"\n"
+                + "\n"
+                + "赵六,女,26,财务部,会计,2023-02-30,8000\n"
+                + "孙七,男,40,财务部,主管,2018-05-20,18000\n", StandardCharsets.UTF_8);
+
+        EmployeeImportResponse result = importService.importFile(csv.toFile(), "employees.csv");
+
+        assertEquals(6, result.total());
+        assertEquals(3, result.created());
+        assertEquals(3, result.failed());
+        verify(employeeService, times(1)).evictListCache();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EmployeeCreateRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(employeeService, atLeastOnce()).insertBatch(captor.capture());
+        List<EmployeeCreateRequest> inserted = captor.getAllValues().stream().flatMap(List::stream).toList();
+        assertEquals(List.of("张三", "王,五", "孙七"), inserted.stream().map(EmployeeCreateRequest::name).toList());
+        assertTrue(captor.getAllValues().stream().allMatch(chunk -> chunk.size() <= 2));
+        assertEquals(0, inserted.get(1).salary().compareTo(new java.math.BigDecimal("20000")));
+
+        List<EmployeeImportErrorVO> errors = readReport(result.reportPath());
+        assertEquals(List.of(3, 4, 7), errors.stream().map(EmployeeImportErrorVO::getRowNumber).toList());
+        assertEquals("姓名不能为空", errors.get(0).getReason());
+        assertEquals("年龄格式不正确", errors.get(1).getReason());
+        assertEquals("入职日期格式不正确", errors.get(2).getReason());
+    }
+
+    @Test
+    @DisplayName("xlsx 导入：写入失败的批次整批记入错误报告")
+    void importsExcelAndReportsFailedChunk() {
+        File xlsx = tempDir.resolve("employees.xlsx").toFile();
+        List<EmployeeImportVO> rows = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            rows.add(new EmployeeImportVO("员工" + i, "男", "30", "研发部", "工程师", "2020-01-0" + i, "10000", null));
+        }
+        EasyExcel.write(xlsx, EmployeeImportVO.class).sheet("员工信息").doWrite(rows);
+
+        // 每 4 行校验一次：第一次读到的 4 行分两批写入，其中第二批（Excel 第 4、5 行）失败
+        ReflectionTestUtils.setField(importService, "readBatchSize", 4);
+        when(employeeService.insertBatch(anyList()))
+                .thenReturn(2)
+                .thenThrow(new IllegalStateException("数据库不可用"))
+                .thenReturn(1);
+
+        EmployeeImportResponse result = importService.importFile(xlsx, "employees.xlsx");
+
+        assertEquals(5, result.total());
+        assertEquals(3, result.created());
+        assertEquals(2, result.failed());
+        verify(employeeService, times(1)).evictListCache();
+
+        List<EmployeeImportErrorVO> errors = readReport(result.reportPath());
+        assertEquals(List.of(4, 5), errors.stream().map(EmployeeImportErrorVO::getRowNumber).toList());
+        assertTrue(errors.get(0).getReason().contains("数据库不可用"));
+    }
+
+    @Test
+    @DisplayName("全部成功时不生成错误报告")
+    void noReportWhenAllRowsValid() throws Exception {
+        Path csv = tempDir.resolve("ok.csv");
+        Files.writeString(csv, "姓名,部门,入职日期,薪资\n张三,研发部,2020-01-01,15000\n", StandardCharsets.UTF_8);
+
+        EmployeeImportResponse result = importService.importFile(csv.toFile(), "ok.csv");
+
+        assertEquals(1, result.created());
+        assertNull(result.reportPath());
+    }
+
+    private static List<EmployeeImportErrorVO> readReport(String path) {
+        assertNotNull(path);
+        return EasyExcel.read(new File(path)).head(EmployeeImportErrorVO.class).sheet().doReadSync();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.empmgmt.service.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSearchIndexTest {
+
+    private EmployeeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new EmployeeSearchIndex();
+        index.put(1L, "张三丰", "研发部", "工程师");
+        index.put(2L, "李四", "市场部", "经理");
+        index.put(3L, "张伟", "市场部", "专员");
+    }
+
+    @Test
+    @DisplayName("汉字片段命中姓名，分面统计基于关键字结果")
+    void matchesChineseSubstring() {
+        EmployeeSearchIndex.SearchResult result = index.search("三丰", null, null, 0, 10);
+        assertEquals(List.of(1L), ids(result));
+
+        result = index.search("张", null, null, 0, 10);
+        assertEquals(2, result.total());
+        assertEquals(1L, result.departmentFacets().get("研发部"));
+        assertEquals(1L, result.departmentFacets().get("市场部"));
+    }
+
+    @Test
+    @DisplayName("拼音全拼和首字母前缀都能命中")
+    void matchesPinyinAndInitials() {
+        assertEquals(List.of(2L), ids(index.search("lisi", null, null, 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("zsf", null, null, 0, 10)));
+    }
+
+    @Test
+    @DisplayName("部门过滤与分页")
+    void filtersByDepartment() {
+        EmployeeSearchIndex.SearchResult result = index.search("张", "市场部", null, 0, 10);
+        assertEquals(List.of(3L), ids(result));
+
+        result = index.search(null, "市场部", null, 1, 1);
+        assertEquals(2, result.total());
+        assertEquals(List.of(3L), ids(result));
+    }
+
+    @Test
+    @DisplayName("更新和删除后旧词条不再命中")
+    void updatesAndRemoves() {
+        index.put(2L, "王五", "市场部", "经理");
+        assertTrue(index.search("李四", null, null, 0, 10).hits().isEmpty());
+        assertEquals(List.of(2L), ids(index.search("wangwu", null, null, 0, 10)));
+
+        index.remove(2L);
+        assertTrue(index.search("王五", null, null, 0, 10).hits().isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("多个员工共用 token 和分面，并发加入、删除（反复删空集合）时，刚加入的不会丢")
+    void concurrentIndexAndUnindexKeepPostings() {
+        int threads = 8;
+        int rounds = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<CompletableFuture<Integer>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long id = 100_000L + t;
+            workers.add(CompletableFuture.supplyAsync(() -> {
+                int lost = 0;
+                for (int r = 0; r < rounds; r++) {
+                    index.put(id, "赵六", "测试部", "测试");
+                    // 只有本线程改这个员工，put 返回后到 remove 之前它的倒排必须完整
+                    if (!index.fullyIndexed(index.get(id))) {
+                        lost++;
+                    }
+                    index.remove(id);
+                }
+                index.put(id, "赵六", "测试部", "测试");
+                return lost;
+            }, pool));
+        }
+
+        int lost = workers.stream().mapToInt(CompletableFuture::join).sum();
+        pool.shutdown();
+        assertEquals(0, lost);
+        assertEquals(threads, index.search(null, "测试部", null, 0, 100).total());
+        assertEquals(threads, index.search("zhaoliu", null, null, 0, 100).total());
+    }
+
+    private static List<Long> ids(EmployeeSearchIndex.SearchResult result) {
+        return result.hits().stream().map(hit -> hit.doc().id()).toList();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.dto.response.EmployeeSearchResponse;
+import com.example.empmgmt.repository.EmployeeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeSearchServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    @DisplayName("重建进行中时，未就绪的搜索等待这次重建，不再另起一次全表扫描")
+    void searchWaitsForRunningRebuild() throws Exception {
+        EmployeeSearchServiceImpl service = new EmployeeSearchServiceImpl(jdbcTemplate, employeeRepository);
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Map<String, Object> emptyTable = new HashMap<>();
+        emptyTable.put("lo", null);
+        emptyTable.put("hi", null);
+        when(jdbcTemplate.queryForMap(anyString())).thenAnswer(invocation -> {
+            if (scanning.getCount() > 0) {
+                scanning.countDown();
+                release.await();
+            }
+            return emptyTable;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> rebuild = pool.submit(service::rebuild);
+            assertTrue(scanning.await(5, TimeUnit.SECONDS));
+
+            Future<EmployeeSearchResponse> search = pool.submit(() -> service.search("张", null, null, 1, 10));
+            Thread.sleep(200);
+            assertFalse(search.isDone(), "搜索应等待正在进行的重建");
+
+            release.countDown();
+            assertEquals(0, rebuild.get(5, TimeUnit.SECONDS));
+            assertEquals(0, search.get(5, TimeUnit.SECONDS).total());
+            verify(jdbcTemplate, times(1)).queryForMap(anyString());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.config.ExportMqConfig;
+import com.example.empmgmt.domain.ExportOutbox;
+import com.example.empmgmt.mq.dto.ExportTaskMessage;
+import com.example.empmgmt.repository.ExportOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 发件箱中继：确认成功的标记 SENT，nack / 退回 / 超时的退避后重试
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class ExportOutboxRelayTest {
+
+    @Autowired
+    private ExportOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private ExportOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new ExportOutboxRelay(outboxRepository, rabbitTemplate, new ObjectMapper(),
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "confirmTimeoutMs", 100L);
+        ReflectionTestUtils.setField(relay, "retryInitialMs", 60_000L);
+        ReflectionTestUtils.setField(relay, "retryMaxMs", 600_000L);
+    }
+
+    @Test
+    @DisplayName("分批投递，broker 确认的标记 SENT，nack、退回、超时的退避后重试")
+    void marksConfirmedAndBacksOffFailures() throws Exception {
+        for (long taskId = 1; taskId <= 5; taskId++) {
+            relay.enqueue(message(taskId));
+        }
+        doAnswer(invocation -> {
+            ExportTaskMessage message = invocation.getArgument(2);
+            CorrelationData correlation = invocation.getArgument(3);
+            switch (message.getTaskId().intValue()) {
+                case 2 -> correlation.getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+                case 3 -> {
+                    correlation.setReturned(new ReturnedMessage(new Message(new byte[0], new MessageProperties()),
+                            312, "NO_ROUTE", ExportMqConfig.EXPORT_EXCHANGE, ExportMqConfig.EXPORT_ROUTING_KEY));
+                    correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+                }
+                case 4 -> { /* 一直没有确认 */ }
+                default -> correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+            }
+            return null;
+        }).when(rabbitTemplate).convertAndSend(eq(ExportMqConfig.EXPORT_EXCHANGE),
+                eq(ExportMqConfig.EXPORT_ROUTING_KEY), any(Object.class), any(CorrelationData.class));
+
+        // 第一批 1 成功 2 失败，第二批 3、4 都失败后停止，等下次轮询
+        assertEquals(1, relay.drain());
+        verify(rabbitTemplate, times(4)).convertAndSend(anyString(), anyString(), any(Object.class),
+                any(CorrelationData.class));
+        // 下次轮询：2、3、4 还没到重试时间，只发 5
+        assertEquals(1, relay.drain());
+
+        List<ExportOutbox> rows = outboxRepository.findAll().stream()
+                .sorted(Comparator.comparing(ExportOutbox::getTaskId)).toList();
+        assertEquals(List.of("SENT", "PENDING", "PENDING", "PENDING", "SENT"),
+                rows.stream().map(ExportOutbox::getStatus).toList());
+        assertNotNull(rows.get(0).getSentAt());
+        assertEquals("nack: queue full", rows.get(1).getLastError());
+        assertEquals("returned: NO_ROUTE", rows.get(2).getLastError());
+        assertEquals("confirm timeout", rows.get(3).getLastError());
+        for (ExportOutbox failed : rows.subList(1, 4)) {
+            assertEquals(1, failed.getAttempts());
+            assertTrue(failed.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(30)));
+        }
+    }
+
+    private static ExportTaskMessage message(long taskId) {
+        ExportTaskMessage message = new ExportTaskMessage();
+        message.setTaskId(taskId);
+        message.setTaskType("EMPLOYEE_EXPORT");
+        message.setParamsJson("{}");
+        return message;
+    }
+}
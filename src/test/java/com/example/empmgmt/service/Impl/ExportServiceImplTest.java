@@ -0,0 +1,80 @@
+package com.example.empmgmt.service.Impl;
+
+import com.alibaba.excel.EasyExcel;
+import com.example.empmgmt.domain.Employee;
+import com.example.empmgmt.dto.vo.EmployeeExportVO;
+import com.example.empmgmt.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 同步导出按 id 键集分页逐页写出：跨页不重复、不遗漏，筛选条件在每页都生效
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "export-sync.page-size=2"
+})
+@Import(ExportServiceImpl.class)
+class ExportServiceImplTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        save("张一", "研发部", false);
+        save("张二", "市场部", false);
+        save("张三", "研发部", true);
+        save("张四", "研发部", false);
+        save("张五", "研发部", false);
+    }
+
+    @Test
+    @DisplayName("多页导出的行与一次性查询一致，已删除的不导出")
+    void exportsAllPages() throws Exception {
+        assertEquals(List.of("张一", "张二", "张四", "张五"), exportedNames(null));
+    }
+
+    @Test
+    @DisplayName("按部门导出，最后一页刚好写满时也能正常结束")
+    void exportsByDepartment() throws Exception {
+        assertEquals(List.of("张一", "张四", "张五"), exportedNames("研发部"));
+    }
+
+    @Test
+    @DisplayName("没有数据时仍生成带表头的文件")
+    void exportsEmptySheet() throws Exception {
+        assertEquals(List.of(), exportedNames("不存在的部门"));
+    }
+
+    private List<String> exportedNames(String department) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        exportService.exportEmployeesToExcel(department, null, response);
+        List<EmployeeExportVO> rows = EasyExcel.read(new ByteArrayInputStream(response.getContentAsByteArray()))
+                .head(EmployeeExportVO.class).sheet().doReadSync();
+        return rows.stream().map(EmployeeExportVO::getName).toList();
+    }
+
+    private void save(String name, String department, boolean deleted) {
+        Employee employee = new Employee();
+        employee.setName(name);
+        employee.setDepartment(department);
+        employee.setDeleted(deleted);
+        employeeRepository.save(employee);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.empmgmt.service.Impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HybridRateLimiterTest {
+
+    @Mock
+    private RateLimitService rateLimitService;
+
+    private HybridRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new HybridRateLimiter(rateLimitService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(limiter, "localEnabled", true);
+        ReflectionTestUtils.setField(limiter, "leaseTtlMs", 60_000L);
+    }
+
+    @Test
+    @DisplayName("预领一批令牌后，后续请求在本地扣减，不再访问 Redis")
+    void leasedTokensAreConsumedLocally() {
+        when(rateLimitService.leaseTokens(anyString(), anyString(), anyInt(), anyDouble(), eq(5)))
+                .thenReturn(RateLimitService.Decision.allow(5));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("rate:test:ip:", "1.1.1.1", 20, 1.0, 1, 0).allowed());
+        }
+
+        // 20 / 4 = 5 个一批，5 次请求只领一次
+        verify(rateLimitService, times(1)).leaseTokens(anyString(), anyString(), anyInt(), anyDouble(), anyInt());
+        verify(rateLimitService, never()).tryAcquire(anyString(), anyString(), anyInt(), anyDouble(), anyInt());
+        assertEquals(5L, limiter.getStats().get("allowed"));
+    }
+
+    @Test
+    @DisplayName("Redis 拒绝后，租约期内直接本地拒绝")
+    void deniedLeaseIsCachedLocally() {
+        when(rateLimitService.leaseTokens(anyString(), anyString(), anyInt(), anyDouble(), anyInt()))
+                .thenReturn(RateLimitService.Decision.deny(3000));
+
+        assertFalse(limiter.tryAcquire("rate:test:ip:", "2.2.2.2", 20, 1.0, 1, 0).allowed());
+        assertFalse(limiter.tryAcquire("rate:test:ip:", "2.2.2.2", 20, 1.0, 1, 0).allowed());
+        RateLimitService.Decision last = limiter.tryAcquire("rate:test:ip:", "2.2.2.2", 20, 1.0, 1, 0);
+        assertFalse(last.allowed());
+        // 本地拒绝时也带上 Redis 给出的剩余等待时间
+        assertTrue(last.retryAfterMs() > 0 && last.retryAfterMs() <= 3000);
+
+        verify(rateLimitService, times(1)).leaseTokens(anyString(), anyString(), anyInt(), anyDouble(), anyInt());
+        assertEquals(3L, limiter.getStats().get("denied"));
+    }
+
+    @Test
+    @DisplayName("预领数量为 1 时直接走 Redis")
+    void singleTokenLeaseGoesStraightToRedis() {
+        when(rateLimitService.tryAcquire(anyString(), anyString(), anyInt(), anyDouble(), anyInt()))
+                .thenReturn(RateLimitService.Decision.allow(1));
+
+        assertTrue(limiter.tryAcquire("rate:test:user:", "7", 3, 0.05, 1, 0).allowed());
+
+        verify(rateLimitService).tryAcquire("rate:test:user:", "7", 3, 0.05, 1);
+        verify(rateLimitService, never()).leaseTokens(anyString(), anyString(), anyInt(), anyDouble(), anyInt());
+    }
+
+    @Test
+    @DisplayName("一次消耗多个令牌时按 permits 扣减本地桶")
+    void multiplePermitsAreDeductedTogether() {
+        when(rateLimitService.leaseTokens(anyString(), anyString(), anyInt(), anyDouble(), eq(10)))
+                .thenReturn(RateLimitService.Decision.allow(10));
+
+        // 领到 10 个，每次消耗 4 个：前两次放行，第三次本地只剩 2 个，需要再去领
+        assertTrue(limiter.tryAcquire("rate:test:ip:", "3.3.3.3", 40, 1.0, 4, 0).allowed());
+        assertTrue(limiter.tryAcquire("rate:test:ip:", "3.3.3.3", 40, 1.0, 4, 0).allowed());
+        assertTrue(limiter.tryAcquire("rate:test:ip:", "3.3.3.3", 40, 1.0, 4, 0).allowed());
+
+        verify(rateLimitService, times(2)).leaseTokens(anyString(), anyString(), anyInt(), anyDouble(), anyInt());
+    }
+
+    @Test
+    @DisplayName("再次预领时本地余额和新领的令牌累加，仍不够时按填充速率给出等待时间")
+    void refillKeepsLocalBalance() {
+        when(rateLimitService.leaseTokens(anyString(), anyString(), anyInt(), anyDouble(), eq(10)))
+                .thenReturn(RateLimitService.Decision.allow(10), RateLimitService.Decision.allow(3),
+                        RateLimitService.Decision.allow(1));
+
+        // 10 个用掉 8 个剩 2 个；再领到 3 个，凑成 5 个够一次
+        assertTrue(limiter.tryAcquire("rate:test:ip:", "4.4.4.4", 40, 2.0, 4, 0).allowed());
+        assertTrue(limiter.tryAcquire("rate:test:ip:", "4.4.4.4", 40, 2.0, 4, 0).allowed());
+        assertTrue(limiter.tryAcquire("rate:test:ip:", "4.4.4.4", 40, 2.0, 4, 0).allowed());
+        // 剩 1 个再领到 1 个，还差 2 个，每秒 2 个需要 1 秒
+        RateLimitService.Decision denied = limiter.tryAcquire("rate:test:ip:", "4.4.4.4", 40, 2.0, 4, 0);
+        assertFalse(denied.allowed());
+        assertEquals(1000, denied.retryAfterMs());
+
+        verify(rateLimitService, times(3)).leaseTokens(anyString(), anyString(), anyInt(), anyDouble(), anyInt());
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.Exception.BusinessException;
+import com.example.empmgmt.common.enums.OperationType;
+import com.example.empmgmt.domain.OperationLog;
+import com.example.empmgmt.dto.request.OperationLogPolicyRequest;
+import com.example.empmgmt.dto.response.OperationLogPolicyResponse;
+import com.example.empmgmt.repository.OperationLogRepository;
+import com.example.empmgmt.service.OperationLogPolicyService.Decision;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OperationLogPolicyServiceImplTest {
+
+    @Mock
+    private OperationLogRepository operationLogRepository;
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+    @Mock
+    private ApplicationContext applicationContext;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OperationLogPolicyServiceImpl policyService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("operation-log.policy.overrides[SampleController.sampled].sample-rate", "0");
+        policyService = new OperationLogPolicyServiceImpl(operationLogRepository, stringRedisTemplate,
+                listenerContainer, applicationContext, new ObjectMapper(), meterRegistry, environment);
+        ReflectionTestUtils.setField(policyService, "maxAggregateKeys", 100);
+    }
+
+    @Test
+    @DisplayName("写操作和失败的查询总是写库，没采到的查询按用户 + 参数聚合成计数")
+    void aggregatesUnsampledReads() throws Exception {
+        Method update = method("update");
+        Method read = method("read");
+
+        assertEquals(Decision.PERSIST, policyService.decide(update, log(OperationType.UPDATE, "[1]", 5)));
+        OperationLog failed = log(OperationType.QUERY, "[1]", 5);
+        failed.setStatus("FAILURE");
+        assertEquals(Decision.PERSIST, policyService.decide(read, failed));
+
+        assertEquals(Decision.AGGREGATED, policyService.decide(read, log(OperationType.QUERY, "[1]", 5)));
+        assertEquals(Decision.AGGREGATED, policyService.decide(read, log(OperationType.QUERY, "[1]", 30)));
+        assertEquals(Decision.AGGREGATED, policyService.decide(read, log(OperationType.QUERY, "[1]", 10)));
+        assertEquals(Decision.AGGREGATED, policyService.decide(read, log(OperationType.QUERY, "[2]", 7)));
+
+        assertEquals(2, policyService.flushAggregates());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OperationLog>> rows = ArgumentCaptor.forClass(List.class);
+        verify(operationLogRepository).saveAll(rows.capture());
+        OperationLog merged = rows.getValue().stream()
+                .filter(row -> "[1]".equals(row.getParams())).findFirst().orElseThrow();
+        assertEquals("查询（聚合 3 次）", merged.getDescription());
+        assertEquals(30L, merged.getExecutionTime());
+        assertTrue(merged.getResult().contains("\"totalTime\":45"));
+
+        // 已经写过的计数不会重复写
+        assertEquals(0, policyService.flushAggregates());
+        assertEquals(4.0, meterRegistry.get("operation.log.calls").tag("decision", "aggregated").counter().count());
+    }
+
+    @Test
+    @DisplayName("策略三层覆盖：注解 → yml → 运行时，运行时修改写入 Redis 并通知其他节点")
+    void runtimeOverrideWins() throws Exception {
+        Method sampled = method("sampled");
+        // 注解上是 1.0，yml 覆盖成 0 且没开聚合
+        assertEquals(Decision.DROPPED, policyService.decide(sampled, log(OperationType.QUERY, "[1]", 1)));
+
+        OperationLogPolicyRequest request = new OperationLogPolicyRequest();
+        request.setAggregate(true);
+        OperationLogPolicyResponse response = policyService.updatePolicy("SampleController.sampled", request);
+        assertEquals("runtime", response.source());
+        assertEquals(0.0, response.sampleRate());
+        assertTrue(response.aggregate());
+        verify(stringRedisTemplate.opsForHash()).put(OperationLogPolicyServiceImpl.OVERRIDES_KEY,
+                "SampleController.sampled", "|true");
+        verify(stringRedisTemplate).convertAndSend(OperationLogPolicyServiceImpl.CHANNEL, "SampleController.sampled");
+        assertEquals(Decision.AGGREGATED, policyService.decide(sampled, log(OperationType.QUERY, "[1]", 1)));
+
+        assertEquals("config", policyService.resetPolicy("SampleController.sampled").source());
+        assertEquals(Decision.DROPPED, policyService.decide(sampled, log(OperationType.QUERY, "[1]", 1)));
+
+        policyService.decide(method("update"), log(OperationType.UPDATE, "[1]", 1));
+        request.setSampleRate(1.5);
+        assertThrows(BusinessException.class, () -> policyService.updatePolicy("SampleController.sampled", request));
+        assertThrows(BusinessException.class, () -> policyService.updatePolicy("SampleController.update", request));
+        assertThrows(BusinessException.class, () -> policyService.updatePolicy("Nope.nope", request));
+    }
+
+    @Test
+    @DisplayName("收到其他节点的通知后从 Redis 重新加载覆盖")
+    void reloadsOverridesOnMessage() throws Exception {
+        Method read = method("read");
+        policyService.decide(read, log(OperationType.QUERY, "[1]", 1));
+        when(stringRedisTemplate.opsForHash().entries(OperationLogPolicyServiceImpl.OVERRIDES_KEY))
+                .thenReturn(Map.of("SampleController.read", "1.0|"));
+
+        policyService.onMessage(null, null);
+
+        assertEquals(Decision.PERSIST, policyService.decide(read, log(OperationType.QUERY, "[1]", 1)));
+        OperationLogPolicyResponse response = policyService.listPolicies().stream()
+                .filter(p -> p.key().equals("SampleController.read")).findFirst().orElseThrow();
+        assertEquals("runtime", response.source());
+        assertEquals(1.0, response.sampleRate());
+        assertTrue(response.aggregate());
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        return SampleController.class.getDeclaredMethod(name);
+    }
+
+    private static OperationLog log(OperationType type, String params, long executionTime) {
+        OperationLog log = new OperationLog();
+        log.setUserId(1L);
+        log.setUsername("alice");
+        log.setOperationType(type.name());
+        log.setModule("测试");
+        log.setDescription("查询");
+        log.setParams(params);
+        log.setStatus("SUCCESS");
+        log.setExecutionTime(executionTime);
+        log.setCreatedAt(LocalDateTime.now());
+        return log;
+    }
+
+    static class SampleController {
+
+        @com.example.empmgmt.common.annotation.OperationLog(module = "测试", type = OperationType.QUERY,
+                description = "查询", sampleRate = 0, aggregate = true)
+        void read() {
+        }
+
+        @com.example.empmgmt.common.annotation.OperationLog(module = "测试", type = OperationType.QUERY,
+                description = "采样查询")
+        void sampled() {
+        }
+
+        @com.example.empmgmt.common.annotation.OperationLog(module = "测试", type = OperationType.UPDATE,
+                description = "修改", sampleRate = 0)
+        void update() {
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.Exception.BusinessException;
+import com.example.empmgmt.domain.OperationLog;
+import com.example.empmgmt.dto.request.OperationLogQueryRequest;
+import com.example.empmgmt.dto.response.CursorPageResponse;
+import com.example.empmgmt.dto.response.PageResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 操作日志组合条件 + 游标分页
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import(OperationLogQueryServiceImpl.class)
+class OperationLogQueryServiceImplTest {
+
+    @Autowired
+    private OperationLogQueryServiceImpl queryService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        // 每 3 条共用同一个时间戳，翻页时必须靠 id 区分先后
+        LocalDateTime base = LocalDate.now().atTime(9, 0);
+        for (int i = 0; i < 30; i++) {
+            OperationLog log = new OperationLog();
+            log.setUserId(i % 2 == 0 ? 1L : 2L);
+            log.setUsername(i % 2 == 0 ? "alice" : "bob");
+            log.setOperationType(i % 3 == 0 ? "DELETE" : "QUERY");
+            log.setModule("员工管理");
+            log.setStatus(i % 5 == 0 ? "FAILURE" : "SUCCESS");
+            log.setExecutionTime((long) i * 10);
+            log.setCreatedAt(base.plusMinutes(i / 3));
+            entityManager.persist(log);
+        }
+        // 超出默认查询范围的旧日志
+        OperationLog old = new OperationLog();
+        old.setUserId(1L);
+        old.setUsername("alice");
+        old.setOperationType("QUERY");
+        old.setModule("员工管理");
+        old.setCreatedAt(LocalDateTime.now().minusDays(90));
+        entityManager.persist(old);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("游标翻页：按 (createdAt, id) 倒序，不重不漏，最后一页没有游标")
+    void scrollVisitsEveryRowOnce() {
+        OperationLogQueryRequest request = new OperationLogQueryRequest();
+        request.setSize(7);
+
+        List<OperationLog> visited = new ArrayList<>();
+        int pages = 0;
+        do {
+            CursorPageResponse<OperationLog> page = queryService.scroll(request);
+            assertNull(page.total());
+            visited.addAll(page.records());
+            request.setCursor(page.nextCursor());
+            pages++;
+        } while (request.getCursor() != null);
+
+        assertEquals(5, pages);
+        assertEquals(30, visited.size());
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < visited.size(); i++) {
+            assertTrue(ids.add(visited.get(i).getId()));
+            if (i > 0) {
+                OperationLog prev = visited.get(i - 1);
+                OperationLog cur = visited.get(i);
+                int byTime = prev.getCreatedAt().compareTo(cur.getCreatedAt());
+                assertTrue(byTime > 0 || (byTime == 0 && prev.getId() > cur.getId()));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("条件组合生效，withTotal 时返回总数")
+    void filtersCombine() {
+        OperationLogQueryRequest request = new OperationLogQueryRequest();
+        request.setUserId(1L);
+        request.setOperationType("QUERY");
+        request.setMinExecutionTime(100L);
+        request.setWithTotal(true);
+
+        CursorPageResponse<OperationLog> page = queryService.scroll(request);
+        // 偶数、不是 3 的倍数、i >= 10：10, 14, 16, 20, 22, 26, 28
+        assertEquals(7L, page.total());
+        assertEquals(7, page.records().size());
+        assertFalse(page.hasMore());
+        assertTrue(page.records().stream().allMatch(l -> l.getUserId() == 1L
+                && "QUERY".equals(l.getOperationType()) && l.getExecutionTime() >= 100));
+
+        OperationLogQueryRequest failures = new OperationLogQueryRequest();
+        failures.setStatus("FAILURE");
+        PageResponse<OperationLog> failurePage = queryService.page(failures, 1);
+        assertEquals(6, failurePage.total());
+    }
+
+    @Test
+    @DisplayName("日期范围：默认只查最近 30 天，指定开始日期后能查到旧日志")
+    void dateRange() {
+        OperationLogQueryRequest request = new OperationLogQueryRequest();
+        assertEquals(30, queryService.page(request, 1).total());
+
+        request.setStartDate(LocalDate.now().minusDays(100));
+        assertEquals(31, queryService.page(request, 1).total());
+
+        request.setStartDate(LocalDate.now().plusDays(1));
+        request.setEndDate(LocalDate.now());
+        assertThrows(BusinessException.class, () -> queryService.page(request, 1));
+    }
+
+    @Test
+    @DisplayName("被篡改的游标直接拒绝")
+    void rejectsBadCursor() {
+        OperationLogQueryRequest request = new OperationLogQueryRequest();
+        request.setCursor("not-a-cursor");
+        assertThrows(BusinessException.class, () -> queryService.scroll(request));
+    }
+}
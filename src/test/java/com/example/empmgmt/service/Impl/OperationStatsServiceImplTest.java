@@ -0,0 +1,173 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.Exception.BusinessException;
+import com.example.empmgmt.common.enums.OperationType;
+import com.example.empmgmt.domain.OperationLog;
+import com.example.empmgmt.dto.request.OperationStatsQueryRequest;
+import com.example.empmgmt.dto.response.OperationStatsResponse;
+import com.example.empmgmt.repository.OperationStatsMinuteRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 操作耗时分钟汇总：写入、按范围合并分位数、时间序列
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import(OperationStatsServiceImpl.class)
+class OperationStatsServiceImplTest {
+
+    @Autowired
+    private OperationStatsServiceImpl statsService;
+
+    @Autowired
+    private OperationStatsMinuteRepository statsRepository;
+
+    @Test
+    @DisplayName("两分钟的直方图按范围合并出分位数，时间序列每个点一分钟")
+    void mergesMinuteBuckets() throws Exception {
+        Method read = SampleController.class.getDeclaredMethod("read");
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(10);
+
+        // 第一分钟 1..100ms，第二分钟 101..200ms，另有 3 次失败
+        ReflectionTestUtils.setField(statsService, "intervalStart", minute.plusSeconds(5));
+        for (int i = 1; i <= 100; i++) {
+            statsService.record(read, log("SUCCESS", i));
+        }
+        assertEquals(1, statsService.flush());
+        ReflectionTestUtils.setField(statsService, "intervalStart", minute.plusMinutes(1));
+        for (int i = 101; i <= 200; i++) {
+            statsService.record(read, log("SUCCESS", i));
+        }
+        for (int i = 0; i < 3; i++) {
+            statsService.record(read, log("FAILURE", 5));
+        }
+        assertEquals(2, statsService.flush());
+        // 没有新调用时不写空行
+        assertEquals(0, statsService.flush());
+        assertEquals(3, statsRepository.count());
+
+        OperationStatsQueryRequest request = new OperationStatsQueryRequest();
+        request.setStart(minute);
+        request.setEnd(minute.plusMinutes(2));
+        request.setIntervalMinutes(1);
+        List<OperationStatsResponse> stats = statsService.query(request);
+        assertEquals(2, stats.size());
+
+        OperationStatsResponse success = stats.stream()
+                .filter(s -> "SUCCESS".equals(s.status())).findFirst().orElseThrow();
+        assertEquals("SampleController.read", success.method());
+        assertEquals(200, success.count());
+        assertEquals(100.0, success.perMinute());
+        assertEquals(100, success.p50(), 1);
+        assertEquals(190, success.p95(), 2);
+        assertEquals(198, success.p99(), 2);
+        assertEquals(200, success.max(), 1);
+
+        assertEquals(2, success.series().size());
+        assertEquals(minute, success.series().get(0).start());
+        assertEquals(100, success.series().get(0).count());
+        assertEquals(100, success.series().get(0).max(), 1);
+        assertEquals(minute.plusMinutes(1), success.series().get(1).start());
+        assertEquals(150, success.series().get(1).p50(), 2);
+
+        // 只看失败，不要时间序列
+        request.setStatus("FAILURE");
+        request.setIntervalMinutes(null);
+        List<OperationStatsResponse> failures = statsService.query(request);
+        assertEquals(1, failures.size());
+        assertEquals(3, failures.get(0).count());
+        assertTrue(failures.get(0).series().isEmpty());
+
+        // 范围外没有数据
+        request.setStart(minute.plusMinutes(2));
+        request.setEnd(minute.plusMinutes(5));
+        assertTrue(statsService.query(request).isEmpty());
+    }
+
+    @Test
+    @DisplayName("时间范围和序列点数有上限")
+    void rejectsOversizedQueries() {
+        OperationStatsQueryRequest request = new OperationStatsQueryRequest();
+        request.setStart(LocalDateTime.now().minusDays(40));
+        assertThrows(BusinessException.class, () -> statsService.query(request));
+
+        request.setStart(LocalDateTime.now().minusDays(2));
+        request.setIntervalMinutes(1);
+        assertThrows(BusinessException.class, () -> statsService.query(request));
+        request.setIntervalMinutes(5);
+        assertTrue(statsService.query(request).isEmpty());
+    }
+
+    @Test
+    @DisplayName("写库在锁外：一次 flush 卡在数据库时，下一次 flush 照常取数")
+    void savesOutsideLock() throws Exception {
+        Method read = SampleController.class.getDeclaredMethod("read");
+        OperationStatsMinuteRepository slowRepository = mock(OperationStatsMinuteRepository.class);
+        OperationStatsServiceImpl service = new OperationStatsServiceImpl(slowRepository);
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(slowRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            if (saving.getCount() > 0) {
+                saving.countDown();
+                release.await();
+            }
+            return invocation.getArgument(0);
+        });
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            service.record(read, log("SUCCESS", 10));
+            Future<Integer> first = pool.submit(service::flush);
+            assertTrue(saving.await(5, TimeUnit.SECONDS));
+
+            service.record(read, log("SUCCESS", 20));
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertEquals(1, service.flush()));
+
+            release.countDown();
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static OperationLog log(String status, long executionTime) {
+        OperationLog log = new OperationLog();
+        log.setModule("测试");
+        log.setOperationType(OperationType.QUERY.name());
+        log.setStatus(status);
+        log.setExecutionTime(executionTime);
+        return log;
+    }
+
+    static class SampleController {
+
+        @com.example.empmgmt.common.annotation.OperationLog(module = "测试", type = OperationType.QUERY)
+        void read() {
+        }
+    }
+}
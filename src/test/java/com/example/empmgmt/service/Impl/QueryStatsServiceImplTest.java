@@ -0,0 +1,111 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.aspect.RepositoryTraceAspect;
+import com.example.empmgmt.common.trace.RequestTrace;
+import com.example.empmgmt.config.RequestTraceConfig;
+import com.example.empmgmt.domain.Employee;
+import com.example.empmgmt.dto.response.NPlusOneSuspectResponse;
+import com.example.empmgmt.dto.response.QueryBudgetViolationResponse;
+import com.example.empmgmt.dto.response.SlowQueryResponse;
+import com.example.empmgmt.repository.EmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JDBC 代理 + 仓库切面 + 统计服务串起来：逐条按 id 查询会被识别为 N+1 并超出接口的 SQL 预算
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "query-inspector.n-plus-one-threshold=5",
+        "query-inspector.budgets.[GET\\ /api/employ/batch]=3"   // properties 格式里空格是分隔符，要转义
+})
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({QueryStatsServiceImpl.class, RequestTraceConfig.class, RepositoryTraceAspect.class, SimpleMeterRegistry.class})
+class QueryStatsServiceImplTest {
+
+    private static final String ENDPOINT = "GET /api/employ/batch";
+
+    @Autowired
+    private QueryStatsServiceImpl queryStatsService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 6; i++) {
+            Employee employee = new Employee();
+            employee.setName("员工" + i);
+            employee.setDepartment("研发部");
+            ids.add(entityManager.persistAndGetId(employee, Long.class));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        queryStatsService.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestTrace.end();
+    }
+
+    @Test
+    @DisplayName("逐条查询：同一形状重复 6 次，记为 N+1 并超出预算")
+    void perRowLookupsAreFlagged() {
+        RequestTrace trace = RequestTrace.begin();
+        for (Long id : ids) {
+            employeeRepository.findByIdAndDeletedFalse(id);
+        }
+        queryStatsService.onRequestComplete(ENDPOINT, trace);
+
+        assertEquals(6, trace.statementCount());
+
+        List<NPlusOneSuspectResponse> suspects = queryStatsService.nPlusOneSuspects();
+        assertEquals(1, suspects.size());
+        assertEquals(ENDPOINT, suspects.get(0).endpoint());
+        assertEquals(6, suspects.get(0).maxRepeats());
+        assertEquals("EmployeeRepository.findByIdAndDeletedFalse", suspects.get(0).repository());
+
+        List<QueryBudgetViolationResponse> violations = queryStatsService.budgetViolations();
+        assertEquals(1, violations.size());
+        assertEquals(3, violations.get(0).budget());
+        assertEquals(6, violations.get(0).statements());
+
+        SlowQueryResponse top = queryStatsService.topSlowQueries(10, "count").get(0);
+        assertEquals(6, top.count());
+        assertTrue(top.p50Ms() <= top.p99Ms() && top.p99Ms() > 0);
+    }
+
+    @Test
+    @DisplayName("批量 IN 查询：一条 SQL，既不是 N+1 也不超预算")
+    void batchLookupStaysWithinBudget() {
+        RequestTrace trace = RequestTrace.begin();
+        assertEquals(6, employeeRepository.findByIdInAndDeletedFalse(ids).size());
+        queryStatsService.onRequestComplete(ENDPOINT, trace);
+
+        assertEquals(1, trace.statementCount());
+        assertTrue(queryStatsService.nPlusOneSuspects().isEmpty());
+        assertTrue(queryStatsService.budgetViolations().isEmpty());
+    }
+}
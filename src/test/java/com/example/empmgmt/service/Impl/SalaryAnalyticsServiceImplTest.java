@@ -0,0 +1,112 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.enums.SalaryDimension;
+import com.example.empmgmt.dto.response.EmployeeResponse;
+import com.example.empmgmt.dto.response.SalaryPercentileResponse;
+import com.example.empmgmt.event.EmployeeChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalaryAnalyticsServiceImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SalaryAnalyticsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SalaryAnalyticsServiceImpl(jdbcTemplate);
+        ReflectionTestUtils.setField(service, "parallelism", 2);
+        ReflectionTestUtils.setField(service, "chunkSize", 1L);
+    }
+
+    @Test
+    @DisplayName("按切片扫描合并，结果与逐行累加一致")
+    void mergesChunks() {
+        table(List.<Object[]>of(row("研发部", "10000"), row("研发部", "20000"), row("市场部", "15000")), null);
+
+        service.rebuild();
+
+        assertEquals(2L, count("研发部"));
+        assertEquals(1L, count("市场部"));
+        assertEquals(3L, service.getSummary(SalaryDimension.ALL).get(0).count());
+    }
+
+    @Test
+    @DisplayName("重建期间提交的变更不会被扫描结果覆盖，其他 key 按数据库修正")
+    void rebuildKeepsChangesDuringScan() {
+        table(List.<Object[]>of(row("研发部", "10000")), null);
+        service.rebuild();
+
+        // 数据库快照：研发部其他节点新增了 1 人；市场部的新员工在扫描之后才提交
+        AtomicInteger scans = new AtomicInteger();
+        table(List.<Object[]>of(row("研发部", "10000"), row("研发部", "30000")), () -> {
+            if (scans.getAndIncrement() == 0) {
+                service.onEmployeeChanged(EmployeeChangedEvent.created(employee("市场部", "20000")));
+            }
+        });
+        service.rebuild();
+
+        assertEquals(2L, count("研发部"));
+        assertEquals(1L, count("市场部"));
+    }
+
+    /**
+     * 每个 id 对应一行，切片大小为 1 时每次扫描返回一行；onScan 在每次扫描时回调
+     */
+    private void table(List<Object[]> rows, Runnable onScan) {
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(Map.of("lo", 1L, "hi", (long) rows.size()));
+        doAnswer(invocation -> {
+            if (onScan != null) {
+                onScan.run();
+            }
+            long id = invocation.getArgument(2);
+            Object[] row = rows.get((int) id - 1);
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString("department")).thenReturn((String) row[0]);
+            when(rs.getString("position")).thenReturn("工程师");
+            when(rs.getBigDecimal("salary")).thenReturn((BigDecimal) row[1]);
+            when(rs.getDate("hire_date")).thenReturn(Date.valueOf(LocalDate.of(2020, 1, 1)));
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any());
+    }
+
+    private long count(String department) {
+        return service.getSummary(SalaryDimension.DEPARTMENT).stream()
+                .filter(s -> s.key().equals(department))
+                .map(SalaryPercentileResponse::count)
+                .findFirst().orElse(0L);
+    }
+
+    private static Object[] row(String department, String salary) {
+        return new Object[]{department, new BigDecimal(salary)};
+    }
+
+    private static EmployeeResponse employee(String department, String salary) {
+        return new EmployeeResponse(9L, "张三", "男", 30, department, "工程师",
+                LocalDate.of(2020, 1, 1), new BigDecimal(salary), null, null, null, null);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.empmgmt.service.Impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalarySketchTest {
+
+    @Test
+    @DisplayName("分位数相对误差不超过 1%")
+    void quantilesWithinRelativeError() {
+        SalarySketch sketch = new SalarySketch();
+        // 5000, 5010, ..., 14990 共 1000 人
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(BigDecimal.valueOf(5000 + i * 10L));
+        }
+
+        SalarySketch.Snapshot snapshot = sketch.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(9990, snapshot.quantile(0.5), 9990 * 0.01);
+        assertEquals(13990, snapshot.quantile(0.9), 13990 * 0.01);
+    }
+
+    @Test
+    @DisplayName("删除后分布随之变化，且计数不会减成负数")
+    void removeUndoesAdd() {
+        SalarySketch sketch = new SalarySketch();
+        sketch.add(new BigDecimal("8000"));
+        sketch.add(new BigDecimal("30000"));
+        sketch.remove(new BigDecimal("30000"));
+        sketch.remove(new BigDecimal("50000"));
+
+        SalarySketch.Snapshot snapshot = sketch.snapshot();
+        assertEquals(1, snapshot.count());
+        assertEquals(8000, snapshot.max(), 8000 * 0.01);
+    }
+}
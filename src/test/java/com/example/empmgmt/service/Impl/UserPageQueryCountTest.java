@@ -0,0 +1,96 @@
+package com.example.empmgmt.service.Impl;
+
+import com.example.empmgmt.common.util.JwtUtil;
+import com.example.empmgmt.domain.Employee;
+import com.example.empmgmt.domain.User;
+import com.example.empmgmt.dto.response.PageResponse;
+import com.example.empmgmt.dto.response.UserWithEmployeeDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户 + 员工分页查询的 SQL 条数不随页大小增长
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({UserServiceImpl.class, SimpleMeterRegistry.class})
+class UserPageQueryCountTest {
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+    @MockBean
+    private StringRedisTemplate stringRedisTemplate;
+    @MockBean
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 40; i++) {
+            Employee employee = new Employee();
+            employee.setName("员工" + i);
+            employee.setDepartment("研发部");
+            entityManager.persist(employee);
+
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setPassword("x");
+            user.setEmployee(employee);
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("分页 + 员工信息：查询条数固定，不随页大小变化")
+    void queryCountIsIndependentOfPageSize() {
+        long small = countStatements(5);
+        long large = countStatements(30);
+
+        assertEquals(small, large);
+        // 分页查询 + count + JOIN FETCH
+        assertTrue(large <= 3, "实际执行了 " + large + " 条 SQL");
+    }
+
+    private long countStatements(int size) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PageResponse<UserWithEmployeeDTO> page = userService.pageQueryWithEmployee(null, null, null, 1, size);
+
+        assertEquals(size, page.records().size());
+        assertTrue(page.records().stream().allMatch(dto -> dto.getEmployeeName() != null));
+        return statistics.getPrepareStatementCount();
+    }
+}